@@ -1,25 +1,165 @@
 package com.civicconnect.api.config;
 
+import com.civicconnect.api.config.cache.CacheL2Store;
+import com.civicconnect.api.config.cache.CacheValueCodec;
+import com.civicconnect.api.config.cache.InMemoryCacheL2Store;
+import com.civicconnect.api.config.cache.RedisCacheL2Store;
+import com.civicconnect.api.config.cache.TwoTierCacheManager;
+import com.civicconnect.api.service.ActivityFunnelService;
+import com.civicconnect.api.service.DistinctUserService;
+import com.civicconnect.api.service.GovMapCacheService;
+import com.civicconnect.api.service.RepresentativeRatingAggregateService;
+import com.civicconnect.api.service.RepresentativeReviewService;
+import com.civicconnect.api.service.RepresentativeScorecardService;
+import com.civicconnect.api.service.SessionTokenCache;
+import com.civicconnect.api.service.UserActivityBitmapService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    // none: Caffeine only; redis: Caffeine L1 + Redis L2 with cross-node invalidation;
+    // in-memory: in-process stand-in for Redis (single node, local runs without Redis)
+    @Value("${cache.l2.type:none}")
+    private String l2Type;
+
+    // name:codec[:ttlSeconds] entries; caches not listed stay L1-only
+    @Value("${cache.l2.caches:}")
+    private String l2Caches;
+
+    @Value("${cache.l2.default-ttl-seconds:600}")
+    private long l2DefaultTtlSeconds;
+
+    @Value("${cache.l2.lock-timeout-ms:5000}")
+    private long l2LockTimeoutMs;
+
+    @Value("${cache.l2.lock-wait-ms:300}")
+    private long l2LockWaitMs;
+
     @Bean
-    public CacheManager cacheManager() {
+    public CacheManager cacheManager(ObjectMapper objectMapper,
+                                     ObjectProvider<RedisConnectionFactory> redisConnectionFactory) {
+        CaffeineCacheManager caffeineCacheManager = caffeineCacheManager();
+        CacheL2Store l2 = switch (l2Type.trim().toLowerCase()) {
+            case "none" -> null;
+            case "redis" -> new RedisCacheL2Store(redisConnectionFactory.getObject(), objectMapper);
+            case "in-memory" -> new InMemoryCacheL2Store();
+            default -> throw new IllegalArgumentException("Unknown cache.l2.type: " + l2Type);
+        };
+        if (l2 == null) {
+            return caffeineCacheManager;
+        }
+        return new TwoTierCacheManager(caffeineCacheManager, l2, parseL2Caches(objectMapper),
+                Duration.ofMillis(l2LockTimeoutMs), Duration.ofMillis(l2LockWaitMs));
+    }
+
+    private Map<String, TwoTierCacheManager.L2Settings> parseL2Caches(ObjectMapper objectMapper) {
+        Map<String, TwoTierCacheManager.L2Settings> settings = new HashMap<>();
+        for (String entry : l2Caches.split(",")) {
+            if (entry.isBlank()) continue;
+            String[] parts = entry.trim().split(":");
+            if (parts.length < 2) {
+                throw new IllegalArgumentException("cache.l2.caches entry must be name:codec[:ttlSeconds]: " + entry);
+            }
+            long ttlSeconds = parts.length > 2 ? Long.parseLong(parts[2].trim()) : l2DefaultTtlSeconds;
+            settings.put(parts[0].trim(), new TwoTierCacheManager.L2Settings(
+                    CacheValueCodec.of(parts[1], objectMapper), Duration.ofSeconds(ttlSeconds)));
+        }
+        return settings;
+    }
+
+    private CaffeineCacheManager caffeineCacheManager() {
         CaffeineCacheManager cacheManager = new CaffeineCacheManager();
         cacheManager.setCaffeine(Caffeine.newBuilder()
                 .maximumSize(100)
                 .expireAfterWrite(10, TimeUnit.MINUTES)
                 .recordStats());
+
+        // Per-representative rating aggregates: one small entry per representative on the gov map
+        cacheManager.registerCustomCache(RepresentativeRatingAggregateService.CACHE_NAME, Caffeine.newBuilder()
+                .maximumSize(50_000)
+                .expireAfterWrite(1, TimeUnit.HOURS)
+                .recordStats()
+                .build());
+
+        // Gov map hierarchies without user data: one entry per jurisdiction (location cell / AC / PC)
+        cacheManager.registerCustomCache(GovMapCacheService.HIERARCHY_CACHE, Caffeine.newBuilder()
+                .maximumSize(20_000)
+                .expireAfterWrite(30, TimeUnit.MINUTES)
+                .recordStats()
+                .build());
+
+        // Per-user gov map overlay: citizen info and the user's own ratings
+        cacheManager.registerCustomCache(GovMapCacheService.USER_OVERLAY_CACHE, Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterAccess(30, TimeUnit.MINUTES)
+                .recordStats()
+                .build());
+
+        // Ring of the latest reviews per representative, updated in place on new reviews;
+        // expiry after write bounds how long a ring that missed an update can be served
+        cacheManager.registerCustomCache(RepresentativeReviewService.CACHE_NAME, Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(1, TimeUnit.HOURS)
+                .recordStats()
+                .build());
+
+        // Materialized scorecards: one small entry per representative, evicted when patched
+        cacheManager.registerCustomCache(RepresentativeScorecardService.CACHE_NAME, Caffeine.newBuilder()
+                .maximumSize(50_000)
+                .expireAfterWrite(1, TimeUnit.HOURS)
+                .recordStats()
+                .build());
+
+        // Session token -> session/user ids and user summary; short TTL bounds staleness of the summary
+        cacheManager.registerCustomCache(SessionTokenCache.CACHE_NAME, Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(5, TimeUnit.MINUTES)
+                .recordStats()
+                .build());
+
+        // Lat/lng cell -> state, PC and AC for distinct-user sketches; boundaries rarely change
+        cacheManager.registerCustomCache(DistinctUserService.GEO_CELL_CACHE, Caffeine.newBuilder()
+                .maximumSize(200_000)
+                .expireAfterAccess(1, TimeUnit.DAYS)
+                .recordStats()
+                .build());
+
+        // Stored daily distinct-user sketches (at most 4 KB each); evicted when rewritten
+        cacheManager.registerCustomCache(DistinctUserService.SKETCH_CACHE, Caffeine.newBuilder()
+                .maximumSize(20_000)
+                .expireAfterWrite(10, TimeUnit.MINUTES)
+                .recordStats()
+                .build());
+
+        // Stored daily active-user bitmaps for retention / funnel queries; evicted when rewritten
+        cacheManager.registerCustomCache(UserActivityBitmapService.CACHE_NAME, Caffeine.newBuilder()
+                .maximumSize(2_000)
+                .expireAfterWrite(10, TimeUnit.MINUTES)
+                .recordStats()
+                .build());
+
+        // Ordered funnel results per definition and hour-aligned window
+        cacheManager.registerCustomCache(ActivityFunnelService.CACHE_NAME, Caffeine.newBuilder()
+                .maximumSize(1_000)
+                .expireAfterWrite(10, TimeUnit.MINUTES)
+                .recordStats()
+                .build());
         return cacheManager;
     }
 }
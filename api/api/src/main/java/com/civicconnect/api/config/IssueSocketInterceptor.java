@@ -0,0 +1,95 @@
+package com.civicconnect.api.config;
+
+import com.civicconnect.api.service.SessionTokenCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Confines sessions opened through /ws/issues to the issue topics (see IssueEventService).
+ *
+ * The handshake marks the session; on the inbound channel such sessions may only SUBSCRIBE to
+ * issue and constituency topics, and to /topic/users/{id}/issues only when the X-Session-Token
+ * sent with CONNECT belongs to that user. They cannot SEND, and never reach the admin topics
+ * shared on the same broker. Admin dashboard sessions are not affected.
+ */
+@Component
+@RequiredArgsConstructor
+public class IssueSocketInterceptor implements HandshakeInterceptor, ChannelInterceptor {
+
+    private static final String ISSUE_SESSION_ATTR = "issueSocket";
+    private static final String USER_ID_ATTR = "issueSocketUserId";
+    private static final String SESSION_TOKEN_HEADER = "X-Session-Token";
+
+    private static final Pattern PUBLIC_TOPIC = Pattern.compile(
+            "^/topic/(?:issues/\\d+|constituencies/(?:pc|ac)/[a-z0-9-]+/issues)$");
+    private static final Pattern USER_TOPIC = Pattern.compile("^/topic/users/(\\d+)/issues$");
+
+    private final SessionTokenCache sessionTokenCache;
+
+    // ==================== Handshake (/ws/issues only) ====================
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        attributes.put(ISSUE_SESSION_ATTR, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+
+    // ==================== Client inbound channel ====================
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        if (attributes == null || !Boolean.TRUE.equals(attributes.get(ISSUE_SESSION_ATTR))) {
+            return message;
+        }
+
+        StompCommand command = accessor.getCommand();
+        if (command == StompCommand.CONNECT) {
+            sessionTokenCache.resolve(accessor.getFirstNativeHeader(SESSION_TOKEN_HEADER))
+                    .filter(session -> session.active())
+                    .ifPresent(session -> attributes.put(USER_ID_ATTR, session.userId()));
+        } else if (command == StompCommand.SUBSCRIBE) {
+            checkSubscription(message, accessor.getDestination(), attributes.get(USER_ID_ATTR));
+        } else if (command == StompCommand.SEND) {
+            throw new MessageDeliveryException(message, "Issue sockets cannot send messages");
+        }
+        return message;
+    }
+
+    private void checkSubscription(Message<?> message, String destination, Object userId) {
+        if (destination != null && PUBLIC_TOPIC.matcher(destination).matches()) {
+            return;
+        }
+        Matcher userTopic = destination != null ? USER_TOPIC.matcher(destination) : null;
+        if (userTopic != null && userTopic.matches() && userId != null
+                && userTopic.group(1).equals(userId.toString())) {
+            return;
+        }
+        throw new MessageDeliveryException(message, "Subscription not allowed: " + destination);
+    }
+}
@@ -1,73 +1,69 @@
 package com.civicconnect.api.config;
 
+import com.civicconnect.api.service.AccessLogService;
+import com.civicconnect.api.service.LatencyStatsService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.extern.slf4j.Slf4j;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
-import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.HandlerMapping;
 
 /**
- * Interceptor that logs all incoming HTTP requests and responses.
- * Provides detailed logging for debugging, monitoring, and observability.
+ * Interceptor that times every HTTP request and writes the structured access log.
+ *
+ * Requests are timed with nanoTime and keyed by the matched route template, never the raw URI.
+ * Each request is counted per route in AccessLogService and LatencyStatsService; one key=value line
+ * goes to the ACCESS logger (an async appender, see logback-spring.xml) for every error, slow request
+ * and a sample of the rest.
  */
 @Component
-@Slf4j
+@RequiredArgsConstructor
 public class RequestLoggingInterceptor implements HandlerInterceptor {
 
+    // Dedicated logger for the access log - routed to its own async appender
+    private static final Logger accessLogger = LoggerFactory.getLogger("ACCESS");
+
     private static final String START_TIME_ATTR = "requestStartTime";
+    private static final String UNMATCHED_ROUTE = "{unmatched}";
+
+    private final LatencyStatsService latencyStatsService;
+    private final AccessLogService accessLogService;
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
-        long startTime = System.currentTimeMillis();
-        request.setAttribute(START_TIME_ATTR, startTime);
-
-        String queryString = request.getQueryString();
-        String fullPath = request.getRequestURI() + (queryString != null ? "?" + queryString : "");
-
-        log.info(">>> {} {} | Client: {} | User-Agent: {}",
-                request.getMethod(),
-                fullPath,
-                getClientIp(request),
-                truncate(request.getHeader("User-Agent"), 80));
-
+        request.setAttribute(START_TIME_ATTR, System.nanoTime());
         return true;
     }
 
-    @Override
-    public void postHandle(HttpServletRequest request, HttpServletResponse response,
-                          Object handler, ModelAndView modelAndView) {
-        // No-op - logging is done in afterCompletion
-    }
-
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
                                Object handler, Exception ex) {
         Long startTime = (Long) request.getAttribute(START_TIME_ATTR);
-        long duration = startTime != null ? System.currentTimeMillis() - startTime : 0;
+        long durationNanos = startTime != null ? System.nanoTime() - startTime : 0;
 
-        if (ex != null) {
-            log.error("<<< {} {} | Status: {} | Duration: {}ms | ERROR: {}",
-                    request.getMethod(),
-                    request.getRequestURI(),
-                    response.getStatus(),
-                    duration,
-                    ex.getMessage());
+        // Route pattern (e.g. /api/issues/{id}) keeps the number of series bounded
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern != null ? pattern.toString() : UNMATCHED_ROUTE;
+        String method = request.getMethod();
+        int status = ex != null && response.getStatus() < 400 ? 500 : response.getStatus();
+
+        latencyStatsService.recordServer(method, route, status, durationNanos);
+        if (!accessLogService.record(method, route, status, ex != null, durationNanos)) {
+            return;
+        }
+
+        if (ex != null || status >= 400) {
+            // Errors keep the concrete path for debugging
+            accessLogger.warn("method={} route=\"{}\" status={} duration_ms={} client={} path=\"{}\" error=\"{}\"",
+                    method, route, status, durationNanos / 1_000_000.0, getClientIp(request),
+                    request.getRequestURI(), ex != null ? ex.getMessage() : "");
         } else {
-            int status = response.getStatus();
-            if (status >= 400) {
-                log.warn("<<< {} {} | Status: {} | Duration: {}ms",
-                        request.getMethod(),
-                        request.getRequestURI(),
-                        status,
-                        duration);
-            } else {
-                log.info("<<< {} {} | Status: {} | Duration: {}ms",
-                        request.getMethod(),
-                        request.getRequestURI(),
-                        status,
-                        duration);
-            }
+            accessLogger.info("method={} route=\"{}\" status={} duration_ms={} client={} sample_rate={}",
+                    method, route, status, durationNanos / 1_000_000.0, getClientIp(request),
+                    accessLogService.getSampleRate());
         }
     }
 
@@ -77,16 +73,9 @@ public class RequestLoggingInterceptor implements HandlerInterceptor {
     private String getClientIp(HttpServletRequest request) {
         String xForwardedFor = request.getHeader("X-Forwarded-For");
         if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
+            int comma = xForwardedFor.indexOf(',');
+            return (comma >= 0 ? xForwardedFor.substring(0, comma) : xForwardedFor).trim();
         }
         return request.getRemoteAddr();
     }
-
-    /**
-     * Truncates a string to a maximum length.
-     */
-    private String truncate(String value, int maxLength) {
-        if (value == null) return "N/A";
-        return value.length() > maxLength ? value.substring(0, maxLength) + "..." : value;
-    }
 }
@@ -0,0 +1,20 @@
+package com.civicconnect.api.config;
+
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Scheduler for the @Scheduled jobs.
+ * The STOMP broker (WebSocketConfig) registers its own TaskScheduler, which keeps Spring Boot from
+ * creating one; this bean, picked by its name, applies spring.task.scheduling.* instead.
+ */
+@Configuration
+public class SchedulingConfig {
+
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+}
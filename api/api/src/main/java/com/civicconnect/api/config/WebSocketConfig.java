@@ -1,19 +1,44 @@
 package com.civicconnect.api.config;
 
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 /**
- * WebSocket configuration for real-time admin dashboard updates.
- * Uses STOMP over WebSocket with SockJS fallback.
+ * WebSocket configuration for real-time updates.
+ * Uses STOMP over WebSocket with SockJS fallback for the admin dashboard,
+ * and a plain WebSocket endpoint for mobile issue subscriptions.
+ *
+ * Sessions from /ws/issues are confined to the issue topics by IssueSocketInterceptor.
+ * Each session has a bounded outbound buffer: a subscriber that cannot keep up is disconnected
+ * instead of holding broker memory and outbound threads (clients reconnect and resubscribe).
  */
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final IssueSocketInterceptor issueSocketInterceptor;
+
+    // Browser origins allowed on /ws/issues; requests without an Origin header (native apps) are always accepted
+    @Value("${cors.allowed-origins:http://localhost:5173,http://localhost:3000}")
+    private String[] allowedOrigins;
+
+    @Value("${websocket.send-buffer-size-limit-bytes:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimit;
+
+    @Value("${websocket.outbound-threads:8}")
+    private int outboundThreads;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
         // Enable simple in-memory broker for broadcasting to subscribers
@@ -24,6 +49,25 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.setApplicationDestinationPrefixes("/app");
     }
 
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // A send that stays blocked past the time limit, or a backlog past the buffer limit, closes the session
+        registration.setSendBufferSizeLimit(sendBufferSizeLimit);
+        registration.setSendTimeLimit(sendTimeLimit);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(issueSocketInterceptor);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundThreads)
+                .maxPoolSize(outboundThreads);
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // WebSocket endpoint that admin dashboard connects to
@@ -36,5 +80,12 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                         "http://127.0.0.1:3000"
                 )
                 .withSockJS();
+
+        // Endpoint for mobile clients subscribing to issue status / vote updates
+        // (see IssueEventService for topic layout). Native apps send no browser Origin and are
+        // accepted regardless; browsers are limited to the configured origins.
+        registry.addEndpoint("/ws/issues")
+                .setAllowedOrigins(allowedOrigins)
+                .addInterceptors(issueSocketInterceptor);
     }
 }
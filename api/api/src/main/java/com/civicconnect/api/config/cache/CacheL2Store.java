@@ -0,0 +1,52 @@
+package com.civicconnect.api.config.cache;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Shared second-level cache store and invalidation channel used by TwoTierCache.
+ *
+ * Values are opaque bytes under (cache name, key). Invalidations are broadcast to every node,
+ * including the sender, which recognises and skips its own messages by origin.
+ */
+public interface CacheL2Store extends AutoCloseable {
+
+    /**
+     * An evicted key; a group of entries each node resolves against its own L1 (e.g. one user's
+     * session tokens); or a cleared cache when both key and group are null
+     */
+    record Invalidation(String origin, String cacheName, String key, String group) {
+    }
+
+    byte[] get(String cacheName, String key);
+
+    void put(String cacheName, String key, byte[] value, Duration ttl);
+
+    /**
+     * Store only when no value exists yet; returns whether the value was stored
+     */
+    boolean putIfAbsent(String cacheName, String key, byte[] value, Duration ttl);
+
+    void evict(String cacheName, String key);
+
+    void clear(String cacheName);
+
+    /**
+     * Short-lived lock so only one node loads a missing key; expires on its own if the holder dies.
+     * Returns the owner token to unlock with, or null when another node holds the lock.
+     */
+    String tryLock(String cacheName, String key, Duration ttl);
+
+    /**
+     * Release the lock if it is still held with this token
+     */
+    void unlock(String cacheName, String key, String token);
+
+    void publish(Invalidation invalidation);
+
+    void subscribe(Consumer<Invalidation> listener);
+
+    @Override
+    default void close() {
+    }
+}
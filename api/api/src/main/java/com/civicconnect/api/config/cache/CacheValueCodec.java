@@ -0,0 +1,104 @@
+package com.civicconnect.api.config.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * How the values of one cache are written to the L2 store (cache.l2.caches).
+ *
+ * json: the value's class name and its Jackson JSON - compact and readable, for records and DTOs.
+ * jdk: Java serialization, for Serializable values Jackson cannot round-trip.
+ * string: UTF-8 bytes of String values, e.g. GeoJSON documents.
+ */
+public interface CacheValueCodec {
+
+    byte[] encode(Object value);
+
+    Object decode(byte[] bytes);
+
+    static CacheValueCodec of(String type, ObjectMapper objectMapper) {
+        return switch (type.trim().toLowerCase()) {
+            case "json" -> new JsonCodec(objectMapper);
+            case "jdk" -> new JdkCodec();
+            case "string" -> new StringCodec();
+            default -> throw new IllegalArgumentException("Unknown cache value codec: " + type);
+        };
+    }
+
+    final class JsonCodec implements CacheValueCodec {
+
+        private static final byte SEPARATOR = '\n';
+
+        private final ObjectMapper objectMapper;
+
+        JsonCodec(ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public byte[] encode(Object value) {
+            try {
+                byte[] type = value.getClass().getName().getBytes(StandardCharsets.UTF_8);
+                byte[] json = objectMapper.writeValueAsBytes(value);
+                byte[] bytes = Arrays.copyOf(type, type.length + 1 + json.length);
+                bytes[type.length] = SEPARATOR;
+                System.arraycopy(json, 0, bytes, type.length + 1, json.length);
+                return bytes;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Object decode(byte[] bytes) {
+            int separator = 0;
+            while (separator < bytes.length && bytes[separator] != SEPARATOR) {
+                separator++;
+            }
+            try {
+                Class<?> type = Class.forName(new String(bytes, 0, separator, StandardCharsets.UTF_8),
+                        false, JsonCodec.class.getClassLoader());
+                return objectMapper.readValue(bytes, separator + 1, bytes.length - separator - 1, type);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("Cached value of unknown class", e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    final class JdkCodec implements CacheValueCodec {
+
+        private final SerializingConverter serializer = new SerializingConverter();
+        private final DeserializingConverter deserializer = new DeserializingConverter(JdkCodec.class.getClassLoader());
+
+        @Override
+        public byte[] encode(Object value) {
+            return serializer.convert(value);
+        }
+
+        @Override
+        public Object decode(byte[] bytes) {
+            return deserializer.convert(bytes);
+        }
+    }
+
+    final class StringCodec implements CacheValueCodec {
+
+        @Override
+        public byte[] encode(Object value) {
+            return ((String) value).getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public Object decode(byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.civicconnect.api.config.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process stand-in for Redis (cache.l2.type: in-memory).
+ *
+ * Behaves like the Redis store within one JVM: values expire after their TTL, locks expire, and
+ * invalidations are delivered to every subscriber synchronously. Several cache managers sharing
+ * one instance behave like several nodes sharing one Redis, which is how the cross-node
+ * invalidation can be exercised without a Redis server.
+ */
+public class InMemoryCacheL2Store implements CacheL2Store {
+
+    private record Entry(byte[] value, long expiresAtNanos) {
+
+        boolean expired() {
+            return System.nanoTime() - expiresAtNanos > 0;
+        }
+    }
+
+    private final Map<String, Map<String, Entry>> caches = new ConcurrentHashMap<>();
+    private final Map<String, Entry> locks = new ConcurrentHashMap<>();
+    private final List<Consumer<Invalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public byte[] get(String cacheName, String key) {
+        Map<String, Entry> cache = caches.get(cacheName);
+        Entry entry = cache != null ? cache.get(key) : null;
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expired()) {
+            cache.remove(key, entry);
+            return null;
+        }
+        return entry.value();
+    }
+
+    @Override
+    public void put(String cacheName, String key, byte[] value, Duration ttl) {
+        cache(cacheName).put(key, new Entry(value, expiry(ttl)));
+    }
+
+    @Override
+    public boolean putIfAbsent(String cacheName, String key, byte[] value, Duration ttl) {
+        Entry created = new Entry(value, expiry(ttl));
+        Entry result = cache(cacheName).merge(key, created, (current, next) -> current.expired() ? next : current);
+        return result == created;
+    }
+
+    @Override
+    public void evict(String cacheName, String key) {
+        cache(cacheName).remove(key);
+    }
+
+    @Override
+    public void clear(String cacheName) {
+        caches.remove(cacheName);
+    }
+
+    @Override
+    public String tryLock(String cacheName, String key, Duration ttl) {
+        String token = UUID.randomUUID().toString();
+        Entry created = new Entry(token.getBytes(StandardCharsets.UTF_8), expiry(ttl));
+        Entry holder = locks.merge(cacheName + "::" + key, created,
+                (current, next) -> current.expired() ? next : current);
+        return holder == created ? token : null;
+    }
+
+    @Override
+    public void unlock(String cacheName, String key, String token) {
+        locks.computeIfPresent(cacheName + "::" + key, (lock, holder) ->
+                token.equals(new String(holder.value(), StandardCharsets.UTF_8)) ? null : holder);
+    }
+
+    @Override
+    public void publish(Invalidation invalidation) {
+        listeners.forEach(listener -> listener.accept(invalidation));
+    }
+
+    @Override
+    public void subscribe(Consumer<Invalidation> listener) {
+        listeners.add(listener);
+    }
+
+    private Map<String, Entry> cache(String cacheName) {
+        return caches.computeIfAbsent(cacheName, name -> new ConcurrentHashMap<>());
+    }
+
+    private static long expiry(Duration ttl) {
+        return System.nanoTime() + ttl.toNanos();
+    }
+}
@@ -0,0 +1,147 @@
+package com.civicconnect.api.config.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Redis-backed L2 store (cache.l2.type: redis).
+ *
+ * Values live under "cache:{name}:{key}" with a TTL, load locks under "cache-lock:{name}:{key}"
+ * (SET NX PX, released by a compare-and-delete script so an expired lock taken over by another
+ * node is never deleted). Invalidations are JSON messages on one pub/sub channel.
+ */
+@Slf4j
+public class RedisCacheL2Store implements CacheL2Store {
+
+    private static final String CHANNEL = "cache-invalidation";
+    private static final int CLEAR_BATCH = 500;
+
+    private static final RedisScript<Long> UNLOCK = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final RedisTemplate<String, byte[]> redis;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+
+    public RedisCacheL2Store(RedisConnectionFactory connectionFactory, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.redis = new RedisTemplate<>();
+        redis.setConnectionFactory(connectionFactory);
+        redis.setKeySerializer(RedisSerializer.string());
+        redis.setValueSerializer(RedisSerializer.byteArray());
+        redis.afterPropertiesSet();
+
+        this.listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+    }
+
+    @Override
+    public byte[] get(String cacheName, String key) {
+        return redis.opsForValue().get(valueKey(cacheName, key));
+    }
+
+    @Override
+    public void put(String cacheName, String key, byte[] value, Duration ttl) {
+        redis.opsForValue().set(valueKey(cacheName, key), value, ttl);
+    }
+
+    @Override
+    public boolean putIfAbsent(String cacheName, String key, byte[] value, Duration ttl) {
+        return Boolean.TRUE.equals(redis.opsForValue().setIfAbsent(valueKey(cacheName, key), value, ttl));
+    }
+
+    @Override
+    public void evict(String cacheName, String key) {
+        redis.delete(valueKey(cacheName, key));
+    }
+
+    @Override
+    public void clear(String cacheName) {
+        ScanOptions options = ScanOptions.scanOptions().match(valueKey(cacheName, "*")).count(CLEAR_BATCH).build();
+        List<String> batch = new ArrayList<>(CLEAR_BATCH);
+        try (Cursor<String> keys = redis.scan(options)) {
+            while (keys.hasNext()) {
+                batch.add(keys.next());
+                if (batch.size() == CLEAR_BATCH) {
+                    redis.delete(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            redis.delete(batch);
+        }
+    }
+
+    @Override
+    public String tryLock(String cacheName, String key, Duration ttl) {
+        String token = UUID.randomUUID().toString();
+        Boolean acquired = redis.opsForValue().setIfAbsent(lockKey(cacheName, key),
+                token.getBytes(StandardCharsets.UTF_8), ttl);
+        return Boolean.TRUE.equals(acquired) ? token : null;
+    }
+
+    @Override
+    public void unlock(String cacheName, String key, String token) {
+        redis.execute(UNLOCK, List.of(lockKey(cacheName, key)), (Object) token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void publish(Invalidation invalidation) {
+        try {
+            redis.convertAndSend(CHANNEL, objectMapper.writeValueAsBytes(invalidation));
+        } catch (IOException e) {
+            log.warn("Could not publish cache invalidation: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<Invalidation> listener) {
+        listenerContainer.addMessageListener((message, pattern) -> {
+            try {
+                listener.accept(objectMapper.readValue(message.getBody(), Invalidation.class));
+            } catch (IOException e) {
+                log.warn("Ignoring malformed cache invalidation: {}", e.getMessage());
+            }
+        }, new ChannelTopic(CHANNEL));
+        if (!listenerContainer.isRunning()) {
+            listenerContainer.afterPropertiesSet();
+            listenerContainer.start();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            listenerContainer.destroy();
+        } catch (Exception e) {
+            log.warn("Could not stop cache invalidation listener: {}", e.getMessage());
+        }
+    }
+
+    private static String valueKey(String cacheName, String key) {
+        return "cache:" + cacheName + ":" + key;
+    }
+
+    private static String lockKey(String cacheName, String key) {
+        return "cache-lock:" + cacheName + ":" + key;
+    }
+}
@@ -0,0 +1,335 @@
+package com.civicconnect.api.config.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Cache with a per-node Caffeine L1 in front of a shared L2 store (Redis).
+ *
+ * Reads go L1, then L2, then the loader. Concurrent misses for a key are coalesced by Caffeine
+ * within a node and by a short L2 lock across nodes: the node holding the lock loads and writes
+ * L2, the others poll L2 for up to lock-wait before loading themselves. put, evict and clear
+ * broadcast an invalidation so every other node drops its L1 copy; putIfAbsent and loads only
+ * populate and never broadcast.
+ *
+ * L1 entries are keyed by String.valueOf(key) so a remote invalidation can name them; the native
+ * Caffeine cache keeps the original values. Caches without a codec are L1-only but still take part
+ * in invalidation. Any L2 failure is treated as a miss, so a Redis outage degrades to L1-only.
+ */
+@Slf4j
+public class TwoTierCache implements Cache {
+
+    private static final byte NULL_MARKER = 0;
+    private static final byte VALUE_MARKER = 1;
+    private static final long POLL_NANOS = 20_000_000;
+
+    private final String name;
+    private final Cache l1;
+    private final CacheL2Store l2;
+    private final CacheValueCodec codec;
+    private final Duration ttl;
+    private final String nodeId;
+    private final Duration lockTimeout;
+    private final Duration lockWait;
+
+    private volatile boolean l2Healthy = true;
+
+    public TwoTierCache(String name, Cache l1, CacheL2Store l2, CacheValueCodec codec, Duration ttl,
+                        String nodeId, Duration lockTimeout, Duration lockWait) {
+        this.name = name;
+        this.l1 = l1;
+        this.l2 = l2;
+        this.codec = codec;
+        this.ttl = ttl;
+        this.nodeId = nodeId;
+        this.lockTimeout = lockTimeout;
+        this.lockWait = lockWait;
+    }
+
+    /**
+     * The cached value of an L2 hit; value may be null when a null result was cached
+     */
+    private record Hit(Object value) {
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return l1.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        ValueWrapper local = l1.get(localKey);
+        if (local != null) {
+            return local;
+        }
+        Hit hit = readL2(localKey);
+        if (hit == null) {
+            return null;
+        }
+        l1.put(localKey, hit.value());
+        return new SimpleValueWrapper(hit.value());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        return l1.get(localKey, () -> load(localKey, valueLoader));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String localKey = localKey(key);
+        l1.put(localKey, value);
+        writeL2(localKey, value, false);
+        publish(localKey);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        String localKey = localKey(key);
+        ValueWrapper existing = l1.putIfAbsent(localKey, value);
+        if (existing == null) {
+            writeL2(localKey, value, true);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        String localKey = localKey(key);
+        l1.evict(localKey);
+        evictL2(localKey);
+        publish(localKey);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        String localKey = localKey(key);
+        boolean present = l1.evictIfPresent(localKey);
+        evictL2(localKey);
+        publish(localKey);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        l1.clear();
+        clearL2();
+        publish(null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean present = l1.invalidate();
+        clearL2();
+        publish(null);
+        return present;
+    }
+
+    /**
+     * Drop an entry from L1 and L2 without broadcasting, for evictions every node applies itself
+     * (group invalidations, see TwoTierCacheManager#evictGroup)
+     */
+    public void evictLocal(Object key) {
+        String localKey = localKey(key);
+        l1.evict(localKey);
+        evictL2(localKey);
+    }
+
+    /**
+     * Apply an invalidation broadcast by another node: drop the L1 copy only
+     */
+    void onInvalidation(CacheL2Store.Invalidation invalidation) {
+        if (invalidation.key() == null) {
+            l1.clear();
+        } else {
+            l1.evict(invalidation.key());
+        }
+    }
+
+    // ==================== Loading ====================
+
+    private <T> T load(String localKey, Callable<T> valueLoader) throws Exception {
+        if (codec == null) {
+            return valueLoader.call();
+        }
+        Hit hit = readL2(localKey);
+        if (hit != null) {
+            return cast(hit);
+        }
+
+        String lockToken = tryLock(localKey);
+        if (lockToken == null && l2Healthy) {
+            // Another node is loading this key: wait briefly for its result instead of hitting the database too
+            long deadline = System.nanoTime() + lockWait.toNanos();
+            while (System.nanoTime() - deadline < 0) {
+                LockSupport.parkNanos(POLL_NANOS);
+                hit = readL2(localKey);
+                if (hit != null) {
+                    return cast(hit);
+                }
+            }
+        }
+        try {
+            T value = valueLoader.call();
+            writeL2(localKey, value, true);
+            return value;
+        } finally {
+            if (lockToken != null) {
+                unlock(localKey, lockToken);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Hit hit) {
+        return (T) hit.value();
+    }
+
+    // ==================== L2 access (failures degrade to L1-only) ====================
+
+    private Hit readL2(String localKey) {
+        if (codec == null) {
+            return null;
+        }
+        byte[] bytes;
+        try {
+            bytes = l2.get(name, localKey);
+            l2Recovered();
+        } catch (RuntimeException e) {
+            l2Failed(e);
+            return null;
+        }
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            return new Hit(bytes[0] == NULL_MARKER ? null : codec.decode(Arrays.copyOfRange(bytes, 1, bytes.length)));
+        } catch (RuntimeException e) {
+            // Written by an incompatible version of the value class: drop it and reload
+            log.warn("Discarding undecodable L2 entry {}:{}: {}", name, localKey, e.getMessage());
+            evictL2(localKey);
+            return null;
+        }
+    }
+
+    private void writeL2(String localKey, Object value, boolean onlyIfAbsent) {
+        if (codec == null) {
+            return;
+        }
+        try {
+            byte[] bytes = encode(value);
+            if (onlyIfAbsent) {
+                l2.putIfAbsent(name, localKey, bytes, ttl);
+            } else {
+                l2.put(name, localKey, bytes, ttl);
+            }
+            l2Recovered();
+        } catch (RuntimeException e) {
+            l2Failed(e);
+        }
+    }
+
+    private byte[] encode(Object value) {
+        if (value == null) {
+            return new byte[]{NULL_MARKER};
+        }
+        byte[] encoded = codec.encode(value);
+        byte[] bytes = new byte[encoded.length + 1];
+        bytes[0] = VALUE_MARKER;
+        System.arraycopy(encoded, 0, bytes, 1, encoded.length);
+        return bytes;
+    }
+
+    private void evictL2(String localKey) {
+        if (codec == null) {
+            return;
+        }
+        try {
+            l2.evict(name, localKey);
+        } catch (RuntimeException e) {
+            l2Failed(e);
+        }
+    }
+
+    private void clearL2() {
+        if (codec == null) {
+            return;
+        }
+        try {
+            l2.clear(name);
+        } catch (RuntimeException e) {
+            l2Failed(e);
+        }
+    }
+
+    private String tryLock(String localKey) {
+        try {
+            return l2.tryLock(name, localKey, lockTimeout);
+        } catch (RuntimeException e) {
+            l2Failed(e);
+            return null;
+        }
+    }
+
+    private void unlock(String localKey, String token) {
+        try {
+            l2.unlock(name, localKey, token);
+        } catch (RuntimeException e) {
+            l2Failed(e);
+        }
+    }
+
+    private void publish(String localKey) {
+        try {
+            l2.publish(new CacheL2Store.Invalidation(nodeId, name, localKey, null));
+        } catch (RuntimeException e) {
+            l2Failed(e);
+        }
+    }
+
+    private void l2Failed(RuntimeException e) {
+        // Log the transition only; while L2 is down every call would fail the same way
+        if (l2Healthy) {
+            l2Healthy = false;
+            log.warn("L2 cache unavailable for {}, serving from L1 only: {}", name, e.getMessage());
+        } else {
+            log.debug("L2 cache still unavailable for {}: {}", name, e.getMessage());
+        }
+    }
+
+    private void l2Recovered() {
+        if (!l2Healthy) {
+            l2Healthy = true;
+            log.info("L2 cache available again for {}", name);
+        }
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,128 @@
+package com.civicconnect.api.config.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * CacheManager combining the per-node Caffeine caches (L1) with a shared L2 store.
+ *
+ * Every cache of the L1 manager is wrapped in a TwoTierCache; only the caches listed with a codec
+ * in cache.l2.caches keep their values in L2, the rest stay L1-only. Invalidations from other nodes
+ * arrive on the store's channel and drop the matching L1 entries here.
+ *
+ * Entries that are only found by value (e.g. every session token of a user) are evicted as a group:
+ * the owning service registers an evictor that resolves the group against this node's L1, and
+ * evictGroup runs it here and broadcasts the group so every other node runs its own.
+ */
+@Slf4j
+public class TwoTierCacheManager implements CacheManager, DisposableBean {
+
+    /**
+     * L2 settings of one cache
+     */
+    public record L2Settings(CacheValueCodec codec, Duration ttl) {
+    }
+
+    private final CacheManager l1;
+    private final CacheL2Store l2;
+    private final Map<String, L2Settings> l2Caches;
+    private final Duration lockTimeout;
+    private final Duration lockWait;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+    private final Map<String, Consumer<String>> groupEvictors = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(CacheManager l1, CacheL2Store l2, Map<String, L2Settings> l2Caches,
+                               Duration lockTimeout, Duration lockWait) {
+        this.l1 = l1;
+        this.l2 = l2;
+        this.l2Caches = Map.copyOf(l2Caches);
+        this.lockTimeout = lockTimeout;
+        this.lockWait = lockWait;
+        try {
+            l2.subscribe(this::onInvalidation);
+        } catch (RuntimeException e) {
+            log.warn("Could not subscribe to cache invalidations, other nodes' writes will only expire: {}",
+                    e.getMessage());
+        }
+        log.info("Two-tier cache enabled, node {}, L2 caches {}", nodeId, this.l2Caches.keySet());
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoTierCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache local = l1.getCache(name);
+        if (local == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> {
+            L2Settings settings = l2Caches.get(n);
+            return new TwoTierCache(n, local, l2, settings != null ? settings.codec() : null,
+                    settings != null ? settings.ttl() : null, nodeId, lockTimeout, lockWait);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return l1.getCacheNames();
+    }
+
+    /**
+     * Register how this node evicts a group of entries of a cache; the evictor should use
+     * TwoTierCache#evictLocal so the group is not broadcast again key by key
+     */
+    public void registerGroupEvictor(String cacheName, Consumer<String> evictor) {
+        groupEvictors.put(cacheName, evictor);
+    }
+
+    /**
+     * Evict a group of entries on this node and on every other node
+     */
+    public void evictGroup(String cacheName, String group) {
+        Consumer<String> evictor = groupEvictors.get(cacheName);
+        if (evictor != null) {
+            evictor.accept(group);
+        }
+        try {
+            l2.publish(new CacheL2Store.Invalidation(nodeId, cacheName, null, group));
+        } catch (RuntimeException e) {
+            log.warn("Could not publish group invalidation for {}, other nodes' entries will only expire: {}",
+                    cacheName, e.getMessage());
+        }
+    }
+
+    private void onInvalidation(CacheL2Store.Invalidation invalidation) {
+        if (nodeId.equals(invalidation.origin())) {
+            return;
+        }
+        if (invalidation.group() != null) {
+            Consumer<String> evictor = groupEvictors.get(invalidation.cacheName());
+            if (evictor != null) {
+                evictor.accept(invalidation.group());
+            }
+            return;
+        }
+        // Only caches this node has used can hold entries
+        TwoTierCache cache = caches.get(invalidation.cacheName());
+        if (cache != null) {
+            cache.onInvalidation(invalidation);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        l2.close();
+    }
+}
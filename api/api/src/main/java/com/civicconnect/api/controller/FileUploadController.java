@@ -1,6 +1,7 @@
 package com.civicconnect.api.controller;
 
 import com.civicconnect.api.service.FileStorageService;
+import com.civicconnect.api.service.ai.ImageHashService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
@@ -23,6 +24,7 @@ import java.util.Map;
 public class FileUploadController {
 
     private final FileStorageService fileStorageService;
+    private final ImageHashService imageHashService;
 
     /**
      * Upload an image for an issue
@@ -56,11 +58,15 @@ public class FileUploadController {
         try {
             String imageUrl = fileStorageService.storeIssueImage(file);
 
+            // Perceptual hash for duplicate detection and analysis reuse
+            var indexed = imageHashService.indexUpload(imageUrl, file);
+
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("imageUrl", imageUrl);
             response.put("fileName", file.getOriginalFilename());
             response.put("fileSize", file.getSize());
+            indexed.ifPresent(image -> response.put("perceptualHash", Long.toHexString(image.getPerceptualHash())));
 
             log.info("Issue image uploaded successfully: {}", imageUrl);
             return ResponseEntity.ok(response);
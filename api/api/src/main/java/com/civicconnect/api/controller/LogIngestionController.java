@@ -1,6 +1,7 @@
 package com.civicconnect.api.controller;
 
 import com.civicconnect.api.dto.logging.ExternalLogRequest;
+import com.civicconnect.api.entity.logging.CrashGroup;
 import com.civicconnect.api.entity.logging.ExternalLog;
 import com.civicconnect.api.service.logging.LogIngestionService;
 import jakarta.validation.Valid;
@@ -15,7 +16,8 @@ import java.util.Map;
 /**
  * Controller for ingesting logs from external clients (Android, React Admin).
  * These logs are forwarded to Loki for centralized storage and also persisted
- * to the database for SQL-based queries.
+ * to the database for SQL-based queries. When the ingestion queues are full
+ * the ingest endpoints answer 429 with a Retry-After header.
  */
 @RestController
 @RequestMapping("/api/logs")
@@ -40,9 +42,9 @@ public class LogIngestionController {
      */
     @PostMapping("/batch")
     public ResponseEntity<Map<String, Object>> ingestLogBatch(@Valid @RequestBody List<ExternalLogRequest> requests) {
-        logIngestionService.ingestLogBatch(requests);
+        int accepted = logIngestionService.ingestLogBatch(requests);
         return ResponseEntity.accepted().body(Map.of(
-                "accepted", requests.size(),
+                "accepted", accepted,
                 "message", "Logs queued for processing"
         ));
     }
@@ -79,12 +81,21 @@ public class LogIngestionController {
     }
 
     /**
-     * Get recent crash logs.
+     * Get recent crashes grouped by fingerprint, with counts, first/last seen and affected versions/devices.
      */
     @GetMapping("/crashes")
-    public ResponseEntity<List<ExternalLog>> getRecentCrashes(
+    public ResponseEntity<List<CrashGroup>> getRecentCrashes(
             @RequestParam(defaultValue = "24") int hours) {
-        List<ExternalLog> crashes = logIngestionService.getRecentCrashes(hours);
+        List<CrashGroup> crashes = logIngestionService.getRecentCrashes(hours);
         return ResponseEntity.ok(crashes);
     }
+
+    /**
+     * Get the sampled raw occurrences (full stack traces) of a crash group.
+     */
+    @GetMapping("/crashes/{fingerprint}/samples")
+    public ResponseEntity<List<ExternalLog>> getCrashSamples(@PathVariable String fingerprint) {
+        List<ExternalLog> samples = logIngestionService.getCrashSamples(fingerprint);
+        return ResponseEntity.ok(samples);
+    }
 }
@@ -5,9 +5,11 @@ import com.civicconnect.api.entity.RepresentativeRating.RepresentativeType;
 import com.civicconnect.api.service.RepresentativeRatingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -101,7 +103,8 @@ public class RepresentativeRatingController {
     }
 
     /**
-     * Get recent reviews for a representative
+     * Get recent reviews for a representative.
+     * limit must be between 1 and reviews.max-page-size (default 50); larger values are rejected with 400.
      */
     @GetMapping("/reviews/{type}/{representativeId}")
     public ResponseEntity<List<RatingResponse>> getRecentReviews(
@@ -113,15 +116,62 @@ public class RepresentativeRatingController {
     }
 
     /**
-     * Get top rated representatives by type
+     * Get a page of reviews for a representative (newest first).
+     * Pass nextCursorCreatedAt/nextCursorId from the previous page as before/beforeId.
+     * limit must be between 1 and reviews.max-page-size (default 50).
+     */
+    @GetMapping("/reviews/{type}/{representativeId}/feed")
+    public ResponseEntity<ReviewPage> getReviewFeed(
+            @PathVariable RepresentativeType type,
+            @PathVariable Long representativeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        return ResponseEntity.ok(ratingService.getReviewPage(type, representativeId, before, beforeId, limit));
+    }
+
+    /**
+     * Get top rated representatives by type, optionally within a state and/or party
      */
     @GetMapping("/top/{type}")
     public ResponseEntity<List<RepresentativeStats>> getTopRated(
             @PathVariable RepresentativeType type,
+            @RequestParam(required = false) String state,
+            @RequestParam(required = false) String party,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "5") Long minRatings) {
+
+        return ResponseEntity.ok(ratingService.getTopRated(type, state, party, limit, minRatings));
+    }
+
+    /**
+     * Get lowest rated representatives by type, optionally within a state and/or party
+     */
+    @GetMapping("/lowest/{type}")
+    public ResponseEntity<List<RepresentativeStats>> getLowestRated(
+            @PathVariable RepresentativeType type,
+            @RequestParam(required = false) String state,
+            @RequestParam(required = false) String party,
             @RequestParam(defaultValue = "10") int limit,
             @RequestParam(defaultValue = "5") Long minRatings) {
 
-        return ResponseEntity.ok(ratingService.getTopRated(type, limit, minRatings));
+        return ResponseEntity.ok(ratingService.getLowestRated(type, state, party, limit, minRatings));
+    }
+
+    /**
+     * Get a representative's leaderboard rank, optionally within a state and/or party
+     */
+    @GetMapping("/rank/{type}/{representativeId}")
+    public ResponseEntity<RepresentativeStats> getRank(
+            @PathVariable RepresentativeType type,
+            @PathVariable Long representativeId,
+            @RequestParam(required = false) String state,
+            @RequestParam(required = false) String party) {
+
+        return ratingService.getRank(type, representativeId, state, party)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
     /**
@@ -1,13 +1,23 @@
 package com.civicconnect.api.controller.analytics;
 
 import com.civicconnect.api.dto.analytics.AnalyticsDTOs.*;
+import com.civicconnect.api.service.AccessLogService;
+import com.civicconnect.api.service.ActivityFunnelService;
 import com.civicconnect.api.service.AdminAnalyticsService;
+import com.civicconnect.api.service.DistinctUserService;
+import com.civicconnect.api.service.LatencyStatsService;
+import com.civicconnect.api.service.UserActivityBitmapService;
+import com.civicconnect.api.service.logging.LogIngestionService;
+import com.civicconnect.api.service.TelemetryIngestionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -22,6 +32,13 @@ import java.util.List;
 public class AdminAnalyticsController {
 
     private final AdminAnalyticsService adminService;
+    private final TelemetryIngestionService telemetryIngestionService;
+    private final LatencyStatsService latencyStatsService;
+    private final AccessLogService accessLogService;
+    private final DistinctUserService distinctUserService;
+    private final UserActivityBitmapService activityBitmapService;
+    private final ActivityFunnelService activityFunnelService;
+    private final LogIngestionService logIngestionService;
 
     /**
      * Get all registered app users with pagination and search.
@@ -45,28 +62,32 @@ public class AdminAnalyticsController {
     }
 
     /**
-     * Get activity logs for a specific user.
+     * Get activity logs for a specific user, optionally within [from, to).
      */
     @GetMapping("/users/{userId}/activities")
     public ResponseEntity<Page<ActivityLogDTO>> getUserActivities(
             @PathVariable Long userId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "50") int size,
-            @RequestParam(required = false) String activityType) {
+            @RequestParam(required = false) String activityType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
 
-        return ResponseEntity.ok(adminService.getUserActivities(userId, page, size, activityType));
+        return ResponseEntity.ok(adminService.getUserActivities(userId, page, size, activityType, from, to));
     }
 
     /**
-     * Get network logs for a specific user.
+     * Get network logs for a specific user, optionally within [from, to).
      */
     @GetMapping("/users/{userId}/network-logs")
     public ResponseEntity<Page<NetworkLogDTO>> getUserNetworkLogs(
             @PathVariable Long userId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "50") int size) {
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
 
-        return ResponseEntity.ok(adminService.getUserNetworkLogs(userId, page, size));
+        return ResponseEntity.ok(adminService.getUserNetworkLogs(userId, page, size, from, to));
     }
 
     /**
@@ -85,6 +106,145 @@ public class AdminAnalyticsController {
         return ResponseEntity.ok(adminService.getDashboardStats());
     }
 
+    /**
+     * Get the dashboard trend series (HOUR or MINUTE buckets).
+     */
+    @GetMapping("/dashboard/trend")
+    public ResponseEntity<List<RollupPointDTO>> getDashboardTrend(
+            @RequestParam(defaultValue = "HOUR") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+
+        return ResponseEntity.ok(adminService.getTrend(granularity, from, to));
+    }
+
+    /**
+     * Get the distinct users of one dimension value over a date range (days inclusive, default today).
+     * dimension: GLOBAL, STATE (state name), PC / AC (constituency id), ACTIVITY_TYPE (type name).
+     */
+    @GetMapping("/distinct-users")
+    public ResponseEntity<DistinctUsersDTO> getDistinctUsers(
+            @RequestParam(defaultValue = "GLOBAL") DistinctUserService.Dimension dimension,
+            @RequestParam(defaultValue = DistinctUserService.GLOBAL_KEY) String key,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        LocalDate rangeTo = to != null ? to : LocalDate.now();
+        LocalDate rangeFrom = from != null ? from : rangeTo;
+        return ResponseEntity.ok(DistinctUsersDTO.builder()
+                .dimension(dimension.name())
+                .dimensionKey(key)
+                .from(rangeFrom)
+                .to(rangeTo)
+                .distinctUsers(distinctUserService.countDistinct(dimension, key, rangeFrom, rangeTo))
+                .build());
+    }
+
+    /**
+     * Get distinct users per value of a dimension over a date range, largest first.
+     */
+    @GetMapping("/distinct-users/breakdown")
+    public ResponseEntity<List<DistinctUsersDTO>> getDistinctUsersBreakdown(
+            @RequestParam DistinctUserService.Dimension dimension,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "50") int limit) {
+
+        LocalDate rangeTo = to != null ? to : LocalDate.now();
+        LocalDate rangeFrom = from != null ? from : rangeTo;
+        return ResponseEntity.ok(distinctUserService.breakdown(dimension, rangeFrom, rangeTo, limit));
+    }
+
+    /**
+     * Get Dn retention of signup cohorts, grouped by signup week (default: the last 8 weeks, D1/D7/D30).
+     */
+    @GetMapping("/retention")
+    public ResponseEntity<List<RetentionCohortDTO>> getRetention(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String platform,
+            @RequestParam(required = false) String appVersion,
+            @RequestParam(defaultValue = "1,7,30") List<Integer> offsets) {
+
+        LocalDate rangeTo = to != null ? to : LocalDate.now();
+        LocalDate rangeFrom = from != null ? from : rangeTo.minusWeeks(8);
+        return ResponseEntity.ok(activityBitmapService.retention(rangeFrom, rangeTo, platform, appVersion, offsets));
+    }
+
+    /**
+     * Get how many users did each step (activity type) and every step before it within a date range.
+     */
+    @GetMapping("/funnel")
+    public ResponseEntity<List<FunnelStepDTO>> getFunnel(
+            @RequestParam List<String> steps,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        LocalDate rangeTo = to != null ? to : LocalDate.now();
+        LocalDate rangeFrom = from != null ? from : rangeTo.minusDays(6);
+        return ResponseEntity.ok(activityBitmapService.funnel(steps, rangeFrom, rangeTo));
+    }
+
+    /**
+     * Get an ordered funnel: each step must follow the previous one (optionally within a conversion
+     * window) and may filter on activity name and activity_data contents.
+     */
+    @PostMapping("/funnel/ordered")
+    public ResponseEntity<List<FunnelStepDTO>> getOrderedFunnel(@RequestBody FunnelRequest request) {
+        return ResponseEntity.ok(activityFunnelService.evaluate(request));
+    }
+
+    /**
+     * Get latency percentiles (p50/p90/p99/p99.9) per route over a sliding window, slowest p99 first.
+     * source is SERVER (this API) or CLIENT (network calls reported by the app); both when omitted.
+     */
+    @GetMapping("/latency")
+    public ResponseEntity<List<LatencyPercentilesDTO>> getLatencyPercentiles(
+            @RequestParam(defaultValue = "300") int windowSeconds,
+            @RequestParam(required = false) String source,
+            @RequestParam(required = false) String route) {
+
+        return ResponseEntity.ok(latencyStatsService.getPercentiles(windowSeconds, source, route));
+    }
+
+    /**
+     * Get per-slot latency percentiles of one route over a sliding window, oldest first.
+     */
+    @GetMapping("/latency/series")
+    public ResponseEntity<List<LatencyPointDTO>> getLatencySeries(
+            @RequestParam String source,
+            @RequestParam String method,
+            @RequestParam String route,
+            @RequestParam String statusClass,
+            @RequestParam(defaultValue = "900") int windowSeconds) {
+
+        return ResponseEntity.ok(latencyStatsService.getSeries(source, method, route, statusClass, windowSeconds));
+    }
+
+    /**
+     * Get request counts, error counts and total/mean/max time per route since startup, busiest first.
+     */
+    @GetMapping("/routes")
+    public ResponseEntity<List<RouteStatsDTO>> getRouteStats() {
+        return ResponseEntity.ok(accessLogService.getRouteStats());
+    }
+
+    /**
+     * Get telemetry ingestion queue depth, drops and flush latency.
+     */
+    @GetMapping("/telemetry")
+    public ResponseEntity<List<TelemetryQueueStatsDTO>> getTelemetryStats() {
+        return ResponseEntity.ok(telemetryIngestionService.getStats());
+    }
+
+    /**
+     * Get external log ingestion lane depth, rejections and flush latency, and the Loki backlog.
+     */
+    @GetMapping("/log-ingestion")
+    public ResponseEntity<List<TelemetryQueueStatsDTO>> getLogIngestionStats() {
+        return ResponseEntity.ok(logIngestionService.getStats());
+    }
+
     /**
      * Get recent activities for the live feed.
      */
@@ -32,7 +32,7 @@ public class GovMapDTO {
      * Always contains structural information, with optional data.
      */
     @Data
-    @Builder
+    @Builder(toBuilder = true)
     @NoArgsConstructor
     @AllArgsConstructor
     public static class HierarchyNode {
@@ -64,6 +64,7 @@ public class GovMapDTO {
 
         // User interaction (only if data available)
         private Integer userRating;     // User's own rating (1-5), null if not rated
+        private Boolean hasUserRated;   // Whether the user has rated this representative
         private Boolean canRate;        // Whether user can rate this representative
 
         // Contact info (only if data available)
@@ -81,7 +82,7 @@ public class GovMapDTO {
      * Always returns exactly the expected nodes for each mode.
      */
     @Data
-    @Builder
+    @Builder(toBuilder = true)
     @NoArgsConstructor
     @AllArgsConstructor
     public static class FixedHierarchyResponse {
@@ -67,10 +67,14 @@ public class IssueDTO {
     // Reporter info
     private Long reporterId;
     private String reporterName;
+    private String reporterPhotoUrl;
 
     // Tracking
     private String trackingId;
 
+    // Duplicate detection (earlier issue with a near-identical photo nearby)
+    private Long possibleDuplicateOfId;
+
     // Timestamps
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -124,10 +128,66 @@ public class IssueDTO {
                 .userVote(userVote)
                 .reporterId(issue.getReporter() != null ? issue.getReporter().getId() : null)
                 .reporterName(issue.getReporter() != null ? issue.getReporter().getName() : null)
+                .reporterPhotoUrl(issue.getReporter() != null ? issue.getReporter().getPhotoUrl() : null)
                 .trackingId(issue.getTrackingId())
+                .possibleDuplicateOfId(issue.getPossibleDuplicateOfId())
                 .createdAt(issue.getCreatedAt())
                 .updatedAt(issue.getUpdatedAt())
                 .resolvedAt(issue.getResolvedAt())
                 .build();
     }
+
+    /**
+     * Convert a feed read-model row to DTO (no entity or lazy association access)
+     */
+    public static IssueDTO fromFeedView(IssueFeedView view, String userVote) {
+        int upvotes = view.upvoteCount() != null ? view.upvoteCount() : 0;
+        int downvotes = view.downvoteCount() != null ? view.downvoteCount() : 0;
+        float heatScore = Issue.calculateHeatScore(upvotes, downvotes);
+
+        return IssueDTO.builder()
+                .id(view.id())
+                .title(view.title())
+                .description(view.description())
+                .imageUrl(view.imageUrl())
+                .audioUrl(view.audioUrl())
+                .category(view.category().name())
+                .status(view.status().name())
+                .priority(view.priority() != null ? view.priority().name() : null)
+                .latitude(view.latitude())
+                .longitude(view.longitude())
+                .locationName(view.locationName())
+                .districtName(view.districtName())
+                .stateName(view.stateName())
+                .parliamentaryConstituency(view.parliamentaryConstituency())
+                .assemblyConstituency(view.assemblyConstituency())
+                .mlaId(view.mlaId())
+                .mlaName(view.mlaName())
+                .mlaParty(view.mlaParty())
+                .mpId(view.mpId())
+                .mpName(view.mpName())
+                .mpParty(view.mpParty())
+                .councillorId(view.councillorId())
+                .councillorName(view.councillorName())
+                .councillorParty(view.councillorParty())
+                .wardNo(view.wardNo())
+                .wardName(view.wardName())
+                .departmentName(view.departmentName())
+                .assignedOfficialName(view.assignedOfficialName())
+                .assignedOfficialId(view.assignedOfficialId())
+                .upvoteCount(view.upvoteCount())
+                .downvoteCount(view.downvoteCount())
+                .heatScore(heatScore)
+                .heatLevel(Issue.heatLevelFor(heatScore).name())
+                .userVote(userVote)
+                .reporterId(view.reporterId())
+                .reporterName(view.reporterName())
+                .reporterPhotoUrl(view.reporterPhotoUrl())
+                .trackingId(view.trackingId())
+                .possibleDuplicateOfId(view.possibleDuplicateOfId())
+                .createdAt(view.createdAt())
+                .updatedAt(view.updatedAt())
+                .resolvedAt(view.resolvedAt())
+                .build();
+    }
 }
@@ -0,0 +1,48 @@
+package com.civicconnect.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Delta event pushed to mobile clients over STOMP when an issue changes.
+ * Only the fields relevant to the event type are populated; clients patch
+ * their cached IssueDTO instead of re-polling the feed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IssueEventDTO {
+
+    private EventType eventType;
+    private Long issueId;
+    private String trackingId;
+
+    // STATUS_CHANGED / ASSIGNED
+    private String status;
+    private String assignedOfficialName;
+    private LocalDateTime resolvedAt;
+
+    // VOTES_CHANGED (coalesced, at most one per issue per window)
+    private Integer upvoteCount;
+    private Integer downvoteCount;
+    private Float heatScore;
+    private String heatLevel;
+
+    // CREATED (full issue for feed insertion)
+    private IssueDTO issue;
+
+    private LocalDateTime timestamp;
+
+    public enum EventType {
+        CREATED,
+        STATUS_CHANGED,
+        ASSIGNED,
+        VOTES_CHANGED,
+        DELETED
+    }
+}
@@ -0,0 +1,54 @@
+package com.civicconnect.api.dto;
+
+import com.civicconnect.api.entity.Issue;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat read model for issue feeds.
+ * Populated directly by JPQL constructor expressions in IssueRepository, so feed pages
+ * never hydrate Issue entities, their votes collection or the lazy reporter association.
+ * Column order must match IssueRepository.FEED_SELECT.
+ */
+public record IssueFeedView(
+        Long id,
+        String title,
+        String description,
+        String imageUrl,
+        String audioUrl,
+        Issue.IssueCategory category,
+        Issue.IssueStatus status,
+        Issue.IssuePriority priority,
+        Double latitude,
+        Double longitude,
+        String locationName,
+        String districtName,
+        String stateName,
+        String parliamentaryConstituency,
+        String assemblyConstituency,
+        Long mlaId,
+        String mlaName,
+        String mlaParty,
+        Long mpId,
+        String mpName,
+        String mpParty,
+        Long councillorId,
+        String councillorName,
+        String councillorParty,
+        Integer wardNo,
+        String wardName,
+        String departmentName,
+        String assignedOfficialName,
+        Long assignedOfficialId,
+        Integer upvoteCount,
+        Integer downvoteCount,
+        Long reporterId,
+        String reporterName,
+        String reporterPhotoUrl,
+        String trackingId,
+        Long possibleDuplicateOfId,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        LocalDateTime resolvedAt
+) {
+}
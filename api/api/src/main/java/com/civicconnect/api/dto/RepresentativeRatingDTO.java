@@ -5,6 +5,7 @@ import com.civicconnect.api.entity.RepresentativeRating.RepresentativeType;
 import lombok.*;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -75,6 +76,22 @@ public class RepresentativeRatingDTO {
         }
     }
 
+    /**
+     * One page of a representative's review feed (keyset-paginated, newest first)
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ReviewPage {
+        private List<RatingResponse> reviews;
+        private Boolean hasMore;
+
+        // Cursor for the next page (pass back as before/beforeId), null on the last page
+        private LocalDateTime nextCursorCreatedAt;
+        private Long nextCursorId;
+    }
+
     /**
      * Aggregate rating stats for a representative
      */
@@ -159,6 +176,11 @@ public class RepresentativeRatingDTO {
         // User's own rating (if exists)
         private Integer userRating;
         private Boolean hasUserRated;
+
+        // Leaderboard position (Bayesian-average score, 1-based rank) when served from a leaderboard
+        private Double leaderboardScore;
+        private Integer rank;
+        private Integer leaderboardSize;
     }
 
     /**
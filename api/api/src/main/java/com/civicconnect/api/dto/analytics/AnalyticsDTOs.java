@@ -1,12 +1,14 @@
 package com.civicconnect.api.dto.analytics;
 
 import com.civicconnect.api.entity.analytics.ActivityLog;
+import com.civicconnect.api.entity.analytics.AnalyticsRollup;
 import com.civicconnect.api.entity.analytics.AppUser;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -73,6 +75,27 @@ public class AnalyticsDTOs {
         private LocalDateTime timestamp;
     }
 
+    // ============ Request DTOs (from Admin Dashboard) ============
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FunnelRequest {
+        private List<FunnelStepRequest> steps;
+        private LocalDateTime from;
+        private LocalDateTime to;
+        private Long conversionWindowMinutes; // measured from the first step; unlimited when null
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FunnelStepRequest {
+        private String activityType; // SCREEN_VIEW, BUTTON_CLICK, etc.
+        private String activityName;
+        private Map<String, Object> dataFilter; // must be contained in activity_data, e.g. {"screen": "gov_map"}
+    }
+
     // ============ Response DTOs (for Admin Dashboard) ============
 
     @Data
@@ -92,6 +115,8 @@ public class AnalyticsDTOs {
         private LocalDateTime lastLoginAt;
         private Boolean isActive;
         private Boolean hasActiveSession;
+        private Long totalSessions;
+        private Long activeSessionCount;
     }
 
     @Data
@@ -180,6 +205,126 @@ public class AnalyticsDTOs {
         private Double avgSessionDurationMinutes;
     }
 
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RollupPointDTO {
+        private LocalDateTime bucketStart;
+        private Long activityCount;
+        private Map<String, Long> activityTypeCounts;
+        private Long requestCount;
+        private Double avgLatencyMs;
+        private Long errorCount;
+        private Integer activeSessions;
+        private Double avgSessionDurationMinutes;
+        // Session counts per duration bucket: <1m, 1-5m, 5-15m, 15-30m, 30-60m, 1-2h, 2h+
+        private Long[] sessionDurationHistogram;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DistinctUsersDTO {
+        private String dimension;
+        private String dimensionKey;
+        private LocalDate from;
+        private LocalDate to;
+        // HyperLogLog estimate, about 1.6% standard error
+        private Long distinctUsers;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RetentionCohortDTO {
+        private LocalDate cohortWeek;               // Monday of the signup week
+        private Long cohortSize;
+        private Map<String, Long> retained;         // "D1" -> users active on signup day + 1, ...
+        private Map<String, Double> retentionRate;  // null while no cohort day has reached the offset
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FunnelStepDTO {
+        private String step;
+        private Long users;                         // users who did this and every earlier step
+        private Double conversionRate;              // relative to the previous step
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RouteStatsDTO {
+        private String method;
+        private String route;           // matched route template, e.g. /api/issues/{id}
+        private Long requests;
+        private Long clientErrors;      // 4xx
+        private Long serverErrors;      // 5xx or failed with an exception
+        private Long logged;            // written to the access log
+        private Double totalMs;
+        private Double meanMs;
+        private Double maxMs;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LatencyPercentilesDTO {
+        private String source;          // SERVER or CLIENT
+        private String method;
+        private String route;
+        private String statusClass;     // 2xx, 4xx, 5xx, ... or ERR
+        private LocalDateTime windowStart;
+        private Long count;
+        private Double p50Ms;
+        private Double p90Ms;
+        private Double p99Ms;
+        private Double p999Ms;
+        private Double meanMs;
+        private Double maxMs;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LatencyPointDTO {
+        private LocalDateTime slotStart;
+        private Long count;
+        private Double p50Ms;
+        private Double p90Ms;
+        private Double p99Ms;
+        private Double p999Ms;
+        private Double maxMs;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TelemetryQueueStatsDTO {
+        private String table;
+        private String overflowPolicy;
+        private Integer queueDepth;
+        private Integer queueCapacity;
+        private Long accepted;
+        private Long dropped;
+        private Long rejected;
+        private Long written;
+        private Long failed;
+        private Long flushes;
+        private Double lastFlushMs;
+        private Double maxFlushMs;
+        private Double avgFlushMs;
+    }
+
     @Data
     @Builder
     @NoArgsConstructor
@@ -206,6 +351,28 @@ public class AnalyticsDTOs {
         private LocalDateTime timestamp;
     }
 
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ActivityBatch {
+        private List<ActivityUpdate> activities;
+        // Activities left out of this frame because the window was full
+        private Long dropped;
+        private LocalDateTime timestamp;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PresenceDiff {
+        private List<UserStatusUpdate> online;
+        private List<UserStatusUpdate> offline;
+        private Long activeUsers;
+        private LocalDateTime timestamp;
+    }
+
     // ============ Mapper Methods ============
 
     public static AppUserDTO toDTO(AppUser user, boolean hasActiveSession) {
@@ -238,4 +405,20 @@ public class AnalyticsDTOs {
                 .createdAt(log.getCreatedAt())
                 .build();
     }
+
+    public static RollupPointDTO toDTO(AnalyticsRollup rollup) {
+        return RollupPointDTO.builder()
+                .bucketStart(rollup.getBucketStart())
+                .activityCount(rollup.getActivityCount())
+                .activityTypeCounts(rollup.getActivityTypeCounts())
+                .requestCount(rollup.getRequestCount())
+                .avgLatencyMs(rollup.getLatencyCount() > 0
+                        ? (double) rollup.getLatencySumMs() / rollup.getLatencyCount() : 0.0)
+                .errorCount(rollup.getErrorCount())
+                .activeSessions(rollup.getActiveSessions())
+                .avgSessionDurationMinutes(rollup.getSampledSessions() > 0
+                        ? (double) rollup.getSessionDurationSumMinutes() / rollup.getSampledSessions() : 0.0)
+                .sessionDurationHistogram(rollup.getSessionDurationHistogram())
+                .build();
+    }
 }
@@ -159,20 +159,34 @@ public class Issue {
     @Column(name = "tracking_id", unique = true)
     private String trackingId;
 
+    // Earlier issue with a near-identical photo at the same location (flagged at creation)
+    @Column(name = "possible_duplicate_of_id")
+    private Long possibleDuplicateOfId;
+
     /**
      * Calculate heat score as percentage (0-100)
      * Higher upvote ratio = hotter issue
      */
     public float getHeatScore() {
-        int totalVotes = upvoteCount + downvoteCount + 1; // +1 to avoid division by zero
-        return (upvoteCount * 100.0f) / totalVotes;
+        return calculateHeatScore(upvoteCount, downvoteCount);
     }
 
     /**
      * Get heat level for UI display
      */
     public HeatLevel getHeatLevel() {
-        float score = getHeatScore();
+        return heatLevelFor(getHeatScore());
+    }
+
+    /**
+     * Heat score from raw vote counts (shared with the feed read model)
+     */
+    public static float calculateHeatScore(int upvoteCount, int downvoteCount) {
+        int totalVotes = upvoteCount + downvoteCount + 1; // +1 to avoid division by zero
+        return (upvoteCount * 100.0f) / totalVotes;
+    }
+
+    public static HeatLevel heatLevelFor(float score) {
         if (score > 70) return HeatLevel.HOT;
         if (score > 40) return HeatLevel.WARM;
         return HeatLevel.COLD;
@@ -0,0 +1,82 @@
+package com.civicconnect.api.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * File record for an uploaded issue photo.
+ * Holds the perceptual hash used to detect re-uploads of the same scene
+ * and the last Gemini analysis so near-duplicates can reuse it.
+ */
+@Entity
+@Table(name = "issue_images", indexes = {
+    @Index(name = "idx_issue_image_url", columnList = "image_url", unique = true),
+    @Index(name = "idx_issue_image_issue", columnList = "issue_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IssueImage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "image_url", nullable = false, length = 512)
+    private String imageUrl;
+
+    /**
+     * 64-bit difference hash (dHash) of the image, compared by Hamming distance
+     */
+    @Column(name = "perceptual_hash", nullable = false)
+    private Long perceptualHash;
+
+    @Column(name = "file_size")
+    private Long fileSize;
+
+    // Location, filled in once the photo is analyzed or attached to an issue
+    private Double latitude;
+    private Double longitude;
+
+    /**
+     * Issue this photo was submitted with (null until the issue is created)
+     */
+    @Column(name = "issue_id")
+    private Long issueId;
+
+    // Cached Gemini analysis (reused for near-identical photos)
+    @Column(name = "analysis_title")
+    private String analysisTitle;
+
+    @Column(name = "analysis_description", columnDefinition = "TEXT")
+    private String analysisDescription;
+
+    @Column(name = "analysis_category")
+    private String analysisCategory;
+
+    @Column(name = "analysis_priority")
+    private String analysisPriority;
+
+    @Column(name = "analysis_confidence")
+    private Float analysisConfidence;
+
+    @Column(name = "analyzed_at")
+    private LocalDateTime analyzedAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    public boolean hasAnalysis() {
+        return analyzedAt != null && analysisCategory != null;
+    }
+
+    public boolean hasLocation() {
+        return latitude != null && longitude != null;
+    }
+}
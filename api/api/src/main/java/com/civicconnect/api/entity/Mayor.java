@@ -1,5 +1,6 @@
 package com.civicconnect.api.entity;
 
+import com.civicconnect.api.service.RepresentativeChangeListener;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -13,6 +14,7 @@ import java.time.LocalDateTime;
  * Part of the fixed GovMap hierarchy structure
  */
 @Entity
+@EntityListeners(RepresentativeChangeListener.class)
 @Table(name = "mayors", indexes = {
         @Index(name = "idx_mayor_state_code", columnList = "stateCode"),
         @Index(name = "idx_mayor_city", columnList = "cityName"),
@@ -1,5 +1,6 @@
 package com.civicconnect.api.entity;
 
+import com.civicconnect.api.service.RepresentativeChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -13,6 +14,7 @@ import java.time.LocalDate;
  * Stores detailed information about elected MLAs including election data
  */
 @Entity
+@EntityListeners(RepresentativeChangeListener.class)
 @Table(name = "members_of_legislative_assembly", indexes = {
         @Index(name = "idx_mla_constituency", columnList = "constituency_name"),
         @Index(name = "idx_mla_state", columnList = "state_name"),
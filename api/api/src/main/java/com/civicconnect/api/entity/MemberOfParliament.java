@@ -1,11 +1,13 @@
 package com.civicconnect.api.entity;
 
+import com.civicconnect.api.service.RepresentativeChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.*;
 
 @Entity
+@EntityListeners(RepresentativeChangeListener.class)
 @Table(name = "members_of_parliament", indexes = {
         @Index(name = "idx_mp_constituency", columnList = "constituency_name"),
         @Index(name = "idx_mp_state", columnList = "state_name"),
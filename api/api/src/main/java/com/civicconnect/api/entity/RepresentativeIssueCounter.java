@@ -0,0 +1,43 @@
+package com.civicconnect.api.entity;
+
+import com.civicconnect.api.entity.RepresentativeRating.RepresentativeType;
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Maintained count of issues per (representative, status).
+ * Updated incrementally on issue create, status change, reassignment and delete,
+ * and rebuilt periodically from the issues table by RepresentativeStatsScheduler.
+ */
+@Entity
+@Table(name = "representative_issue_counters",
+    uniqueConstraints = @UniqueConstraint(
+        columnNames = {"representative_type", "representative_id", "status"},
+        name = "uk_rep_issue_counter"
+    )
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RepresentativeIssueCounter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "representative_type", nullable = false)
+    private RepresentativeType representativeType;
+
+    @Column(name = "representative_id", nullable = false)
+    private Long representativeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Issue.IssueStatus status;
+
+    @Column(name = "issue_count", nullable = false)
+    private Long issueCount;
+}
@@ -0,0 +1,61 @@
+package com.civicconnect.api.entity;
+
+import com.civicconnect.api.entity.RepresentativeRating.RepresentativeType;
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Maintained rating aggregate per representative: count, sum, verified count and star histogram.
+ * Updated in the same transaction as every rating submit/update/delete and
+ * rebuilt periodically from representative_ratings by RepresentativeStatsScheduler.
+ */
+@Entity
+@Table(name = "representative_rating_aggregates",
+    uniqueConstraints = @UniqueConstraint(
+        columnNames = {"representative_type", "representative_id"},
+        name = "uk_rep_rating_aggregate"
+    )
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RepresentativeRatingAggregate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "representative_type", nullable = false)
+    private RepresentativeType representativeType;
+
+    @Column(name = "representative_id", nullable = false)
+    private Long representativeId;
+
+    @Column(name = "rating_count", nullable = false)
+    private Long ratingCount;
+
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum;
+
+    @Column(name = "verified_count", nullable = false)
+    private Long verifiedCount;
+
+    // Histogram (count per star)
+    @Column(name = "one_star", nullable = false)
+    private Long oneStar;
+
+    @Column(name = "two_star", nullable = false)
+    private Long twoStar;
+
+    @Column(name = "three_star", nullable = false)
+    private Long threeStar;
+
+    @Column(name = "four_star", nullable = false)
+    private Long fourStar;
+
+    @Column(name = "five_star", nullable = false)
+    private Long fiveStar;
+}
@@ -0,0 +1,65 @@
+package com.civicconnect.api.entity;
+
+import com.civicconnect.api.entity.RepresentativeRating.RepresentativeType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Materialized accountability scorecard per representative: approval, issue resolution and
+ * the combined accountability score shown on the Gov Map, leaderboards and profiles.
+ * Rebuilt nightly for every representative and patched when their ratings or issues change.
+ */
+@Entity
+@Table(name = "representative_scorecards",
+    uniqueConstraints = @UniqueConstraint(
+        columnNames = {"representative_type", "representative_id"},
+        name = "uk_rep_scorecard"
+    )
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RepresentativeScorecard {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "representative_type", nullable = false)
+    private RepresentativeType representativeType;
+
+    @Column(name = "representative_id", nullable = false)
+    private Long representativeId;
+
+    // Average rating rounded to 1 decimal (0 when unrated)
+    @Column(name = "average_rating", nullable = false)
+    private Double averageRating;
+
+    @Column(name = "rating_count", nullable = false)
+    private Long ratingCount;
+
+    @Column(name = "approval_level", nullable = false)
+    private String approvalLevel;
+
+    @Column(name = "issues_registered", nullable = false)
+    private Long issuesRegistered;
+
+    @Column(name = "issues_resolved", nullable = false)
+    private Long issuesResolved;
+
+    // Percentage rounded to 1 decimal
+    @Column(name = "resolution_rate", nullable = false)
+    private Double resolutionRate;
+
+    // 0-100: 60% approval rating, 40% issue resolution
+    @Column(name = "accountability_score", nullable = false)
+    private Integer accountabilityScore;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
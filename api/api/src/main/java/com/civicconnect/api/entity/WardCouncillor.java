@@ -1,5 +1,6 @@
 package com.civicconnect.api.entity;
 
+import com.civicconnect.api.service.RepresentativeChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -11,6 +12,7 @@ import lombok.*;
  * Can be extended for other cities/municipalities
  */
 @Entity
+@EntityListeners(RepresentativeChangeListener.class)
 @Table(name = "ward_councillors", indexes = {
         @Index(name = "idx_ward_no", columnList = "ward_no"),
         @Index(name = "idx_ward_name", columnList = "ward_name"),
@@ -0,0 +1,83 @@
+package com.civicconnect.api.entity.analytics;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Dashboard counters for one minute or one hour, maintained by AnalyticsRollupService.
+ * Counters are additive; active_sessions is the peak and the session columns accumulate
+ * one sample per minute.
+ */
+@Entity
+@Table(name = "analytics_rollups",
+    uniqueConstraints = @UniqueConstraint(
+        columnNames = {"granularity", "bucket_start"},
+        name = "uk_analytics_rollup"
+    )
+)
+@Getter
+@Setter
+@NoArgsConstructor
+public class AnalyticsRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Granularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "activity_count", nullable = false)
+    private Long activityCount = 0L;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "activity_type_counts", columnDefinition = "jsonb", nullable = false)
+    private Map<String, Long> activityTypeCounts;
+
+    @Column(name = "request_count", nullable = false)
+    private Long requestCount = 0L;
+
+    @Column(name = "latency_sum_ms", nullable = false)
+    private Long latencySumMs = 0L;
+
+    @Column(name = "latency_count", nullable = false)
+    private Long latencyCount = 0L;
+
+    @Column(name = "error_count", nullable = false)
+    private Long errorCount = 0L;
+
+    @Column(name = "active_sessions", nullable = false)
+    private Integer activeSessions = 0;
+
+    // Number of per-minute session samples taken in this bucket
+    @Column(name = "session_samples", nullable = false)
+    private Long sessionSamples = 0L;
+
+    // Active sessions summed over the samples
+    @Column(name = "sampled_sessions", nullable = false)
+    private Long sampledSessions = 0L;
+
+    @Column(name = "session_duration_sum_minutes", nullable = false)
+    private Long sessionDurationSumMinutes = 0L;
+
+    // Counts per AnalyticsRollupService.SESSION_DURATION_BUCKETS_MINUTES bucket
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "session_duration_histogram", columnDefinition = "bigint[]", nullable = false)
+    private Long[] sessionDurationHistogram;
+
+    public enum Granularity {
+        MINUTE,
+        HOUR
+    }
+}
@@ -0,0 +1,59 @@
+package com.civicconnect.api.entity.logging;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * All occurrences of one crash, identified by its normalized stack-trace fingerprint.
+ * Maintained by CrashGroupService; sampled raw occurrences are external_logs rows with
+ * the same crash_fingerprint.
+ */
+@Entity
+@Table(name = "crash_groups", indexes = {
+    @Index(name = "idx_crash_groups_last_seen", columnList = "last_seen")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class CrashGroup {
+
+    @Id
+    @Column(length = 64)
+    private String fingerprint;
+
+    @Column(nullable = false, length = 20)
+    private String source;
+
+    @Column(name = "exception_type", nullable = false)
+    private String exceptionType;
+
+    @Column(length = 500)
+    private String title;
+
+    @Column(name = "normalized_trace", nullable = false, columnDefinition = "TEXT")
+    private String normalizedTrace;
+
+    @Column(nullable = false)
+    private Long occurrences = 0L;
+
+    @Column(name = "first_seen", nullable = false)
+    private LocalDateTime firstSeen;
+
+    @Column(name = "last_seen", nullable = false)
+    private LocalDateTime lastSeen;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "app_versions", columnDefinition = "jsonb", nullable = false)
+    private Map<String, Long> appVersions;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "device_models", columnDefinition = "jsonb", nullable = false)
+    private Map<String, Long> deviceModels;
+}
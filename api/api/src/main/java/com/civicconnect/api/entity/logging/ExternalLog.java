@@ -21,7 +21,8 @@ import java.util.Map;
     @Index(name = "idx_external_logs_level", columnList = "level"),
     @Index(name = "idx_external_logs_correlation_id", columnList = "correlation_id"),
     @Index(name = "idx_external_logs_user_id", columnList = "user_id"),
-    @Index(name = "idx_external_logs_created_at", columnList = "created_at")
+    @Index(name = "idx_external_logs_created_at", columnList = "created_at"),
+    @Index(name = "idx_external_logs_crash_fingerprint", columnList = "crash_fingerprint")
 })
 @Getter
 @Setter
@@ -80,6 +81,10 @@ public class ExternalLog {
     @Column(name = "page_url", length = 500)
     private String pageUrl;
 
+    // Crash group of a sampled crash occurrence
+    @Column(name = "crash_fingerprint", length = 64)
+    private String crashFingerprint;
+
     @Column(name = "client_timestamp")
     private LocalDateTime clientTimestamp;
 
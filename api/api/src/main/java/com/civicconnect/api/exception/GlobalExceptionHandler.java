@@ -3,6 +3,7 @@ package com.civicconnect.api.exception;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -39,6 +40,19 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(HttpStatus.CONFLICT, "Conflict", ex.getMessage());
     }
 
+    @ExceptionHandler(IngestionBackpressureException.class)
+    public ResponseEntity<Map<String, Object>> handleIngestionBackpressure(
+            IngestionBackpressureException ex, HttpServletRequest request) {
+        log.warn("Ingestion saturated: {} | Path: {}", ex.getMessage(), request.getRequestURI());
+
+        Map<String, Object> error = buildBaseError(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests");
+        error.put("message", ex.getMessage());
+        error.put("retryAfterSeconds", ex.getRetryAfterSeconds());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleValidationErrors(
             MethodArgumentNotValidException ex, HttpServletRequest request) {
@@ -0,0 +1,18 @@
+package com.civicconnect.api.exception;
+
+/**
+ * Thrown when an ingestion queue cannot take more entries; mapped to 429 with a Retry-After header.
+ */
+public class IngestionBackpressureException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public IngestionBackpressureException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,20 @@
+package com.civicconnect.api.repository;
+
+import com.civicconnect.api.entity.IssueImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface IssueImageRepository extends JpaRepository<IssueImage, Long> {
+
+    // Find the file record for a stored image URL
+    Optional<IssueImage> findByImageUrl(String imageUrl);
+
+    // Load (id, hash) pairs to rebuild the in-memory BK-tree at startup
+    @Query("SELECT i.id, i.perceptualHash FROM IssueImage i")
+    List<Object[]> findAllHashes();
+}
@@ -1,5 +1,6 @@
 package com.civicconnect.api.repository;
 
+import com.civicconnect.api.dto.IssueFeedView;
 import com.civicconnect.api.entity.Issue;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -14,33 +15,53 @@ import java.util.Optional;
 @Repository
 public interface IssueRepository extends JpaRepository<Issue, Long> {
 
+    /**
+     * Constructor expression for the issue feed read model (see IssueFeedView).
+     * Feeds select straight into the flat view, so no Issue entity, votes collection
+     * or lazy reporter proxy is hydrated per row.
+     */
+    String FEED_SELECT = "SELECT new com.civicconnect.api.dto.IssueFeedView(" +
+            "i.id, i.title, i.description, i.imageUrl, i.audioUrl, i.category, i.status, i.priority, " +
+            "i.latitude, i.longitude, i.locationName, i.districtName, i.stateName, " +
+            "i.parliamentaryConstituency, i.assemblyConstituency, " +
+            "i.mlaId, i.mlaName, i.mlaParty, i.mpId, i.mpName, i.mpParty, " +
+            "i.councillorId, i.councillorName, i.councillorParty, i.wardNo, i.wardName, " +
+            "i.departmentName, i.assignedOfficialName, i.assignedOfficialId, " +
+            "i.upvoteCount, i.downvoteCount, r.id, r.name, r.photoUrl, " +
+            "i.trackingId, i.possibleDuplicateOfId, i.createdAt, i.updatedAt, i.resolvedAt) " +
+            "FROM Issue i LEFT JOIN i.reporter r ";
+
+    String HEAT_ORDER = "ORDER BY (CAST(i.upvoteCount AS float) / (i.upvoteCount + i.downvoteCount + 1)) DESC";
+
     // Find active issues ordered by heat score (upvotes ratio)
-    @Query("SELECT i FROM Issue i WHERE i.isActive = true ORDER BY " +
-           "(CAST(i.upvoteCount AS float) / (i.upvoteCount + i.downvoteCount + 1)) DESC")
-    Page<Issue> findHottestIssues(Pageable pageable);
+    @Query(value = FEED_SELECT + "WHERE i.isActive = true " + HEAT_ORDER,
+           countQuery = "SELECT COUNT(i) FROM Issue i WHERE i.isActive = true")
+    Page<IssueFeedView> findHottestIssues(Pageable pageable);
 
     // Find active issues by category
-    @Query("SELECT i FROM Issue i WHERE i.isActive = true AND i.category = :category " +
-           "ORDER BY (CAST(i.upvoteCount AS float) / (i.upvoteCount + i.downvoteCount + 1)) DESC")
-    Page<Issue> findByCategoryOrderByHeatScore(
+    @Query(value = FEED_SELECT + "WHERE i.isActive = true AND i.category = :category " + HEAT_ORDER,
+           countQuery = "SELECT COUNT(i) FROM Issue i WHERE i.isActive = true AND i.category = :category")
+    Page<IssueFeedView> findByCategoryOrderByHeatScore(
             @Param("category") Issue.IssueCategory category,
             Pageable pageable
     );
 
     // Find active issues by status
-    @Query("SELECT i FROM Issue i WHERE i.isActive = true AND i.status = :status " +
-           "ORDER BY (CAST(i.upvoteCount AS float) / (i.upvoteCount + i.downvoteCount + 1)) DESC")
-    Page<Issue> findByStatusOrderByHeatScore(
+    @Query(value = FEED_SELECT + "WHERE i.isActive = true AND i.status = :status " + HEAT_ORDER,
+           countQuery = "SELECT COUNT(i) FROM Issue i WHERE i.isActive = true AND i.status = :status")
+    Page<IssueFeedView> findByStatusOrderByHeatScore(
             @Param("status") Issue.IssueStatus status,
             Pageable pageable
     );
 
     // Find issues near a location
-    @Query("SELECT i FROM Issue i WHERE i.isActive = true " +
+    @Query(value = FEED_SELECT + "WHERE i.isActive = true " +
+           "AND i.latitude BETWEEN :minLat AND :maxLat " +
+           "AND i.longitude BETWEEN :minLng AND :maxLng " + HEAT_ORDER,
+           countQuery = "SELECT COUNT(i) FROM Issue i WHERE i.isActive = true " +
            "AND i.latitude BETWEEN :minLat AND :maxLat " +
-           "AND i.longitude BETWEEN :minLng AND :maxLng " +
-           "ORDER BY (CAST(i.upvoteCount AS float) / (i.upvoteCount + i.downvoteCount + 1)) DESC")
-    Page<Issue> findNearbyIssues(
+           "AND i.longitude BETWEEN :minLng AND :maxLng")
+    Page<IssueFeedView> findNearbyIssues(
             @Param("minLat") Double minLat,
             @Param("maxLat") Double maxLat,
             @Param("minLng") Double minLng,
@@ -52,8 +73,9 @@ public interface IssueRepository extends JpaRepository<Issue, Long> {
     Optional<Issue> findByTrackingId(String trackingId);
 
     // Find issues by reporter
-    @Query("SELECT i FROM Issue i WHERE i.reporter.id = :userId ORDER BY i.createdAt DESC")
-    Page<Issue> findByReporterId(@Param("userId") Long userId, Pageable pageable);
+    @Query(value = FEED_SELECT + "WHERE r.id = :userId ORDER BY i.createdAt DESC",
+           countQuery = "SELECT COUNT(i) FROM Issue i WHERE i.reporter.id = :userId")
+    Page<IssueFeedView> findByReporterId(@Param("userId") Long userId, Pageable pageable);
 
     // Count issues by reporter
     @Query("SELECT COUNT(i) FROM Issue i WHERE i.reporter.id = :userId")
@@ -64,88 +86,69 @@ public interface IssueRepository extends JpaRepository<Issue, Long> {
     Long countResolvedByReporterId(@Param("userId") Long userId);
 
     // Find issues by state
-    @Query("SELECT i FROM Issue i WHERE i.isActive = true AND i.stateName = :stateName " +
-           "ORDER BY (CAST(i.upvoteCount AS float) / (i.upvoteCount + i.downvoteCount + 1)) DESC")
-    Page<Issue> findByStateName(@Param("stateName") String stateName, Pageable pageable);
+    @Query(value = FEED_SELECT + "WHERE i.isActive = true AND i.stateName = :stateName " + HEAT_ORDER,
+           countQuery = "SELECT COUNT(i) FROM Issue i WHERE i.isActive = true AND i.stateName = :stateName")
+    Page<IssueFeedView> findByStateName(@Param("stateName") String stateName, Pageable pageable);
 
     // Find issues by district
-    @Query("SELECT i FROM Issue i WHERE i.isActive = true AND i.districtName = :districtName " +
-           "ORDER BY (CAST(i.upvoteCount AS float) / (i.upvoteCount + i.downvoteCount + 1)) DESC")
-    Page<Issue> findByDistrictName(@Param("districtName") String districtName, Pageable pageable);
+    @Query(value = FEED_SELECT + "WHERE i.isActive = true AND i.districtName = :districtName " + HEAT_ORDER,
+           countQuery = "SELECT COUNT(i) FROM Issue i WHERE i.isActive = true AND i.districtName = :districtName")
+    Page<IssueFeedView> findByDistrictName(@Param("districtName") String districtName, Pageable pageable);
 
     // Search issues by title or description
-    @Query("SELECT i FROM Issue i WHERE i.isActive = true " +
+    @Query(value = FEED_SELECT + "WHERE i.isActive = true " +
+           "AND (LOWER(i.title) LIKE LOWER(CONCAT('%', :query, '%')) " +
+           "OR LOWER(i.description) LIKE LOWER(CONCAT('%', :query, '%'))) " + HEAT_ORDER,
+           countQuery = "SELECT COUNT(i) FROM Issue i WHERE i.isActive = true " +
            "AND (LOWER(i.title) LIKE LOWER(CONCAT('%', :query, '%')) " +
-           "OR LOWER(i.description) LIKE LOWER(CONCAT('%', :query, '%'))) " +
-           "ORDER BY (CAST(i.upvoteCount AS float) / (i.upvoteCount + i.downvoteCount + 1)) DESC")
-    Page<Issue> searchIssues(@Param("query") String query, Pageable pageable);
+           "OR LOWER(i.description) LIKE LOWER(CONCAT('%', :query, '%')))")
+    Page<IssueFeedView> searchIssues(@Param("query") String query, Pageable pageable);
 
     // Find issues by parliamentary constituency (primary filter for Issue Pulse)
-    @Query("SELECT i FROM Issue i WHERE i.isActive = true AND i.parliamentaryConstituency = :constituency " +
-           "ORDER BY (CAST(i.upvoteCount AS float) / (i.upvoteCount + i.downvoteCount + 1)) DESC")
-    Page<Issue> findByParliamentaryConstituencyOrderByHeatScore(
+    @Query(value = FEED_SELECT + "WHERE i.isActive = true AND i.parliamentaryConstituency = :constituency " + HEAT_ORDER,
+           countQuery = "SELECT COUNT(i) FROM Issue i WHERE i.isActive = true AND i.parliamentaryConstituency = :constituency")
+    Page<IssueFeedView> findByParliamentaryConstituencyOrderByHeatScore(
             @Param("constituency") String constituency,
             Pageable pageable
     );
 
     // Find issues by assembly constituency
-    @Query("SELECT i FROM Issue i WHERE i.isActive = true AND i.assemblyConstituency = :constituency " +
-           "ORDER BY (CAST(i.upvoteCount AS float) / (i.upvoteCount + i.downvoteCount + 1)) DESC")
-    Page<Issue> findByAssemblyConstituencyOrderByHeatScore(
+    @Query(value = FEED_SELECT + "WHERE i.isActive = true AND i.assemblyConstituency = :constituency " + HEAT_ORDER,
+           countQuery = "SELECT COUNT(i) FROM Issue i WHERE i.isActive = true AND i.assemblyConstituency = :constituency")
+    Page<IssueFeedView> findByAssemblyConstituencyOrderByHeatScore(
             @Param("constituency") String constituency,
             Pageable pageable
     );
 
     // Find issues by either parliamentary or assembly constituency
-    @Query("SELECT i FROM Issue i WHERE i.isActive = true " +
-           "AND (i.parliamentaryConstituency = :pc OR i.assemblyConstituency = :ac) " +
-           "ORDER BY (CAST(i.upvoteCount AS float) / (i.upvoteCount + i.downvoteCount + 1)) DESC")
-    Page<Issue> findByConstituencyOrderByHeatScore(
+    @Query(value = FEED_SELECT + "WHERE i.isActive = true " +
+           "AND (i.parliamentaryConstituency = :pc OR i.assemblyConstituency = :ac) " + HEAT_ORDER,
+           countQuery = "SELECT COUNT(i) FROM Issue i WHERE i.isActive = true " +
+           "AND (i.parliamentaryConstituency = :pc OR i.assemblyConstituency = :ac)")
+    Page<IssueFeedView> findByConstituencyOrderByHeatScore(
             @Param("pc") String parliamentaryConstituency,
             @Param("ac") String assemblyConstituency,
             Pageable pageable
     );
 
-    // ========== Issue counts by representative for Gov Map stats ==========
-
-    // Count by Councillor ID
-    @Query("SELECT COUNT(i) FROM Issue i WHERE i.councillorId = :councillorId")
-    Long countByCouncillorId(@Param("councillorId") Long councillorId);
-
-    @Query("SELECT COUNT(i) FROM Issue i WHERE i.councillorId = :councillorId AND i.status = com.civicconnect.api.entity.Issue$IssueStatus.RESOLVED")
-    Long countByCouncillorIdResolved(@Param("councillorId") Long councillorId);
+    // Single-row read model for issue detail pages
+    @Query(FEED_SELECT + "WHERE i.id = :id")
+    Optional<IssueFeedView> findFeedViewById(@Param("id") Long id);
 
-    @Query("SELECT COUNT(i) FROM Issue i WHERE i.councillorId = :councillorId AND i.status = com.civicconnect.api.entity.Issue$IssueStatus.PENDING")
-    Long countByCouncillorIdPending(@Param("councillorId") Long councillorId);
+    @Query(FEED_SELECT + "WHERE i.trackingId = :trackingId")
+    Optional<IssueFeedView> findFeedViewByTrackingId(@Param("trackingId") String trackingId);
 
-    @Query("SELECT COUNT(i) FROM Issue i WHERE i.councillorId = :councillorId AND i.status = com.civicconnect.api.entity.Issue$IssueStatus.IN_PROGRESS")
-    Long countByCouncillorIdInProgress(@Param("councillorId") Long councillorId);
-
-    // Count by MLA ID
-    @Query("SELECT COUNT(i) FROM Issue i WHERE i.mlaId = :mlaId")
-    Long countByMlaId(@Param("mlaId") Long mlaId);
-
-    @Query("SELECT COUNT(i) FROM Issue i WHERE i.mlaId = :mlaId AND i.status = com.civicconnect.api.entity.Issue$IssueStatus.RESOLVED")
-    Long countByMlaIdResolved(@Param("mlaId") Long mlaId);
-
-    @Query("SELECT COUNT(i) FROM Issue i WHERE i.mlaId = :mlaId AND i.status = com.civicconnect.api.entity.Issue$IssueStatus.PENDING")
-    Long countByMlaIdPending(@Param("mlaId") Long mlaId);
-
-    @Query("SELECT COUNT(i) FROM Issue i WHERE i.mlaId = :mlaId AND i.status = com.civicconnect.api.entity.Issue$IssueStatus.IN_PROGRESS")
-    Long countByMlaIdInProgress(@Param("mlaId") Long mlaId);
-
-    // Count by MP ID
-    @Query("SELECT COUNT(i) FROM Issue i WHERE i.mpId = :mpId")
-    Long countByMpId(@Param("mpId") Long mpId);
+    // ========== Issue counts by representative for Gov Map stats ==========
+    // Fallback for RepresentativeIssueCounterService before counters are built: [status, count]
 
-    @Query("SELECT COUNT(i) FROM Issue i WHERE i.mpId = :mpId AND i.status = com.civicconnect.api.entity.Issue$IssueStatus.RESOLVED")
-    Long countByMpIdResolved(@Param("mpId") Long mpId);
+    @Query("SELECT i.status, COUNT(i) FROM Issue i WHERE i.councillorId = :councillorId GROUP BY i.status")
+    List<Object[]> countByCouncillorIdGroupByStatus(@Param("councillorId") Long councillorId);
 
-    @Query("SELECT COUNT(i) FROM Issue i WHERE i.mpId = :mpId AND i.status = com.civicconnect.api.entity.Issue$IssueStatus.PENDING")
-    Long countByMpIdPending(@Param("mpId") Long mpId);
+    @Query("SELECT i.status, COUNT(i) FROM Issue i WHERE i.mlaId = :mlaId GROUP BY i.status")
+    List<Object[]> countByMlaIdGroupByStatus(@Param("mlaId") Long mlaId);
 
-    @Query("SELECT COUNT(i) FROM Issue i WHERE i.mpId = :mpId AND i.status = com.civicconnect.api.entity.Issue$IssueStatus.IN_PROGRESS")
-    Long countByMpIdInProgress(@Param("mpId") Long mpId);
+    @Query("SELECT i.status, COUNT(i) FROM Issue i WHERE i.mpId = :mpId GROUP BY i.status")
+    List<Object[]> countByMpIdGroupByStatus(@Param("mpId") Long mpId);
 
     // Count by Assembly Constituency (for MLA aggregate stats)
     @Query("SELECT COUNT(i) FROM Issue i WHERE i.assemblyConstituency = :ac")
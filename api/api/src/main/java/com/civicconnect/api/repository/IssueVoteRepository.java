@@ -6,6 +6,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -18,6 +20,13 @@ public interface IssueVoteRepository extends JpaRepository<IssueVote, Long> {
             @Param("userId") Long userId
     );
 
+    // Batch-load a user's votes for one feed page: [issueId, voteType]
+    @Query("SELECT v.issue.id, v.voteType FROM IssueVote v WHERE v.user.id = :userId AND v.issue.id IN :issueIds")
+    List<Object[]> findVoteTypesByUserIdAndIssueIds(
+            @Param("userId") Long userId,
+            @Param("issueIds") Collection<Long> issueIds
+    );
+
     // Count upvotes for an issue
     @Query("SELECT COUNT(v) FROM IssueVote v WHERE v.issue.id = :issueId AND v.voteType = 'UPVOTE'")
     Long countUpvotes(@Param("issueId") Long issueId);
@@ -0,0 +1,59 @@
+package com.civicconnect.api.repository;
+
+import com.civicconnect.api.entity.RepresentativeIssueCounter;
+import com.civicconnect.api.entity.RepresentativeRating.RepresentativeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RepresentativeIssueCounterRepository extends JpaRepository<RepresentativeIssueCounter, Long> {
+
+    /**
+     * All status counters for one representative (at most one row per status)
+     */
+    List<RepresentativeIssueCounter> findByRepresentativeTypeAndRepresentativeId(
+            RepresentativeType type, Long representativeId);
+
+    /**
+     * Atomically add delta to a counter, creating it if missing
+     */
+    @Modifying
+    @Query(value = "INSERT INTO representative_issue_counters " +
+           "(representative_type, representative_id, status, issue_count) " +
+           "VALUES (:type, :repId, :status, :delta) " +
+           "ON CONFLICT (representative_type, representative_id, status) " +
+           "DO UPDATE SET issue_count = representative_issue_counters.issue_count + EXCLUDED.issue_count",
+           nativeQuery = true)
+    int increment(@Param("type") String type,
+                  @Param("repId") Long representativeId,
+                  @Param("status") String status,
+                  @Param("delta") long delta);
+
+    @Modifying
+    @Query(value = "DELETE FROM representative_issue_counters", nativeQuery = true)
+    int deleteAllCounters();
+
+    /**
+     * Rebuild all counters from the issues table in one set-based statement.
+     * An increment committed after deleteAllCounters() may already have re-created a row; the
+     * rebuilt count replaces it instead of failing on the unique key.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO representative_issue_counters " +
+           "(representative_type, representative_id, status, issue_count) " +
+           "SELECT 'MLA', mla_id, status, COUNT(*) FROM issues WHERE mla_id IS NOT NULL GROUP BY mla_id, status " +
+           "UNION ALL " +
+           "SELECT 'MP', mp_id, status, COUNT(*) FROM issues WHERE mp_id IS NOT NULL GROUP BY mp_id, status " +
+           "UNION ALL " +
+           "SELECT 'WARD_COUNCILLOR', councillor_id, status, COUNT(*) FROM issues " +
+           "WHERE councillor_id IS NOT NULL GROUP BY councillor_id, status " +
+           "ON CONFLICT (representative_type, representative_id, status) " +
+           "DO UPDATE SET issue_count = EXCLUDED.issue_count",
+           nativeQuery = true)
+    int rebuildFromIssues();
+}
@@ -0,0 +1,117 @@
+package com.civicconnect.api.repository;
+
+import com.civicconnect.api.entity.RepresentativeRatingAggregate;
+import com.civicconnect.api.entity.RepresentativeRating.RepresentativeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RepresentativeRatingAggregateRepository extends JpaRepository<RepresentativeRatingAggregate, Long> {
+
+    /**
+     * Leaderboard row: type, id, rating count, rating sum, name, party, constituency, state.
+     * Profile columns come from whichever representative table matches the type.
+     */
+    String LEADERBOARD_SELECT = "SELECT a.representative_type, a.representative_id, a.rating_count, a.rating_sum, " +
+            "COALESCE(mla.member_name, mp.member_name, wc.councillor_name, m.name, cm.name, pm.name), " +
+            "COALESCE(mla.party_abbreviation, mla.party_name, mp.party_abbreviation, mp.party_name, " +
+            "wc.party_affiliation, m.party_abbreviation, m.party_name, " +
+            "cm.party_abbreviation, cm.party_name, pm.party_abbreviation, pm.party_name), " +
+            "COALESCE(mla.constituency_name, mp.constituency_name, wc.ward_name, m.city_name, " +
+            "cm.state_name, pm.constituency_name), " +
+            "COALESCE(mla.state_name, mp.state_name, wc.state, m.state_name, cm.state_name) " +
+            "FROM representative_rating_aggregates a " +
+            "LEFT JOIN members_of_legislative_assembly mla " +
+            "ON a.representative_type = 'MLA' AND mla.id = a.representative_id " +
+            "LEFT JOIN members_of_parliament mp " +
+            "ON a.representative_type = 'MP' AND mp.id = a.representative_id " +
+            "LEFT JOIN ward_councillors wc " +
+            "ON a.representative_type = 'WARD_COUNCILLOR' AND wc.id = a.representative_id " +
+            "LEFT JOIN mayors m " +
+            "ON a.representative_type = 'MAYOR' AND m.id = a.representative_id " +
+            "LEFT JOIN chief_ministers cm " +
+            "ON a.representative_type = 'CHIEF_MINISTER' AND cm.id = a.representative_id " +
+            "LEFT JOIN prime_ministers pm " +
+            "ON a.representative_type = 'PRIME_MINISTER' AND pm.id = a.representative_id ";
+
+    /**
+     * Unique-key lookup of a representative's aggregate
+     */
+    Optional<RepresentativeRatingAggregate> findByRepresentativeTypeAndRepresentativeId(
+            RepresentativeType type, Long representativeId);
+
+    /**
+     * Atomically apply deltas to an aggregate row, creating it if missing
+     */
+    @Modifying
+    @Query(value = "INSERT INTO representative_rating_aggregates " +
+           "(representative_type, representative_id, rating_count, rating_sum, verified_count, " +
+           "one_star, two_star, three_star, four_star, five_star) " +
+           "VALUES (:type, :repId, :countDelta, :sumDelta, :verifiedDelta, :d1, :d2, :d3, :d4, :d5) " +
+           "ON CONFLICT (representative_type, representative_id) DO UPDATE SET " +
+           "rating_count = representative_rating_aggregates.rating_count + EXCLUDED.rating_count, " +
+           "rating_sum = representative_rating_aggregates.rating_sum + EXCLUDED.rating_sum, " +
+           "verified_count = representative_rating_aggregates.verified_count + EXCLUDED.verified_count, " +
+           "one_star = representative_rating_aggregates.one_star + EXCLUDED.one_star, " +
+           "two_star = representative_rating_aggregates.two_star + EXCLUDED.two_star, " +
+           "three_star = representative_rating_aggregates.three_star + EXCLUDED.three_star, " +
+           "four_star = representative_rating_aggregates.four_star + EXCLUDED.four_star, " +
+           "five_star = representative_rating_aggregates.five_star + EXCLUDED.five_star",
+           nativeQuery = true)
+    int applyDelta(@Param("type") String type,
+                   @Param("repId") Long representativeId,
+                   @Param("countDelta") long countDelta,
+                   @Param("sumDelta") long sumDelta,
+                   @Param("verifiedDelta") long verifiedDelta,
+                   @Param("d1") long oneStarDelta,
+                   @Param("d2") long twoStarDelta,
+                   @Param("d3") long threeStarDelta,
+                   @Param("d4") long fourStarDelta,
+                   @Param("d5") long fiveStarDelta);
+
+    /**
+     * Leaderboard rows for every representative with at least one rating
+     */
+    @Query(value = LEADERBOARD_SELECT + "WHERE a.rating_count > 0", nativeQuery = true)
+    List<Object[]> findLeaderboardRows();
+
+    /**
+     * Leaderboard row for a single representative
+     */
+    @Query(value = LEADERBOARD_SELECT + "WHERE a.representative_type = :type AND a.representative_id = :repId",
+           nativeQuery = true)
+    List<Object[]> findLeaderboardRow(@Param("type") String type, @Param("repId") Long representativeId);
+
+    @Modifying
+    @Query(value = "DELETE FROM representative_rating_aggregates", nativeQuery = true)
+    int deleteAllAggregates();
+
+    /**
+     * Rebuild all aggregates from representative_ratings in one set-based statement.
+     * A rating committed after deleteAllAggregates() may already have re-created a row; the
+     * rebuilt aggregate replaces it instead of failing on the unique key.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO representative_rating_aggregates " +
+           "(representative_type, representative_id, rating_count, rating_sum, verified_count, " +
+           "one_star, two_star, three_star, four_star, five_star) " +
+           "SELECT representative_type, representative_id, COUNT(*), SUM(rating), " +
+           "COUNT(*) FILTER (WHERE is_verified), " +
+           "COUNT(*) FILTER (WHERE rating = 1), COUNT(*) FILTER (WHERE rating = 2), " +
+           "COUNT(*) FILTER (WHERE rating = 3), COUNT(*) FILTER (WHERE rating = 4), " +
+           "COUNT(*) FILTER (WHERE rating = 5) " +
+           "FROM representative_ratings GROUP BY representative_type, representative_id " +
+           "ON CONFLICT (representative_type, representative_id) DO UPDATE SET " +
+           "rating_count = EXCLUDED.rating_count, rating_sum = EXCLUDED.rating_sum, " +
+           "verified_count = EXCLUDED.verified_count, one_star = EXCLUDED.one_star, " +
+           "two_star = EXCLUDED.two_star, three_star = EXCLUDED.three_star, " +
+           "four_star = EXCLUDED.four_star, five_star = EXCLUDED.five_star",
+           nativeQuery = true)
+    int rebuildFromRatings();
+}
@@ -2,11 +2,13 @@ package com.civicconnect.api.repository;
 
 import com.civicconnect.api.entity.RepresentativeRating;
 import com.civicconnect.api.entity.RepresentativeRating.RepresentativeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,6 +35,13 @@ public interface RepresentativeRatingRepository extends JpaRepository<Representa
      */
     List<RepresentativeRating> findByUserIdOrderByCreatedAtDesc(Long userId);
 
+    /**
+     * Get (type, representativeId, rating) for every rating by a user, without loading entities
+     */
+    @Query("SELECT r.representativeType, r.representativeId, r.rating FROM RepresentativeRating r " +
+           "WHERE r.user.id = :userId")
+    List<Object[]> findRatingValuesByUserId(@Param("userId") Long userId);
+
     /**
      * Get average rating for a representative
      */
@@ -56,61 +65,30 @@ public interface RepresentativeRatingRepository extends JpaRepository<Representa
     List<Object[]> getRatingDistribution(@Param("type") RepresentativeType type, @Param("repId") Long representativeId);
 
     /**
-     * Get aggregate stats for a representative
-     * Returns: [averageRating, totalCount, fiveStarCount, fourStarCount, threeStarCount, twoStarCount, oneStarCount]
-     */
-    @Query("SELECT " +
-           "COALESCE(AVG(r.rating), 0), " +
-           "COUNT(r), " +
-           "SUM(CASE WHEN r.rating = 5 THEN 1 ELSE 0 END), " +
-           "SUM(CASE WHEN r.rating = 4 THEN 1 ELSE 0 END), " +
-           "SUM(CASE WHEN r.rating = 3 THEN 1 ELSE 0 END), " +
-           "SUM(CASE WHEN r.rating = 2 THEN 1 ELSE 0 END), " +
-           "SUM(CASE WHEN r.rating = 1 THEN 1 ELSE 0 END) " +
-           "FROM RepresentativeRating r " +
-           "WHERE r.representativeType = :type AND r.representativeId = :repId")
-    Object[] getAggregateStats(@Param("type") RepresentativeType type, @Param("repId") Long representativeId);
-
-    /**
-     * Get recent ratings with comments for a representative (for display)
+     * Newest reviews (ratings with a comment) for a representative.
+     * Served by the partial index idx_rating_reviews_keyset.
      */
-    @Query("SELECT r FROM RepresentativeRating r " +
+    @Query("SELECT r FROM RepresentativeRating r JOIN FETCH r.user " +
            "WHERE r.representativeType = :type AND r.representativeId = :repId " +
            "AND r.comment IS NOT NULL AND r.comment <> '' " +
-           "ORDER BY r.createdAt DESC")
-    List<RepresentativeRating> getRecentReviews(@Param("type") RepresentativeType type,
-                                                 @Param("repId") Long representativeId);
-
-    /**
-     * Count verified ratings for a representative
-     */
-    @Query("SELECT COUNT(r) FROM RepresentativeRating r " +
-           "WHERE r.representativeType = :type AND r.representativeId = :repId AND r.isVerified = true")
-    Long getVerifiedRatingCount(@Param("type") RepresentativeType type, @Param("repId") Long representativeId);
-
-    /**
-     * Get top rated representatives by type
-     */
-    @Query("SELECT r.representativeId, r.representativeName, r.partyName, r.constituencyName, " +
-           "AVG(r.rating) as avgRating, COUNT(r) as ratingCount " +
-           "FROM RepresentativeRating r " +
-           "WHERE r.representativeType = :type " +
-           "GROUP BY r.representativeId, r.representativeName, r.partyName, r.constituencyName " +
-           "HAVING COUNT(r) >= :minRatings " +
-           "ORDER BY AVG(r.rating) DESC")
-    List<Object[]> getTopRatedByType(@Param("type") RepresentativeType type, @Param("minRatings") Long minRatings);
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<RepresentativeRating> findLatestReviews(@Param("type") RepresentativeType type,
+                                                 @Param("repId") Long representativeId,
+                                                 Pageable pageable);
 
     /**
-     * Get lowest rated representatives by type
+     * Next page of reviews strictly older than the (createdAt, id) cursor
      */
-    @Query("SELECT r.representativeId, r.representativeName, r.partyName, r.constituencyName, " +
-           "AVG(r.rating) as avgRating, COUNT(r) as ratingCount " +
-           "FROM RepresentativeRating r " +
-           "WHERE r.representativeType = :type " +
-           "GROUP BY r.representativeId, r.representativeName, r.partyName, r.constituencyName " +
-           "HAVING COUNT(r) >= :minRatings " +
-           "ORDER BY AVG(r.rating) ASC")
-    List<Object[]> getLowestRatedByType(@Param("type") RepresentativeType type, @Param("minRatings") Long minRatings);
+    @Query("SELECT r FROM RepresentativeRating r JOIN FETCH r.user " +
+           "WHERE r.representativeType = :type AND r.representativeId = :repId " +
+           "AND r.comment IS NOT NULL AND r.comment <> '' " +
+           "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<RepresentativeRating> findReviewsBefore(@Param("type") RepresentativeType type,
+                                                 @Param("repId") Long representativeId,
+                                                 @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") Long id,
+                                                 Pageable pageable);
 
     /**
      * Check if user has already rated this representative
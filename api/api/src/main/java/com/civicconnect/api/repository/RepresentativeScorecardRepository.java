@@ -0,0 +1,94 @@
+package com.civicconnect.api.repository;
+
+import com.civicconnect.api.entity.RepresentativeRating.RepresentativeType;
+import com.civicconnect.api.entity.RepresentativeScorecard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface RepresentativeScorecardRepository extends JpaRepository<RepresentativeScorecard, Long> {
+
+    /**
+     * Scorecard upsert for every representative of :type, computed from rating aggregates and issue counters.
+     * Mirrors RepresentativeRatingService: 1-decimal averages, 60% approval + 40% resolution.
+     */
+    String UPSERT_PREFIX = "INSERT INTO representative_scorecards " +
+            "(representative_type, representative_id, average_rating, rating_count, approval_level, " +
+            "issues_registered, issues_resolved, resolution_rate, accountability_score, updated_at) " +
+            "SELECT s.type, s.id, s.avg_rounded, s.rating_count, " +
+            "CASE WHEN s.avg_raw = 0 THEN 'Not Rated' WHEN s.avg_raw >= 4.5 THEN 'Excellent' " +
+            "WHEN s.avg_raw >= 3.5 THEN 'Good' WHEN s.avg_raw >= 2.5 THEN 'Average' " +
+            "WHEN s.avg_raw >= 1.5 THEN 'Poor' ELSE 'Very Poor' END, " +
+            "s.issues_total, s.issues_resolved, s.resolution_rate, " +
+            "ROUND((CASE WHEN s.rating_count > 0 THEN s.avg_rounded / 5.0 * 60 ELSE 0 END " +
+            "+ s.resolution_rate / 100.0 * 40)::numeric), :now " +
+            "FROM (SELECT r.type, r.id, COALESCE(a.rating_count, 0) AS rating_count, " +
+            "CASE WHEN a.rating_count > 0 THEN a.rating_sum::float8 / a.rating_count ELSE 0 END AS avg_raw, " +
+            "CASE WHEN a.rating_count > 0 THEN ROUND(a.rating_sum::numeric / a.rating_count, 1)::float8 " +
+            "ELSE 0 END AS avg_rounded, " +
+            "COALESCE(c.total, 0) AS issues_total, COALESCE(c.resolved, 0) AS issues_resolved, " +
+            "CASE WHEN c.total > 0 THEN ROUND(c.resolved * 100.0 / c.total, 1)::float8 ELSE 0 END AS resolution_rate " +
+            "FROM (SELECT 'MLA' AS type, id FROM members_of_legislative_assembly WHERE :type = 'MLA' " +
+            "UNION ALL SELECT 'MP', id FROM members_of_parliament WHERE :type = 'MP' " +
+            "UNION ALL SELECT 'WARD_COUNCILLOR', id FROM ward_councillors WHERE :type = 'WARD_COUNCILLOR' " +
+            "UNION ALL SELECT 'MAYOR', id FROM mayors WHERE :type = 'MAYOR' " +
+            "UNION ALL SELECT 'CHIEF_MINISTER', id FROM chief_ministers WHERE :type = 'CHIEF_MINISTER' " +
+            "UNION ALL SELECT 'PRIME_MINISTER', id FROM prime_ministers WHERE :type = 'PRIME_MINISTER') r " +
+            "LEFT JOIN representative_rating_aggregates a " +
+            "ON a.representative_type = r.type AND a.representative_id = r.id " +
+            "LEFT JOIN (SELECT representative_id, SUM(issue_count) AS total, " +
+            "COALESCE(SUM(issue_count) FILTER (WHERE status = 'RESOLVED'), 0) AS resolved " +
+            "FROM representative_issue_counters WHERE representative_type = :type " +
+            "GROUP BY representative_id) c ON c.representative_id = r.id ";
+
+    String UPSERT_SUFFIX = ") s " +
+            "ON CONFLICT (representative_type, representative_id) DO UPDATE SET " +
+            "average_rating = EXCLUDED.average_rating, rating_count = EXCLUDED.rating_count, " +
+            "approval_level = EXCLUDED.approval_level, issues_registered = EXCLUDED.issues_registered, " +
+            "issues_resolved = EXCLUDED.issues_resolved, resolution_rate = EXCLUDED.resolution_rate, " +
+            "accountability_score = EXCLUDED.accountability_score, updated_at = EXCLUDED.updated_at";
+
+    /**
+     * Keeps the rebuild from overwriting rows patched by refresh() after :now, which its snapshot may predate
+     */
+    String REBUILD_GUARD = " WHERE representative_scorecards.updated_at < EXCLUDED.updated_at";
+
+    /**
+     * Unique-key lookup of a representative's scorecard
+     */
+    Optional<RepresentativeScorecard> findByRepresentativeTypeAndRepresentativeId(
+            RepresentativeType type, Long representativeId);
+
+    /**
+     * Recompute scorecards for every representative of a type (own transaction, so types can run in parallel).
+     * :now must be taken right before the statement; rows refreshed since then are left alone.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = UPSERT_PREFIX + UPSERT_SUFFIX + REBUILD_GUARD, nativeQuery = true)
+    int rebuildType(@Param("type") String type, @Param("now") LocalDateTime now);
+
+    /**
+     * Remove scorecards of representatives that no longer exist (not touched by the rebuild at :now)
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM representative_scorecards " +
+           "WHERE representative_type = :type AND updated_at < :now", nativeQuery = true)
+    int deleteStale(@Param("type") String type, @Param("now") LocalDateTime now);
+
+    /**
+     * Recompute one representative's scorecard (joins the caller's transaction)
+     */
+    @Transactional
+    @Modifying
+    @Query(value = UPSERT_PREFIX + "WHERE r.id = :repId" + UPSERT_SUFFIX, nativeQuery = true)
+    int refresh(@Param("type") String type, @Param("repId") Long representativeId, @Param("now") LocalDateTime now);
+}
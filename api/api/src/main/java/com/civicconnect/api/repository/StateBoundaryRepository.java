@@ -27,6 +27,15 @@ public interface StateBoundaryRepository extends JpaRepository<StateBoundary, Lo
             """, nativeQuery = true)
     Optional<StateBoundary> findByPoint(@Param("lat") double lat, @Param("lng") double lng);
 
+    // State name, PC id and AC id containing a point, in one round trip (columns are null outside every boundary)
+    @Query(value = """
+            SELECT (SELECT s.state_name FROM state_boundaries s WHERE ST_Contains(s.boundary, p.pt) LIMIT 1),
+                   (SELECT pc.id FROM parliamentary_constituencies pc WHERE ST_Contains(pc.boundary, p.pt) LIMIT 1),
+                   (SELECT ac.id FROM assembly_constituencies ac WHERE ST_Contains(ac.boundary, p.pt) LIMIT 1)
+            FROM (SELECT ST_SetSRID(ST_MakePoint(:lng, :lat), 4326) AS pt) p
+            """, nativeQuery = true)
+    List<Object[]> findJurisdictionIdsByPoint(@Param("lat") double lat, @Param("lng") double lng);
+
     // Get all states as GeoJSON
     @Query(value = """
             SELECT json_build_object(
@@ -0,0 +1,81 @@
+package com.civicconnect.api.repository.analytics;
+
+import com.civicconnect.api.entity.analytics.AnalyticsRollup;
+import com.civicconnect.api.entity.analytics.AnalyticsRollup.Granularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AnalyticsRollupRepository extends JpaRepository<AnalyticsRollup, Long> {
+
+    /**
+     * Add counter deltas and a session sample to a MINUTE bucket and its HOUR bucket in one statement,
+     * creating them if needed. Counters and sample sums add up; active_sessions keeps the peak.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO analytics_rollups (granularity, bucket_start, activity_count, activity_type_counts, " +
+            "request_count, latency_sum_ms, latency_count, error_count, active_sessions, session_samples, " +
+            "sampled_sessions, session_duration_sum_minutes, session_duration_histogram) " +
+            "SELECT g.granularity, g.bucket_start, :activityCount, CAST(:activityTypeCounts AS jsonb), " +
+            ":requestCount, :latencySumMs, :latencyCount, :errorCount, :activeSessions, :sessionSamples, " +
+            ":sampledSessions, :sessionDurationSumMinutes, CAST(:sessionDurationHistogram AS bigint[]) " +
+            "FROM (VALUES ('MINUTE', CAST(:minuteStart AS timestamp)), ('HOUR', CAST(:hourStart AS timestamp))) " +
+            "AS g(granularity, bucket_start) " +
+            "ON CONFLICT (granularity, bucket_start) DO UPDATE SET " +
+            "activity_count = analytics_rollups.activity_count + EXCLUDED.activity_count, " +
+            "activity_type_counts = jsonb_add_counts(analytics_rollups.activity_type_counts, EXCLUDED.activity_type_counts), " +
+            "request_count = analytics_rollups.request_count + EXCLUDED.request_count, " +
+            "latency_sum_ms = analytics_rollups.latency_sum_ms + EXCLUDED.latency_sum_ms, " +
+            "latency_count = analytics_rollups.latency_count + EXCLUDED.latency_count, " +
+            "error_count = analytics_rollups.error_count + EXCLUDED.error_count, " +
+            "active_sessions = GREATEST(analytics_rollups.active_sessions, EXCLUDED.active_sessions), " +
+            "session_samples = analytics_rollups.session_samples + EXCLUDED.session_samples, " +
+            "sampled_sessions = analytics_rollups.sampled_sessions + EXCLUDED.sampled_sessions, " +
+            "session_duration_sum_minutes = analytics_rollups.session_duration_sum_minutes + EXCLUDED.session_duration_sum_minutes, " +
+            "session_duration_histogram = bigint_array_add(analytics_rollups.session_duration_histogram, EXCLUDED.session_duration_histogram)",
+            nativeQuery = true)
+    void addToBuckets(@Param("minuteStart") LocalDateTime minuteStart,
+                      @Param("hourStart") LocalDateTime hourStart,
+                      @Param("activityCount") long activityCount,
+                      @Param("activityTypeCounts") String activityTypeCounts,
+                      @Param("requestCount") long requestCount,
+                      @Param("latencySumMs") long latencySumMs,
+                      @Param("latencyCount") long latencyCount,
+                      @Param("errorCount") long errorCount,
+                      @Param("activeSessions") int activeSessions,
+                      @Param("sessionSamples") long sessionSamples,
+                      @Param("sampledSessions") long sampledSessions,
+                      @Param("sessionDurationSumMinutes") long sessionDurationSumMinutes,
+                      @Param("sessionDurationHistogram") String sessionDurationHistogram);
+
+    /**
+     * (activity count, request count, latency sum, latency count, error count) over buckets since a time
+     */
+    @Query("SELECT COALESCE(SUM(r.activityCount), 0), COALESCE(SUM(r.requestCount), 0), " +
+           "COALESCE(SUM(r.latencySumMs), 0), COALESCE(SUM(r.latencyCount), 0), COALESCE(SUM(r.errorCount), 0) " +
+           "FROM AnalyticsRollup r WHERE r.granularity = :granularity AND r.bucketStart >= :since")
+    List<Object[]> sumSince(@Param("granularity") Granularity granularity, @Param("since") LocalDateTime since);
+
+    List<AnalyticsRollup> findByGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStartAsc(
+            Granularity granularity, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Most recent bucket that holds a session sample
+     */
+    Optional<AnalyticsRollup> findFirstByGranularityAndSessionSamplesGreaterThanOrderByBucketStartDesc(
+            Granularity granularity, Long minSamples);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AnalyticsRollup r WHERE r.granularity = :granularity AND r.bucketStart < :cutoff")
+    int deleteOlderThan(@Param("granularity") Granularity granularity, @Param("cutoff") LocalDateTime cutoff);
+}
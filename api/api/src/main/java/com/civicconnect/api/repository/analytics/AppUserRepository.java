@@ -21,19 +21,24 @@ public interface AppUserRepository extends JpaRepository<AppUser, Long> {
 
     boolean existsByEmail(String email);
 
-    @Query("SELECT u FROM AppUser u WHERE " +
+    /**
+     * Admin user listing, newest login first: (user, total sessions, active sessions) per row.
+     * The name/email substring match is served by the trigram indexes from V18.
+     */
+    @Query(value = "SELECT u, " +
+           "(SELECT COUNT(s) FROM UserSession s WHERE s.user = u), " +
+           "(SELECT COUNT(s) FROM UserSession s WHERE s.user = u AND s.isActive = true) " +
+           "FROM AppUser u WHERE (:activeOnly = false OR u.isActive = true) AND " +
            "(:search IS NULL OR LOWER(u.name) LIKE LOWER(CONCAT('%', :search, '%')) " +
-           "OR LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%')))")
-    Page<AppUser> searchUsers(@Param("search") String search, Pageable pageable);
-
-    @Query("SELECT u FROM AppUser u WHERE u.isActive = true AND " +
+           "OR LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%'))) " +
+           "ORDER BY u.lastLoginAt DESC, u.id DESC",
+           countQuery = "SELECT COUNT(u) FROM AppUser u WHERE (:activeOnly = false OR u.isActive = true) AND " +
            "(:search IS NULL OR LOWER(u.name) LIKE LOWER(CONCAT('%', :search, '%')) " +
            "OR LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%')))")
-    Page<AppUser> searchActiveUsers(@Param("search") String search, Pageable pageable);
+    Page<Object[]> searchUsersWithSessionCounts(@Param("search") String search,
+                                                @Param("activeOnly") boolean activeOnly,
+                                                Pageable pageable);
 
     @Query("SELECT COUNT(u) FROM AppUser u WHERE u.isActive = true")
     long countActiveUsers();
-
-    @Query("SELECT COUNT(DISTINCT s.user.id) FROM UserSession s WHERE s.isActive = true")
-    long countUsersWithActiveSessions();
 }
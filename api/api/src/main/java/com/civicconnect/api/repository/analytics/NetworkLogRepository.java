@@ -4,7 +4,6 @@ import com.civicconnect.api.entity.analytics.NetworkLog;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -15,10 +14,16 @@ import java.util.Optional;
 @Repository
 public interface NetworkLogRepository extends JpaRepository<NetworkLog, Long> {
 
-    Page<NetworkLog> findByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
-
     Page<NetworkLog> findBySessionIdOrderByCreatedAtDesc(Long sessionId, Pageable pageable);
 
+    // network_logs is partitioned by day on created_at; bounding created_at lets Postgres prune partitions
+    @Query("SELECT n FROM NetworkLog n WHERE n.user.id = :userId " +
+           "AND n.createdAt >= :from AND n.createdAt < :to ORDER BY n.createdAt DESC")
+    Page<NetworkLog> findByUserIdBetween(@Param("userId") Long userId,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to,
+                                         Pageable pageable);
+
     Optional<NetworkLog> findByRequestId(String requestId);
 
     @Query("SELECT n FROM NetworkLog n WHERE n.user.id = :userId AND n.responseStatus >= 400 ORDER BY n.createdAt DESC")
@@ -29,8 +34,4 @@ public interface NetworkLogRepository extends JpaRepository<NetworkLog, Long> {
 
     @Query("SELECT COUNT(n) FROM NetworkLog n WHERE n.responseStatus >= 400 AND n.createdAt >= :since")
     long countErrorsSince(@Param("since") LocalDateTime since);
-
-    @Modifying
-    @Query("DELETE FROM NetworkLog n WHERE n.createdAt < :cutoff")
-    int deleteOldLogs(@Param("cutoff") LocalDateTime cutoff);
 }
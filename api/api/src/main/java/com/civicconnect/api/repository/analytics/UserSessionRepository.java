@@ -16,6 +16,20 @@ public interface UserSessionRepository extends JpaRepository<UserSession, Long>
 
     Optional<UserSession> findBySessionToken(String sessionToken);
 
+    /**
+     * (sessionId, isActive, userId, email, name, photoUrl) for a token, without loading entities
+     */
+    @Query("SELECT s.id, s.isActive, u.id, u.email, u.name, u.photoUrl FROM UserSession s JOIN s.user u " +
+           "WHERE s.sessionToken = :token")
+    List<Object[]> findSessionContext(@Param("token") String sessionToken);
+
+    @Modifying
+    @Query("UPDATE UserSession s SET s.isActive = false, s.endedAt = :timestamp, s.endReason = :reason " +
+           "WHERE s.id = :id AND s.isActive = true")
+    int endSession(@Param("id") Long sessionId,
+                   @Param("reason") UserSession.EndReason reason,
+                   @Param("timestamp") LocalDateTime timestamp);
+
     List<UserSession> findByUserIdAndIsActiveTrue(Long userId);
 
     List<UserSession> findByIsActiveTrue();
@@ -23,13 +37,28 @@ public interface UserSessionRepository extends JpaRepository<UserSession, Long>
     @Query("SELECT s FROM UserSession s JOIN FETCH s.user WHERE s.isActive = true")
     List<UserSession> findActiveSessionsWithUser();
 
-    @Query("SELECT COUNT(s) FROM UserSession s WHERE s.isActive = true")
-    long countActiveSessions();
+    long countByUserId(Long userId);
+
+    /**
+     * (token, id, userId, startedAt, lastHeartbeatAt) of every active session, for the session registry
+     */
+    @Query("SELECT s.sessionToken, s.id, s.user.id, s.startedAt, s.lastHeartbeatAt FROM UserSession s " +
+           "WHERE s.isActive = true")
+    List<Object[]> findActiveSessionSnapshots();
 
+    /**
+     * Expire the given sessions, skipping any whose stored heartbeat is newer than the cutoff
+     */
     @Modifying
-    @Query("UPDATE UserSession s SET s.lastHeartbeatAt = :timestamp WHERE s.sessionToken = :token")
-    int updateHeartbeat(@Param("token") String sessionToken, @Param("timestamp") LocalDateTime timestamp);
+    @Query("UPDATE UserSession s SET s.isActive = false, s.endedAt = :timestamp, s.endReason = 'TIMEOUT' " +
+           "WHERE s.id IN :ids AND s.isActive = true AND s.lastHeartbeatAt < :cutoff")
+    int expireSessions(@Param("ids") List<Long> ids,
+                       @Param("cutoff") LocalDateTime cutoff,
+                       @Param("timestamp") LocalDateTime timestamp);
 
+    /**
+     * Expire every active session whose stored heartbeat is older than the cutoff
+     */
     @Modifying
     @Query("UPDATE UserSession s SET s.isActive = false, s.endedAt = :timestamp, s.endReason = 'TIMEOUT' " +
            "WHERE s.isActive = true AND s.lastHeartbeatAt < :cutoff")
@@ -39,8 +68,4 @@ public interface UserSessionRepository extends JpaRepository<UserSession, Long>
     @Query("UPDATE UserSession s SET s.isActive = false, s.endedAt = :timestamp, s.endReason = 'FORCE_LOGOUT' " +
            "WHERE s.user.id = :userId AND s.isActive = true")
     int forceLogoutUser(@Param("userId") Long userId, @Param("timestamp") LocalDateTime timestamp);
-
-    @Query("SELECT CASE WHEN COUNT(s) > 0 THEN true ELSE false END FROM UserSession s " +
-           "WHERE s.user.id = :userId AND s.isActive = true")
-    boolean hasActiveSession(@Param("userId") Long userId);
 }
@@ -0,0 +1,20 @@
+package com.civicconnect.api.repository.logging;
+
+import com.civicconnect.api.entity.logging.CrashGroup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for crash groups (fingerprinted crash reports).
+ */
+@Repository
+public interface CrashGroupRepository extends JpaRepository<CrashGroup, String> {
+
+    /**
+     * Find groups with an occurrence after a certain time, most recent first.
+     */
+    List<CrashGroup> findByLastSeenAfterOrderByLastSeenDesc(LocalDateTime after);
+}
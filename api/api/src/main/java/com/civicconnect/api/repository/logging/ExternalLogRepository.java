@@ -2,9 +2,6 @@ package com.civicconnect.api.repository.logging;
 
 import com.civicconnect.api.entity.logging.ExternalLog;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -47,15 +44,7 @@ public interface ExternalLogRepository extends JpaRepository<ExternalLog, Long>
     long countBySourceAndCreatedAtAfter(String source, LocalDateTime after);
 
     /**
-     * Delete logs older than a certain date for cleanup.
+     * Find the most recent sampled occurrences of a crash group.
      */
-    @Modifying
-    @Query("DELETE FROM ExternalLog e WHERE e.createdAt < :cutoff")
-    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
-
-    /**
-     * Find crash logs (logs with stack traces).
-     */
-    @Query("SELECT e FROM ExternalLog e WHERE e.stackTrace IS NOT NULL AND e.createdAt > :after ORDER BY e.createdAt DESC")
-    List<ExternalLog> findCrashLogs(@Param("after") LocalDateTime after);
+    List<ExternalLog> findTop20ByCrashFingerprintOrderByCreatedAtDesc(String crashFingerprint);
 }
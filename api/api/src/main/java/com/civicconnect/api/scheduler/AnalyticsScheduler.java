@@ -1,18 +1,23 @@
 package com.civicconnect.api.scheduler;
 
-import com.civicconnect.api.repository.analytics.ActivityLogRepository;
-import com.civicconnect.api.repository.analytics.NetworkLogRepository;
+import com.civicconnect.api.service.AnalyticsRollupService;
 import com.civicconnect.api.service.AnalyticsService;
+import com.civicconnect.api.service.DistinctUserService;
+import com.civicconnect.api.service.LatencyStatsService;
+import com.civicconnect.api.service.UserActivityBitmapService;
+import com.civicconnect.api.service.SessionRegistry;
 import com.civicconnect.api.service.WebSocketEventService;
-import com.civicconnect.api.repository.analytics.UserSessionRepository;
+import com.civicconnect.api.service.logging.CrashGroupService;
+import com.civicconnect.api.service.logging.LogPartitionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.util.function.IntSupplier;
 
 /**
  * Scheduled tasks for analytics maintenance and real-time updates.
@@ -25,12 +30,36 @@ public class AnalyticsScheduler {
 
     private final AnalyticsService analyticsService;
     private final WebSocketEventService webSocketEventService;
-    private final UserSessionRepository sessionRepository;
-    private final ActivityLogRepository activityLogRepository;
-    private final NetworkLogRepository networkLogRepository;
+    private final SessionRegistry sessionRegistry;
+    private final LogPartitionService logPartitionService;
+    private final AnalyticsRollupService rollupService;
+    private final LatencyStatsService latencyStatsService;
+    private final DistinctUserService distinctUserService;
+    private final UserActivityBitmapService activityBitmapService;
+    private final CrashGroupService crashGroupService;
 
     /**
-     * Check for stale sessions every minute.
+     * Load the active sessions into the session registry at startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadSessionRegistry() {
+        try {
+            sessionRegistry.load();
+        } catch (Exception e) {
+            log.error("Failed to load session registry on startup", e);
+        }
+    }
+
+    /**
+     * Write buffered heartbeat times to user_sessions in one batched UPDATE.
+     */
+    @Scheduled(fixedDelayString = "${sessions.heartbeat-flush-interval-ms:15000}")
+    public void flushSessionHeartbeats() {
+        sessionRegistry.flushHeartbeats();
+    }
+
+    /**
+     * Check for stale sessions every minute (in memory).
      * Sessions without heartbeat for 5 minutes are marked as inactive.
      */
     @Scheduled(fixedRate = 60000) // Every 1 minute
@@ -44,30 +73,114 @@ public class AnalyticsScheduler {
      */
     @Scheduled(fixedRate = 30000) // Every 30 seconds
     public void broadcastActiveUserCount() {
-        long count = sessionRepository.countActiveSessions();
+        long count = sessionRegistry.countActiveSessions();
         webSocketEventService.broadcastActiveUserCount(count);
     }
 
     /**
-     * Cleanup old logs daily at 3 AM.
-     * - Network logs older than 7 days
-     * - Activity logs older than 30 days
+     * Add the buffered activity/request counts to the dashboard rollups.
      */
-    @Scheduled(cron = "0 0 3 * * *") // 3 AM daily
-    @Transactional
-    public void cleanupOldLogs() {
-        log.info("Starting daily log cleanup...");
+    @Scheduled(fixedDelayString = "${analytics.rollup.flush-interval-ms:5000}")
+    public void flushRollups() {
+        rollupService.flush();
+    }
 
-        // Delete network logs older than 7 days
-        LocalDateTime networkCutoff = LocalDateTime.now().minusDays(7);
-        int deletedNetworkLogs = networkLogRepository.deleteOldLogs(networkCutoff);
-        log.info("Deleted {} network logs older than 7 days", deletedNetworkLogs);
+    /**
+     * Sample active sessions into the dashboard rollups at the top of every minute.
+     */
+    @Scheduled(cron = "0 * * * * *")
+    public void sampleSessions() {
+        try {
+            rollupService.sampleSessions();
+        } catch (Exception e) {
+            log.warn("Failed to sample sessions into rollups: {}", e.getMessage());
+        }
+    }
 
-        // Delete activity logs older than 30 days
-        LocalDateTime activityCutoff = LocalDateTime.now().minusDays(30);
-        int deletedActivityLogs = activityLogRepository.deleteOldLogs(activityCutoff);
-        log.info("Deleted {} activity logs older than 30 days", deletedActivityLogs);
+    /**
+     * Write changed distinct-user sketches.
+     */
+    @Scheduled(fixedDelayString = "${analytics.distinct-users.flush-interval-ms:60000}")
+    public void flushDistinctUserSketches() {
+        try {
+            distinctUserService.flush();
+        } catch (Exception e) {
+            log.warn("Failed to flush distinct-user sketches: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Write changed daily activity bitmaps.
+     */
+    @Scheduled(fixedDelayString = "${analytics.activity-bitmaps.flush-interval-ms:60000}")
+    public void flushActivityBitmaps() {
+        try {
+            activityBitmapService.flush();
+        } catch (Exception e) {
+            log.warn("Failed to flush activity bitmaps: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Add the buffered crash occurrences to their crash groups.
+     */
+    @Scheduled(fixedDelayString = "${log-ingestion.crash-groups.flush-interval-ms:5000}")
+    public void flushCrashGroups() {
+        try {
+            crashGroupService.flush();
+        } catch (Exception e) {
+            log.warn("Failed to flush crash groups: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Drop latency series that saw no requests for a whole window.
+     */
+    @Scheduled(fixedRate = 300000) // Every 5 minutes
+    public void pruneLatencySeries() {
+        latencyStatsService.pruneIdleSeries();
+    }
+
+    /**
+     * Make sure upcoming log partitions exist as soon as the app starts.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void createLogPartitionsOnStartup() {
+        try {
+            logPartitionService.createUpcomingPartitions();
+        } catch (Exception e) {
+            log.error("Failed to create log partitions on startup", e);
+        }
+    }
+
+    /**
+     * Log partition maintenance daily at 3 AM.
+     * - Creates the partitions for the coming days
+     * - Detaches and drops partitions past retention (network 7 days, activity and external 30 days by default)
+     * - Purges MINUTE rollups after 7 days and HOUR rollups after 400 days
+     * - Purges distinct-user sketches and activity bitmaps after 400 days
+     * - Purges crash groups without an occurrence for 90 days
+     * Each step runs on its own, so one failing does not skip the rest.
+     */
+    @Scheduled(cron = "0 0 3 * * *") // 3 AM daily
+    public void maintainLogPartitions() {
+        log.info("Starting daily log partition maintenance...");
+        maintenanceStep("create upcoming log partitions", logPartitionService::createUpcomingPartitions);
+        int dropped = maintenanceStep("drop expired log partitions", logPartitionService::dropExpiredPartitions);
+        int purged = maintenanceStep("purge old rollup buckets", rollupService::purgeOldBuckets);
+        maintenanceStep("purge old distinct-user sketches", distinctUserService::purgeOldSketches);
+        maintenanceStep("purge old activity bitmaps", activityBitmapService::purgeOldBitmaps);
+        maintenanceStep("purge stale crash groups", crashGroupService::purgeStaleGroups);
+        log.info("Daily log partition maintenance completed: {} partitions dropped, {} rollup buckets purged",
+                dropped, purged);
+    }
 
-        log.info("Daily log cleanup completed");
+    private int maintenanceStep(String name, IntSupplier step) {
+        try {
+            return step.getAsInt();
+        } catch (Exception e) {
+            log.error("Daily maintenance failed to {}", name, e);
+            return 0;
+        }
     }
 }
@@ -0,0 +1,88 @@
+package com.civicconnect.api.scheduler;
+
+import com.civicconnect.api.service.RepresentativeIssueCounterService;
+import com.civicconnect.api.service.RepresentativeLeaderboardService;
+import com.civicconnect.api.service.RepresentativeRatingAggregateService;
+import com.civicconnect.api.service.RepresentativeScorecardService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Scheduled reconciliation of maintained representative stats.
+ * Incremental updates keep the tables current; these jobs rebuild them from
+ * source tables so any drift is corrected.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RepresentativeStatsScheduler {
+
+    private final RepresentativeIssueCounterService issueCounterService;
+    private final RepresentativeRatingAggregateService ratingAggregateService;
+    private final RepresentativeLeaderboardService leaderboardService;
+    private final RepresentativeScorecardService scorecardService;
+
+    /**
+     * Build counters once on startup; stats reads use a GROUP BY fallback until this completes.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcileIssueCounters();
+        reconcileRatingAggregates();
+        rebuildLeaderboards();
+        rebuildScorecards();
+    }
+
+    /**
+     * Reconcile issue counters every hour.
+     */
+    @Scheduled(cron = "0 15 * * * *") // Quarter past every hour
+    public void reconcileIssueCounters() {
+        try {
+            issueCounterService.reconcile();
+        } catch (Exception e) {
+            log.error("Failed to reconcile representative issue counters", e);
+        }
+    }
+
+    /**
+     * Reconcile rating aggregates every hour.
+     */
+    @Scheduled(cron = "0 45 * * * *") // Quarter to every hour
+    public void reconcileRatingAggregates() {
+        try {
+            ratingAggregateService.reconcile();
+        } catch (Exception e) {
+            log.error("Failed to reconcile representative rating aggregates", e);
+        }
+    }
+
+    /**
+     * Rebuild leaderboards from the rating aggregates, re-anchoring the Bayesian prior.
+     */
+    @Scheduled(fixedDelayString = "${leaderboard.rebuild-interval-ms:900000}",
+               initialDelayString = "${leaderboard.rebuild-interval-ms:900000}")
+    public void rebuildLeaderboards() {
+        try {
+            leaderboardService.rebuild();
+        } catch (Exception e) {
+            log.error("Failed to rebuild representative leaderboards", e);
+        }
+    }
+
+    /**
+     * Rebuild all accountability scorecards nightly.
+     */
+    @Scheduled(cron = "0 30 2 * * *") // 2:30 AM daily
+    public void rebuildScorecards() {
+        try {
+            scorecardService.rebuild();
+        } catch (Exception e) {
+            log.error("Failed to rebuild representative scorecards", e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.civicconnect.api.service;
+
+import com.civicconnect.api.dto.analytics.AnalyticsDTOs.RouteStatsDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-route request counters and timers, and the sampling decision for the structured access log.
+ *
+ * Every request is counted under its method and matched route template (e.g. /api/issues/{id}):
+ * requests, 4xx, 5xx, total and max time since startup. Only sample-rate of the successful requests
+ * is written to the access log; errors, failed requests and requests slower than slow-threshold-ms
+ * are always written. Nothing is kept while the ACCESS logger is disabled at the line's level, so
+ * the logged counter matches what was written. Routes beyond max-routes are counted under "{other}".
+ */
+@Service
+public class AccessLogService {
+
+    private static final String OTHER_ROUTE = "{other}";
+
+    // Same logger RequestLoggingInterceptor writes to; errors go out at WARN, the rest at INFO
+    private static final Logger accessLogger = LoggerFactory.getLogger("ACCESS");
+
+    // Fraction (0..1) of successful, fast requests written to the access log
+    @Value("${access-log.sample-rate:0.1}")
+    private double sampleRate;
+
+    @Value("${access-log.slow-threshold-ms:1000}")
+    private long slowThresholdMs;
+
+    @Value("${access-log.max-routes:300}")
+    private int maxRoutes;
+
+    private final Map<RouteKey, RouteCounters> routes = new ConcurrentHashMap<>();
+
+    private record RouteKey(String method, String route) {
+    }
+
+    /**
+     * Count a completed request; returns whether it should be written to the access log
+     */
+    public boolean record(String method, String route, int status, boolean failed, long durationNanos) {
+        RouteKey key = new RouteKey(method, route);
+        RouteCounters counters = routes.get(key);
+        if (counters == null) {
+            counters = routes.computeIfAbsent(routes.size() < maxRoutes ? key : new RouteKey(method, OTHER_ROUTE),
+                    k -> new RouteCounters());
+        }
+        counters.requests.increment();
+        counters.totalNanos.add(durationNanos);
+        counters.maxNanos.accumulate(durationNanos);
+        if (failed || status >= 500) {
+            counters.serverErrors.increment();
+        } else if (status >= 400) {
+            counters.clientErrors.increment();
+        }
+
+        boolean error = failed || status >= 400;
+        boolean keep = error
+                ? accessLogger.isWarnEnabled()
+                : accessLogger.isInfoEnabled() && (durationNanos >= slowThresholdMs * 1_000_000
+                        || ThreadLocalRandom.current().nextDouble() < sampleRate);
+        if (keep) {
+            counters.logged.increment();
+        }
+        return keep;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Counters per route since startup, busiest first
+     */
+    public List<RouteStatsDTO> getRouteStats() {
+        return routes.entrySet().stream()
+                .map(entry -> entry.getValue().toDTO(entry.getKey()))
+                .sorted(Comparator.comparing(RouteStatsDTO::getRequests).reversed())
+                .toList();
+    }
+
+    /**
+     * Cumulative counters of one route; LongAdder keeps contended increments cheap
+     */
+    private static final class RouteCounters {
+
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+        private final LongAdder logged = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        RouteStatsDTO toDTO(RouteKey key) {
+            long count = requests.sum();
+            long total = totalNanos.sum();
+            return RouteStatsDTO.builder()
+                    .method(key.method())
+                    .route(key.route())
+                    .requests(count)
+                    .clientErrors(clientErrors.sum())
+                    .serverErrors(serverErrors.sum())
+                    .logged(logged.sum())
+                    .totalMs(total / 1_000_000.0)
+                    .meanMs(count > 0 ? total / 1_000_000.0 / count : 0.0)
+                    .maxMs(maxNanos.get() / 1_000_000.0)
+                    .build();
+        }
+    }
+}
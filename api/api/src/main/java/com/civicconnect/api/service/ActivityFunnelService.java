@@ -0,0 +1,266 @@
+package com.civicconnect.api.service;
+
+import com.civicconnect.api.dto.analytics.AnalyticsDTOs.FunnelRequest;
+import com.civicconnect.api.dto.analytics.AnalyticsDTOs.FunnelStepDTO;
+import com.civicconnect.api.dto.analytics.AnalyticsDTOs.FunnelStepRequest;
+import com.civicconnect.api.entity.analytics.ActivityLog;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Ordered funnels over activity_logs: each step is an activity type, optionally an activity name
+ * and a jsonb containment predicate on activity_data (e.g. {"screen": "gov_map"}).
+ *
+ * One query selects only the rows matching some step, ordered by user and time, and streams them
+ * through a server-side cursor; each user is walked once, advancing through the steps in order
+ * (a step must happen after the previous one and, when a conversion window is set, within that
+ * window of the first step). For every number of steps completed the walker keeps the latest
+ * first-step time that got there, so a later repeat of the first step can still convert when an
+ * earlier attempt has run out of time.
+ * The @> predicates are served by the jsonb_path_ops GIN index (V21).
+ *
+ * Results are cached per definition and hour bucket: from and to are truncated to the hour, and
+ * the definition is keyed by its resolved activity types and key-sorted filters, so requests that
+ * differ only in type casing or filter key order share an entry.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityFunnelService {
+
+    public static final String CACHE_NAME = "activityFunnels";
+
+    private static final int MAX_STEPS = 10;
+    private static final int FETCH_SIZE = 5_000;
+    // A year; keeps windowMinutes * 60_000 far from overflowing
+    private static final long MAX_WINDOW_MINUTES = 366L * 24 * 60;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final CacheManager cacheManager;
+
+    /**
+     * Cache key: the normalized step list and the hour-aligned window
+     */
+    private record FunnelKey(String steps, LocalDateTime from, LocalDateTime to, Long windowMinutes) {
+    }
+
+    @Transactional(readOnly = true)
+    public List<FunnelStepDTO> evaluate(FunnelRequest request) {
+        List<FunnelStepRequest> steps = request.getSteps();
+        if (steps == null || steps.isEmpty() || steps.size() > MAX_STEPS) {
+            throw new IllegalArgumentException("A funnel needs between 1 and " + MAX_STEPS + " steps");
+        }
+        // Resolved before the cache lookup: errors thrown inside the loader would surface as 500s
+        List<ActivityLog.ActivityType> types = steps.stream().map(ActivityFunnelService::activityType).toList();
+        LocalDateTime to = (request.getTo() != null ? request.getTo() : LocalDateTime.now()).truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime from = (request.getFrom() != null ? request.getFrom() : to.minusDays(7)).truncatedTo(ChronoUnit.HOURS);
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Funnel 'from' must be before 'to' (compared by hour)");
+        }
+        Long windowMinutes = request.getConversionWindowMinutes();
+        if (windowMinutes != null && (windowMinutes <= 0 || windowMinutes > MAX_WINDOW_MINUTES)) {
+            throw new IllegalArgumentException("conversionWindowMinutes must be between 1 and " + MAX_WINDOW_MINUTES);
+        }
+        FunnelKey key = new FunnelKey(definitionKey(steps, types), from, to, windowMinutes);
+
+        return cache().get(key, () -> scan(steps, types, from, to, windowMinutes));
+    }
+
+    /**
+     * Canonical form of the step list: resolved types, names and filters with keys sorted at every level
+     */
+    private String definitionKey(List<FunnelStepRequest> steps, List<ActivityLog.ActivityType> types) {
+        List<Map<String, Object>> definition = new ArrayList<>(steps.size());
+        for (int i = 0; i < steps.size(); i++) {
+            Map<String, Object> step = new LinkedHashMap<>();
+            step.put("type", types.get(i).name());
+            step.put("name", steps.get(i).getActivityName());
+            step.put("filter", steps.get(i).getDataFilter());
+            definition.add(step);
+        }
+        return toJson(definition);
+    }
+
+    private static ActivityLog.ActivityType activityType(FunnelStepRequest step) {
+        if (step == null || step.getActivityType() == null || step.getActivityType().isBlank()) {
+            throw new IllegalArgumentException("Every funnel step needs an activity type");
+        }
+        try {
+            return ActivityLog.ActivityType.valueOf(step.getActivityType().trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown activity type: " + step.getActivityType());
+        }
+    }
+
+    private List<FunnelStepDTO> scan(List<FunnelStepRequest> steps, List<ActivityLog.ActivityType> types,
+                                     LocalDateTime from, LocalDateTime to, Long windowMinutes) {
+        // One boolean column per step, and only rows matching at least one step
+        StringBuilder select = new StringBuilder("SELECT user_id, created_at");
+        StringBuilder where = new StringBuilder();
+        List<Object> stepArgs = new ArrayList<>();
+        for (int i = 0; i < steps.size(); i++) {
+            String predicate = stepPredicate(steps.get(i), types.get(i), stepArgs);
+            select.append(", (").append(predicate).append(")");
+            where.append(i == 0 ? "" : " OR ").append("(").append(predicate).append(")");
+        }
+        String sql = select + " FROM activity_logs WHERE created_at >= ? AND created_at < ? " +
+                "AND user_id IS NOT NULL AND (" + where + ") ORDER BY user_id, created_at";
+
+        long windowMillis = windowMinutes != null ? windowMinutes * 60_000 : Long.MAX_VALUE;
+        FunnelWalker walker = new FunnelWalker(steps.size(), windowMillis);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            // A fetch size inside a transaction makes the Postgres driver stream through a cursor
+            ps.setFetchSize(FETCH_SIZE);
+            int index = 1;
+            for (Object arg : stepArgs) ps.setObject(index++, arg);   // select columns
+            ps.setTimestamp(index++, Timestamp.valueOf(from));
+            ps.setTimestamp(index++, Timestamp.valueOf(to));
+            for (Object arg : stepArgs) ps.setObject(index++, arg);   // where clause
+            return ps;
+        }, walker::accept);
+        walker.finishUser();
+
+        List<FunnelStepDTO> result = new ArrayList<>();
+        for (int i = 0; i < steps.size(); i++) {
+            long users = walker.reached[i];
+            result.add(FunnelStepDTO.builder()
+                    .step(label(steps.get(i), types.get(i)))
+                    .users(users)
+                    .conversionRate(i == 0 ? 1.0 : walker.reached[i - 1] > 0 ? (double) users / walker.reached[i - 1] : 0.0)
+                    .build());
+        }
+        log.debug("Funnel over {} - {} scanned {} rows for {} users", from, to, walker.rows, walker.users);
+        return result;
+    }
+
+    private String stepPredicate(FunnelStepRequest step, ActivityLog.ActivityType type, List<Object> args) {
+        StringBuilder predicate = new StringBuilder("activity_type = ?");
+        args.add(type.name());
+        if (step.getActivityName() != null) {
+            predicate.append(" AND activity_name = ?");
+            args.add(step.getActivityName());
+        }
+        if (step.getDataFilter() != null && !step.getDataFilter().isEmpty()) {
+            predicate.append(" AND activity_data @> CAST(? AS jsonb)");
+            args.add(toJson(step.getDataFilter()));
+        }
+        return predicate.toString();
+    }
+
+    private static String label(FunnelStepRequest step, ActivityLog.ActivityType type) {
+        StringBuilder label = new StringBuilder(type.name());
+        if (step.getActivityName() != null) label.append(':').append(step.getActivityName());
+        if (step.getDataFilter() != null && !step.getDataFilter().isEmpty()) label.append(' ').append(step.getDataFilter());
+        return label.toString();
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(sortKeys(value));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid funnel definition", e);
+        }
+    }
+
+    /**
+     * Copy of a JSON-like value with map keys sorted at every level, so equivalent definitions
+     * (and their @> filters) serialize identically
+     */
+    private static Object sortKeys(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> sorted = new TreeMap<>();
+            map.forEach((k, v) -> sorted.put(String.valueOf(k), sortKeys(v)));
+            return sorted;
+        }
+        if (value instanceof List<?> list) {
+            return list.stream().map(ActivityFunnelService::sortKeys).toList();
+        }
+        return value;
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(CACHE_NAME);
+    }
+
+    /**
+     * Walks one user's rows at a time (rows arrive ordered by user, then time)
+     */
+    private static final class FunnelWalker {
+
+        private static final long NONE = Long.MIN_VALUE;
+
+        private final int stepCount;
+        private final long windowMillis;
+        private final long[] reached;
+
+        // starts[k]: latest first-step time of an attempt that has completed k steps, NONE if no attempt has
+        private final long[] starts;
+
+        private Long currentUser;
+        private int best;
+        private long rows;
+        private long users;
+
+        FunnelWalker(int stepCount, long windowMillis) {
+            this.stepCount = stepCount;
+            this.windowMillis = windowMillis;
+            this.reached = new long[stepCount];
+            this.starts = new long[stepCount + 1];
+            Arrays.fill(starts, NONE);
+        }
+
+        void accept(ResultSet rs) throws SQLException {
+            long userId = rs.getLong(1);
+            if (currentUser == null || currentUser != userId) {
+                finishUser();
+                currentUser = userId;
+                users++;
+            }
+            rows++;
+            long at = rs.getTimestamp(2).getTime();
+
+            // Highest step first, so one row advances an attempt by at most one step
+            for (int step = stepCount - 1; step >= 1; step--) {
+                long start = starts[step];
+                if (start != NONE && at - start <= windowMillis && rs.getBoolean(3 + step)) {
+                    starts[step + 1] = Math.max(starts[step + 1], start);
+                    best = Math.max(best, step + 1);
+                }
+            }
+            if (rs.getBoolean(3)) {
+                starts[1] = at;
+                best = Math.max(best, 1);
+            }
+        }
+
+        void finishUser() {
+            for (int i = 0; i < best; i++) {
+                reached[i]++;
+            }
+            Arrays.fill(starts, NONE);
+            best = 0;
+        }
+    }
+}
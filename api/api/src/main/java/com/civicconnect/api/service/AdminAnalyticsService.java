@@ -4,16 +4,17 @@ import com.civicconnect.api.dto.analytics.AnalyticsDTOs;
 import com.civicconnect.api.dto.analytics.AnalyticsDTOs.*;
 import com.civicconnect.api.entity.analytics.*;
 import com.civicconnect.api.repository.analytics.*;
+import com.civicconnect.api.service.logging.LogPartitionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -27,18 +28,25 @@ public class AdminAnalyticsService {
     private final UserSessionRepository sessionRepository;
     private final ActivityLogRepository activityLogRepository;
     private final NetworkLogRepository networkLogRepository;
+    private final LogPartitionService logPartitionService;
+    private final SessionRegistry sessionRegistry;
+    private final SessionTokenCache sessionTokenCache;
+    private final AnalyticsRollupService rollupService;
+    private final WebSocketEventService webSocketEventService;
 
     public Page<AppUserDTO> getAllUsers(int page, int size, String search, Boolean activeOnly) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("lastLoginAt").descending());
-
-        Page<AppUser> users;
-        if (Boolean.TRUE.equals(activeOnly)) {
-            users = appUserRepository.searchActiveUsers(search, pageable);
-        } else {
-            users = appUserRepository.searchUsers(search, pageable);
-        }
-
-        return users.map(user -> AnalyticsDTOs.toDTO(user, sessionRepository.hasActiveSession(user.getId())));
+        // Ordered by the query (last login, then id) so paging is stable
+        Pageable pageable = PageRequest.of(page, size);
+        String term = search != null && !search.isBlank() ? search.trim() : null;
+
+        return appUserRepository.searchUsersWithSessionCounts(term, Boolean.TRUE.equals(activeOnly), pageable)
+                .map(row -> {
+                    long activeSessions = ((Number) row[2]).longValue();
+                    AppUserDTO dto = AnalyticsDTOs.toDTO((AppUser) row[0], activeSessions > 0);
+                    dto.setTotalSessions(((Number) row[1]).longValue());
+                    dto.setActiveSessionCount(activeSessions);
+                    return dto;
+                });
     }
 
     public AppUserDetailDTO getUserDetail(Long userId) {
@@ -46,7 +54,7 @@ public class AdminAnalyticsService {
                 .orElseThrow(() -> new RuntimeException("User not found: " + userId));
 
         List<UserSession> activeSessions = sessionRepository.findByUserIdAndIsActiveTrue(userId);
-        long totalActivities = activityLogRepository.countUserActivitiesSince(userId, LocalDateTime.MIN);
+        long totalActivities = activityLogRepository.countUserActivitiesSince(userId, retentionStart("activity_logs"));
         long last24hActivities = activityLogRepository.countUserActivitiesSince(userId, LocalDateTime.now().minusDays(1));
 
         List<ActiveSessionDTO> sessionDTOs = activeSessions.stream()
@@ -62,34 +70,47 @@ public class AdminAnalyticsService {
                 .platform(user.getPlatform() != null ? user.getPlatform().name() : null)
                 .createdAt(user.getCreatedAt())
                 .lastLoginAt(user.getLastLoginAt())
-                .totalSessions((long) user.getSessions().size())
+                .totalSessions(sessionRepository.countByUserId(userId))
                 .totalActivities(totalActivities)
                 .activitiesLast24h(last24hActivities)
                 .activeSessions(sessionDTOs)
                 .build();
     }
 
-    public Page<ActivityLogDTO> getUserActivities(Long userId, int page, int size, String activityType) {
+    /**
+     * Activity logs of a user within [from, to); defaults to the whole retention window
+     */
+    public Page<ActivityLogDTO> getUserActivities(Long userId, int page, int size, String activityType,
+                                                  LocalDateTime from, LocalDateTime to) {
         Pageable pageable = PageRequest.of(page, size);
+        LocalDateTime rangeFrom = from != null ? from : retentionStart("activity_logs");
+        LocalDateTime rangeTo = to != null ? to : rangeEnd();
 
         Page<ActivityLog> logs;
         if (activityType != null && !activityType.isEmpty()) {
             try {
                 ActivityLog.ActivityType type = ActivityLog.ActivityType.valueOf(activityType);
-                logs = activityLogRepository.findByUserIdAndType(userId, type, pageable);
+                logs = activityLogRepository.findByUserIdAndTypeBetween(userId, type, rangeFrom, rangeTo, pageable);
             } catch (IllegalArgumentException e) {
-                logs = activityLogRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
+                logs = activityLogRepository.findByUserIdBetween(userId, rangeFrom, rangeTo, pageable);
             }
         } else {
-            logs = activityLogRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
+            logs = activityLogRepository.findByUserIdBetween(userId, rangeFrom, rangeTo, pageable);
         }
 
         return logs.map(AnalyticsDTOs::toDTO);
     }
 
-    public Page<NetworkLogDTO> getUserNetworkLogs(Long userId, int page, int size) {
+    /**
+     * Network logs of a user within [from, to); defaults to the whole retention window
+     */
+    public Page<NetworkLogDTO> getUserNetworkLogs(Long userId, int page, int size,
+                                                  LocalDateTime from, LocalDateTime to) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<NetworkLog> logs = networkLogRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
+        Page<NetworkLog> logs = networkLogRepository.findByUserIdBetween(userId,
+                from != null ? from : retentionStart("network_logs"),
+                to != null ? to : rangeEnd(),
+                pageable);
 
         return logs.map(log -> NetworkLogDTO.builder()
                 .id(log.getId())
@@ -113,47 +134,69 @@ public class AdminAnalyticsService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Dashboard figures from rollups and the session registry; cost is independent of log volume
+     */
     public DashboardStatsDTO getDashboardStats() {
-        LocalDateTime today = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0);
+        LocalDateTime today = LocalDate.now().atStartOfDay();
 
         long totalUsers = appUserRepository.count();
-        long activeUsers = appUserRepository.countUsersWithActiveSessions();
-        long activeSessions = sessionRepository.countActiveSessions();
-        long todayActivities = activityLogRepository.countActivitiesSince(today);
-        Double avgLatency = networkLogRepository.getAverageLatencySince(today);
-        long todayErrors = networkLogRepository.countErrorsSince(today);
-
-        // Calculate average session duration from active sessions
-        List<UserSession> sessions = sessionRepository.findByIsActiveTrue();
-        double avgDuration = sessions.stream()
-                .mapToLong(s -> Duration.between(s.getStartedAt(), LocalDateTime.now()).toMinutes())
-                .average()
-                .orElse(0);
+        AnalyticsRollupService.Totals todayTotals = rollupService.totalsSince(today);
 
         return DashboardStatsDTO.builder()
                 .totalUsers(totalUsers)
-                .activeUsers(activeUsers)
-                .activeSessions(activeSessions)
-                .todayActivities(todayActivities)
-                .avgLatencyMs(avgLatency != null ? avgLatency : 0)
-                .todayErrors(todayErrors)
-                .avgSessionDurationMinutes(avgDuration)
+                .activeUsers(sessionRegistry.countActiveUsers())
+                .activeSessions(sessionRegistry.countActiveSessions())
+                .todayActivities(todayTotals.activities())
+                .avgLatencyMs(todayTotals.averageLatencyMs())
+                .todayErrors(todayTotals.errors())
+                .avgSessionDurationMinutes(rollupService.latestAverageSessionMinutes())
                 .build();
     }
 
+    /**
+     * Rollup series for the dashboard trend charts. Defaults to the last 24 hours (HOUR)
+     * or the last 60 minutes (MINUTE).
+     */
+    public List<RollupPointDTO> getTrend(String granularity, LocalDateTime from, LocalDateTime to) {
+        AnalyticsRollup.Granularity resolved = "MINUTE".equalsIgnoreCase(granularity)
+                ? AnalyticsRollup.Granularity.MINUTE
+                : AnalyticsRollup.Granularity.HOUR;
+        LocalDateTime rangeTo = to != null ? to : LocalDateTime.now();
+        LocalDateTime rangeFrom = from != null ? from
+                : resolved == AnalyticsRollup.Granularity.MINUTE ? rangeTo.minusMinutes(60) : rangeTo.minusHours(24);
+
+        return rollupService.trend(resolved, rangeFrom, rangeTo).stream()
+                .map(AnalyticsDTOs::toDTO)
+                .collect(Collectors.toList());
+    }
+
     @Transactional
     public void forceLogoutUser(Long userId) {
         int loggedOut = sessionRepository.forceLogoutUser(userId, LocalDateTime.now());
+        sessionRegistry.removeUser(userId);
+        sessionTokenCache.evictUser(userId);
+        webSocketEventService.notifyPresenceChanged(userId);
         log.info("Force logged out {} sessions for user {}", loggedOut, userId);
     }
 
     public List<ActivityLogDTO> getRecentActivities(int limit) {
         Pageable pageable = PageRequest.of(0, limit);
-        return activityLogRepository.findRecentActivitiesWithUser(pageable).stream()
+        // The live feed only needs the last day, which keeps the scan on the newest partitions
+        return activityLogRepository.findRecentActivitiesWithUser(LocalDateTime.now().minusDays(1), pageable).stream()
                 .map(AnalyticsDTOs::toDTO)
                 .collect(Collectors.toList());
     }
 
+    private LocalDateTime retentionStart(String table) {
+        return LocalDate.now().minusDays(logPartitionService.retentionDays().get(table)).atStartOfDay();
+    }
+
+    // Open-ended upper bound that still excludes far-future client timestamps
+    private LocalDateTime rangeEnd() {
+        return LocalDate.now().plusDays(2).atStartOfDay();
+    }
+
     private ActiveSessionDTO toActiveSessionDTO(UserSession session) {
         long duration = Duration.between(session.getStartedAt(), LocalDateTime.now()).toMinutes();
 
@@ -167,7 +210,9 @@ public class AdminAnalyticsService {
                 .appVersion(session.getAppVersion())
                 .ipAddress(session.getIpAddress())
                 .startedAt(session.getStartedAt())
-                .lastHeartbeatAt(session.getLastHeartbeatAt())
+                .lastHeartbeatAt(sessionRegistry.get(session.getSessionToken())
+                        .map(SessionRegistry.LiveSession::lastSeen)
+                        .orElse(session.getLastHeartbeatAt()))
                 .durationMinutes(duration)
                 .build();
     }
@@ -0,0 +1,302 @@
+package com.civicconnect.api.service;
+
+import com.civicconnect.api.entity.analytics.ActivityLog;
+import com.civicconnect.api.entity.analytics.AnalyticsRollup;
+import com.civicconnect.api.entity.analytics.AnalyticsRollup.Granularity;
+import com.civicconnect.api.repository.analytics.AnalyticsRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Streaming aggregator behind the admin dashboard.
+ *
+ * Activity and network rows are counted in per-minute in-memory counters as the telemetry writer
+ * persists them (plus login/logout rows written directly). Every few seconds the counter deltas
+ * are added to the MINUTE and HOUR rows of analytics_rollups. Once a minute the active rows of
+ * user_sessions are sampled for the active-session peak and session-duration histogram. Every
+ * instance's session registry only holds its own sessions, so the sample is taken from the DB, and
+ * by one instance per minute: the first to take the minute's advisory lock writes it, the others
+ * find it already sampled.
+ *
+ * The dashboard and trend charts read a handful of rollup rows, so their cost does not grow
+ * with log volume.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsRollupService {
+
+    // Upper bounds (exclusive, minutes) of the session-duration histogram buckets; a final bucket holds the rest
+    public static final long[] SESSION_DURATION_BUCKETS_MINUTES = {1, 5, 15, 30, 60, 120};
+
+    private static final String LOCK_MINUTE = "SELECT pg_advisory_xact_lock(hashtext(?))";
+
+    private static final String MINUTE_SAMPLES = "SELECT session_samples FROM analytics_rollups " +
+            "WHERE granularity = 'MINUTE' AND bucket_start = ?";
+
+    // (age in whole minutes, sessions) of the active sessions
+    private static final String ACTIVE_SESSION_AGES =
+            "SELECT GREATEST(0, FLOOR(EXTRACT(EPOCH FROM (? - started_at)) / 60))::bigint, COUNT(*) " +
+            "FROM user_sessions WHERE is_active = true GROUP BY 1";
+
+    private final AnalyticsRollupRepository rollupRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${analytics.rollup.minute-retention-days:7}")
+    private int minuteRetentionDays;
+
+    @Value("${analytics.rollup.hour-retention-days:400}")
+    private int hourRetentionDays;
+
+    private final Map<LocalDateTime, MinuteCounters> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Totals over a time range read from rollups
+     */
+    public record Totals(long activities, long requests, long latencySumMs, long latencyCount, long errors) {
+
+        public double averageLatencyMs() {
+            return latencyCount > 0 ? (double) latencySumMs / latencyCount : 0.0;
+        }
+    }
+
+    // ==================== Ingestion ====================
+
+    public void recordActivity(ActivityLog.ActivityType type) {
+        MinuteCounters counters = currentMinute();
+        counters.activities.get(type).increment();
+    }
+
+    public void recordActivities(List<TelemetryIngestionService.ActivityRow> rows) {
+        MinuteCounters counters = currentMinute();
+        for (TelemetryIngestionService.ActivityRow row : rows) {
+            counters.activities.get(row.activityType()).increment();
+        }
+    }
+
+    public void recordRequests(List<TelemetryIngestionService.NetworkRow> rows) {
+        MinuteCounters counters = currentMinute();
+        for (TelemetryIngestionService.NetworkRow row : rows) {
+            counters.requests.increment();
+            if (row.latencyMs() != null) {
+                counters.latencySumMs.add(row.latencyMs());
+                counters.latencyCount.increment();
+            }
+            if ((row.responseStatus() != null && row.responseStatus() >= 400) || row.errorMessage() != null) {
+                counters.errors.increment();
+            }
+        }
+    }
+
+    private MinuteCounters currentMinute() {
+        return pending.computeIfAbsent(LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES), m -> new MinuteCounters());
+    }
+
+    // ==================== Flush / sample ====================
+
+    /**
+     * Add the counter deltas gathered since the last flush to the MINUTE and HOUR rollups (one statement per minute)
+     */
+    public void flush() {
+        LocalDateTime settled = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).minusMinutes(1);
+        for (Map.Entry<LocalDateTime, MinuteCounters> entry : pending.entrySet()) {
+            LocalDateTime minute = entry.getKey();
+            MinuteCounters counters = entry.getValue();
+            // Writers only touch the current minute, so buckets older than the previous one are final
+            if (minute.isBefore(settled)) {
+                pending.remove(minute);
+            }
+            Delta delta = counters.drain();
+            if (delta.isEmpty()) {
+                continue;
+            }
+            try {
+                write(minute, delta, 0, 0, 0, 0, new long[0]);
+            } catch (Exception e) {
+                // Keep the counts for the next flush
+                pending.computeIfAbsent(minute, m -> new MinuteCounters()).restore(delta);
+                log.warn("Could not flush analytics rollup for {}: {}", minute, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Sample the active sessions of all instances into the current MINUTE and HOUR rollups, unless
+     * another instance already has this minute. Returns whether this call wrote the sample.
+     */
+    public boolean sampleSessions() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime minute = now.truncatedTo(ChronoUnit.MINUTES);
+        Boolean sampled = transactionTemplate.execute(status -> {
+            jdbcTemplate.query(LOCK_MINUTE, rs -> { }, "analytics_rollups:sessions:" + minute);
+            List<Long> samples = jdbcTemplate.queryForList(MINUTE_SAMPLES, Long.class, Timestamp.valueOf(minute));
+            if (!samples.isEmpty() && samples.get(0) > 0) {
+                return false;
+            }
+
+            long[] histogram = new long[SESSION_DURATION_BUCKETS_MINUTES.length + 1];
+            long[] totals = new long[2];   // sessions, duration sum
+            jdbcTemplate.query(ACTIVE_SESSION_AGES, rs -> {
+                long minutes = rs.getLong(1);
+                long sessions = rs.getLong(2);
+                totals[0] += sessions;
+                totals[1] += minutes * sessions;
+                histogram[durationBucket(minutes)] += sessions;
+            }, Timestamp.valueOf(now));
+
+            Delta none = new Delta(new long[ActivityLog.ActivityType.values().length], 0, 0, 0, 0);
+            write(minute, none, (int) totals[0], 1, totals[0], totals[1], histogram);
+            return true;
+        });
+        return Boolean.TRUE.equals(sampled);
+    }
+
+    /**
+     * Drop MINUTE rollups and HOUR rollups past their retention
+     */
+    public int purgeOldBuckets() {
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        return rollupRepository.deleteOlderThan(Granularity.MINUTE, today.minusDays(minuteRetentionDays))
+                + rollupRepository.deleteOlderThan(Granularity.HOUR, today.minusDays(hourRetentionDays));
+    }
+
+    private void write(LocalDateTime minute, Delta delta, int activeSessions,
+                       long samples, long sampledSessions, long durationSum, long[] histogram) {
+        rollupRepository.addToBuckets(minute, minute.truncatedTo(ChronoUnit.HOURS),
+                delta.activityTotal(), delta.typeCountsJson(),
+                delta.requests(), delta.latencySumMs(), delta.latencyCount(), delta.errors(),
+                activeSessions, samples, sampledSessions, durationSum, toArrayLiteral(histogram));
+    }
+
+    // ==================== Reads ====================
+
+    /**
+     * Totals since a point in time, from HOUR rollups (the hour containing since counts in full)
+     */
+    public Totals totalsSince(LocalDateTime since) {
+        Object[] row = rollupRepository.sumSince(Granularity.HOUR, since.truncatedTo(ChronoUnit.HOURS)).get(0);
+        return new Totals(((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+                ((Number) row[2]).longValue(), ((Number) row[3]).longValue(), ((Number) row[4]).longValue());
+    }
+
+    /**
+     * Average active-session duration from the most recent session sample
+     */
+    public double latestAverageSessionMinutes() {
+        Optional<AnalyticsRollup> latest = rollupRepository
+                .findFirstByGranularityAndSessionSamplesGreaterThanOrderByBucketStartDesc(Granularity.MINUTE, 0L);
+        return latest
+                .filter(rollup -> rollup.getSampledSessions() > 0)
+                .map(rollup -> (double) rollup.getSessionDurationSumMinutes() / rollup.getSampledSessions())
+                .orElse(0.0);
+    }
+
+    /**
+     * Rollup rows in [from, to) for trend charts
+     */
+    public List<AnalyticsRollup> trend(Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        return rollupRepository.findByGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStartAsc(
+                granularity, from, to);
+    }
+
+    private static int durationBucket(long minutes) {
+        for (int i = 0; i < SESSION_DURATION_BUCKETS_MINUTES.length; i++) {
+            if (minutes < SESSION_DURATION_BUCKETS_MINUTES[i]) {
+                return i;
+            }
+        }
+        return SESSION_DURATION_BUCKETS_MINUTES.length;
+    }
+
+    private static String toArrayLiteral(long[] values) {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(values[i]);
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Counter deltas drained from one minute
+     */
+    private record Delta(long[] activities, long requests, long latencySumMs, long latencyCount, long errors) {
+
+        long activityTotal() {
+            long total = 0;
+            for (long count : activities) total += count;
+            return total;
+        }
+
+        boolean isEmpty() {
+            return activityTotal() == 0 && requests == 0;
+        }
+
+        String typeCountsJson() {
+            StringBuilder sb = new StringBuilder("{");
+            ActivityLog.ActivityType[] types = ActivityLog.ActivityType.values();
+            for (int i = 0; i < types.length; i++) {
+                if (activities[i] == 0) continue;
+                if (sb.length() > 1) sb.append(',');
+                sb.append('"').append(types[i].name()).append("\":").append(activities[i]);
+            }
+            return sb.append('}').toString();
+        }
+    }
+
+    /**
+     * Lock-free counters for one minute
+     */
+    private static final class MinuteCounters {
+
+        private final Map<ActivityLog.ActivityType, LongAdder> activities = new EnumMap<>(ActivityLog.ActivityType.class);
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder latencySumMs = new LongAdder();
+        private final LongAdder latencyCount = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        MinuteCounters() {
+            // Populated up front so concurrent writers only ever read the map
+            for (ActivityLog.ActivityType type : ActivityLog.ActivityType.values()) {
+                activities.put(type, new LongAdder());
+            }
+        }
+
+        Delta drain() {
+            ActivityLog.ActivityType[] types = ActivityLog.ActivityType.values();
+            long[] counts = new long[types.length];
+            for (int i = 0; i < types.length; i++) {
+                counts[i] = activities.get(types[i]).sumThenReset();
+            }
+            return new Delta(counts, requests.sumThenReset(), latencySumMs.sumThenReset(),
+                    latencyCount.sumThenReset(), errors.sumThenReset());
+        }
+
+        void restore(Delta delta) {
+            ActivityLog.ActivityType[] types = ActivityLog.ActivityType.values();
+            for (int i = 0; i < types.length; i++) {
+                activities.get(types[i]).add(delta.activities()[i]);
+            }
+            requests.add(delta.requests());
+            latencySumMs.add(delta.latencySumMs());
+            latencyCount.add(delta.latencyCount());
+            errors.add(delta.errors());
+        }
+    }
+}
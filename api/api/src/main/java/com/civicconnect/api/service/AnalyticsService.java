@@ -20,8 +20,14 @@ public class AnalyticsService {
     private final AppUserRepository appUserRepository;
     private final UserSessionRepository sessionRepository;
     private final ActivityLogRepository activityLogRepository;
-    private final NetworkLogRepository networkLogRepository;
+    private final TelemetryIngestionService telemetryIngestion;
     private final WebSocketEventService webSocketEventService;
+    private final GovMapCacheService govMapCache;
+    private final SessionRegistry sessionRegistry;
+    private final SessionTokenCache sessionTokenCache;
+    private final AnalyticsRollupService rollupService;
+    private final DistinctUserService distinctUserService;
+    private final UserActivityBitmapService activityBitmapService;
 
     @Transactional
     public SessionStartResponse startSession(SessionStartRequest request, String ipAddress, String userAgent) {
@@ -41,12 +47,19 @@ public class AnalyticsService {
                 });
 
         // Update user info
+        boolean profileChanged = (request.getName() != null && !request.getName().equals(user.getName()))
+                || (request.getPhotoUrl() != null && !request.getPhotoUrl().equals(user.getPhotoUrl()));
         user.setDeviceId(request.getDeviceId());
         user.setAppVersion(request.getAppVersion());
         user.setLastLoginAt(LocalDateTime.now());
         if (request.getName() != null) user.setName(request.getName());
         if (request.getPhotoUrl() != null) user.setPhotoUrl(request.getPhotoUrl());
         appUserRepository.save(user);
+        if (profileChanged) {
+            govMapCache.evictUser(user.getId());
+            // Cached summaries of the user's other sessions carry the old name or photo
+            sessionTokenCache.evictUser(user.getId());
+        }
 
         // Create new session
         UserSession session = new UserSession();
@@ -57,9 +70,11 @@ public class AnalyticsService {
         session.setUserAgent(userAgent);
         session.setAppVersion(request.getAppVersion());
         sessionRepository.save(session);
+        TransactionHooks.afterCommit(() -> sessionRegistry.register(session));
+        sessionTokenCache.put(session, user);
 
         // Log login activity
-        logActivityInternal(session, ActivityLog.ActivityType.LOGIN, "User logged in", null, null, null);
+        logActivityInternal(user, session, ActivityLog.ActivityType.LOGIN, "User logged in", null, null, null);
 
         // Notify admin dashboard via WebSocket
         webSocketEventService.notifyUserOnline(user);
@@ -67,98 +82,106 @@ public class AnalyticsService {
         return new SessionStartResponse(session.getSessionToken(), user.getId(), "Session started");
     }
 
-    @Transactional
+    /**
+     * Record a heartbeat in the session registry; last-seen times reach the DB in periodic batches
+     */
     public void updateHeartbeat(String sessionToken) {
-        int updated = sessionRepository.updateHeartbeat(sessionToken, LocalDateTime.now());
-        if (updated == 0) {
-            log.warn("Heartbeat for unknown session: {}", sessionToken);
+        if (sessionRegistry.heartbeat(sessionToken)) {
+            return;
         }
+        // Not registered here (e.g. started before a restart): look it up once and start tracking it
+        sessionTokenCache.resolve(sessionToken)
+                .filter(SessionTokenCache.SessionContext::active)
+                .ifPresentOrElse(session -> sessionRegistry.register(sessionToken, session.sessionId(), session.userId()),
+                        () -> log.warn("Heartbeat for unknown session: {}", sessionToken));
     }
 
     @Transactional
     public void endSession(String sessionToken, String reason) {
-        sessionRepository.findBySessionToken(sessionToken).ifPresent(session -> {
-            session.setIsActive(false);
-            session.setEndedAt(LocalDateTime.now());
-            session.setEndReason(UserSession.EndReason.valueOf(reason != null ? reason : "LOGOUT"));
-            sessionRepository.save(session);
+        sessionTokenCache.resolve(sessionToken).ifPresent(session -> {
+            UserSession.EndReason endReason = UserSession.EndReason.valueOf(reason != null ? reason : "LOGOUT");
+            if (sessionRepository.endSession(session.sessionId(), endReason, LocalDateTime.now()) == 0) {
+                return;
+            }
+            sessionRegistry.remove(sessionToken);
+            sessionTokenCache.evict(sessionToken);
 
             // Log logout activity
-            logActivityInternal(session, ActivityLog.ActivityType.LOGOUT, "User logged out", null, null, null);
+            logActivityInternal(appUserRepository.getReferenceById(session.userId()),
+                    sessionRepository.getReferenceById(session.sessionId()),
+                    ActivityLog.ActivityType.LOGOUT, "User logged out", null, null, null);
 
             // Check if user has any other active sessions
-            if (!sessionRepository.hasActiveSession(session.getUser().getId())) {
-                webSocketEventService.notifyUserOffline(session.getUser());
+            if (!sessionRegistry.hasActiveSession(session.userId())) {
+                webSocketEventService.notifyUserOffline(session);
             }
 
-            log.info("Session ended for user: {}", session.getUser().getEmail());
+            log.info("Session ended for user: {}", session.email());
         });
     }
 
-    @Transactional
     public void logActivity(String sessionToken, ActivityLogRequest request) {
-        sessionRepository.findBySessionToken(sessionToken).ifPresent(session -> {
-            ActivityLog.ActivityType type;
-            try {
-                type = ActivityLog.ActivityType.valueOf(request.getActivityType());
-            } catch (IllegalArgumentException e) {
-                type = ActivityLog.ActivityType.BUTTON_CLICK;
-            }
-
-            logActivityInternal(session, type, request.getActivityName(),
-                    request.getActivityData(), request.getLatitude(), request.getLongitude());
+        sessionTokenCache.resolve(sessionToken).ifPresent(session -> {
+            ActivityLog.ActivityType type = toActivityType(request.getActivityType());
+            telemetryIngestion.enqueueActivities(List.of(toActivityRow(session, type, request)));
 
             // Notify real-time feed
-            webSocketEventService.notifyNewActivity(session.getUser(), type, request.getActivityName());
+            webSocketEventService.notifyNewActivity(session, type, request.getActivityName());
         });
     }
 
-    @Transactional
+    /**
+     * Hand a batch of activities to the telemetry buffer; the rows are written asynchronously
+     */
     public void logActivitiesBatch(String sessionToken, List<ActivityLogRequest> requests) {
-        sessionRepository.findBySessionToken(sessionToken).ifPresent(session -> {
-            for (ActivityLogRequest request : requests) {
-                ActivityLog.ActivityType type;
-                try {
-                    type = ActivityLog.ActivityType.valueOf(request.getActivityType());
-                } catch (IllegalArgumentException e) {
-                    type = ActivityLog.ActivityType.BUTTON_CLICK;
-                }
-
-                ActivityLog log = new ActivityLog();
-                log.setUser(session.getUser());
-                log.setSession(session);
-                log.setActivityType(type);
-                log.setActivityName(request.getActivityName());
-                log.setActivityData(request.getActivityData());
-                log.setLatitude(request.getLatitude());
-                log.setLongitude(request.getLongitude());
-                log.setCreatedAt(request.getTimestamp() != null ? request.getTimestamp() : LocalDateTime.now());
-                activityLogRepository.save(log);
-            }
-        });
+        sessionTokenCache.resolve(sessionToken).ifPresent(session ->
+                telemetryIngestion.enqueueActivities(requests.stream()
+                        .map(request -> toActivityRow(session, toActivityType(request.getActivityType()), request))
+                        .toList()));
     }
 
-    @Transactional
     public void logNetworkRequest(String sessionToken, NetworkLogRequest request) {
-        sessionRepository.findBySessionToken(sessionToken).ifPresent(session -> {
-            saveNetworkLog(session, request);
-        });
+        sessionTokenCache.resolve(sessionToken).ifPresent(session ->
+                telemetryIngestion.enqueueNetworkLogs(List.of(toNetworkRow(session, request))));
     }
 
-    @Transactional
+    /**
+     * Hand a batch of network logs to the telemetry buffer; the rows are written asynchronously
+     */
     public void logNetworkRequestsBatch(String sessionToken, List<NetworkLogRequest> requests) {
-        sessionRepository.findBySessionToken(sessionToken).ifPresent(session -> {
-            for (NetworkLogRequest request : requests) {
-                saveNetworkLog(session, request);
-            }
-        });
+        sessionTokenCache.resolve(sessionToken).ifPresent(session ->
+                telemetryIngestion.enqueueNetworkLogs(requests.stream()
+                        .map(request -> toNetworkRow(session, request))
+                        .toList()));
+    }
+
+    private ActivityLog.ActivityType toActivityType(String activityType) {
+        try {
+            return ActivityLog.ActivityType.valueOf(activityType);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return ActivityLog.ActivityType.BUTTON_CLICK;
+        }
     }
 
-    private void logActivityInternal(UserSession session, ActivityLog.ActivityType type,
+    private TelemetryIngestionService.ActivityRow toActivityRow(SessionTokenCache.SessionContext session,
+                                                                ActivityLog.ActivityType type,
+                                                                ActivityLogRequest request) {
+        return new TelemetryIngestionService.ActivityRow(
+                session.userId(),
+                session.sessionId(),
+                type,
+                request.getActivityName(),
+                request.getActivityData(),
+                request.getLatitude(),
+                request.getLongitude(),
+                request.getTimestamp() != null ? request.getTimestamp() : LocalDateTime.now());
+    }
+
+    private void logActivityInternal(AppUser user, UserSession session, ActivityLog.ActivityType type,
                                      String name, java.util.Map<String, Object> data,
                                      Double latitude, Double longitude) {
         ActivityLog log = new ActivityLog();
-        log.setUser(session.getUser());
+        log.setUser(user);
         log.setSession(session);
         log.setActivityType(type);
         log.setActivityName(name);
@@ -166,24 +189,30 @@ public class AnalyticsService {
         log.setLatitude(latitude);
         log.setLongitude(longitude);
         activityLogRepository.save(log);
+        Long userId = user.getId();
+        TransactionHooks.afterCommit(() -> {
+            rollupService.recordActivity(type);
+            distinctUserService.record(userId, type, latitude, longitude, LocalDateTime.now());
+            activityBitmapService.record(userId, type, LocalDateTime.now());
+        });
     }
 
-    private void saveNetworkLog(UserSession session, NetworkLogRequest request) {
-        NetworkLog log = new NetworkLog();
-        log.setUser(session.getUser());
-        log.setSession(session);
-        log.setRequestId(request.getRequestId());
-        log.setMethod(request.getMethod());
-        log.setUrl(request.getUrl());
-        log.setRequestHeaders(sanitizeHeaders(request.getRequestHeaders()));
-        log.setRequestBody(request.getRequestBody());
-        log.setResponseStatus(request.getResponseStatus());
-        log.setResponseHeaders(request.getResponseHeaders());
-        log.setResponseBody(truncateResponseBody(request.getResponseBody()));
-        log.setLatencyMs(request.getLatencyMs());
-        log.setErrorMessage(request.getErrorMessage());
-        log.setCreatedAt(request.getTimestamp() != null ? request.getTimestamp() : LocalDateTime.now());
-        networkLogRepository.save(log);
+    private TelemetryIngestionService.NetworkRow toNetworkRow(SessionTokenCache.SessionContext session,
+                                                              NetworkLogRequest request) {
+        return new TelemetryIngestionService.NetworkRow(
+                session.userId(),
+                session.sessionId(),
+                request.getRequestId(),
+                request.getMethod(),
+                request.getUrl(),
+                sanitizeHeaders(request.getRequestHeaders()),
+                request.getRequestBody(),
+                request.getResponseStatus(),
+                request.getResponseHeaders(),
+                truncateResponseBody(request.getResponseBody()),
+                request.getLatencyMs(),
+                request.getErrorMessage(),
+                request.getTimestamp() != null ? request.getTimestamp() : LocalDateTime.now());
     }
 
     private java.util.Map<String, String> sanitizeHeaders(java.util.Map<String, String> headers) {
@@ -206,10 +235,16 @@ public class AnalyticsService {
         return body;
     }
 
-    @Transactional
+    /**
+     * Expire sessions without a heartbeat for the configured stale period (computed in memory)
+     */
     public void cleanupStaleSessions() {
-        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(5);
-        int expired = sessionRepository.expireStaleSessions(cutoff, LocalDateTime.now());
+        List<SessionRegistry.LiveSession> expiredSessions = sessionRegistry.expireStaleSessions();
+        expiredSessions.forEach(session -> {
+            sessionTokenCache.evict(session.token());
+            webSocketEventService.notifyPresenceChanged(session.userId());
+        });
+        int expired = expiredSessions.size();
         if (expired > 0) {
             log.info("Expired {} stale sessions", expired);
         }
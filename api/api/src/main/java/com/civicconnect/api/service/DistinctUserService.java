@@ -0,0 +1,304 @@
+package com.civicconnect.api.service;
+
+import com.civicconnect.api.dto.analytics.AnalyticsDTOs.DistinctUsersDTO;
+import com.civicconnect.api.entity.analytics.ActivityLog;
+import com.civicconnect.api.repository.StateBoundaryRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Distinct-user counts per day and dimension, kept as HyperLogLog sketches.
+ *
+ * Every activity the telemetry writer persists (and every login/logout) adds its user id to the
+ * day's sketches for GLOBAL, its ACTIVITY_TYPE and, when the activity carries a location, its
+ * STATE, PC and AC. The jurisdiction of a location is looked up once per lat/lng cell and cached.
+ *
+ * Sketches live in memory while they receive data and are written to user_hll_sketches every
+ * flush; the flush first merges what is already stored, so restarts and late rows for past days
+ * never lose users. Each (day, dimension) is merged and written in one transaction under an
+ * advisory lock, so nodes flushing the same sketches never overwrite each other's registers.
+ * Queries merge the daily sketches of a range, from cache where possible.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DistinctUserService {
+
+    public static final String GEO_CELL_CACHE = "distinctUserGeoCells";
+    public static final String SKETCH_CACHE = "distinctUserSketches";
+    public static final String GLOBAL_KEY = "all";
+
+    public enum Dimension { GLOBAL, STATE, PC, AC, ACTIVITY_TYPE }
+
+    private static final String SELECT_SKETCHES =
+            "SELECT dimension_key, registers FROM user_hll_sketches WHERE day = ? AND dimension = ? " +
+            "AND dimension_key = ANY(?)";
+    private static final String UPSERT_SKETCH =
+            "INSERT INTO user_hll_sketches (day, dimension, dimension_key, registers, updated_at) " +
+            "VALUES (?, ?, ?, ?, now()) ON CONFLICT (day, dimension, dimension_key) " +
+            "DO UPDATE SET registers = EXCLUDED.registers, updated_at = now()";
+    private static final String LOCK_GROUP = "SELECT pg_advisory_xact_lock(hashtext(?))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StateBoundaryRepository stateBoundaryRepository;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${analytics.distinct-users.retention-days:400}")
+    private int retentionDays;
+
+    // Decimal places of lat/lng for jurisdiction lookups (2 ≈ 1.1km cells)
+    @Value("${analytics.distinct-users.cell-decimals:2}")
+    private int cellDecimals;
+
+    private final Map<SketchKey, HyperLogLog> live = new ConcurrentHashMap<>();
+    private final Set<SketchKey> dirty = ConcurrentHashMap.newKeySet();
+
+    private record SketchKey(LocalDate day, Dimension dimension, String key) {
+    }
+
+    /**
+     * Jurisdiction of a location cell; parts outside every boundary are null
+     */
+    private record GeoCell(String stateName, Long pcId, Long acId) {
+    }
+
+    // ==================== Recording ====================
+
+    public void recordActivities(List<TelemetryIngestionService.ActivityRow> rows) {
+        for (TelemetryIngestionService.ActivityRow row : rows) {
+            record(row.userId(), row.activityType(), row.latitude(), row.longitude(), row.createdAt());
+        }
+    }
+
+    public void record(Long userId, ActivityLog.ActivityType type, Double latitude, Double longitude,
+                       LocalDateTime at) {
+        if (userId == null) {
+            return;
+        }
+        LocalDate day = (at != null ? at : LocalDateTime.now()).toLocalDate();
+        add(new SketchKey(day, Dimension.GLOBAL, GLOBAL_KEY), userId);
+        if (type != null) {
+            add(new SketchKey(day, Dimension.ACTIVITY_TYPE, type.name()), userId);
+        }
+        if (latitude != null && longitude != null) {
+            GeoCell cell = resolveCell(latitude, longitude);
+            if (cell.stateName() != null) add(new SketchKey(day, Dimension.STATE, cell.stateName()), userId);
+            if (cell.pcId() != null) add(new SketchKey(day, Dimension.PC, cell.pcId().toString()), userId);
+            if (cell.acId() != null) add(new SketchKey(day, Dimension.AC, cell.acId().toString()), userId);
+        }
+    }
+
+    private void add(SketchKey key, long userId) {
+        live.computeIfAbsent(key, k -> new HyperLogLog()).add(userId);
+        dirty.add(key);
+    }
+
+    private GeoCell resolveCell(double latitude, double longitude) {
+        double scale = Math.pow(10, cellDecimals);
+        long latCell = Math.round(latitude * scale);
+        long lngCell = Math.round(longitude * scale);
+        try {
+            GeoCell cell = geoCellCache().get(latCell + ":" + lngCell, () -> {
+                List<Object[]> rows = stateBoundaryRepository.findJurisdictionIdsByPoint(latCell / scale, lngCell / scale);
+                Object[] row = rows.isEmpty() ? new Object[3] : rows.get(0);
+                return new GeoCell((String) row[0], toLong(row[1]), toLong(row[2]));
+            });
+            return cell != null ? cell : new GeoCell(null, null, null);
+        } catch (Exception e) {
+            log.debug("Jurisdiction lookup failed for {},{}: {}", latitude, longitude, e.getMessage());
+            return new GeoCell(null, null, null);
+        }
+    }
+
+    // ==================== Flush ====================
+
+    /**
+     * Merge changed sketches with their stored versions and write them back.
+     * Sketches of days before yesterday are dropped from memory once written.
+     */
+    public int flush() {
+        if (dirty.isEmpty()) {
+            return 0;
+        }
+        // Claim the dirty keys first so adds during the flush mark them again
+        List<SketchKey> keys = new ArrayList<>(dirty);
+        keys.forEach(dirty::remove);
+
+        Set<SketchKey> written = new HashSet<>();
+        try {
+            keys.stream()
+                    .collect(Collectors.groupingBy(key -> new SketchKey(key.day(), key.dimension(), null)))
+                    .forEach((group, groupKeys) -> {
+                        transactionTemplate.executeWithoutResult(status -> flushGroup(group, groupKeys));
+                        written.addAll(groupKeys);
+                    });
+        } catch (RuntimeException e) {
+            // Nothing is lost: the live sketches still hold the data
+            keys.stream().filter(key -> !written.contains(key)).forEach(dirty::add);
+            throw e;
+        } finally {
+            written.forEach(sketchCache()::evict);
+        }
+
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        live.keySet().removeIf(key -> key.day().isBefore(yesterday) && !dirty.contains(key));
+        log.debug("Flushed {} distinct-user sketches", written.size());
+        return written.size();
+    }
+
+    /**
+     * Merge the sketches of one (day, dimension) with their stored versions and write them back.
+     * Runs in a transaction holding the group's advisory lock, so a node flushing the same group
+     * waits and then merges what this one wrote.
+     */
+    private void flushGroup(SketchKey group, List<SketchKey> groupKeys) {
+        jdbcTemplate.query(LOCK_GROUP, rs -> { }, "user_hll_sketches:" + group.day() + ":" + group.dimension());
+        Map<String, HyperLogLog> stored = loadStored(group.day(), group.dimension(),
+                groupKeys.stream().map(SketchKey::key).toList());
+
+        List<Object[]> batch = new ArrayList<>(groupKeys.size());
+        for (SketchKey key : groupKeys) {
+            HyperLogLog sketch = live.computeIfAbsent(key, k -> new HyperLogLog());
+            HyperLogLog previous = stored.get(key.key());
+            if (previous != null) {
+                sketch.merge(previous);
+            }
+            batch.add(new Object[]{Date.valueOf(key.day()), key.dimension().name(), key.key(), sketch.toBytes()});
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SKETCH, batch);
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Could not flush distinct-user sketches on shutdown: {}", e.getMessage());
+        }
+    }
+
+    private Map<String, HyperLogLog> loadStored(LocalDate day, Dimension dimension, List<String> keys) {
+        Map<String, HyperLogLog> stored = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_SKETCHES);
+            ps.setDate(1, Date.valueOf(day));
+            ps.setString(2, dimension.name());
+            ps.setArray(3, connection.createArrayOf("varchar", keys.toArray()));
+            return ps;
+        }, rs -> {
+            stored.put(rs.getString(1), HyperLogLog.fromBytes(rs.getBytes(2)));
+        });
+        return stored;
+    }
+
+    /**
+     * Delete stored sketches past retention
+     */
+    public int purgeOldSketches() {
+        return jdbcTemplate.update("DELETE FROM user_hll_sketches WHERE day < ?",
+                Date.valueOf(LocalDate.now().minusDays(retentionDays)));
+    }
+
+    // ==================== Queries ====================
+
+    /**
+     * Distinct users of one dimension value over [from, to] (days inclusive)
+     */
+    public long countDistinct(Dimension dimension, String key, LocalDate from, LocalDate to) {
+        String resolvedKey = dimension == Dimension.GLOBAL ? GLOBAL_KEY : key;
+        HyperLogLog union = new HyperLogLog();
+        for (LocalDate day = clampFrom(from); !day.isAfter(to); day = day.plusDays(1)) {
+            SketchKey sketchKey = new SketchKey(day, dimension, resolvedKey);
+            HyperLogLog stored = storedSketch(sketchKey);
+            if (stored != null) {
+                union.merge(stored);
+            }
+            HyperLogLog current = live.get(sketchKey);
+            if (current != null) {
+                union.merge(current);
+            }
+        }
+        return union.estimate();
+    }
+
+    /**
+     * Distinct users per value of a dimension over [from, to], largest first
+     */
+    public List<DistinctUsersDTO> breakdown(Dimension dimension, LocalDate from, LocalDate to, int limit) {
+        LocalDate start = clampFrom(from);
+        Map<String, HyperLogLog> unions = new HashMap<>();
+        jdbcTemplate.query("SELECT dimension_key, registers FROM user_hll_sketches " +
+                        "WHERE dimension = ? AND day BETWEEN ? AND ?",
+                rs -> {
+                    unions.computeIfAbsent(rs.getString(1), k -> new HyperLogLog())
+                            .merge(HyperLogLog.fromBytes(rs.getBytes(2)));
+                },
+                dimension.name(), Date.valueOf(start), Date.valueOf(to));
+        live.forEach((key, sketch) -> {
+            if (key.dimension() == dimension && !key.day().isBefore(start) && !key.day().isAfter(to)) {
+                unions.computeIfAbsent(key.key(), k -> new HyperLogLog()).merge(sketch);
+            }
+        });
+
+        return unions.entrySet().stream()
+                .map(entry -> DistinctUsersDTO.builder()
+                        .dimension(dimension.name())
+                        .dimensionKey(entry.getKey())
+                        .from(start)
+                        .to(to)
+                        .distinctUsers(entry.getValue().estimate())
+                        .build())
+                .sorted(Comparator.comparing(DistinctUsersDTO::getDistinctUsers).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    private HyperLogLog storedSketch(SketchKey key) {
+        return sketchCache().get(key, () -> {
+            List<byte[]> rows = jdbcTemplate.query(
+                    "SELECT registers FROM user_hll_sketches WHERE day = ? AND dimension = ? AND dimension_key = ?",
+                    (rs, i) -> rs.getBytes(1),
+                    Date.valueOf(key.day()), key.dimension().name(), key.key());
+            return rows.isEmpty() ? null : HyperLogLog.fromBytes(rows.get(0));
+        });
+    }
+
+    private LocalDate clampFrom(LocalDate from) {
+        LocalDate oldest = LocalDate.now().minusDays(retentionDays);
+        return from.isBefore(oldest) ? oldest : from;
+    }
+
+    private static Long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : null;
+    }
+
+    private Cache geoCellCache() {
+        return cacheManager.getCache(GEO_CELL_CACHE);
+    }
+
+    private Cache sketchCache() {
+        return cacheManager.getCache(SKETCH_CACHE);
+    }
+}
@@ -0,0 +1,269 @@
+package com.civicconnect.api.service;
+
+import com.civicconnect.api.config.cache.TwoTierCache;
+import com.civicconnect.api.config.cache.TwoTierCacheManager;
+import com.civicconnect.api.dto.GovMapDTO.CitizenInfo;
+import com.civicconnect.api.dto.GovMapDTO.FixedHierarchyResponse;
+import com.civicconnect.api.dto.GovMapDTO.HierarchyNode;
+import com.civicconnect.api.entity.RepresentativeRating.RepresentativeType;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Caches for the gov map home screen.
+ *
+ * The representative and stats part of each hierarchy is identical for everyone in the same
+ * jurisdiction, so it is cached once per jurisdiction key (location cell for LOCAL, AC for STATE,
+ * PC for NATIONAL) with no user data in it. The small per-user part (citizen info and the user's
+ * own ratings) lives in a separate per-user cache and is merged on read.
+ *
+ * Entries are evicted when a representative's ratings, issues or profile change, and when a
+ * user's ratings or name change. Eviction happens immediately and again after commit.
+ *
+ * A hierarchy is built once per key through the cache loader. Every hierarchy eviction bumps a
+ * generation counter, and a build that started before the latest eviction is returned to its
+ * caller but not stored, so a build that read stats before a write committed cannot outlive
+ * that write's eviction.
+ *
+ * Hierarchies are only found by the representatives they show, so with the two-tier cache their
+ * evictions are broadcast as group invalidations: every node scans its own entries and bumps its
+ * own generation.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GovMapCacheService {
+
+    public static final String HIERARCHY_CACHE = "govMapHierarchies";
+    public static final String USER_OVERLAY_CACHE = "govMapUserOverlays";
+
+    // Group of every hierarchy; other groups are "<node type>:<representative id>"
+    private static final String ALL_HIERARCHIES = "*";
+
+    private final CacheManager cacheManager;
+
+    // Bumped by every hierarchy eviction; builds started under an older generation are not stored
+    private final AtomicLong hierarchyGeneration = new AtomicLong();
+
+    // Decimal places of lat/lng used for the LOCAL location cell (3 ≈ 110m)
+    @Value("${gov-map.cache.cell-decimals:3}")
+    private int cellDecimals;
+
+    /**
+     * Jurisdiction a cached hierarchy applies to. Unused parts are null.
+     */
+    public record JurisdictionKey(String mode, String stateCode, String stateName, String cityName,
+                                  Long constituencyId, Long latCell, Long lngCell) {
+    }
+
+    /**
+     * Per-user data merged into the shared hierarchies
+     */
+    public record UserOverlay(CitizenInfo citizen, Map<RepresentativeType, Map<Long, Integer>> ratings) {
+
+        public Integer ratingFor(RepresentativeType type, Long representativeId) {
+            if (representativeId == null) return null;
+            return ratings.getOrDefault(type, Map.of()).get(representativeId);
+        }
+    }
+
+    @PostConstruct
+    void registerGroupEviction() {
+        if (cacheManager instanceof TwoTierCacheManager twoTier) {
+            twoTier.registerGroupEvictor(HIERARCHY_CACHE, this::evictLocalHierarchies);
+        }
+    }
+
+    public JurisdictionKey localKey(String stateName, String cityName, Double latitude, Double longitude) {
+        return new JurisdictionKey("LOCAL", null, normalize(stateName), normalize(cityName), null,
+                cell(latitude), cell(longitude));
+    }
+
+    public JurisdictionKey stateKey(String stateCode, String stateName, Long assemblyConstituencyId) {
+        return new JurisdictionKey("STATE", normalize(stateCode), normalize(stateName), null,
+                assemblyConstituencyId, null, null);
+    }
+
+    public JurisdictionKey nationalKey(String stateCode, String stateName, Long parliamentaryConstituencyId) {
+        return new JurisdictionKey("NATIONAL", normalize(stateCode), normalize(stateName), null,
+                parliamentaryConstituencyId, null, null);
+    }
+
+    public Optional<FixedHierarchyResponse> getHierarchy(JurisdictionKey key) {
+        return Optional.ofNullable(hierarchyCache().get(key, FixedHierarchyResponse.class));
+    }
+
+    /**
+     * Cached hierarchy, or one build per key on a miss; concurrent misses wait for that build
+     */
+    public FixedHierarchyResponse getHierarchy(JurisdictionKey key, Supplier<FixedHierarchyResponse> builder) {
+        long generation = hierarchyGeneration.get();
+        FixedHierarchyResponse hierarchy;
+        try {
+            hierarchy = hierarchyCache().get(key, () -> {
+                FixedHierarchyResponse built = builder.get();
+                if (hierarchyGeneration.get() != generation) {
+                    // Evicted while building: serve this build once, but do not cache it
+                    throw new StaleHierarchyException(built);
+                }
+                return built;
+            });
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof StaleHierarchyException stale) {
+                return stale.hierarchy;
+            }
+            throw e;
+        }
+        if (hierarchyGeneration.get() != generation) {
+            // An eviction raced with storing the build
+            hierarchyCache().evict(key);
+        }
+        return hierarchy;
+    }
+
+    public UserOverlay getUserOverlay(Long userId, Supplier<UserOverlay> loader) {
+        return userOverlayCache().get(userId, loader::get);
+    }
+
+    /**
+     * Copy a shared hierarchy and fill in the user's citizen node, citizen info and own ratings
+     */
+    public FixedHierarchyResponse applyOverlay(FixedHierarchyResponse shared, UserOverlay overlay) {
+        return shared.toBuilder()
+                .citizen(overlay.citizen())
+                .nodes(shared.getNodes().stream()
+                        .map(node -> applyOverlay(node, overlay))
+                        .toList())
+                .build();
+    }
+
+    private HierarchyNode applyOverlay(HierarchyNode node, UserOverlay overlay) {
+        if ("CITIZEN".equals(node.getNodeType())) {
+            return node.toBuilder()
+                    .id(overlay.citizen().getUserId())
+                    .name(overlay.citizen().getName())
+                    .build();
+        }
+        if (!Boolean.TRUE.equals(node.getCanRate())) {
+            return node;
+        }
+        Integer userRating = overlay.ratingFor(RepresentativeType.valueOf(node.getNodeType()), node.getId());
+        return node.toBuilder()
+                .userRating(userRating)
+                .hasUserRated(userRating != null)
+                .build();
+    }
+
+    /**
+     * Drop every cached hierarchy that shows this representative
+     */
+    public void evictRepresentative(RepresentativeType type, Long representativeId) {
+        if (representativeId == null) return;
+        Runnable evict = () -> evictHierarchies(type.name() + ":" + representativeId);
+        evict.run();
+        TransactionHooks.afterCommit(evict);
+    }
+
+    /**
+     * Drop the cached citizen info and ratings of a user
+     */
+    public void evictUser(Long userId) {
+        if (userId == null) return;
+        userOverlayCache().evict(userId);
+        TransactionHooks.afterCommit(() -> userOverlayCache().evict(userId));
+    }
+
+    /**
+     * Drop all cached hierarchies (representatives added/removed, bulk reconciles)
+     */
+    public void evictAllHierarchies() {
+        Runnable clear = () -> evictHierarchies(ALL_HIERARCHIES);
+        clear.run();
+        TransactionHooks.afterCommit(clear);
+    }
+
+    private void evictHierarchies(String group) {
+        if (cacheManager instanceof TwoTierCacheManager twoTier) {
+            twoTier.evictGroup(HIERARCHY_CACHE, group);
+        } else {
+            evictLocalHierarchies(group);
+        }
+    }
+
+    /**
+     * Evict the hierarchies of a group from this node only; run on every node for a group eviction
+     */
+    private void evictLocalHierarchies(String group) {
+        if (ALL_HIERARCHIES.equals(group)) {
+            evictLocalHierarchiesMatching(hierarchy -> true);
+            return;
+        }
+        int separator = group.lastIndexOf(':');
+        String nodeType = group.substring(0, separator);
+        Long representativeId = Long.valueOf(group.substring(separator + 1));
+        evictLocalHierarchiesMatching(hierarchy -> hierarchy.getNodes().stream()
+                .anyMatch(node -> nodeType.equals(node.getNodeType()) && representativeId.equals(node.getId())));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void evictLocalHierarchiesMatching(Predicate<FixedHierarchyResponse> matches) {
+        hierarchyGeneration.incrementAndGet();
+        // Scan of the cache's map view: entries are few (one per jurisdiction) and writes are rare
+        Cache cache = hierarchyCache();
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache =
+                (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache();
+        List<Object> keys = nativeCache.asMap().entrySet().stream()
+                .filter(entry -> matches.test((FixedHierarchyResponse) entry.getValue()))
+                .map(Map.Entry::getKey)
+                .toList();
+        for (Object key : keys) {
+            if (cache instanceof TwoTierCache twoTier) {
+                twoTier.evictLocal(key);
+            } else {
+                cache.evict(key);
+            }
+        }
+    }
+
+    private Long cell(Double coordinate) {
+        if (coordinate == null) return null;
+        return Math.round(coordinate * Math.pow(10, cellDecimals));
+    }
+
+    private static String normalize(String value) {
+        return value != null && !value.isBlank() ? value.trim().toLowerCase() : null;
+    }
+
+    private Cache hierarchyCache() {
+        return cacheManager.getCache(HIERARCHY_CACHE);
+    }
+
+    private Cache userOverlayCache() {
+        return cacheManager.getCache(USER_OVERLAY_CACHE);
+    }
+
+    /**
+     * Carries a build that must not be cached out of the cache loader
+     */
+    private static final class StaleHierarchyException extends RuntimeException {
+
+        private final transient FixedHierarchyResponse hierarchy;
+
+        StaleHierarchyException(FixedHierarchyResponse hierarchy) {
+            super(null, null, false, false);
+            this.hierarchy = hierarchy;
+        }
+    }
+}
@@ -7,13 +7,25 @@ import com.civicconnect.api.entity.RepresentativeRating.RepresentativeType;
 import com.civicconnect.api.entity.analytics.AppUser;
 import com.civicconnect.api.repository.*;
 import com.civicconnect.api.repository.analytics.AppUserRepository;
+import com.civicconnect.api.service.GovMapCacheService.JurisdictionKey;
+import com.civicconnect.api.service.GovMapCacheService.UserOverlay;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * Service for building fixed government hierarchy structure.
@@ -25,6 +37,9 @@ import java.util.Optional;
  * LOCAL: Citizen → Ward Councillor → Mayor
  *
  * Each hierarchy ALWAYS shows all nodes, regardless of data availability.
+ *
+ * Hierarchies are built without user data and cached per jurisdiction (see GovMapCacheService);
+ * the user's citizen info and own ratings are merged in on every read.
  */
 @Service
 @RequiredArgsConstructor
@@ -39,6 +54,38 @@ public class GovMapHierarchyService {
     private final WardCouncillorRepository wardCouncillorRepository;
     private final RepresentativeRatingService ratingService;
     private final AppUserRepository appUserRepository;
+    private final GovMapCacheService govMapCache;
+
+    @Value("${gov-map.fanout.threads:12}")
+    private int fanoutThreads;
+
+    @Value("${gov-map.fanout.queue-capacity:100}")
+    private int fanoutQueueCapacity;
+
+    // Bounded pool for building the three hierarchies in parallel.
+    // When full, the request thread builds the hierarchy itself instead of queueing without limit.
+    private ThreadPoolExecutor fanoutExecutor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        fanoutExecutor = new ThreadPoolExecutor(
+                fanoutThreads, fanoutThreads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(fanoutQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "govmap-fanout-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        fanoutExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanoutExecutor.shutdown();
+    }
 
     /**
      * Get complete Gov Map with all three hierarchies
@@ -55,18 +102,28 @@ public class GovMapHierarchyService {
     ) {
         log.info("Building complete GovMap for user: {}, state: {}, city: {}", userId, stateName, cityName);
 
-        // Build citizen info
-        CitizenInfo citizenInfo = buildCitizenInfo(userId);
+        GovMapRequest request = new GovMapRequest(userId);
 
-        // Build all three hierarchies
-        FixedHierarchyResponse localHierarchy = buildLocalHierarchy(
-                userId, stateName, cityName, latitude, longitude);
+        // Shared hierarchies come from the jurisdiction cache; misses are built concurrently
+        CompletableFuture<FixedHierarchyResponse> localFuture = sharedHierarchy(
+                govMapCache.localKey(stateName, cityName, latitude, longitude),
+                () -> buildLocalHierarchy(new GovMapRequest(null), stateName, cityName, latitude, longitude));
 
-        FixedHierarchyResponse stateHierarchy = buildStateHierarchy(
-                userId, stateCode, stateName, assemblyConstituencyId);
+        CompletableFuture<FixedHierarchyResponse> stateFuture = sharedHierarchy(
+                govMapCache.stateKey(stateCode, stateName, assemblyConstituencyId),
+                () -> buildStateHierarchy(new GovMapRequest(null), stateCode, stateName, assemblyConstituencyId));
 
-        FixedHierarchyResponse nationalHierarchy = buildNationalHierarchy(
-                userId, stateCode, stateName, parliamentaryConstituencyId);
+        CompletableFuture<FixedHierarchyResponse> nationalFuture = sharedHierarchy(
+                govMapCache.nationalKey(stateCode, stateName, parliamentaryConstituencyId),
+                () -> buildNationalHierarchy(new GovMapRequest(null), stateCode, stateName, parliamentaryConstituencyId));
+
+        // Load the user's overlay on the calling thread while the hierarchies load
+        UserOverlay overlay = userOverlay(request);
+
+        FixedHierarchyResponse localHierarchy = govMapCache.applyOverlay(localFuture.join(), overlay);
+        FixedHierarchyResponse stateHierarchy = govMapCache.applyOverlay(stateFuture.join(), overlay);
+        FixedHierarchyResponse nationalHierarchy = govMapCache.applyOverlay(nationalFuture.join(), overlay);
+        CitizenInfo citizenInfo = overlay.citizen();
 
         // Build location string
         String formattedLocation = buildFormattedLocation(cityName, stateName);
@@ -92,18 +149,31 @@ public class GovMapHierarchyService {
             String cityName,
             Double latitude,
             Double longitude
+    ) {
+        FixedHierarchyResponse hierarchy = sharedHierarchy(
+                govMapCache.localKey(stateName, cityName, latitude, longitude),
+                () -> buildLocalHierarchy(new GovMapRequest(null), stateName, cityName, latitude, longitude)).join();
+        return govMapCache.applyOverlay(hierarchy, userOverlay(new GovMapRequest(userId)));
+    }
+
+    private FixedHierarchyResponse buildLocalHierarchy(
+            GovMapRequest request,
+            String stateName,
+            String cityName,
+            Double latitude,
+            Double longitude
     ) {
         List<HierarchyNode> nodes = new ArrayList<>();
 
         // 1. Citizen node (always present)
-        nodes.add(buildCitizenNode(userId));
+        nodes.add(buildCitizenNode(request));
 
         // 2. Ward Councillor node
-        HierarchyNode councillorNode = buildWardCouncillorNode(userId, stateName, cityName, latitude, longitude);
+        HierarchyNode councillorNode = buildWardCouncillorNode(request, stateName, cityName, latitude, longitude);
         nodes.add(councillorNode);
 
         // 3. Mayor node
-        HierarchyNode mayorNode = buildMayorNode(userId, stateName, cityName);
+        HierarchyNode mayorNode = buildMayorNode(request, stateName, cityName);
         nodes.add(mayorNode);
 
         // Build summary
@@ -116,7 +186,7 @@ public class GovMapHierarchyService {
                 .stateName(stateName)
                 .cityName(cityName)
                 .nodes(nodes)
-                .citizen(buildCitizenInfo(userId))
+                .citizen(request.citizenInfo())
                 .summary(summary)
                 .build();
     }
@@ -129,18 +199,30 @@ public class GovMapHierarchyService {
             String stateCode,
             String stateName,
             Long assemblyConstituencyId
+    ) {
+        FixedHierarchyResponse hierarchy = sharedHierarchy(
+                govMapCache.stateKey(stateCode, stateName, assemblyConstituencyId),
+                () -> buildStateHierarchy(new GovMapRequest(null), stateCode, stateName, assemblyConstituencyId)).join();
+        return govMapCache.applyOverlay(hierarchy, userOverlay(new GovMapRequest(userId)));
+    }
+
+    private FixedHierarchyResponse buildStateHierarchy(
+            GovMapRequest request,
+            String stateCode,
+            String stateName,
+            Long assemblyConstituencyId
     ) {
         List<HierarchyNode> nodes = new ArrayList<>();
 
         // 1. Citizen node
-        nodes.add(buildCitizenNode(userId));
+        nodes.add(buildCitizenNode(request));
 
         // 2. MLA node
-        HierarchyNode mlaNode = buildMLANode(userId, stateCode, stateName, assemblyConstituencyId);
+        HierarchyNode mlaNode = buildMLANode(request, stateCode, stateName, assemblyConstituencyId);
         nodes.add(mlaNode);
 
         // 3. Chief Minister node
-        HierarchyNode cmNode = buildChiefMinisterNode(userId, stateCode, stateName);
+        HierarchyNode cmNode = buildChiefMinisterNode(request, stateCode, stateName);
         nodes.add(cmNode);
 
         // Build summary
@@ -153,7 +235,7 @@ public class GovMapHierarchyService {
                 .stateName(stateName)
                 .stateCode(stateCode)
                 .nodes(nodes)
-                .citizen(buildCitizenInfo(userId))
+                .citizen(request.citizenInfo())
                 .summary(summary)
                 .build();
     }
@@ -166,18 +248,30 @@ public class GovMapHierarchyService {
             String stateCode,
             String stateName,
             Long parliamentaryConstituencyId
+    ) {
+        FixedHierarchyResponse hierarchy = sharedHierarchy(
+                govMapCache.nationalKey(stateCode, stateName, parliamentaryConstituencyId),
+                () -> buildNationalHierarchy(new GovMapRequest(null), stateCode, stateName, parliamentaryConstituencyId)).join();
+        return govMapCache.applyOverlay(hierarchy, userOverlay(new GovMapRequest(userId)));
+    }
+
+    private FixedHierarchyResponse buildNationalHierarchy(
+            GovMapRequest request,
+            String stateCode,
+            String stateName,
+            Long parliamentaryConstituencyId
     ) {
         List<HierarchyNode> nodes = new ArrayList<>();
 
         // 1. Citizen node
-        nodes.add(buildCitizenNode(userId));
+        nodes.add(buildCitizenNode(request));
 
         // 2. MP node
-        HierarchyNode mpNode = buildMPNode(userId, stateCode, stateName, parliamentaryConstituencyId);
+        HierarchyNode mpNode = buildMPNode(request, stateCode, stateName, parliamentaryConstituencyId);
         nodes.add(mpNode);
 
         // 3. Prime Minister node
-        HierarchyNode pmNode = buildPrimeMinisterNode(userId);
+        HierarchyNode pmNode = buildPrimeMinisterNode(request);
         nodes.add(pmNode);
 
         // Build summary
@@ -190,7 +284,7 @@ public class GovMapHierarchyService {
                 .stateName(stateName)
                 .stateCode(stateCode)
                 .nodes(nodes)
-                .citizen(buildCitizenInfo(userId))
+                .citizen(request.citizenInfo())
                 .summary(summary)
                 .build();
     }
@@ -199,8 +293,8 @@ public class GovMapHierarchyService {
     // Node Building Methods
     // ========================
 
-    private HierarchyNode buildCitizenNode(Long userId) {
-        AppUser user = userId != null ? appUserRepository.findById(userId).orElse(null) : null;
+    private HierarchyNode buildCitizenNode(GovMapRequest request) {
+        AppUser user = request.user().orElse(null);
         String userName = user != null ? user.getName() : "Citizen";
 
         return HierarchyNode.builder()
@@ -209,14 +303,14 @@ public class GovMapHierarchyService {
                 .designationHindi("नागरिक")
                 .level(0)
                 .isDataAvailable(true)
-                .id(userId)
+                .id(request.userId())
                 .name(userName)
                 .canRate(false)
                 .build();
     }
 
     private HierarchyNode buildWardCouncillorNode(
-            Long userId,
+            GovMapRequest request,
             String stateName,
             String cityName,
             Double latitude,
@@ -261,8 +355,6 @@ public class GovMapHierarchyService {
                     log.warn("Could not get rating stats for councillor: {}", e.getMessage());
                 }
 
-                Integer userRating = getUserRating(userId, RepresentativeType.WARD_COUNCILLOR, councillor.getId());
-
                 return builder
                         .isDataAvailable(true)
                         .id(councillor.getId())
@@ -281,7 +373,6 @@ public class GovMapHierarchyService {
                         .resolutionRate(stats != null ? stats.getResolutionRate() : 0.0)
                         .email(councillor.getEmail())
                         .phone(councillor.getPhone())
-                        .userRating(userRating)
                         .canRate(true)
                         .build();
             }
@@ -297,7 +388,7 @@ public class GovMapHierarchyService {
                 .build();
     }
 
-    private HierarchyNode buildMayorNode(Long userId, String stateName, String cityName) {
+    private HierarchyNode buildMayorNode(GovMapRequest request, String stateName, String cityName) {
         HierarchyNode.HierarchyNodeBuilder builder = HierarchyNode.builder()
                 .nodeType("MAYOR")
                 .designation("Mayor")
@@ -326,8 +417,6 @@ public class GovMapHierarchyService {
                         log.warn("Could not get rating stats for mayor: {}", e.getMessage());
                     }
 
-                    Integer userRating = getUserRating(userId, RepresentativeType.MAYOR, mayor.getId());
-
                     return builder
                             .isDataAvailable(true)
                             .id(mayor.getId())
@@ -347,7 +436,6 @@ public class GovMapHierarchyService {
                             .email(mayor.getEmail())
                             .phone(mayor.getPhone())
                             .twitterHandle(mayor.getTwitterHandle())
-                            .userRating(userRating)
                             .canRate(true)
                             .build();
                 }
@@ -363,7 +451,7 @@ public class GovMapHierarchyService {
                 .build();
     }
 
-    private HierarchyNode buildMLANode(Long userId, String stateCode, String stateName, Long acId) {
+    private HierarchyNode buildMLANode(GovMapRequest request, String stateCode, String stateName, Long acId) {
         HierarchyNode.HierarchyNodeBuilder builder = HierarchyNode.builder()
                 .nodeType("MLA")
                 .designation("Member of Legislative Assembly")
@@ -393,8 +481,6 @@ public class GovMapHierarchyService {
                     log.warn("Could not get rating stats for MLA: {}", e.getMessage());
                 }
 
-                Integer userRating = getUserRating(userId, RepresentativeType.MLA, mla.getId());
-
                 return builder
                         .isDataAvailable(true)
                         .id(mla.getId())
@@ -413,7 +499,6 @@ public class GovMapHierarchyService {
                         .resolutionRate(stats != null ? stats.getResolutionRate() : 0.0)
                         .email(mla.getEmail())
                         .phone(mla.getPhone())
-                        .userRating(userRating)
                         .canRate(true)
                         .build();
             }
@@ -428,7 +513,7 @@ public class GovMapHierarchyService {
                 .build();
     }
 
-    private HierarchyNode buildChiefMinisterNode(Long userId, String stateCode, String stateName) {
+    private HierarchyNode buildChiefMinisterNode(GovMapRequest request, String stateCode, String stateName) {
         HierarchyNode.HierarchyNodeBuilder builder = HierarchyNode.builder()
                 .nodeType("CHIEF_MINISTER")
                 .designation("Chief Minister")
@@ -460,8 +545,6 @@ public class GovMapHierarchyService {
                     log.warn("Could not get rating stats for CM: {}", e.getMessage());
                 }
 
-                Integer userRating = getUserRating(userId, RepresentativeType.CHIEF_MINISTER, cm.getId());
-
                 return builder
                         .isDataAvailable(true)
                         .id(cm.getId())
@@ -480,7 +563,6 @@ public class GovMapHierarchyService {
                         .email(cm.getEmail())
                         .phone(cm.getPhone())
                         .twitterHandle(cm.getTwitterHandle())
-                        .userRating(userRating)
                         .canRate(true)
                         .build();
             }
@@ -495,7 +577,7 @@ public class GovMapHierarchyService {
                 .build();
     }
 
-    private HierarchyNode buildMPNode(Long userId, String stateCode, String stateName, Long pcId) {
+    private HierarchyNode buildMPNode(GovMapRequest request, String stateCode, String stateName, Long pcId) {
         HierarchyNode.HierarchyNodeBuilder builder = HierarchyNode.builder()
                 .nodeType("MP")
                 .designation("Member of Parliament")
@@ -525,8 +607,6 @@ public class GovMapHierarchyService {
                     log.warn("Could not get rating stats for MP: {}", e.getMessage());
                 }
 
-                Integer userRating = getUserRating(userId, RepresentativeType.MP, mp.getId());
-
                 return builder
                         .isDataAvailable(true)
                         .id(mp.getId())
@@ -545,7 +625,6 @@ public class GovMapHierarchyService {
                         .resolutionRate(stats != null ? stats.getResolutionRate() : 0.0)
                         .email(mp.getEmail())
                         .phone(mp.getPhone())
-                        .userRating(userRating)
                         .canRate(true)
                         .build();
             }
@@ -560,7 +639,7 @@ public class GovMapHierarchyService {
                 .build();
     }
 
-    private HierarchyNode buildPrimeMinisterNode(Long userId) {
+    private HierarchyNode buildPrimeMinisterNode(GovMapRequest request) {
         HierarchyNode.HierarchyNodeBuilder builder = HierarchyNode.builder()
                 .nodeType("PRIME_MINISTER")
                 .designation("Prime Minister")
@@ -586,8 +665,6 @@ public class GovMapHierarchyService {
                     log.warn("Could not get rating stats for PM: {}", e.getMessage());
                 }
 
-                Integer userRating = getUserRating(userId, RepresentativeType.PRIME_MINISTER, pm.getId());
-
                 return builder
                         .isDataAvailable(true)
                         .id(pm.getId())
@@ -607,7 +684,6 @@ public class GovMapHierarchyService {
                         .email(pm.getEmail())
                         .phone(pm.getPhone())
                         .twitterHandle(pm.getTwitterHandle())
-                        .userRating(userRating)
                         .canRate(true)
                         .build();
             }
@@ -634,7 +710,8 @@ public class GovMapHierarchyService {
     // Helper Methods
     // ========================
 
-    private CitizenInfo buildCitizenInfo(Long userId) {
+    private CitizenInfo buildCitizenInfo(GovMapRequest request) {
+        Long userId = request.userId();
         if (userId == null) {
             return CitizenInfo.builder()
                     .name("Citizen")
@@ -644,7 +721,7 @@ public class GovMapHierarchyService {
         }
 
         try {
-            AppUser user = appUserRepository.findById(userId).orElse(null);
+            AppUser user = request.user().orElse(null);
             if (user == null) {
                 return CitizenInfo.builder()
                         .userId(userId)
@@ -677,15 +754,24 @@ public class GovMapHierarchyService {
         }
     }
 
-    private Integer getUserRating(Long userId, RepresentativeType type, Long representativeId) {
-        if (userId == null || representativeId == null) return null;
-        try {
-            return ratingService.getUserRating(userId, type, representativeId)
-                    .map(RepresentativeRatingDTO.RatingResponse::getRating)
-                    .orElse(null);
-        } catch (Exception e) {
-            return null;
+    /**
+     * Cached hierarchy for a jurisdiction, or a build on the fan-out pool through the cache loader
+     * (one build per key; see GovMapCacheService#getHierarchy)
+     */
+    private CompletableFuture<FixedHierarchyResponse> sharedHierarchy(JurisdictionKey key,
+                                                                      Supplier<FixedHierarchyResponse> builder) {
+        return govMapCache.getHierarchy(key)
+                .map(CompletableFuture::completedFuture)
+                .orElseGet(() -> CompletableFuture.supplyAsync(
+                        () -> govMapCache.getHierarchy(key, builder), fanoutExecutor));
+    }
+
+    private UserOverlay userOverlay(GovMapRequest request) {
+        if (request.userId() == null) {
+            return new UserOverlay(request.citizenInfo(), Map.of());
         }
+        return govMapCache.getUserOverlay(request.userId(),
+                () -> new UserOverlay(request.citizenInfo(), request.userRatings()));
     }
 
     private int calculateVoicePower(long issuesReported, long ratingsGiven) {
@@ -744,4 +830,51 @@ public class GovMapHierarchyService {
                 .averageAccountabilityScore(avgAccountability)
                 .build();
     }
+
+    /**
+     * Lookups for one caller: the user row and citizen info are loaded at most once.
+     * Each instance is used by a single thread; shared hierarchy builds get their own user-less request.
+     */
+    private final class GovMapRequest {
+
+        private final Long userId;
+        private Optional<AppUser> user;
+        private CitizenInfo citizen;
+
+        GovMapRequest(Long userId) {
+            this.userId = userId;
+        }
+
+        Long userId() {
+            return userId;
+        }
+
+        Optional<AppUser> user() {
+            if (userId == null) return Optional.empty();
+            if (user == null) {
+                user = appUserRepository.findById(userId);
+            }
+            return user;
+        }
+
+        CitizenInfo citizenInfo() {
+            if (citizen == null) {
+                citizen = buildCitizenInfo(this);
+            }
+            return citizen;
+        }
+
+        /**
+         * All of the user's ratings by type and representative ID, from a single query
+         */
+        Map<RepresentativeType, Map<Long, Integer>> userRatings() {
+            if (userId == null) return Map.of();
+            try {
+                return ratingService.getUserRatingValues(userId);
+            } catch (Exception e) {
+                log.warn("Could not load ratings for user {}: {}", userId, e.getMessage());
+                return Map.of();
+            }
+        }
+    }
 }
@@ -0,0 +1,132 @@
+package com.civicconnect.api.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * HyperLogLog sketch for counting distinct user ids.
+ *
+ * 2^12 one-byte registers (4 KB) give a standard error of about 1.6%. Sketches with the same
+ * precision merge by taking the register-wise maximum, so daily sketches can be combined into
+ * any date range. Serialized sketches are sparse (index/value pairs) while few registers are set,
+ * dense otherwise.
+ *
+ * add and merge are synchronized; a sketch may be fed from several threads.
+ */
+public final class HyperLogLog {
+
+    private static final int PRECISION = 12;
+    private static final int REGISTER_COUNT = 1 << PRECISION;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTER_COUNT);
+
+    private static final byte FORMAT_DENSE = 0;
+    private static final byte FORMAT_SPARSE = 1;
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this.registers = new byte[REGISTER_COUNT];
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    public synchronized void add(long id) {
+        long hash = mix(id);
+        int index = (int) (hash >>> (64 - PRECISION));
+        // Guard bit keeps the rank within 64 - PRECISION + 1
+        long rest = (hash << PRECISION) | (1L << (PRECISION - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    public synchronized void merge(HyperLogLog other) {
+        byte[] source = other.snapshot();
+        for (int i = 0; i < REGISTER_COUNT; i++) {
+            if (source[i] > registers[i]) {
+                registers[i] = source[i];
+            }
+        }
+    }
+
+    public long estimate() {
+        byte[] values = snapshot();
+        double sum = 0;
+        int zeros = 0;
+        for (byte value : values) {
+            sum += 1.0 / (1L << value);
+            if (value == 0) zeros++;
+        }
+        double estimate = ALPHA * REGISTER_COUNT * REGISTER_COUNT / sum;
+        // Small-range correction (linear counting)
+        if (estimate <= 2.5 * REGISTER_COUNT && zeros > 0) {
+            estimate = REGISTER_COUNT * Math.log((double) REGISTER_COUNT / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public HyperLogLog copy() {
+        return new HyperLogLog(snapshot());
+    }
+
+    public byte[] toBytes() {
+        byte[] values = snapshot();
+        int nonZero = 0;
+        for (byte value : values) {
+            if (value != 0) nonZero++;
+        }
+        // Sparse entries take 3 bytes (2-byte index + value)
+        if (nonZero * 3 < REGISTER_COUNT) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 + nonZero * 3);
+            buffer.put(FORMAT_SPARSE);
+            for (int i = 0; i < REGISTER_COUNT; i++) {
+                if (values[i] != 0) {
+                    buffer.putShort((short) i);
+                    buffer.put(values[i]);
+                }
+            }
+            return buffer.array();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1 + REGISTER_COUNT);
+        out.write(FORMAT_DENSE);
+        out.writeBytes(values);
+        return out.toByteArray();
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        byte[] registers = new byte[REGISTER_COUNT];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte format = buffer.get();
+        if (format == FORMAT_SPARSE) {
+            while (buffer.remaining() >= 3) {
+                int index = buffer.getShort() & 0xFFFF;
+                registers[index] = buffer.get();
+            }
+        } else if (format == FORMAT_DENSE && buffer.remaining() == REGISTER_COUNT) {
+            buffer.get(registers);
+        } else {
+            throw new IllegalArgumentException("Not a serialized HyperLogLog sketch");
+        }
+        return new HyperLogLog(registers);
+    }
+
+    private synchronized byte[] snapshot() {
+        return registers.clone();
+    }
+
+    /**
+     * 64-bit finalizer (MurmurHash3 fmix64) so sequential ids spread over all registers
+     */
+    private static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,160 @@
+package com.civicconnect.api.service;
+
+import com.civicconnect.api.dto.IssueDTO;
+import com.civicconnect.api.dto.IssueEventDTO;
+import com.civicconnect.api.dto.IssueEventDTO.EventType;
+import com.civicconnect.api.entity.Issue;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes issue status and vote-count changes to mobile clients over the STOMP broker.
+ *
+ * Topics (clients connect to /ws/issues):
+ *   /topic/issues/{issueId}                          - a single issue (detail page)
+ *   /topic/constituencies/pc/{pcSlug}/issues         - issues in a parliamentary constituency
+ *   /topic/constituencies/ac/{acSlug}/issues         - issues in an assembly constituency
+ *   /topic/users/{userId}/issues                     - issues reported by a user
+ *
+ * Constituency slugs are the lower-cased name with non-alphanumerics replaced by '-'.
+ * Status events are sent once the transaction commits; vote counts are coalesced
+ * so each issue emits at most one VOTES_CHANGED event per flush window.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IssueEventService {
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    // Latest vote snapshot per issue, waiting for the next flush
+    private final Map<Long, PendingVotes> pendingVotes = new ConcurrentHashMap<>();
+
+    public void publishCreated(Issue issue, IssueDTO dto) {
+        IssueEventDTO event = baseEvent(EventType.CREATED, issue)
+                .issue(dto)
+                .build();
+        TransactionHooks.afterCommit(() -> send(IssueRoute.of(issue), event));
+    }
+
+    public void publishStatusChanged(Issue issue) {
+        IssueEventDTO event = baseEvent(EventType.STATUS_CHANGED, issue)
+                .status(issue.getStatus().name())
+                .resolvedAt(issue.getResolvedAt())
+                .build();
+        TransactionHooks.afterCommit(() -> send(IssueRoute.of(issue), event));
+    }
+
+    public void publishAssigned(Issue issue) {
+        IssueEventDTO event = baseEvent(EventType.ASSIGNED, issue)
+                .status(issue.getStatus().name())
+                .assignedOfficialName(issue.getAssignedOfficialName())
+                .build();
+        TransactionHooks.afterCommit(() -> send(IssueRoute.of(issue), event));
+    }
+
+    public void publishDeleted(Issue issue) {
+        IssueEventDTO event = baseEvent(EventType.DELETED, issue).build();
+        IssueRoute route = IssueRoute.of(issue);
+        TransactionHooks.afterCommit(() -> {
+            pendingVotes.remove(route.issueId());
+            send(route, event);
+        });
+    }
+
+    /**
+     * Record the latest vote counts; delivered on the next flush (last write wins)
+     */
+    public void publishVotesChanged(Issue issue) {
+        PendingVotes pending = new PendingVotes(IssueRoute.of(issue), issue.getTrackingId(),
+                issue.getUpvoteCount(), issue.getDownvoteCount());
+        TransactionHooks.afterCommit(() -> pendingVotes.put(pending.route().issueId(), pending));
+    }
+
+    /**
+     * Flush coalesced vote-count updates (default: once per second)
+     */
+    @Scheduled(fixedRateString = "${issue-events.vote-window-ms:1000}")
+    public void flushVoteUpdates() {
+        if (pendingVotes.isEmpty()) {
+            return;
+        }
+
+        int sent = 0;
+        for (Long issueId : pendingVotes.keySet()) {
+            PendingVotes pending = pendingVotes.remove(issueId);
+            if (pending == null) {
+                continue;
+            }
+            float heatScore = Issue.calculateHeatScore(pending.upvoteCount(), pending.downvoteCount());
+            IssueEventDTO event = IssueEventDTO.builder()
+                    .eventType(EventType.VOTES_CHANGED)
+                    .issueId(issueId)
+                    .trackingId(pending.trackingId())
+                    .upvoteCount(pending.upvoteCount())
+                    .downvoteCount(pending.downvoteCount())
+                    .heatScore(heatScore)
+                    .heatLevel(Issue.heatLevelFor(heatScore).name())
+                    .timestamp(LocalDateTime.now())
+                    .build();
+            send(pending.route(), event);
+            sent++;
+        }
+        log.debug("Flushed {} coalesced vote updates", sent);
+    }
+
+    private IssueEventDTO.IssueEventDTOBuilder baseEvent(EventType type, Issue issue) {
+        return IssueEventDTO.builder()
+                .eventType(type)
+                .issueId(issue.getId())
+                .trackingId(issue.getTrackingId())
+                .timestamp(LocalDateTime.now());
+    }
+
+    private void send(IssueRoute route, IssueEventDTO event) {
+        try {
+            messagingTemplate.convertAndSend("/topic/issues/" + route.issueId(), event);
+            if (route.pcSlug() != null) {
+                messagingTemplate.convertAndSend("/topic/constituencies/pc/" + route.pcSlug() + "/issues", event);
+            }
+            if (route.acSlug() != null) {
+                messagingTemplate.convertAndSend("/topic/constituencies/ac/" + route.acSlug() + "/issues", event);
+            }
+            if (route.reporterId() != null) {
+                messagingTemplate.convertAndSend("/topic/users/" + route.reporterId() + "/issues", event);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to push {} event for issue {}: {}", event.getEventType(), route.issueId(), e.getMessage());
+        }
+    }
+
+    static String slug(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        return name.trim().toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-");
+    }
+
+    /**
+     * Destinations an issue's events fan out to (captured while the entity is still attached)
+     */
+    private record IssueRoute(Long issueId, String pcSlug, String acSlug, Long reporterId) {
+        static IssueRoute of(Issue issue) {
+            return new IssueRoute(
+                    issue.getId(),
+                    slug(issue.getParliamentaryConstituency()),
+                    slug(issue.getAssemblyConstituency()),
+                    issue.getReporter() != null ? issue.getReporter().getId() : null);
+        }
+    }
+
+    private record PendingVotes(IssueRoute route, String trackingId, int upvoteCount, int downvoteCount) {}
+}
@@ -1,6 +1,7 @@
 package com.civicconnect.api.service;
 
 import com.civicconnect.api.dto.CreateIssueRequest;
+import com.civicconnect.api.dto.IssueFeedView;
 import com.civicconnect.api.dto.IssueDTO;
 import com.civicconnect.api.entity.AssemblyConstituency;
 import com.civicconnect.api.entity.Issue;
@@ -17,6 +18,7 @@ import com.civicconnect.api.repository.MemberOfParliamentRepository;
 import com.civicconnect.api.repository.ParliamentaryConstituencyRepository;
 import com.civicconnect.api.repository.analytics.AppUserRepository;
 import com.civicconnect.api.dto.WardCouncillorDTO;
+import com.civicconnect.api.service.ai.ImageHashService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -26,6 +28,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -45,6 +48,9 @@ public class IssueService {
     private final MemberOfParliamentRepository mpRepository;
     private final WardCouncillorService wardCouncillorService;
     private final GeocodingService geocodingService;
+    private final ImageHashService imageHashService;
+    private final IssueEventService issueEventService;
+    private final RepresentativeIssueCounterService issueCounterService;
 
     /**
      * Get hottest issues (sorted by heat score)
@@ -52,8 +58,8 @@ public class IssueService {
     @Transactional(readOnly = true)
     public Page<IssueDTO> getHottestIssues(int page, int size, Long userId) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Issue> issues = issueRepository.findHottestIssues(pageable);
-        return issues.map(issue -> mapToDTO(issue, userId));
+        Page<IssueFeedView> issues = issueRepository.findHottestIssues(pageable);
+        return toFeedPage(issues, userId);
     }
 
     /**
@@ -63,8 +69,8 @@ public class IssueService {
     public Page<IssueDTO> getIssuesByCategory(String category, int page, int size, Long userId) {
         Pageable pageable = PageRequest.of(page, size);
         Issue.IssueCategory cat = Issue.IssueCategory.valueOf(category.toUpperCase());
-        Page<Issue> issues = issueRepository.findByCategoryOrderByHeatScore(cat, pageable);
-        return issues.map(issue -> mapToDTO(issue, userId));
+        Page<IssueFeedView> issues = issueRepository.findByCategoryOrderByHeatScore(cat, pageable);
+        return toFeedPage(issues, userId);
     }
 
     /**
@@ -74,8 +80,8 @@ public class IssueService {
     public Page<IssueDTO> getIssuesByStatus(String status, int page, int size, Long userId) {
         Pageable pageable = PageRequest.of(page, size);
         Issue.IssueStatus st = Issue.IssueStatus.valueOf(status.toUpperCase());
-        Page<Issue> issues = issueRepository.findByStatusOrderByHeatScore(st, pageable);
-        return issues.map(issue -> mapToDTO(issue, userId));
+        Page<IssueFeedView> issues = issueRepository.findByStatusOrderByHeatScore(st, pageable);
+        return toFeedPage(issues, userId);
     }
 
     /**
@@ -88,12 +94,12 @@ public class IssueService {
         double latDelta = radiusKm / 111.0;
         double lngDelta = radiusKm / (111.0 * Math.cos(Math.toRadians(lat)));
 
-        Page<Issue> issues = issueRepository.findNearbyIssues(
+        Page<IssueFeedView> issues = issueRepository.findNearbyIssues(
                 lat - latDelta, lat + latDelta,
                 lng - lngDelta, lng + lngDelta,
                 pageable
         );
-        return issues.map(issue -> mapToDTO(issue, userId));
+        return toFeedPage(issues, userId);
     }
 
     /**
@@ -102,8 +108,8 @@ public class IssueService {
     @Transactional(readOnly = true)
     public Page<IssueDTO> searchIssues(String query, int page, int size, Long userId) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Issue> issues = issueRepository.searchIssues(query, pageable);
-        return issues.map(issue -> mapToDTO(issue, userId));
+        Page<IssueFeedView> issues = issueRepository.searchIssues(query, pageable);
+        return toFeedPage(issues, userId);
     }
 
     /**
@@ -112,8 +118,8 @@ public class IssueService {
     @Transactional(readOnly = true)
     public Page<IssueDTO> getIssuesByParliamentaryConstituency(String constituency, int page, int size, Long userId) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Issue> issues = issueRepository.findByParliamentaryConstituencyOrderByHeatScore(constituency, pageable);
-        return issues.map(issue -> mapToDTO(issue, userId));
+        Page<IssueFeedView> issues = issueRepository.findByParliamentaryConstituencyOrderByHeatScore(constituency, pageable);
+        return toFeedPage(issues, userId);
     }
 
     /**
@@ -122,8 +128,8 @@ public class IssueService {
     @Transactional(readOnly = true)
     public Page<IssueDTO> getIssuesByAssemblyConstituency(String constituency, int page, int size, Long userId) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Issue> issues = issueRepository.findByAssemblyConstituencyOrderByHeatScore(constituency, pageable);
-        return issues.map(issue -> mapToDTO(issue, userId));
+        Page<IssueFeedView> issues = issueRepository.findByAssemblyConstituencyOrderByHeatScore(constituency, pageable);
+        return toFeedPage(issues, userId);
     }
 
     /**
@@ -133,8 +139,8 @@ public class IssueService {
     @Transactional(readOnly = true)
     public Page<IssueDTO> getIssuesByConstituency(String parliamentaryConstituency, String assemblyConstituency, int page, int size, Long userId) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Issue> issues = issueRepository.findByConstituencyOrderByHeatScore(parliamentaryConstituency, assemblyConstituency, pageable);
-        return issues.map(issue -> mapToDTO(issue, userId));
+        Page<IssueFeedView> issues = issueRepository.findByConstituencyOrderByHeatScore(parliamentaryConstituency, assemblyConstituency, pageable);
+        return toFeedPage(issues, userId);
     }
 
     /**
@@ -142,9 +148,9 @@ public class IssueService {
      */
     @Transactional(readOnly = true)
     public IssueDTO getIssueById(Long id, Long userId) {
-        Issue issue = issueRepository.findById(id)
+        IssueFeedView view = issueRepository.findFeedViewById(id)
                 .orElseThrow(() -> new RuntimeException("Issue not found: " + id));
-        return mapToDTO(issue, userId);
+        return IssueDTO.fromFeedView(view, findUserVote(view.id(), userId));
     }
 
     /**
@@ -152,9 +158,9 @@ public class IssueService {
      */
     @Transactional(readOnly = true)
     public IssueDTO getIssueByTrackingId(String trackingId, Long userId) {
-        Issue issue = issueRepository.findByTrackingId(trackingId)
+        IssueFeedView view = issueRepository.findFeedViewByTrackingId(trackingId)
                 .orElseThrow(() -> new RuntimeException("Issue not found with tracking ID: " + trackingId));
-        return mapToDTO(issue, userId);
+        return IssueDTO.fromFeedView(view, findUserVote(view.id(), userId));
     }
 
     /**
@@ -163,8 +169,8 @@ public class IssueService {
     @Transactional(readOnly = true)
     public Page<IssueDTO> getIssuesByReporter(Long reporterId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Issue> issues = issueRepository.findByReporterId(reporterId, pageable);
-        return issues.map(issue -> mapToDTO(issue, reporterId));
+        Page<IssueFeedView> issues = issueRepository.findByReporterId(reporterId, pageable);
+        return toFeedPage(issues, reporterId);
     }
 
     /**
@@ -207,8 +213,18 @@ public class IssueService {
         Issue saved = issueRepository.save(issue);
         log.info("Created issue {} with tracking ID {} - MLA: {}, MP: {}",
                 saved.getId(), saved.getTrackingId(), saved.getMlaName(), saved.getMpName());
-
-        return mapToDTO(saved, userId);
+        issueCounterService.onIssueCreated(saved);
+
+        // Flag near-identical photos of the same scene reported earlier
+        imageHashService.attachToIssue(saved.getImageUrl(), saved.getId(), saved.getLatitude(), saved.getLongitude())
+                .ifPresent(duplicateOfId -> {
+                    saved.setPossibleDuplicateOfId(duplicateOfId);
+                    log.info("Issue {} flagged as possible duplicate of issue {}", saved.getId(), duplicateOfId);
+                });
+
+        IssueDTO dto = mapToDTO(saved, userId);
+        issueEventService.publishCreated(saved, dto);
+        return dto;
     }
 
     /**
@@ -419,6 +435,7 @@ public class IssueService {
                 }
                 issueVoteRepository.delete(vote);
                 issueRepository.save(issue);
+                issueEventService.publishVotesChanged(issue);
                 return mapToDTO(issue, userId);
             } else {
                 // Different vote - change it
@@ -433,6 +450,7 @@ public class IssueService {
                 vote.setUpdatedAt(LocalDateTime.now());
                 issueVoteRepository.save(vote);
                 issueRepository.save(issue);
+                issueEventService.publishVotesChanged(issue);
                 return mapToDTO(issue, userId);
             }
         } else {
@@ -446,6 +464,7 @@ public class IssueService {
                 issue.setDownvoteCount(issue.getDownvoteCount() + 1);
             }
             issueRepository.save(issue);
+            issueEventService.publishVotesChanged(issue);
             return mapToDTO(issue, userId);
         }
     }
@@ -468,6 +487,7 @@ public class IssueService {
             }
             issueVoteRepository.delete(vote);
             issueRepository.save(issue);
+            issueEventService.publishVotesChanged(issue);
         }
 
         return mapToDTO(issue, userId);
@@ -481,6 +501,7 @@ public class IssueService {
         Issue issue = issueRepository.findById(issueId)
                 .orElseThrow(() -> new RuntimeException("Issue not found: " + issueId));
 
+        RepresentativeIssueCounterService.Snapshot before = RepresentativeIssueCounterService.Snapshot.of(issue);
         Issue.IssueStatus newStatus = Issue.IssueStatus.valueOf(status.toUpperCase());
         issue.setStatus(newStatus);
 
@@ -489,6 +510,8 @@ public class IssueService {
         }
 
         Issue saved = issueRepository.save(issue);
+        issueCounterService.onIssueChanged(before, saved);
+        issueEventService.publishStatusChanged(saved);
         return mapToDTO(saved, null);
     }
 
@@ -500,6 +523,7 @@ public class IssueService {
         Issue issue = issueRepository.findById(issueId)
                 .orElseThrow(() -> new RuntimeException("Issue not found: " + issueId));
 
+        RepresentativeIssueCounterService.Snapshot before = RepresentativeIssueCounterService.Snapshot.of(issue);
         issue.setAssignedOfficialId(officialId);
         issue.setAssignedOfficialName(officialName);
 
@@ -508,6 +532,8 @@ public class IssueService {
         }
 
         Issue saved = issueRepository.save(issue);
+        issueCounterService.onIssueChanged(before, saved);
+        issueEventService.publishAssigned(saved);
         return mapToDTO(saved, null);
     }
 
@@ -526,14 +552,31 @@ public class IssueService {
     // Helper methods
 
     private IssueDTO mapToDTO(Issue issue, Long userId) {
-        String userVote = null;
-        if (userId != null) {
-            var vote = issueVoteRepository.findByIssueIdAndUserId(issue.getId(), userId);
-            if (vote.isPresent()) {
-                userVote = vote.get().getVoteType().name();
+        return IssueDTO.fromEntity(issue, findUserVote(issue.getId(), userId));
+    }
+
+    private String findUserVote(Long issueId, Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        return issueVoteRepository.findByIssueIdAndUserId(issueId, userId)
+                .map(vote -> vote.getVoteType().name())
+                .orElse(null);
+    }
+
+    /**
+     * Map a page of feed read-model rows to DTOs.
+     * The user's votes for the whole page are loaded in one query instead of one per row.
+     */
+    private Page<IssueDTO> toFeedPage(Page<IssueFeedView> views, Long userId) {
+        Map<Long, String> userVotes = new HashMap<>();
+        if (userId != null && views.hasContent()) {
+            List<Long> issueIds = views.getContent().stream().map(IssueFeedView::id).toList();
+            for (Object[] row : issueVoteRepository.findVoteTypesByUserIdAndIssueIds(userId, issueIds)) {
+                userVotes.put((Long) row[0], ((IssueVote.VoteType) row[1]).name());
             }
         }
-        return IssueDTO.fromEntity(issue, userVote);
+        return views.map(view -> IssueDTO.fromFeedView(view, userVotes.get(view.id())));
     }
 
     private String generateTrackingId() {
@@ -566,10 +609,12 @@ public class IssueService {
                 continue;
             }
 
+            RepresentativeIssueCounterService.Snapshot before = RepresentativeIssueCounterService.Snapshot.of(issue);
             populateRepresentativesFromLocation(issue);
 
             if (issue.getMlaName() != null || issue.getMpName() != null || issue.getCouncillorName() != null) {
                 issueRepository.save(issue);
+                issueCounterService.onIssueChanged(before, issue);
                 updated++;
                 log.info("Updated issue {}: MLA={}, MP={}, Councillor={}",
                         issue.getId(), issue.getMlaName(), issue.getMpName(), issue.getCouncillorName());
@@ -623,6 +668,8 @@ public class IssueService {
         issueVoteRepository.deleteByIssueId(issueId);
 
         // Delete the issue
+        issueEventService.publishDeleted(issue);
+        issueCounterService.onIssueDeleted(issue);
         issueRepository.delete(issue);
 
         log.info("Issue {} deleted by user {}", issueId, userId);
@@ -0,0 +1,196 @@
+package com.civicconnect.api.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Sliding-window latency histogram for one series (source, method, route, status class).
+ *
+ * Values are microseconds, bucketed log-linearly in the style of HdrHistogram: values below 32 get
+ * their own bucket, above that each power of two is split into 16 sub-buckets, so a reported
+ * percentile is within about 6% of the true value. Values above MAX_VALUE_MICROS are clamped.
+ *
+ * Time is split into slots of slotSeconds kept in a ring; a slot is created on first use and replaced
+ * once the ring comes round to it again. Recording is lock-free; a record racing a slot rotation may
+ * land in the discarded slot, which only loses that one sample.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT / 2;
+
+    // 10 minutes
+    public static final long MAX_VALUE_MICROS = 600_000_000L;
+    public static final int BUCKET_COUNT = bucketIndex(MAX_VALUE_MICROS) + 1;
+
+    private final long slotMillis;
+    private final AtomicReferenceArray<Slot> slots;
+
+    public LatencyHistogram(int slotSeconds, int slotCount) {
+        this.slotMillis = slotSeconds * 1000L;
+        this.slots = new AtomicReferenceArray<>(slotCount);
+    }
+
+    /**
+     * Counts merged over a range of slots
+     */
+    public record Snapshot(long[] counts, long count, long sumMicros, long maxMicros) {
+
+        public double meanMillis() {
+            return count > 0 ? sumMicros / 1000.0 / count : 0.0;
+        }
+
+        public double maxMillis() {
+            return maxMicros / 1000.0;
+        }
+
+        /**
+         * Value at a percentile (0-100) in milliseconds: the upper bound of the bucket holding that rank,
+         * capped at the largest recorded value
+         */
+        public double percentileMillis(double percentile) {
+            if (count == 0) {
+                return 0.0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), maxMicros) / 1000.0;
+                }
+            }
+            return maxMillis();
+        }
+    }
+
+    public void record(long micros, long nowMillis) {
+        long value = Math.max(0, Math.min(micros, MAX_VALUE_MICROS));
+        slotFor(nowMillis / slotMillis).record(value);
+    }
+
+    /**
+     * Merge the current slot and the windowSlots - 1 slots before it
+     */
+    public Snapshot snapshot(int windowSlots, long nowMillis) {
+        long current = nowMillis / slotMillis;
+        return merge(current - Math.min(windowSlots, slots.length()) + 1, current);
+    }
+
+    /**
+     * One snapshot per slot, oldest first, ending with the current (partial) slot
+     */
+    public Snapshot[] perSlot(int windowSlots, long nowMillis) {
+        long current = nowMillis / slotMillis;
+        int n = Math.min(windowSlots, slots.length());
+        Snapshot[] result = new Snapshot[n];
+        for (int i = 0; i < n; i++) {
+            long epoch = current - n + 1 + i;
+            result[i] = merge(epoch, epoch);
+        }
+        return result;
+    }
+
+    /**
+     * Start time (epoch millis) of the slot that is windowSlots - 1 slots before the current one
+     */
+    public long windowStartMillis(int windowSlots, long nowMillis) {
+        long current = nowMillis / slotMillis;
+        return (current - Math.min(windowSlots, slots.length()) + 1) * slotMillis;
+    }
+
+    public long slotMillis() {
+        return slotMillis;
+    }
+
+    /**
+     * True when nothing was recorded in the last ring's worth of slots
+     */
+    public boolean isIdle(long nowMillis) {
+        long oldest = nowMillis / slotMillis - slots.length() + 1;
+        for (int i = 0; i < slots.length(); i++) {
+            Slot slot = slots.get(i);
+            if (slot != null && slot.epoch >= oldest) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Snapshot merge(long fromEpoch, long toEpoch) {
+        long[] counts = new long[BUCKET_COUNT];
+        long count = 0;
+        long sum = 0;
+        long max = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            Slot slot = slots.get(i);
+            if (slot == null || slot.epoch < fromEpoch || slot.epoch > toEpoch) {
+                continue;
+            }
+            for (int b = 0; b < BUCKET_COUNT; b++) {
+                long c = slot.counts.get(b);
+                counts[b] += c;
+                count += c;
+            }
+            sum += slot.sumMicros.get();
+            max = Math.max(max, slot.maxMicros.get());
+        }
+        return new Snapshot(counts, count, sum, max);
+    }
+
+    private Slot slotFor(long epoch) {
+        int index = (int) Math.floorMod(epoch, (long) slots.length());
+        while (true) {
+            Slot slot = slots.get(index);
+            if (slot != null && slot.epoch == epoch) {
+                return slot;
+            }
+            if (slot != null && slot.epoch > epoch) {
+                // A late writer for a slot already recycled; fold it into the newer one
+                return slot;
+            }
+            Slot fresh = new Slot(epoch);
+            if (slots.compareAndSet(index, slot, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - SUB_BUCKET_BITS + 1;
+        return shift * SUB_BUCKET_HALF + (int) (value >>> shift);
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_HALF - 1;
+        long mantissa = index - (long) shift * SUB_BUCKET_HALF;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    private static final class Slot {
+
+        private final long epoch;
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+        private final AtomicLong sumMicros = new AtomicLong();
+        private final AtomicLong maxMicros = new AtomicLong();
+
+        Slot(long epoch) {
+            this.epoch = epoch;
+        }
+
+        void record(long micros) {
+            counts.incrementAndGet(bucketIndex(micros));
+            sumMicros.addAndGet(micros);
+            maxMicros.accumulateAndGet(micros, Math::max);
+        }
+    }
+}
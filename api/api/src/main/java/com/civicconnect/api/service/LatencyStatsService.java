@@ -0,0 +1,214 @@
+package com.civicconnect.api.service;
+
+import com.civicconnect.api.dto.analytics.AnalyticsDTOs.LatencyPercentilesDTO;
+import com.civicconnect.api.dto.analytics.AnalyticsDTOs.LatencyPointDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory latency percentiles per (source, method, route template, status class).
+ *
+ * SERVER series are fed by RequestLoggingInterceptor with the matched handler pattern as the route.
+ * CLIENT series are fed from network logs reported by the app as they are written; their URLs are
+ * reduced to a template by replacing id-like path segments with {id}.
+ *
+ * Each series keeps a sliding window of slot-count slots of slot-seconds (see LatencyHistogram).
+ * The number of series is capped at max-series; once reached, new series are folded into the
+ * route "{other}" of the same source, method and status class.
+ */
+@Service
+@Slf4j
+public class LatencyStatsService {
+
+    public static final String SOURCE_SERVER = "SERVER";
+    public static final String SOURCE_CLIENT = "CLIENT";
+
+    private static final String OTHER_ROUTE = "{other}";
+    private static final Pattern ID_SEGMENT = Pattern.compile(
+            "\\d+|[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}|[0-9a-fA-F]{16,}|[A-Za-z0-9_-]{24,}");
+
+    @Value("${latency.slot-seconds:30}")
+    private int slotSeconds;
+
+    @Value("${latency.slot-count:30}")
+    private int slotCount;
+
+    @Value("${latency.max-series:300}")
+    private int maxSeries;
+
+    private final Map<SeriesKey, LatencyHistogram> series = new ConcurrentHashMap<>();
+
+    private record SeriesKey(String source, String method, String route, String statusClass) {
+    }
+
+    // ==================== Recording ====================
+
+    /**
+     * Record a request served by this API
+     */
+    public void recordServer(String method, String route, int status, long durationNanos) {
+        record(new SeriesKey(SOURCE_SERVER, method, route, statusClass(status)),
+                TimeUnit.NANOSECONDS.toMicros(durationNanos));
+    }
+
+    /**
+     * Record network calls reported by the app
+     */
+    public void recordClient(List<TelemetryIngestionService.NetworkRow> rows) {
+        for (TelemetryIngestionService.NetworkRow row : rows) {
+            if (row.latencyMs() == null) {
+                continue;
+            }
+            SeriesKey key = new SeriesKey(SOURCE_CLIENT,
+                    row.method() != null ? row.method().toUpperCase() : "UNKNOWN",
+                    routeTemplate(row.url()),
+                    row.responseStatus() != null ? statusClass(row.responseStatus()) : "ERR");
+            record(key, TimeUnit.MILLISECONDS.toMicros(row.latencyMs()));
+        }
+    }
+
+    private void record(SeriesKey key, long micros) {
+        histogramFor(key).record(micros, System.currentTimeMillis());
+    }
+
+    private LatencyHistogram histogramFor(SeriesKey key) {
+        LatencyHistogram histogram = series.get(key);
+        if (histogram != null) {
+            return histogram;
+        }
+        SeriesKey target = series.size() < maxSeries
+                ? key
+                : new SeriesKey(key.source(), key.method(), OTHER_ROUTE, key.statusClass());
+        return series.computeIfAbsent(target, k -> new LatencyHistogram(slotSeconds, slotCount));
+    }
+
+    // ==================== Reads ====================
+
+    /**
+     * Percentiles per series over the last windowSeconds (rounded up to whole slots, the current one partial),
+     * slowest p99 first
+     */
+    public List<LatencyPercentilesDTO> getPercentiles(int windowSeconds, String source, String route) {
+        long now = System.currentTimeMillis();
+        int windowSlots = windowSlots(windowSeconds);
+        List<LatencyPercentilesDTO> result = new ArrayList<>();
+        series.forEach((key, histogram) -> {
+            if (source != null && !source.equalsIgnoreCase(key.source())) return;
+            if (route != null && !key.route().contains(route)) return;
+            LatencyHistogram.Snapshot snapshot = histogram.snapshot(windowSlots, now);
+            if (snapshot.count() == 0) return;
+            result.add(LatencyPercentilesDTO.builder()
+                    .source(key.source())
+                    .method(key.method())
+                    .route(key.route())
+                    .statusClass(key.statusClass())
+                    .windowStart(toLocalDateTime(histogram.windowStartMillis(windowSlots, now)))
+                    .count(snapshot.count())
+                    .p50Ms(snapshot.percentileMillis(50))
+                    .p90Ms(snapshot.percentileMillis(90))
+                    .p99Ms(snapshot.percentileMillis(99))
+                    .p999Ms(snapshot.percentileMillis(99.9))
+                    .meanMs(snapshot.meanMillis())
+                    .maxMs(snapshot.maxMillis())
+                    .build());
+        });
+        result.sort(Comparator.comparingDouble(LatencyPercentilesDTO::getP99Ms).reversed());
+        return result;
+    }
+
+    /**
+     * Per-slot percentiles of one series over the last windowSeconds, oldest first
+     */
+    public List<LatencyPointDTO> getSeries(String source, String method, String route, String statusClass,
+                                           int windowSeconds) {
+        LatencyHistogram histogram = series.get(new SeriesKey(source.toUpperCase(), method.toUpperCase(),
+                route, statusClass));
+        if (histogram == null) {
+            return List.of();
+        }
+        long now = System.currentTimeMillis();
+        int windowSlots = windowSlots(windowSeconds);
+        long slotStart = histogram.windowStartMillis(windowSlots, now);
+        List<LatencyPointDTO> points = new ArrayList<>();
+        for (LatencyHistogram.Snapshot snapshot : histogram.perSlot(windowSlots, now)) {
+            points.add(LatencyPointDTO.builder()
+                    .slotStart(toLocalDateTime(slotStart))
+                    .count(snapshot.count())
+                    .p50Ms(snapshot.percentileMillis(50))
+                    .p90Ms(snapshot.percentileMillis(90))
+                    .p99Ms(snapshot.percentileMillis(99))
+                    .p999Ms(snapshot.percentileMillis(99.9))
+                    .maxMs(snapshot.maxMillis())
+                    .build());
+            slotStart += histogram.slotMillis();
+        }
+        return points;
+    }
+
+    /**
+     * Drop series with no samples in the whole ring so the series cap frees up
+     */
+    public int pruneIdleSeries() {
+        long now = System.currentTimeMillis();
+        int before = series.size();
+        series.values().removeIf(histogram -> histogram.isIdle(now));
+        int removed = before - series.size();
+        if (removed > 0) {
+            log.debug("Pruned {} idle latency series", removed);
+        }
+        return removed;
+    }
+
+    // ==================== Helpers ====================
+
+    /**
+     * Path of a URL with query, host and id-like segments removed, e.g.
+     * https://host/api/issues/42/photos?x=1 -> /api/issues/{id}/photos
+     */
+    static String routeTemplate(String url) {
+        if (url == null || url.isBlank()) {
+            return "/";
+        }
+        String path;
+        try {
+            path = URI.create(url.trim()).getPath();
+        } catch (IllegalArgumentException e) {
+            int query = url.indexOf('?');
+            path = query >= 0 ? url.substring(0, query) : url;
+        }
+        if (path == null || path.isEmpty()) {
+            return "/";
+        }
+        StringBuilder template = new StringBuilder();
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) continue;
+            template.append('/').append(ID_SEGMENT.matcher(segment).matches() ? "{id}" : segment);
+        }
+        return template.length() > 0 ? template.toString() : "/";
+    }
+
+    private static String statusClass(int status) {
+        return status > 0 ? (status / 100) + "xx" : "ERR";
+    }
+
+    private int windowSlots(int windowSeconds) {
+        return Math.max(1, Math.min(slotCount, (windowSeconds + slotSeconds - 1) / slotSeconds));
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
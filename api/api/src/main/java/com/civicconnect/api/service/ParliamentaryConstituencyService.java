@@ -75,17 +75,17 @@ public class ParliamentaryConstituencyService {
         return mapper.toDTO(constituency);
     }
 
-    @Cacheable(value = "pcGeoJson", key = "'all'")
+    @Cacheable(value = "pcGeoJson", sync = true, key = "'all'")
     public String getAllAsGeoJson() {
         return repository.findAllAsGeoJson();
     }
 
-    @Cacheable(value = "pcGeoJsonByState", key = "#stateName")
+    @Cacheable(value = "pcGeoJsonByState", sync = true, key = "#stateName")
     public String getByStateNameAsGeoJson(String stateName) {
         return repository.findByStateNameAsGeoJson(stateName);
     }
 
-    @Cacheable(value = "pcGeoJsonSimplified", key = "#tolerance")
+    @Cacheable(value = "pcGeoJsonSimplified", sync = true, key = "#tolerance")
     public String getAllAsSimplifiedGeoJson(double tolerance) {
         return repository.findAllAsSimplifiedGeoJson(tolerance);
     }
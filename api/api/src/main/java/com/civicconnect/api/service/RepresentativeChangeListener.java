@@ -0,0 +1,56 @@
+package com.civicconnect.api.service;
+
+import com.civicconnect.api.entity.*;
+import com.civicconnect.api.entity.RepresentativeRating.RepresentativeType;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on the representative entities that keeps the gov map cache in step with
+ * profile edits, imports and scraper runs.
+ * An update evicts only the hierarchies showing that representative; an insert or delete can
+ * change which representative a jurisdiction resolves to, so it drops all cached hierarchies.
+ */
+@Component
+@RequiredArgsConstructor
+public class RepresentativeChangeListener {
+
+    // Resolved lazily: listeners are instantiated while the EntityManagerFactory is being built
+    private final ObjectProvider<GovMapCacheService> govMapCache;
+
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        RepresentativeType type = typeOf(entity);
+        if (type != null) {
+            govMapCache.getObject().evictRepresentative(type, idOf(entity));
+        }
+    }
+
+    @PostPersist
+    @PostRemove
+    public void onAddOrRemove(Object entity) {
+        govMapCache.getObject().evictAllHierarchies();
+    }
+
+    private static RepresentativeType typeOf(Object entity) {
+        if (entity instanceof WardCouncillor) return RepresentativeType.WARD_COUNCILLOR;
+        if (entity instanceof Mayor) return RepresentativeType.MAYOR;
+        if (entity instanceof MemberOfLegislativeAssembly) return RepresentativeType.MLA;
+        if (entity instanceof ChiefMinister) return RepresentativeType.CHIEF_MINISTER;
+        if (entity instanceof MemberOfParliament) return RepresentativeType.MP;
+        if (entity instanceof PrimeMinister) return RepresentativeType.PRIME_MINISTER;
+        return null;
+    }
+
+    private static Long idOf(Object entity) {
+        if (entity instanceof BaseEntity base) return base.getId();
+        if (entity instanceof Mayor mayor) return mayor.getId();
+        if (entity instanceof ChiefMinister cm) return cm.getId();
+        if (entity instanceof PrimeMinister pm) return pm.getId();
+        return null;
+    }
+}
@@ -0,0 +1,141 @@
+package com.civicconnect.api.service;
+
+import com.civicconnect.api.entity.Issue;
+import com.civicconnect.api.entity.Issue.IssueStatus;
+import com.civicconnect.api.entity.RepresentativeIssueCounter;
+import com.civicconnect.api.entity.RepresentativeRating.RepresentativeType;
+import com.civicconnect.api.repository.IssueRepository;
+import com.civicconnect.api.repository.RepresentativeIssueCounterRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Maintains per-representative issue counts by status in representative_issue_counters.
+ *
+ * Every issue write that can move an issue between (representative, status) buckets
+ * passes a before/after snapshot here; the difference is applied as atomic upserts in the
+ * caller's transaction. Reads are a single indexed lookup instead of four COUNT queries.
+ * Until the first reconcile has run, reads fall back to one GROUP BY status query.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RepresentativeIssueCounterService {
+
+    private final RepresentativeIssueCounterRepository counterRepository;
+    private final IssueRepository issueRepository;
+    private final GovMapCacheService govMapCache;
+    private final RepresentativeScorecardService scorecardService;
+
+    private volatile boolean countersReady = false;
+
+    /**
+     * Issue-count contribution of one issue: which representatives it counts towards, in which status
+     */
+    public record Snapshot(Long mlaId, Long mpId, Long councillorId, IssueStatus status) {
+        public static Snapshot of(Issue issue) {
+            return new Snapshot(issue.getMlaId(), issue.getMpId(), issue.getCouncillorId(), issue.getStatus());
+        }
+    }
+
+    @Transactional
+    public void onIssueCreated(Issue issue) {
+        apply(Snapshot.of(issue), 1);
+    }
+
+    @Transactional
+    public void onIssueDeleted(Issue issue) {
+        apply(Snapshot.of(issue), -1);
+    }
+
+    /**
+     * Apply a status change and/or representative reassignment
+     */
+    @Transactional
+    public void onIssueChanged(Snapshot before, Issue issue) {
+        Snapshot after = Snapshot.of(issue);
+        if (before.equals(after)) {
+            return;
+        }
+        apply(before, -1);
+        apply(after, 1);
+    }
+
+    private void apply(Snapshot snapshot, long delta) {
+        if (snapshot.status() == null) {
+            return;
+        }
+        String status = snapshot.status().name();
+        if (snapshot.mlaId() != null) {
+            counterRepository.increment(RepresentativeType.MLA.name(), snapshot.mlaId(), status, delta);
+            govMapCache.evictRepresentative(RepresentativeType.MLA, snapshot.mlaId());
+            scorecardService.refresh(RepresentativeType.MLA, snapshot.mlaId());
+        }
+        if (snapshot.mpId() != null) {
+            counterRepository.increment(RepresentativeType.MP.name(), snapshot.mpId(), status, delta);
+            govMapCache.evictRepresentative(RepresentativeType.MP, snapshot.mpId());
+            scorecardService.refresh(RepresentativeType.MP, snapshot.mpId());
+        }
+        if (snapshot.councillorId() != null) {
+            counterRepository.increment(RepresentativeType.WARD_COUNCILLOR.name(), snapshot.councillorId(), status, delta);
+            govMapCache.evictRepresentative(RepresentativeType.WARD_COUNCILLOR, snapshot.councillorId());
+            scorecardService.refresh(RepresentativeType.WARD_COUNCILLOR, snapshot.councillorId());
+        }
+    }
+
+    /**
+     * Issue counts by status for a representative.
+     * Only councillors, MLAs and MPs have issues linked directly; other types return an empty map.
+     */
+    @Transactional(readOnly = true)
+    public Map<IssueStatus, Long> getStatusCounts(RepresentativeType type, Long representativeId) {
+        Map<IssueStatus, Long> counts = new EnumMap<>(IssueStatus.class);
+        if (representativeId == null) {
+            return counts;
+        }
+
+        if (countersReady) {
+            for (RepresentativeIssueCounter counter :
+                    counterRepository.findByRepresentativeTypeAndRepresentativeId(type, representativeId)) {
+                counts.put(counter.getStatus(), counter.getIssueCount());
+            }
+            return counts;
+        }
+
+        List<Object[]> rows = switch (type) {
+            case WARD_COUNCILLOR -> issueRepository.countByCouncillorIdGroupByStatus(representativeId);
+            case MLA -> issueRepository.countByMlaIdGroupByStatus(representativeId);
+            case MP -> issueRepository.countByMpIdGroupByStatus(representativeId);
+            default -> List.of();
+        };
+        for (Object[] row : rows) {
+            counts.put((IssueStatus) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    /**
+     * Rebuild all counters from the issues table (set-based, one transaction).
+     * Corrects any drift from writes that bypassed the service layer.
+     */
+    @Transactional
+    public int reconcile() {
+        counterRepository.deleteAllCounters();
+        int rows = counterRepository.rebuildFromIssues();
+        countersReady = true;
+        govMapCache.evictAllHierarchies();
+        log.info("Reconciled representative issue counters: {} rows", rows);
+        return rows;
+    }
+
+    public static long total(Map<IssueStatus, Long> counts) {
+        return counts.values().stream().filter(Objects::nonNull).mapToLong(Long::longValue).sum();
+    }
+}
@@ -0,0 +1,412 @@
+package com.civicconnect.api.service;
+
+import com.civicconnect.api.entity.RepresentativeRating.RepresentativeType;
+import com.civicconnect.api.repository.RepresentativeRatingAggregateRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * In-memory representative leaderboards ranked by Bayesian average rating.
+ *
+ * There is one board per type, per (type, state), per (type, party) and per (type, state, party).
+ * Each board is an order-statistic treap, so top-N costs O(log n + N) and rank-of-X costs O(log n).
+ *
+ * Boards are rebuilt from representative_rating_aggregates at startup and periodically by
+ * RepresentativeStatsScheduler, which also re-anchors the prior mean. In between, every committed
+ * rating write re-reads that representative's aggregate row and moves it within its boards.
+ * Representatives refreshed while a rebuild runs are re-read onto the rebuilt boards after the swap,
+ * since the rebuild's snapshot may predate their write.
+ *
+ * score = (C * m + sum) / (C + n), where m is the mean rating of the type and C is the prior weight,
+ * so two 5-star ratings don't outrank hundreds of 4.6s.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RepresentativeLeaderboardService {
+
+    private static final double DEFAULT_PRIOR_MEAN = 3.0;
+
+    private final RepresentativeRatingAggregateRepository aggregateRepository;
+
+    // Number of "virtual" ratings at the prior mean every representative starts with
+    @Value("${leaderboard.prior-weight:10}")
+    private double priorWeight;
+
+    private volatile Boards boards = new Boards(Map.of());
+
+    // Guards the swap of boards against refreshes picking the instance they patch
+    private final Object swapLock = new Object();
+
+    // Representatives refreshed since the running rebuild started; null when no rebuild runs
+    private Set<RepKey> refreshedDuringRebuild;
+
+    /**
+     * A representative's position on the leaderboards
+     */
+    public record Entry(RepresentativeType type, Long representativeId, String name, String party,
+                        String constituency, String state, long count, long sum, double score) {
+
+        public double average() {
+            return count > 0 ? (double) sum / count : 0.0;
+        }
+    }
+
+    /**
+     * 1-based rank of an entry on a board of the given size
+     */
+    public record Ranking(Entry entry, int rank, int total) {
+    }
+
+    /**
+     * Board identity; a null state or party means "all"
+     */
+    private record BoardKey(RepresentativeType type, String state, String party) {
+        static BoardKey of(RepresentativeType type, String state, String party) {
+            return new BoardKey(type, normalize(state), normalize(party));
+        }
+    }
+
+    private record RepKey(RepresentativeType type, Long representativeId) {
+    }
+
+    /**
+     * Rebuild every board from the aggregate table and recompute the per-type prior means
+     */
+    @Transactional(readOnly = true)
+    public synchronized int rebuild() {
+        synchronized (swapLock) {
+            refreshedDuringRebuild = ConcurrentHashMap.newKeySet();
+        }
+        List<Object[]> rows;
+        try {
+            rows = aggregateRepository.findLeaderboardRows();
+        } catch (RuntimeException e) {
+            synchronized (swapLock) {
+                refreshedDuringRebuild = null;
+            }
+            throw e;
+        }
+
+        Map<RepresentativeType, long[]> totals = new EnumMap<>(RepresentativeType.class);
+        for (Object[] row : rows) {
+            long[] total = totals.computeIfAbsent(RepresentativeType.valueOf((String) row[0]), t -> new long[2]);
+            total[0] += ((Number) row[2]).longValue();
+            total[1] += ((Number) row[3]).longValue();
+        }
+        Map<RepresentativeType, Double> priorMeans = new EnumMap<>(RepresentativeType.class);
+        totals.forEach((type, total) -> priorMeans.put(type, total[0] > 0 ? (double) total[1] / total[0] : DEFAULT_PRIOR_MEAN));
+
+        Boards rebuilt = new Boards(priorMeans);
+        for (Object[] row : rows) {
+            rebuilt.upsert(toEntry(row, priorMeans));
+        }
+        Set<RepKey> refreshed;
+        synchronized (swapLock) {
+            boards = rebuilt;
+            refreshed = refreshedDuringRebuild;
+            refreshedDuringRebuild = null;
+        }
+        // Their patches went to the old boards; re-read them onto the new ones
+        refreshed.forEach(key -> refresh(key.type(), key.representativeId()));
+
+        log.info("Rebuilt representative leaderboards: {} representatives", rows.size());
+        return rows.size();
+    }
+
+    /**
+     * Move a representative within its boards once the current rating write commits
+     */
+    public void onRatingChanged(RepresentativeType type, Long representativeId) {
+        TransactionHooks.afterCommit(() -> refresh(type, representativeId));
+    }
+
+    private void refresh(RepresentativeType type, Long representativeId) {
+        try {
+            Boards current;
+            synchronized (swapLock) {
+                if (refreshedDuringRebuild != null) {
+                    refreshedDuringRebuild.add(new RepKey(type, representativeId));
+                }
+                current = boards;
+            }
+            List<Object[]> rows = aggregateRepository.findLeaderboardRow(type.name(), representativeId);
+            if (rows.isEmpty() || ((Number) rows.get(0)[2]).longValue() == 0) {
+                current.remove(new RepKey(type, representativeId));
+            } else {
+                current.upsert(toEntry(rows.get(0), current.priorMeans));
+            }
+        } catch (Exception e) {
+            // The next periodic rebuild corrects the boards
+            log.warn("Could not refresh leaderboard for {} {}: {}", type, representativeId, e.getMessage());
+        }
+    }
+
+    /**
+     * Highest ranked representatives, optionally within a state and/or party
+     */
+    public List<Entry> getTop(RepresentativeType type, String state, String party, int limit, long minRatings) {
+        return boards.range(BoardKey.of(type, state, party), true, limit, e -> e.count() >= minRatings);
+    }
+
+    /**
+     * Lowest ranked representatives, optionally within a state and/or party
+     */
+    public List<Entry> getBottom(RepresentativeType type, String state, String party, int limit, long minRatings) {
+        return boards.range(BoardKey.of(type, state, party), false, limit, e -> e.count() >= minRatings);
+    }
+
+    /**
+     * Rank of a representative on the type board, or within a state and/or party
+     */
+    public Optional<Ranking> getRank(RepresentativeType type, Long representativeId, String state, String party) {
+        return boards.rank(BoardKey.of(type, state, party), new RepKey(type, representativeId));
+    }
+
+    private Entry toEntry(Object[] row, Map<RepresentativeType, Double> priorMeans) {
+        RepresentativeType type = RepresentativeType.valueOf((String) row[0]);
+        long count = ((Number) row[2]).longValue();
+        long sum = ((Number) row[3]).longValue();
+        double priorMean = priorMeans.getOrDefault(type, DEFAULT_PRIOR_MEAN);
+        double score = (priorWeight * priorMean + sum) / (priorWeight + count);
+        return new Entry(type, ((Number) row[1]).longValue(), (String) row[4], (String) row[5],
+                (String) row[6], (String) row[7], count, sum, score);
+    }
+
+    private static String normalize(String value) {
+        return value != null && !value.isBlank() ? value.trim().toLowerCase() : null;
+    }
+
+    /**
+     * One generation of boards. Rebuilds swap in a new instance; incremental updates mutate the current one.
+     */
+    private static final class Boards {
+
+        private final Map<RepresentativeType, Double> priorMeans;
+        private final Map<BoardKey, RankedTree> trees = new HashMap<>();
+        private final Map<RepKey, Entry> entries = new HashMap<>();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        Boards(Map<RepresentativeType, Double> priorMeans) {
+            this.priorMeans = priorMeans;
+        }
+
+        void upsert(Entry entry) {
+            lock.writeLock().lock();
+            try {
+                RepKey key = new RepKey(entry.type(), entry.representativeId());
+                removeLocked(key);
+                entries.put(key, entry);
+                for (BoardKey board : boardsFor(entry)) {
+                    trees.computeIfAbsent(board, b -> new RankedTree()).insert(entry);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(RepKey key) {
+            lock.writeLock().lock();
+            try {
+                removeLocked(key);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void removeLocked(RepKey key) {
+            Entry existing = entries.remove(key);
+            if (existing == null) {
+                return;
+            }
+            for (BoardKey board : boardsFor(existing)) {
+                RankedTree tree = trees.get(board);
+                if (tree != null) {
+                    tree.remove(existing);
+                }
+            }
+        }
+
+        List<Entry> range(BoardKey board, boolean best, int limit, Predicate<Entry> filter) {
+            lock.readLock().lock();
+            try {
+                RankedTree tree = trees.get(board);
+                return tree != null ? tree.range(best, limit, filter) : List.of();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        Optional<Ranking> rank(BoardKey board, RepKey key) {
+            lock.readLock().lock();
+            try {
+                Entry entry = entries.get(key);
+                RankedTree tree = trees.get(board);
+                if (entry == null || tree == null) {
+                    return Optional.empty();
+                }
+                int position = tree.rank(entry);
+                return position < 0 ? Optional.empty() : Optional.of(new Ranking(entry, position + 1, tree.size()));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private static List<BoardKey> boardsFor(Entry entry) {
+            List<BoardKey> keys = new ArrayList<>(4);
+            keys.add(BoardKey.of(entry.type(), null, null));
+            if (normalize(entry.state()) != null) {
+                keys.add(BoardKey.of(entry.type(), entry.state(), null));
+            }
+            if (normalize(entry.party()) != null) {
+                keys.add(BoardKey.of(entry.type(), null, entry.party()));
+                if (normalize(entry.state()) != null) {
+                    keys.add(BoardKey.of(entry.type(), entry.state(), entry.party()));
+                }
+            }
+            return keys;
+        }
+    }
+
+    /**
+     * Treap ordered best-first (score desc, rating count desc, id asc) with subtree sizes
+     * for O(log n) rank lookups. Not thread-safe; guarded by the owning Boards lock.
+     */
+    static final class RankedTree {
+
+        private static final Comparator<Entry> ORDER = Comparator
+                .comparingDouble(Entry::score).reversed()
+                .thenComparing(Comparator.comparingLong(Entry::count).reversed())
+                .thenComparing(Entry::representativeId);
+
+        private Node root;
+
+        int size() {
+            return size(root);
+        }
+
+        void insert(Entry entry) {
+            Node[] parts = split(root, entry);
+            root = merge(merge(parts[0], new Node(entry)), parts[1]);
+        }
+
+        void remove(Entry entry) {
+            root = remove(root, entry);
+        }
+
+        /**
+         * 0-based position of the entry, or -1 if absent
+         */
+        int rank(Entry entry) {
+            int rank = 0;
+            Node node = root;
+            while (node != null) {
+                int c = ORDER.compare(entry, node.entry);
+                if (c == 0) {
+                    return rank + size(node.left);
+                }
+                if (c < 0) {
+                    node = node.left;
+                } else {
+                    rank += size(node.left) + 1;
+                    node = node.right;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Up to limit entries passing the filter, walking from the best (or worst) end
+         */
+        List<Entry> range(boolean best, int limit, Predicate<Entry> filter) {
+            List<Entry> result = new ArrayList<>(Math.min(limit, size()));
+            Deque<Node> stack = new ArrayDeque<>();
+            Node node = root;
+            while ((node != null || !stack.isEmpty()) && result.size() < limit) {
+                while (node != null) {
+                    stack.push(node);
+                    node = best ? node.left : node.right;
+                }
+                node = stack.pop();
+                if (filter.test(node.entry)) {
+                    result.add(node.entry);
+                }
+                node = best ? node.right : node.left;
+            }
+            return result;
+        }
+
+        private static Node remove(Node node, Entry entry) {
+            if (node == null) {
+                return null;
+            }
+            int c = ORDER.compare(entry, node.entry);
+            if (c == 0) {
+                return merge(node.left, node.right);
+            }
+            if (c < 0) {
+                node.left = remove(node.left, entry);
+            } else {
+                node.right = remove(node.right, entry);
+            }
+            return node.update();
+        }
+
+        // Split into (entries ordered before key, the rest)
+        private static Node[] split(Node node, Entry key) {
+            if (node == null) {
+                return new Node[2];
+            }
+            if (ORDER.compare(node.entry, key) < 0) {
+                Node[] parts = split(node.right, key);
+                node.right = parts[0];
+                return new Node[]{node.update(), parts[1]};
+            }
+            Node[] parts = split(node.left, key);
+            node.left = parts[1];
+            return new Node[]{parts[0], node.update()};
+        }
+
+        private static Node merge(Node left, Node right) {
+            if (left == null) return right;
+            if (right == null) return left;
+            if (left.priority > right.priority) {
+                left.right = merge(left.right, right);
+                return left.update();
+            }
+            right.left = merge(left, right.left);
+            return right.update();
+        }
+
+        private static int size(Node node) {
+            return node != null ? node.size : 0;
+        }
+
+        private static final class Node {
+            private final Entry entry;
+            private final int priority = ThreadLocalRandom.current().nextInt();
+            private Node left;
+            private Node right;
+            private int size = 1;
+
+            Node(Entry entry) {
+                this.entry = entry;
+            }
+
+            Node update() {
+                size = 1 + size(left) + size(right);
+                return this;
+            }
+        }
+    }
+}
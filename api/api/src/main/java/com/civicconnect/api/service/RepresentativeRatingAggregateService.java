@@ -0,0 +1,119 @@
+package com.civicconnect.api.service;
+
+import com.civicconnect.api.entity.RepresentativeRatingAggregate;
+import com.civicconnect.api.entity.RepresentativeRating.RepresentativeType;
+import com.civicconnect.api.repository.RepresentativeRatingAggregateRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains representative_rating_aggregates incrementally.
+ *
+ * Rating writes apply (old → new) deltas to count, sum, verified count and the star histogram
+ * with a single atomic upsert in the caller's transaction. Reads are a unique-key lookup,
+ * cached in memory and evicted after each write commits.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RepresentativeRatingAggregateService {
+
+    public static final String CACHE_NAME = "ratingAggregates";
+
+    private final RepresentativeRatingAggregateRepository aggregateRepository;
+    private final CacheManager cacheManager;
+    private final GovMapCacheService govMapCache;
+    private final RepresentativeLeaderboardService leaderboardService;
+    private final RepresentativeScorecardService scorecardService;
+
+    /**
+     * Immutable snapshot of a representative's rating aggregate
+     */
+    public record RatingAggregate(long count, long sum, long verified,
+                                  long oneStar, long twoStar, long threeStar, long fourStar, long fiveStar) {
+
+        public static final RatingAggregate EMPTY = new RatingAggregate(0, 0, 0, 0, 0, 0, 0, 0);
+
+        public double average() {
+            return count > 0 ? (double) sum / count : 0.0;
+        }
+
+        static RatingAggregate of(RepresentativeRatingAggregate entity) {
+            return new RatingAggregate(entity.getRatingCount(), entity.getRatingSum(), entity.getVerifiedCount(),
+                    entity.getOneStar(), entity.getTwoStar(), entity.getThreeStar(),
+                    entity.getFourStar(), entity.getFiveStar());
+        }
+    }
+
+    /**
+     * Get the aggregate for a representative (cached)
+     */
+    @Transactional(readOnly = true)
+    public RatingAggregate get(RepresentativeType type, Long representativeId) {
+        return cache().get(cacheKey(type, representativeId), () ->
+                aggregateRepository.findByRepresentativeTypeAndRepresentativeId(type, representativeId)
+                        .map(RatingAggregate::of)
+                        .orElse(RatingAggregate.EMPTY));
+    }
+
+    /**
+     * Apply a rating change. Pass null oldRating for a new rating, null newRating for a deletion.
+     */
+    @Transactional
+    public void onRatingChanged(RepresentativeType type, Long representativeId,
+                                Integer oldRating, boolean oldVerified,
+                                Integer newRating, boolean newVerified) {
+        long[] stars = new long[6];
+        long countDelta = 0;
+        long sumDelta = 0;
+        long verifiedDelta = 0;
+
+        if (oldRating != null) {
+            countDelta--;
+            sumDelta -= oldRating;
+            verifiedDelta -= oldVerified ? 1 : 0;
+            stars[oldRating]--;
+        }
+        if (newRating != null) {
+            countDelta++;
+            sumDelta += newRating;
+            verifiedDelta += newVerified ? 1 : 0;
+            stars[newRating]++;
+        }
+
+        aggregateRepository.applyDelta(type.name(), representativeId, countDelta, sumDelta, verifiedDelta,
+                stars[1], stars[2], stars[3], stars[4], stars[5]);
+        scorecardService.refresh(type, representativeId);
+
+        String key = cacheKey(type, representativeId);
+        cache().evict(key);
+        TransactionHooks.afterCommit(() -> cache().evict(key));
+        govMapCache.evictRepresentative(type, representativeId);
+        leaderboardService.onRatingChanged(type, representativeId);
+    }
+
+    /**
+     * Rebuild all aggregates from representative_ratings (set-based, one transaction)
+     */
+    @Transactional
+    public int reconcile() {
+        aggregateRepository.deleteAllAggregates();
+        int rows = aggregateRepository.rebuildFromRatings();
+        TransactionHooks.afterCommit(() -> cache().clear());
+        govMapCache.evictAllHierarchies();
+        log.info("Reconciled representative rating aggregates: {} rows", rows);
+        return rows;
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(CACHE_NAME);
+    }
+
+    private static String cacheKey(RepresentativeType type, Long representativeId) {
+        return type.name() + ":" + representativeId;
+    }
+}
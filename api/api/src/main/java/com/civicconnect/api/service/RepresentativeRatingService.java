@@ -1,18 +1,23 @@
 package com.civicconnect.api.service;
 
 import com.civicconnect.api.dto.RepresentativeRatingDTO.*;
+import com.civicconnect.api.entity.Issue;
 import com.civicconnect.api.entity.RepresentativeRating;
 import com.civicconnect.api.entity.RepresentativeRating.RepresentativeType;
 import com.civicconnect.api.entity.analytics.AppUser;
-import com.civicconnect.api.repository.IssueRepository;
 import com.civicconnect.api.repository.RepresentativeRatingRepository;
 import com.civicconnect.api.repository.analytics.AppUserRepository;
+import com.civicconnect.api.service.RepresentativeScorecardService.Scorecard;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -26,7 +31,12 @@ public class RepresentativeRatingService {
 
     private final RepresentativeRatingRepository ratingRepository;
     private final AppUserRepository userRepository;
-    private final IssueRepository issueRepository;
+    private final RepresentativeIssueCounterService issueCounterService;
+    private final RepresentativeRatingAggregateService aggregateService;
+    private final GovMapCacheService govMapCache;
+    private final RepresentativeLeaderboardService leaderboardService;
+    private final RepresentativeReviewService reviewService;
+    private final RepresentativeScorecardService scorecardService;
 
     /**
      * Submit or update a rating
@@ -47,9 +57,13 @@ public class RepresentativeRatingService {
                         userId, request.getRepresentativeType(), request.getRepresentativeId());
 
         RepresentativeRating rating;
+        Integer previousRating = null;
+        boolean previousVerified = false;
         if (existingRating.isPresent()) {
             // Update existing rating
             rating = existingRating.get();
+            previousRating = rating.getRating();
+            previousVerified = Boolean.TRUE.equals(rating.getIsVerified());
             rating.setRating(request.getRating());
             rating.setComment(request.getComment());
             if (request.getAspectRatings() != null) {
@@ -77,7 +91,13 @@ public class RepresentativeRatingService {
         }
 
         rating = ratingRepository.save(rating);
-        return RatingResponse.fromEntity(rating);
+        aggregateService.onRatingChanged(rating.getRepresentativeType(), rating.getRepresentativeId(),
+                previousRating, previousVerified, rating.getRating(), Boolean.TRUE.equals(rating.getIsVerified()));
+        govMapCache.evictUser(userId);
+
+        RatingResponse response = RatingResponse.fromEntity(rating);
+        reviewService.onRatingSaved(response, previousRating == null);
+        return response;
     }
 
     /**
@@ -88,6 +108,18 @@ public class RepresentativeRatingService {
                 .map(RatingResponse::fromEntity);
     }
 
+    /**
+     * Get the user's star rating for every representative they have rated, in one query
+     */
+    public Map<RepresentativeType, Map<Long, Integer>> getUserRatingValues(Long userId) {
+        Map<RepresentativeType, Map<Long, Integer>> values = new EnumMap<>(RepresentativeType.class);
+        for (Object[] row : ratingRepository.findRatingValuesByUserId(userId)) {
+            values.computeIfAbsent((RepresentativeType) row[0], t -> new HashMap<>())
+                    .put(((Number) row[1]).longValue(), ((Number) row[2]).intValue());
+        }
+        return values;
+    }
+
     /**
      * Get all ratings by a user
      */
@@ -102,29 +134,21 @@ public class RepresentativeRatingService {
      * Get aggregate rating stats for a representative
      */
     public RatingStats getRatingStats(RepresentativeType type, Long representativeId) {
-        Object[] stats = ratingRepository.getAggregateStats(type, representativeId);
-
-        Double avgRating = stats[0] != null ? ((Number) stats[0]).doubleValue() : 0.0;
-        Long totalCount = stats[1] != null ? ((Number) stats[1]).longValue() : 0L;
-        Long fiveStar = stats[2] != null ? ((Number) stats[2]).longValue() : 0L;
-        Long fourStar = stats[3] != null ? ((Number) stats[3]).longValue() : 0L;
-        Long threeStar = stats[4] != null ? ((Number) stats[4]).longValue() : 0L;
-        Long twoStar = stats[5] != null ? ((Number) stats[5]).longValue() : 0L;
-        Long oneStar = stats[6] != null ? ((Number) stats[6]).longValue() : 0L;
-
-        Long verifiedCount = ratingRepository.getVerifiedRatingCount(type, representativeId);
+        // Single cached lookup of the maintained aggregate row
+        RepresentativeRatingAggregateService.RatingAggregate aggregate = aggregateService.get(type, representativeId);
+        double avgRating = aggregate.average();
 
         return RatingStats.builder()
                 .representativeType(type)
                 .representativeId(representativeId)
                 .averageRating(Math.round(avgRating * 10.0) / 10.0) // Round to 1 decimal
-                .totalRatings(totalCount)
-                .verifiedRatings(verifiedCount)
-                .fiveStarCount(fiveStar)
-                .fourStarCount(fourStar)
-                .threeStarCount(threeStar)
-                .twoStarCount(twoStar)
-                .oneStarCount(oneStar)
+                .totalRatings(aggregate.count())
+                .verifiedRatings(aggregate.verified())
+                .fiveStarCount(aggregate.fiveStar())
+                .fourStarCount(aggregate.fourStar())
+                .threeStarCount(aggregate.threeStar())
+                .twoStarCount(aggregate.twoStar())
+                .oneStarCount(aggregate.oneStar())
                 .approvalLevel(RatingStats.calculateApprovalLevel(avgRating))
                 .build();
     }
@@ -143,11 +167,9 @@ public class RepresentativeRatingService {
     public RepresentativeStats getRepresentativeStats(RepresentativeType type, Long representativeId,
                                                        String name, String party, String constituency,
                                                        String photoUrl, String designation, Long userId) {
-        // Get rating stats
-        RatingStats ratingStats = getRatingStats(type, representativeId);
-
-        // Get issue stats
-        IssueStats issueStats = getIssueStats(type, representativeId, name);
+        // Materialized scorecard; computed live only until the nightly rebuild has covered this representative
+        Scorecard scorecard = scorecardService.get(type, representativeId)
+                .orElseGet(() -> calculateScorecard(type, representativeId, name));
 
         // Check if user has rated
         Integer userRating = null;
@@ -160,9 +182,6 @@ public class RepresentativeRatingService {
             }
         }
 
-        // Calculate accountability score (0-100)
-        int accountabilityScore = calculateAccountabilityScore(ratingStats, issueStats);
-
         return RepresentativeStats.builder()
                 .representativeType(type)
                 .representativeId(representativeId)
@@ -171,13 +190,13 @@ public class RepresentativeRatingService {
                 .constituency(constituency)
                 .photoUrl(photoUrl)
                 .designation(designation)
-                .approvalRating(ratingStats.getAverageRating())
-                .totalRatings(ratingStats.getTotalRatings())
-                .approvalLevel(ratingStats.getApprovalLevel())
-                .issuesRegistered(issueStats.getTotalIssues())
-                .issuesResolved(issueStats.getResolvedIssues())
-                .resolutionRate(issueStats.getResolutionRate())
-                .accountabilityScore(accountabilityScore)
+                .approvalRating(scorecard.averageRating())
+                .totalRatings(scorecard.ratingCount())
+                .approvalLevel(scorecard.approvalLevel())
+                .issuesRegistered(scorecard.issuesRegistered())
+                .issuesResolved(scorecard.issuesResolved())
+                .resolutionRate(scorecard.resolutionRate())
+                .accountabilityScore(scorecard.accountabilityScore())
                 .userRating(userRating)
                 .hasUserRated(hasUserRated)
                 .build();
@@ -187,35 +206,13 @@ public class RepresentativeRatingService {
      * Get issue stats for a representative
      */
     public IssueStats getIssueStats(RepresentativeType type, Long representativeId, String representativeName) {
-        Long totalIssues = 0L;
-        Long resolvedIssues = 0L;
-        Long pendingIssues = 0L;
-        Long inProgressIssues = 0L;
-
-        // Query based on representative type
-        switch (type) {
-            case WARD_COUNCILLOR:
-                totalIssues = issueRepository.countByCouncillorId(representativeId);
-                resolvedIssues = issueRepository.countByCouncillorIdResolved(representativeId);
-                pendingIssues = issueRepository.countByCouncillorIdPending(representativeId);
-                inProgressIssues = issueRepository.countByCouncillorIdInProgress(representativeId);
-                break;
-            case MLA:
-                totalIssues = issueRepository.countByMlaId(representativeId);
-                resolvedIssues = issueRepository.countByMlaIdResolved(representativeId);
-                pendingIssues = issueRepository.countByMlaIdPending(representativeId);
-                inProgressIssues = issueRepository.countByMlaIdInProgress(representativeId);
-                break;
-            case MP:
-                totalIssues = issueRepository.countByMpId(representativeId);
-                resolvedIssues = issueRepository.countByMpIdResolved(representativeId);
-                pendingIssues = issueRepository.countByMpIdPending(representativeId);
-                inProgressIssues = issueRepository.countByMpIdInProgress(representativeId);
-                break;
-            default:
-                // For Mayor, CM, PM - aggregate by constituency/state
-                break;
-        }
+        // Single indexed lookup on maintained counters (one row per status)
+        Map<Issue.IssueStatus, Long> counts = issueCounterService.getStatusCounts(type, representativeId);
+
+        long totalIssues = RepresentativeIssueCounterService.total(counts);
+        long resolvedIssues = counts.getOrDefault(Issue.IssueStatus.RESOLVED, 0L);
+        long pendingIssues = counts.getOrDefault(Issue.IssueStatus.PENDING, 0L);
+        long inProgressIssues = counts.getOrDefault(Issue.IssueStatus.IN_PROGRESS, 0L);
 
         double resolutionRate = totalIssues > 0 ? (resolvedIssues * 100.0 / totalIssues) : 0.0;
 
@@ -231,6 +228,17 @@ public class RepresentativeRatingService {
                 .build();
     }
 
+    /**
+     * Compute a scorecard from live rating and issue stats (same formula as the materialized table)
+     */
+    private Scorecard calculateScorecard(RepresentativeType type, Long representativeId, String name) {
+        RatingStats ratingStats = getRatingStats(type, representativeId);
+        IssueStats issueStats = getIssueStats(type, representativeId, name);
+        return new Scorecard(ratingStats.getAverageRating(), ratingStats.getTotalRatings(),
+                ratingStats.getApprovalLevel(), issueStats.getTotalIssues(), issueStats.getResolvedIssues(),
+                issueStats.getResolutionRate(), calculateAccountabilityScore(ratingStats, issueStats));
+    }
+
     /**
      * Calculate accountability score (0-100) based on ratings and issue resolution
      */
@@ -253,37 +261,88 @@ public class RepresentativeRatingService {
      * Get recent reviews for a representative
      */
     public List<RatingResponse> getRecentReviews(RepresentativeType type, Long representativeId, int limit) {
-        return ratingRepository.getRecentReviews(type, representativeId)
+        return reviewService.getRecent(type, representativeId, limit);
+    }
+
+    /**
+     * Get a page of reviews for a representative, older than the (createdAt, id) cursor
+     */
+    public ReviewPage getReviewPage(RepresentativeType type, Long representativeId,
+                                    LocalDateTime beforeCreatedAt, Long beforeId, int limit) {
+        return reviewService.getPage(type, representativeId, beforeCreatedAt, beforeId, limit);
+    }
+
+    /**
+     * Get top rated representatives by type, optionally within a state and/or party
+     */
+    public List<RepresentativeStats> getTopRated(RepresentativeType type, String state, String party,
+                                                 int limit, Long minRatings) {
+        return leaderboardService.getTop(type, state, party, limit, minRatings != null ? minRatings : 0)
                 .stream()
-                .limit(limit)
-                .map(RatingResponse::fromEntity)
+                .map(entry -> toLeaderboardStats(entry, null, null))
                 .collect(Collectors.toList());
     }
 
     /**
-     * Get top rated representatives by type
+     * Get lowest rated representatives by type, optionally within a state and/or party
      */
-    public List<RepresentativeStats> getTopRated(RepresentativeType type, int limit, Long minRatings) {
-        return ratingRepository.getTopRatedByType(type, minRatings)
+    public List<RepresentativeStats> getLowestRated(RepresentativeType type, String state, String party,
+                                                    int limit, Long minRatings) {
+        return leaderboardService.getBottom(type, state, party, limit, minRatings != null ? minRatings : 0)
                 .stream()
-                .limit(limit)
-                .map(arr -> RepresentativeStats.builder()
-                        .representativeId(((Number) arr[0]).longValue())
-                        .name((String) arr[1])
-                        .party((String) arr[2])
-                        .constituency((String) arr[3])
-                        .approvalRating(((Number) arr[4]).doubleValue())
-                        .totalRatings(((Number) arr[5]).longValue())
-                        .build())
+                .map(entry -> toLeaderboardStats(entry, null, null))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Get a representative's leaderboard rank, optionally within a state and/or party
+     */
+    public Optional<RepresentativeStats> getRank(RepresentativeType type, Long representativeId,
+                                                 String state, String party) {
+        return leaderboardService.getRank(type, representativeId, state, party)
+                .map(ranking -> toLeaderboardStats(ranking.entry(), ranking.rank(), ranking.total()));
+    }
+
+    private RepresentativeStats toLeaderboardStats(RepresentativeLeaderboardService.Entry entry,
+                                                   Integer rank, Integer leaderboardSize) {
+        double avgRating = entry.average();
+        Optional<Scorecard> scorecard = scorecardService.get(entry.type(), entry.representativeId());
+        return RepresentativeStats.builder()
+                .representativeType(entry.type())
+                .representativeId(entry.representativeId())
+                .name(entry.name())
+                .party(entry.party())
+                .constituency(entry.constituency())
+                .approvalRating(Math.round(avgRating * 10.0) / 10.0)
+                .totalRatings(entry.count())
+                .approvalLevel(RatingStats.calculateApprovalLevel(avgRating))
+                .issuesRegistered(scorecard.map(Scorecard::issuesRegistered).orElse(null))
+                .issuesResolved(scorecard.map(Scorecard::issuesResolved).orElse(null))
+                .resolutionRate(scorecard.map(Scorecard::resolutionRate).orElse(null))
+                .accountabilityScore(scorecard.map(Scorecard::accountabilityScore).orElse(null))
+                .leaderboardScore(Math.round(entry.score() * 100.0) / 100.0)
+                .rank(rank)
+                .leaderboardSize(leaderboardSize)
+                .build();
+    }
+
     /**
      * Delete user's rating
      */
     @Transactional
     public void deleteRating(Long userId, RepresentativeType type, Long representativeId) {
-        ratingRepository.deleteByUserIdAndRepresentativeTypeAndRepresentativeId(userId, type, representativeId);
+        Optional<RepresentativeRating> existing = ratingRepository
+                .findByUserIdAndRepresentativeTypeAndRepresentativeId(userId, type, representativeId);
+        if (existing.isEmpty()) {
+            return;
+        }
+
+        RepresentativeRating rating = existing.get();
+        ratingRepository.delete(rating);
+        aggregateService.onRatingChanged(type, representativeId,
+                rating.getRating(), Boolean.TRUE.equals(rating.getIsVerified()), null, false);
+        govMapCache.evictUser(userId);
+        reviewService.onRatingDeleted(type, representativeId);
         log.info("Deleted rating for user {} on {} {}", userId, type, representativeId);
     }
 
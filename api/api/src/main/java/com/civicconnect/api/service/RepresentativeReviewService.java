@@ -0,0 +1,164 @@
+package com.civicconnect.api.service;
+
+import com.civicconnect.api.dto.RepresentativeRatingDTO.RatingResponse;
+import com.civicconnect.api.dto.RepresentativeRatingDTO.ReviewPage;
+import com.civicconnect.api.entity.RepresentativeRating.RepresentativeType;
+import com.civicconnect.api.repository.RepresentativeRatingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Recent reviews (ratings with a comment) per representative.
+ *
+ * The latest N reviews of each representative are kept in a bounded in-memory ring, loaded with one
+ * keyset query on first read. New reviews are pushed to the front after commit; edits and deletes
+ * drop the ring so the next read reloads it. Older pages come from a keyset-paginated
+ * (created_at, id) query on a partial index, never from an OFFSET scan.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RepresentativeReviewService {
+
+    public static final String CACHE_NAME = "recentReviews";
+
+    private final RepresentativeRatingRepository ratingRepository;
+    private final CacheManager cacheManager;
+
+    @Value("${reviews.recent-buffer-size:20}")
+    private int bufferSize;
+
+    @Value("${reviews.max-page-size:50}")
+    private int maxPageSize;
+
+    /**
+     * Latest reviews for a representative, served from the ring when it holds enough
+     */
+    @Transactional(readOnly = true)
+    public List<RatingResponse> getRecent(RepresentativeType type, Long representativeId, int limit) {
+        checkLimit(limit);
+        if (limit > bufferSize) {
+            return getPage(type, representativeId, null, null, limit).getReviews();
+        }
+        ReviewRing ring = cache().get(cacheKey(type, representativeId),
+                () -> new ReviewRing(bufferSize, load(type, representativeId, null, null, bufferSize)));
+        return ring.latest(limit);
+    }
+
+    /**
+     * A page of reviews older than the (createdAt, id) cursor; pass a null cursor for the first page
+     */
+    @Transactional(readOnly = true)
+    public ReviewPage getPage(RepresentativeType type, Long representativeId,
+                              LocalDateTime beforeCreatedAt, Long beforeId, int limit) {
+        checkLimit(limit);
+
+        // Fetch one extra row to know whether another page exists
+        List<RatingResponse> reviews = load(type, representativeId, beforeCreatedAt, beforeId, limit + 1);
+        boolean hasMore = reviews.size() > limit;
+        if (hasMore) {
+            reviews = reviews.subList(0, limit);
+        }
+
+        RatingResponse last = hasMore ? reviews.get(reviews.size() - 1) : null;
+        return ReviewPage.builder()
+                .reviews(reviews)
+                .hasMore(hasMore)
+                .nextCursorCreatedAt(last != null ? last.getCreatedAt() : null)
+                .nextCursorId(last != null ? last.getId() : null)
+                .build();
+    }
+
+    /**
+     * Record a submitted rating. Only a brand-new review can be placed without reloading.
+     */
+    public void onRatingSaved(RatingResponse rating, boolean isNew) {
+        String key = cacheKey(rating.getRepresentativeType(), rating.getRepresentativeId());
+        boolean hasComment = rating.getComment() != null && !rating.getComment().isEmpty();
+        TransactionHooks.afterCommit(() -> {
+            if (isNew && hasComment) {
+                ReviewRing ring = cache().get(key, ReviewRing.class);
+                if (ring != null) {
+                    ring.push(rating);
+                    // Re-put the ring updated in place so other nodes drop their now stale copies
+                    cache().put(key, ring);
+                } else {
+                    // A ring still loading may have read before this commit; the eviction waits for it
+                    cache().evict(key);
+                }
+            } else if (!isNew) {
+                cache().evict(key);
+            }
+        });
+    }
+
+    public void onRatingDeleted(RepresentativeType type, Long representativeId) {
+        String key = cacheKey(type, representativeId);
+        TransactionHooks.afterCommit(() -> cache().evict(key));
+    }
+
+    private void checkLimit(int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+    }
+
+    private List<RatingResponse> load(RepresentativeType type, Long representativeId,
+                                      LocalDateTime beforeCreatedAt, Long beforeId, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        var ratings = beforeCreatedAt != null && beforeId != null
+                ? ratingRepository.findReviewsBefore(type, representativeId, beforeCreatedAt, beforeId, page)
+                : ratingRepository.findLatestReviews(type, representativeId, page);
+        return new ArrayList<>(ratings.stream().map(RatingResponse::fromEntity).toList());
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(CACHE_NAME);
+    }
+
+    private static String cacheKey(RepresentativeType type, Long representativeId) {
+        return type.name() + ":" + representativeId;
+    }
+
+    /**
+     * Fixed-capacity newest-first buffer; pushing past capacity drops the oldest review
+     */
+    static final class ReviewRing {
+
+        private final int capacity;
+        private final Deque<RatingResponse> reviews;
+
+        ReviewRing(int capacity, List<RatingResponse> newestFirst) {
+            this.capacity = capacity;
+            this.reviews = new ArrayDeque<>(capacity + 1);
+            for (RatingResponse review : newestFirst) {
+                if (reviews.size() == capacity) break;
+                reviews.addLast(review);
+            }
+        }
+
+        synchronized void push(RatingResponse review) {
+            reviews.removeIf(existing -> existing.getId().equals(review.getId()));
+            reviews.addFirst(review);
+            while (reviews.size() > capacity) {
+                reviews.removeLast();
+            }
+        }
+
+        synchronized List<RatingResponse> latest(int limit) {
+            return reviews.stream().limit(Math.max(0, limit)).toList();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.civicconnect.api.service;
+
+import com.civicconnect.api.entity.RepresentativeRating.RepresentativeType;
+import com.civicconnect.api.entity.RepresentativeScorecard;
+import com.civicconnect.api.repository.RepresentativeScorecardRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Maintains representative_scorecards: approval level, resolution rate and accountability score
+ * for every MLA, MP, councillor, mayor, CM and PM.
+ *
+ * The nightly rebuild runs one set-based upsert per representative type, all types in parallel,
+ * each in its own transaction. Rating and issue writes patch the affected representative's row
+ * in the writer's transaction; the rebuild skips rows patched after it started, so it never
+ * overwrites a newer patch with its older snapshot. Reads are a cached unique-key lookup.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RepresentativeScorecardService {
+
+    public static final String CACHE_NAME = "scorecards";
+
+    private final RepresentativeScorecardRepository scorecardRepository;
+    private final CacheManager cacheManager;
+    private final GovMapCacheService govMapCache;
+
+    // Each running type rebuild holds a DB connection, so size against the Hikari pool
+    @Value("${scorecards.rebuild-threads:3}")
+    private int rebuildThreads;
+
+    // Pool for the per-type rebuilds; threads time out between the nightly runs
+    private ThreadPoolExecutor rebuildExecutor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        rebuildExecutor = new ThreadPoolExecutor(
+                rebuildThreads, rebuildThreads,
+                60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "scorecard-rebuild-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        rebuildExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdown();
+    }
+
+    /**
+     * Immutable snapshot of a representative's scorecard
+     */
+    public record Scorecard(double averageRating, long ratingCount, String approvalLevel,
+                            long issuesRegistered, long issuesResolved, double resolutionRate,
+                            int accountabilityScore) {
+
+        static Scorecard of(RepresentativeScorecard entity) {
+            return new Scorecard(entity.getAverageRating(), entity.getRatingCount(), entity.getApprovalLevel(),
+                    entity.getIssuesRegistered(), entity.getIssuesResolved(), entity.getResolutionRate(),
+                    entity.getAccountabilityScore());
+        }
+    }
+
+    /**
+     * Get the scorecard for a representative (cached). Empty until the first rebuild has covered it.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Scorecard> get(RepresentativeType type, Long representativeId) {
+        if (representativeId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache().get(cacheKey(type, representativeId), () ->
+                scorecardRepository.findByRepresentativeTypeAndRepresentativeId(type, representativeId)
+                        .map(Scorecard::of)
+                        .orElse(null)));
+    }
+
+    /**
+     * Recompute one representative's scorecard after its ratings or issues changed
+     */
+    @Transactional
+    public void refresh(RepresentativeType type, Long representativeId) {
+        if (representativeId == null) {
+            return;
+        }
+        scorecardRepository.refresh(type.name(), representativeId, LocalDateTime.now());
+
+        String key = cacheKey(type, representativeId);
+        cache().evict(key);
+        TransactionHooks.afterCommit(() -> cache().evict(key));
+    }
+
+    /**
+     * Rebuild every scorecard: one upsert + stale-row delete per type, types in parallel
+     */
+    public int rebuild() {
+        List<CompletableFuture<Integer>> results = Arrays.stream(RepresentativeType.values())
+                .map(type -> CompletableFuture.supplyAsync(() -> rebuildType(type), rebuildExecutor))
+                .toList();
+        int rows = results.stream().mapToInt(CompletableFuture::join).sum();
+
+        cache().clear();
+        govMapCache.evictAllHierarchies();
+        log.info("Rebuilt representative scorecards: {} rows", rows);
+        return rows;
+    }
+
+    private int rebuildType(RepresentativeType type) {
+        // Taken at statement start: refresh() patches stamped later are newer than this rebuild's snapshot
+        LocalDateTime now = LocalDateTime.now();
+        int rows = scorecardRepository.rebuildType(type.name(), now);
+        int removed = scorecardRepository.deleteStale(type.name(), now);
+        log.debug("Rebuilt {} scorecards for {} ({} stale removed)", rows, type, removed);
+        return rows;
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(CACHE_NAME);
+    }
+
+    private static String cacheKey(RepresentativeType type, Long representativeId) {
+        return type.name() + ":" + representativeId;
+    }
+}
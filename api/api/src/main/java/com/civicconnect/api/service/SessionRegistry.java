@@ -0,0 +1,305 @@
+package com.civicconnect.api.service;
+
+import com.civicconnect.api.entity.analytics.UserSession;
+import com.civicconnect.api.repository.analytics.UserSessionRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory registry of active app sessions.
+ *
+ * Heartbeats only write a volatile timestamp on the session's entry, with no lock and no DB write.
+ * Last-seen times are flushed to user_sessions in one UPDATE per flush interval, and sessions
+ * whose last heartbeat is older than stale-after-ms are expired from memory and then in the DB.
+ * A DB sweep backs this up for sessions no running instance tracks (e.g. registered on an instance
+ * that went away); tracked sessions reach the DB every flush interval, so it skips them.
+ * Active session and active user counts are answered from the registry.
+ *
+ * The registry is loaded from the active rows of user_sessions at startup. A heartbeat for a token
+ * it does not know (e.g. started on another instance) falls back to the DB once and registers it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SessionRegistry {
+
+    private static final String FLUSH_HEARTBEATS =
+            "UPDATE user_sessions s SET last_heartbeat_at = v.seen_at " +
+            "FROM unnest(?::bigint[], ?::timestamp[]) AS v(id, seen_at) " +
+            "WHERE s.id = v.id AND s.is_active = true";
+
+    private final UserSessionRepository sessionRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    // A session without a heartbeat for this long is expired
+    @Value("${sessions.stale-after-ms:300000}")
+    private long staleAfterMs;
+
+    @Value("${sessions.heartbeat-flush-interval-ms:15000}")
+    private long heartbeatFlushIntervalMs;
+
+    private final Map<String, LiveSession> sessionsByToken = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> tokensByUser = new ConcurrentHashMap<>();
+
+    /**
+     * An active session as the registry sees it
+     */
+    public static final class LiveSession {
+
+        private final String token;
+        private final Long sessionId;
+        private final Long userId;
+        private final long startedMillis;
+        private volatile long lastSeenMillis;
+        // Only read and written by the flush
+        private long flushedMillis;
+
+        LiveSession(String token, Long sessionId, Long userId, long startedMillis, long lastSeenMillis) {
+            this.token = token;
+            this.sessionId = sessionId;
+            this.userId = userId;
+            this.startedMillis = startedMillis;
+            this.lastSeenMillis = lastSeenMillis;
+            this.flushedMillis = lastSeenMillis;
+        }
+
+        public String token() {
+            return token;
+        }
+
+        public Long sessionId() {
+            return sessionId;
+        }
+
+        public Long userId() {
+            return userId;
+        }
+
+        public LocalDateTime startedAt() {
+            return toLocalDateTime(startedMillis);
+        }
+
+        public LocalDateTime lastSeen() {
+            return toLocalDateTime(lastSeenMillis);
+        }
+    }
+
+    /**
+     * Load every active session from the DB. Sessions already registered keep their in-memory state.
+     */
+    @Transactional(readOnly = true)
+    public int load() {
+        List<Object[]> rows = sessionRepository.findActiveSessionSnapshots();
+        for (Object[] row : rows) {
+            if (sessionsByToken.containsKey((String) row[0])) {
+                continue;
+            }
+            long now = System.currentTimeMillis();
+            LocalDateTime startedAt = (LocalDateTime) row[3];
+            LocalDateTime lastHeartbeat = (LocalDateTime) row[4];
+            add(new LiveSession((String) row[0], (Long) row[1], (Long) row[2],
+                    startedAt != null ? toMillis(startedAt) : now,
+                    lastHeartbeat != null ? toMillis(lastHeartbeat) : now));
+        }
+        log.info("Loaded {} active sessions into the session registry", rows.size());
+        return rows.size();
+    }
+
+    /**
+     * Track a newly started session
+     */
+    public void register(UserSession session) {
+        long now = System.currentTimeMillis();
+        add(new LiveSession(session.getSessionToken(), session.getId(), session.getUser().getId(),
+                session.getStartedAt() != null ? toMillis(session.getStartedAt()) : now, now));
+    }
+
+    /**
+     * Track a session found by token lookup; its start time is taken as now
+     */
+    public void register(String token, Long sessionId, Long userId) {
+        long now = System.currentTimeMillis();
+        add(new LiveSession(token, sessionId, userId, now, now));
+    }
+
+    /**
+     * Record a heartbeat. Returns false when the token is not in the registry.
+     */
+    public boolean heartbeat(String token) {
+        LiveSession session = token != null ? sessionsByToken.get(token) : null;
+        if (session == null) {
+            return false;
+        }
+        session.lastSeenMillis = System.currentTimeMillis();
+        return true;
+    }
+
+    /**
+     * Stop tracking a session (logout)
+     */
+    public Optional<LiveSession> remove(String token) {
+        LiveSession session = token != null ? sessionsByToken.remove(token) : null;
+        if (session == null) {
+            return Optional.empty();
+        }
+        tokensByUser.computeIfPresent(session.userId, (userId, tokens) -> {
+            tokens.remove(token);
+            return tokens.isEmpty() ? null : tokens;
+        });
+        return Optional.of(session);
+    }
+
+    /**
+     * Stop tracking every session of a user (force logout). Returns the removed sessions.
+     */
+    public List<LiveSession> removeUser(Long userId) {
+        Set<String> tokens = tokensByUser.remove(userId);
+        List<LiveSession> removed = new ArrayList<>();
+        if (tokens != null) {
+            for (String token : tokens) {
+                LiveSession session = sessionsByToken.remove(token);
+                if (session != null) {
+                    removed.add(session);
+                }
+            }
+        }
+        return removed;
+    }
+
+    public Optional<LiveSession> get(String token) {
+        return Optional.ofNullable(token != null ? sessionsByToken.get(token) : null);
+    }
+
+    /**
+     * Point-in-time view of the active sessions
+     */
+    public List<LiveSession> activeSessions() {
+        return List.copyOf(sessionsByToken.values());
+    }
+
+    public long countActiveSessions() {
+        return sessionsByToken.size();
+    }
+
+    public long countActiveUsers() {
+        return tokensByUser.size();
+    }
+
+    public boolean hasActiveSession(Long userId) {
+        return userId != null && tokensByUser.containsKey(userId);
+    }
+
+    /**
+     * Write last-seen times that changed since the previous flush in a single UPDATE
+     */
+    public int flushHeartbeats() {
+        List<LiveSession> changed = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        List<Timestamp> seenAt = new ArrayList<>();
+        for (LiveSession session : sessionsByToken.values()) {
+            long lastSeen = session.lastSeenMillis;
+            if (lastSeen > session.flushedMillis) {
+                changed.add(session);
+                ids.add(session.sessionId);
+                seenAt.add(Timestamp.valueOf(toLocalDateTime(lastSeen)));
+            }
+        }
+        if (changed.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(FLUSH_HEARTBEATS);
+            Array idArray = connection.createArrayOf("bigint", ids.toArray());
+            Array seenArray = connection.createArrayOf("timestamp", seenAt.toArray());
+            ps.setArray(1, idArray);
+            ps.setArray(2, seenArray);
+            return ps;
+        });
+        for (int i = 0; i < changed.size(); i++) {
+            changed.get(i).flushedMillis = seenAt.get(i).getTime();
+        }
+        log.debug("Flushed {} session heartbeats", changed.size());
+        return changed.size();
+    }
+
+    /**
+     * Expire sessions whose last heartbeat is older than the stale threshold, then sweep the DB for
+     * stale sessions no instance tracks. Sessions that another instance kept alive in the DB are left
+     * active there. Returns the sessions expired from this registry.
+     */
+    @Transactional
+    public List<LiveSession> expireStaleSessions() {
+        long cutoffMillis = System.currentTimeMillis() - staleAfterMs;
+        // Stored heartbeats lag the registries by up to a flush interval; twice that keeps tracked sessions out
+        int swept = sessionRepository.expireStaleSessions(
+                toLocalDateTime(cutoffMillis - 2 * heartbeatFlushIntervalMs), LocalDateTime.now());
+        if (swept > 0) {
+            log.info("Expired {} stale sessions not tracked by any instance", swept);
+        }
+
+        List<LiveSession> stale = sessionsByToken.values().stream()
+                .filter(session -> session.lastSeenMillis < cutoffMillis)
+                .toList();
+        if (stale.isEmpty()) {
+            return stale;
+        }
+
+        List<LiveSession> expired = new ArrayList<>(stale.size());
+        for (LiveSession session : stale) {
+            // A heartbeat may have arrived since the scan; only expire what is still stale
+            if (session.lastSeenMillis < cutoffMillis && remove(session.token).isPresent()) {
+                expired.add(session);
+            }
+        }
+        if (!expired.isEmpty()) {
+            sessionRepository.expireSessions(expired.stream().map(LiveSession::sessionId).toList(),
+                    toLocalDateTime(cutoffMillis), LocalDateTime.now());
+        }
+        return expired;
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        try {
+            flushHeartbeats();
+        } catch (Exception e) {
+            log.warn("Could not flush session heartbeats on shutdown: {}", e.getMessage());
+        }
+    }
+
+    private void add(LiveSession session) {
+        sessionsByToken.put(session.token, session);
+        tokensByUser.compute(session.userId, (userId, tokens) -> {
+            Set<String> set = tokens != null ? tokens : ConcurrentHashMap.newKeySet();
+            set.add(session.token);
+            return set;
+        });
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
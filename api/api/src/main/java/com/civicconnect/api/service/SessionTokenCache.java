@@ -0,0 +1,149 @@
+package com.civicconnect.api.service;
+
+import com.civicconnect.api.config.cache.TwoTierCache;
+import com.civicconnect.api.config.cache.TwoTierCacheManager;
+import com.civicconnect.api.entity.analytics.AppUser;
+import com.civicconnect.api.entity.analytics.UserSession;
+import com.civicconnect.api.repository.analytics.UserSessionRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache of session token -> (session id, user id, user summary).
+ *
+ * Every analytics call from the app carries a session token. Resolving it used to load the
+ * UserSession entity and then lazily its user; now a hit costs nothing and a miss is one
+ * projection query. Entries are written at session start and evicted at logout, force logout
+ * and expiry; the TTL (see CacheConfig) bounds staleness of the user summary.
+ *
+ * User-wide eviction goes through an index of the tokens cached on this node per user, so it
+ * costs one lookup per token of that user rather than a scan of the whole cache. With the two-tier
+ * cache it is broadcast as a group invalidation and every node evicts the tokens in its own index.
+ */
+@Service
+@RequiredArgsConstructor
+public class SessionTokenCache {
+
+    public static final String CACHE_NAME = "sessionTokens";
+
+    // Outlives the token entries (5 minutes after write, see CacheConfig), so every cached token is indexed
+    private static final Duration INDEX_TTL = Duration.ofMinutes(10);
+
+    private final UserSessionRepository sessionRepository;
+    private final CacheManager cacheManager;
+
+    // User id -> tokens cached on this node; refreshed on every write, so it expires after its tokens
+    private final com.github.benmanes.caffeine.cache.Cache<Long, Set<String>> tokensByUser = Caffeine.newBuilder()
+            .expireAfterWrite(INDEX_TTL)
+            .build();
+
+    /**
+     * What the analytics endpoints need to know about a session token
+     */
+    public record SessionContext(Long sessionId, boolean active, Long userId,
+                                 String email, String name, String photoUrl) {
+
+        static SessionContext of(UserSession session, AppUser user) {
+            return new SessionContext(session.getId(), !Boolean.FALSE.equals(session.getIsActive()),
+                    user.getId(), user.getEmail(), user.getName(), user.getPhotoUrl());
+        }
+    }
+
+    @PostConstruct
+    void registerGroupEviction() {
+        if (cacheManager instanceof TwoTierCacheManager twoTier) {
+            twoTier.registerGroupEvictor(CACHE_NAME, userId -> evictLocalTokensOf(Long.valueOf(userId)));
+        }
+    }
+
+    /**
+     * Resolve a token (cached; unknown tokens are cached as misses too)
+     */
+    public Optional<SessionContext> resolve(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache().get(token, () -> load(token)));
+    }
+
+    /**
+     * Cache a newly started session once its transaction commits
+     */
+    public void put(UserSession session, AppUser user) {
+        SessionContext context = SessionContext.of(session, user);
+        TransactionHooks.afterCommit(() -> {
+            index(session.getSessionToken(), context);
+            cache().put(session.getSessionToken(), context);
+        });
+    }
+
+    public void evict(String token) {
+        if (token == null) return;
+        cache().evict(token);
+        TransactionHooks.afterCommit(() -> cache().evict(token));
+    }
+
+    /**
+     * Drop every cached token of a user (force logout, profile change), on every node
+     */
+    public void evictUser(Long userId) {
+        if (userId == null) return;
+        Runnable evict = () -> {
+            if (cacheManager instanceof TwoTierCacheManager twoTier) {
+                twoTier.evictGroup(CACHE_NAME, userId.toString());
+            } else {
+                evictLocalTokensOf(userId);
+            }
+        };
+        evict.run();
+        TransactionHooks.afterCommit(evict);
+    }
+
+    private SessionContext load(String token) {
+        List<Object[]> rows = sessionRepository.findSessionContext(token);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] row = rows.get(0);
+        SessionContext context = new SessionContext((Long) row[0], !Boolean.FALSE.equals(row[1]), (Long) row[2],
+                (String) row[3], (String) row[4], (String) row[5]);
+        index(token, context);
+        return context;
+    }
+
+    private void index(String token, SessionContext context) {
+        if (context.userId() == null) return;
+        tokensByUser.asMap().compute(context.userId(), (userId, tokens) -> {
+            Set<String> set = tokens != null ? tokens : ConcurrentHashMap.newKeySet();
+            set.add(token);
+            return set;
+        });
+    }
+
+    private void evictLocalTokensOf(Long userId) {
+        Set<String> tokens = tokensByUser.asMap().remove(userId);
+        if (tokens == null) return;
+        Cache cache = cache();
+        for (String token : tokens) {
+            if (cache instanceof TwoTierCache twoTier) {
+                twoTier.evictLocal(token);
+            } else {
+                cache.evict(token);
+            }
+        }
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(CACHE_NAME);
+    }
+}
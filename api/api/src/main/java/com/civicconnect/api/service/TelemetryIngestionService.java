@@ -0,0 +1,450 @@
+package com.civicconnect.api.service;
+
+import com.civicconnect.api.dto.analytics.AnalyticsDTOs.TelemetryQueueStatsDTO;
+import com.civicconnect.api.entity.analytics.ActivityLog;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Buffered ingestion of client telemetry (activity_logs and network_logs).
+ *
+ * Request threads only resolve the session and offer rows to a bounded in-memory queue; they never
+ * wait on the database. A single writer thread drains the queues and writes each batch as one
+ * multi-row INSERT, flushing as soon as a queue holds batch-size rows or flush-interval-ms has passed.
+ *
+ * When a queue fills up the overflow policy decides what happens to new rows:
+ * DROP rejects them, SAMPLE starts admitting only 1 in sample-rate rows once the queue passes
+ * sample-threshold (and drops when full), BLOCK waits up to block-timeout-ms for space, then drops.
+ *
+ * Rows are checked and truncated to their column lengths on enqueue; rows missing NOT NULL values are
+ * skipped. Telemetry is best effort: when a batch still fails (e.g. a foreign key), it is retried row
+ * by row and only the rows that fail again are discarded. Once their INSERT has succeeded, rows are
+ * counted into the dashboard rollups (AnalyticsRollupService) and network latencies into the
+ * percentile histograms (LatencyStatsService); activity users feed the distinct-user sketches
+ * (DistinctUserService) and the daily activity bitmaps (UserActivityBitmapService). These run outside
+ * the retried write, so a failure there can never insert or count a row twice.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TelemetryIngestionService {
+
+    public enum OverflowPolicy { DROP, SAMPLE, BLOCK }
+
+    private static final String ACTIVITY_INSERT = "INSERT INTO activity_logs " +
+            "(user_id, session_id, activity_type, activity_name, activity_data, latitude, longitude, created_at) VALUES ";
+    private static final String ACTIVITY_VALUES = "(?, ?, ?, ?, ?::jsonb, ?, ?, ?)";
+
+    private static final String NETWORK_INSERT = "INSERT INTO network_logs " +
+            "(user_id, session_id, request_id, method, url, request_headers, request_body, response_status, " +
+            "response_headers, response_body, latency_ms, error_message, created_at) VALUES ";
+    private static final String NETWORK_VALUES = "(?, ?, ?, ?, ?, ?::jsonb, ?::jsonb, ?, ?::jsonb, ?::jsonb, ?, ?, ?)";
+
+    // Column lengths (V1 activity_logs / network_logs)
+    private static final int ACTIVITY_NAME_LENGTH = 255;
+    private static final int REQUEST_ID_LENGTH = 36;
+    private static final int METHOD_LENGTH = 10;
+
+    // Postgres accepts at most 32767 bind parameters per statement; network_logs binds 13 per row
+    private static final int MAX_BIND_PARAMETERS = 32767;
+    private static final int NETWORK_COLUMNS = 13;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final AnalyticsRollupService rollupService;
+    private final LatencyStatsService latencyStatsService;
+    private final DistinctUserService distinctUserService;
+    private final UserActivityBitmapService activityBitmapService;
+
+    @Value("${telemetry.queue-capacity:50000}")
+    private int queueCapacity;
+
+    @Value("${telemetry.batch-size:500}")
+    private int batchSize;
+
+    @Value("${telemetry.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${telemetry.overflow-policy:DROP}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${telemetry.sample-threshold:0.8}")
+    private double sampleThreshold;
+
+    @Value("${telemetry.sample-rate:10}")
+    private int sampleRate;
+
+    @Value("${telemetry.block-timeout-ms:50}")
+    private long blockTimeoutMs;
+
+    private TelemetryQueue<ActivityRow> activityQueue;
+    private TelemetryQueue<NetworkRow> networkQueue;
+    private Thread writer;
+    private volatile boolean running;
+
+    /**
+     * An activity_logs row, detached from JPA so it can be written from the writer thread
+     */
+    public record ActivityRow(Long userId, Long sessionId, ActivityLog.ActivityType activityType,
+                              String activityName, Map<String, Object> activityData,
+                              Double latitude, Double longitude, LocalDateTime createdAt) {
+    }
+
+    /**
+     * A network_logs row, detached from JPA so it can be written from the writer thread
+     */
+    public record NetworkRow(Long userId, Long sessionId, String requestId, String method, String url,
+                             Map<String, String> requestHeaders, Object requestBody, Integer responseStatus,
+                             Map<String, String> responseHeaders, Object responseBody, Integer latencyMs,
+                             String errorMessage, LocalDateTime createdAt) {
+    }
+
+    @PostConstruct
+    void init() {
+        int maxBatchSize = MAX_BIND_PARAMETERS / NETWORK_COLUMNS;
+        if (batchSize < 1 || batchSize > maxBatchSize) {
+            throw new IllegalArgumentException("telemetry.batch-size must be between 1 and " + maxBatchSize);
+        }
+        activityQueue = new TelemetryQueue<>("activity_logs", queueCapacity);
+        networkQueue = new TelemetryQueue<>("network_logs", queueCapacity);
+        running = true;
+        writer = new Thread(this::runWriter, "telemetry-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Queue activity rows for writing. Returns the number of rows accepted.
+     */
+    public int enqueueActivities(List<ActivityRow> rows) {
+        return enqueue(activityQueue, rows, TelemetryIngestionService::checkActivity);
+    }
+
+    /**
+     * Queue network rows for writing. Returns the number of rows accepted.
+     */
+    public int enqueueNetworkLogs(List<NetworkRow> rows) {
+        return enqueue(networkQueue, rows, TelemetryIngestionService::checkNetworkLog);
+    }
+
+    /**
+     * Queue depth, drop counts and flush latency per queue
+     */
+    public List<TelemetryQueueStatsDTO> getStats() {
+        return List.of(activityQueue.stats(), networkQueue.stats());
+    }
+
+    private <T> int enqueue(TelemetryQueue<T> queue, List<T> rows, UnaryOperator<T> check) {
+        int accepted = 0;
+        for (T row : rows) {
+            T checked = check.apply(row);
+            if (checked == null) {
+                queue.rejected.incrementAndGet();
+            } else if (queue.offer(checked)) {
+                accepted++;
+            }
+        }
+        if (queue.size() >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+        return accepted;
+    }
+
+    /**
+     * The row truncated to its column lengths, or null when a NOT NULL column is missing
+     */
+    private static ActivityRow checkActivity(ActivityRow row) {
+        if (row.activityType() == null || row.activityName() == null || row.activityName().isBlank()) {
+            return null;
+        }
+        if (row.activityName().length() <= ACTIVITY_NAME_LENGTH) {
+            return row;
+        }
+        return new ActivityRow(row.userId(), row.sessionId(), row.activityType(),
+                truncate(row.activityName(), ACTIVITY_NAME_LENGTH), row.activityData(),
+                row.latitude(), row.longitude(), row.createdAt());
+    }
+
+    private static NetworkRow checkNetworkLog(NetworkRow row) {
+        if (row.method() == null || row.method().isBlank() || row.url() == null || row.url().isBlank()) {
+            return null;
+        }
+        if (row.method().length() <= METHOD_LENGTH
+                && (row.requestId() == null || row.requestId().length() <= REQUEST_ID_LENGTH)) {
+            return row;
+        }
+        return new NetworkRow(row.userId(), row.sessionId(), truncate(row.requestId(), REQUEST_ID_LENGTH),
+                truncate(row.method(), METHOD_LENGTH), row.url(), row.requestHeaders(), row.requestBody(),
+                row.responseStatus(), row.responseHeaders(), row.responseBody(), row.latencyMs(),
+                row.errorMessage(), row.createdAt());
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    // ==================== Writer ====================
+
+    private void runWriter() {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (running) {
+            long deadline = System.nanoTime() + intervalNanos;
+            long remaining;
+            while (running && activityQueue.size() < batchSize && networkQueue.size() < batchSize
+                    && (remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, remaining);
+            }
+            flushAll();
+        }
+        // Final drain on shutdown
+        flushAll();
+    }
+
+    private void flushAll() {
+        activityQueue.drain(batchSize, this::writeActivities, this::recordActivities);
+        networkQueue.drain(batchSize, this::writeNetworkLogs, this::recordNetworkLogs);
+    }
+
+    private void writeActivities(List<ActivityRow> rows) {
+        jdbcTemplate.update(multiRowInsert(ACTIVITY_INSERT, ACTIVITY_VALUES, rows.size()), ps -> {
+            int i = 1;
+            for (ActivityRow row : rows) {
+                setLong(ps, i++, row.userId());
+                setLong(ps, i++, row.sessionId());
+                ps.setString(i++, row.activityType().name());
+                ps.setString(i++, row.activityName());
+                ps.setString(i++, toJson(row.activityData()));
+                setDouble(ps, i++, row.latitude());
+                setDouble(ps, i++, row.longitude());
+                ps.setObject(i++, row.createdAt());
+            }
+        });
+    }
+
+    private void recordActivities(List<ActivityRow> rows) {
+        rollupService.recordActivities(rows);
+        distinctUserService.recordActivities(rows);
+        activityBitmapService.recordActivities(rows);
+    }
+
+    private void writeNetworkLogs(List<NetworkRow> rows) {
+        jdbcTemplate.update(multiRowInsert(NETWORK_INSERT, NETWORK_VALUES, rows.size()), ps -> {
+            int i = 1;
+            for (NetworkRow row : rows) {
+                setLong(ps, i++, row.userId());
+                setLong(ps, i++, row.sessionId());
+                ps.setString(i++, row.requestId());
+                ps.setString(i++, row.method());
+                ps.setString(i++, row.url());
+                ps.setString(i++, toJson(row.requestHeaders()));
+                ps.setString(i++, toJson(row.requestBody()));
+                setInt(ps, i++, row.responseStatus());
+                ps.setString(i++, toJson(row.responseHeaders()));
+                ps.setString(i++, toJson(row.responseBody()));
+                setInt(ps, i++, row.latencyMs());
+                ps.setString(i++, row.errorMessage());
+                ps.setObject(i++, row.createdAt());
+            }
+        });
+    }
+
+    private void recordNetworkLogs(List<NetworkRow> rows) {
+        rollupService.recordRequests(rows);
+        latencyStatsService.recordClient(rows);
+    }
+
+    private static String multiRowInsert(String prefix, String values, int rows) {
+        StringBuilder sql = new StringBuilder(prefix.length() + rows * (values.length() + 2)).append(prefix);
+        for (int r = 0; r < rows; r++) {
+            if (r > 0) sql.append(", ");
+            sql.append(values);
+        }
+        return sql.toString();
+    }
+
+    private String toJson(Object value) {
+        if (value == null) return null;
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static void setLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value != null) ps.setLong(index, value); else ps.setNull(index, Types.BIGINT);
+    }
+
+    private static void setInt(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value != null) ps.setInt(index, value); else ps.setNull(index, Types.INTEGER);
+    }
+
+    private static void setDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+        if (value != null) ps.setDouble(index, value); else ps.setNull(index, Types.DOUBLE);
+    }
+
+    /**
+     * Bounded queue for one table with its overflow handling and counters
+     */
+    private final class TelemetryQueue<T> {
+
+        private final String table;
+        private final int capacity;
+        private final BlockingQueue<T> rows;
+        private final AtomicLong offered = new AtomicLong();
+        private final AtomicLong accepted = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong written = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong flushes = new AtomicLong();
+        private final AtomicLong flushNanosTotal = new AtomicLong();
+        private volatile long lastFlushNanos;
+        private volatile long maxFlushNanos;
+
+        TelemetryQueue(String table, int capacity) {
+            this.table = table;
+            this.capacity = capacity;
+            this.rows = new ArrayBlockingQueue<>(capacity);
+        }
+
+        int size() {
+            return rows.size();
+        }
+
+        boolean offer(T row) {
+            long sequence = offered.incrementAndGet();
+            boolean queued = switch (overflowPolicy) {
+                case DROP -> rows.offer(row);
+                case SAMPLE -> rows.size() < capacity * sampleThreshold || sequence % sampleRate == 0
+                        ? rows.offer(row)
+                        : false;
+                case BLOCK -> offerWaiting(row);
+            };
+            (queued ? accepted : dropped).incrementAndGet();
+            return queued;
+        }
+
+        private boolean offerWaiting(T row) {
+            try {
+                return rows.offer(row, blockTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        /**
+         * Write everything currently queued, batchSize rows per statement, and hand the rows that were
+         * written to onWritten
+         */
+        void drain(int batchSize, BatchWriter<T> batchWriter, Consumer<List<T>> onWritten) {
+            List<T> batch = new ArrayList<>(batchSize);
+            while (rows.drainTo(batch, batchSize) > 0) {
+                long start = System.nanoTime();
+                List<T> writtenRows;
+                try {
+                    batchWriter.write(batch);
+                    written.addAndGet(batch.size());
+                    writtenRows = batch;
+                } catch (Exception e) {
+                    log.warn("Flush of {} {} rows failed, retrying row by row: {}", batch.size(), table, e.getMessage());
+                    writtenRows = writeRowByRow(batch, batchWriter);
+                }
+                if (!writtenRows.isEmpty()) {
+                    try {
+                        onWritten.accept(writtenRows);
+                    } catch (Exception e) {
+                        log.warn("Recording {} written {} rows failed: {}", writtenRows.size(), table, e.getMessage());
+                    }
+                }
+                long elapsed = System.nanoTime() - start;
+                flushes.incrementAndGet();
+                flushNanosTotal.addAndGet(elapsed);
+                lastFlushNanos = elapsed;
+                if (elapsed > maxFlushNanos) {
+                    maxFlushNanos = elapsed;
+                }
+                batch.clear();
+            }
+        }
+
+        /**
+         * Retry a failed batch one row at a time so a single bad row does not lose the others.
+         * Returns the rows that were written.
+         */
+        private List<T> writeRowByRow(List<T> batch, BatchWriter<T> batchWriter) {
+            List<T> writtenRows = new ArrayList<>(batch.size());
+            int lost = 0;
+            String lastError = null;
+            for (T row : batch) {
+                try {
+                    batchWriter.write(List.of(row));
+                    written.incrementAndGet();
+                    writtenRows.add(row);
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    lost++;
+                    lastError = e.getMessage();
+                }
+            }
+            if (lost > 0) {
+                log.warn("Dropped {} of {} {} rows after failed flush: {}", lost, batch.size(), table, lastError);
+            }
+            return writtenRows;
+        }
+
+        TelemetryQueueStatsDTO stats() {
+            long flushCount = flushes.get();
+            return TelemetryQueueStatsDTO.builder()
+                    .table(table)
+                    .overflowPolicy(overflowPolicy.name())
+                    .queueDepth(rows.size())
+                    .queueCapacity(capacity)
+                    .accepted(accepted.get())
+                    .dropped(dropped.get())
+                    .rejected(rejected.get())
+                    .written(written.get())
+                    .failed(failed.get())
+                    .flushes(flushCount)
+                    .lastFlushMs(lastFlushNanos / 1_000_000.0)
+                    .maxFlushMs(maxFlushNanos / 1_000_000.0)
+                    .avgFlushMs(flushCount > 0 ? flushNanosTotal.get() / 1_000_000.0 / flushCount : 0.0)
+                    .build();
+        }
+    }
+
+    @FunctionalInterface
+    private interface BatchWriter<T> {
+        void write(List<T> batch);
+    }
+}
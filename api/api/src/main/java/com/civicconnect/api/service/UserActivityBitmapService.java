@@ -0,0 +1,287 @@
+package com.civicconnect.api.service;
+
+import com.civicconnect.api.dto.analytics.AnalyticsDTOs.FunnelStepDTO;
+import com.civicconnect.api.dto.analytics.AnalyticsDTOs.RetentionCohortDTO;
+import com.civicconnect.api.entity.analytics.ActivityLog;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-day bitmaps of active user ids, for retention cohorts and funnel intersections.
+ *
+ * Each day has one bitmap of every user with a session start or activity (ANY) and one per
+ * activity type, fed from the same paths as the distinct-user sketches. Bitmaps are kept in memory
+ * while they receive data and flushed to user_activity_bitmaps, OR-ing in the stored version first.
+ * Each bitmap is read, OR-ed and written in one transaction under an advisory lock, so nodes
+ * flushing the same day never overwrite each other's users.
+ *
+ * Retention: users who signed up on day d (optionally filtered by platform / app version) are
+ * intersected with the ANY bitmap of day d + n; days are grouped into signup weeks (Monday start).
+ * Funnels: users of each step (activity type) over the range, intersected step by step.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserActivityBitmapService {
+
+    public static final String CACHE_NAME = "userActivityBitmaps";
+    public static final String ANY = "ANY";
+
+    private static final String UPSERT_BITMAP =
+            "INSERT INTO user_activity_bitmaps (day, activity_type, bitmap, cardinality, updated_at) " +
+            "VALUES (?, ?, ?, ?, now()) ON CONFLICT (day, activity_type) " +
+            "DO UPDATE SET bitmap = EXCLUDED.bitmap, cardinality = EXCLUDED.cardinality, updated_at = now()";
+    private static final String SELECT_BITMAP =
+            "SELECT bitmap FROM user_activity_bitmaps WHERE day = ? AND activity_type = ?";
+    private static final String LOCK_BITMAP = "SELECT pg_advisory_xact_lock(hashtext(?))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${analytics.activity-bitmaps.retention-days:400}")
+    private int retentionDays;
+
+    private final Map<BitmapKey, UserBitmap> live = new ConcurrentHashMap<>();
+    private final Set<BitmapKey> dirty = ConcurrentHashMap.newKeySet();
+
+    private record BitmapKey(LocalDate day, String activityType) {
+    }
+
+    // ==================== Recording ====================
+
+    public void recordActivities(List<TelemetryIngestionService.ActivityRow> rows) {
+        for (TelemetryIngestionService.ActivityRow row : rows) {
+            record(row.userId(), row.activityType(), row.createdAt());
+        }
+    }
+
+    public void record(Long userId, ActivityLog.ActivityType type, LocalDateTime at) {
+        if (userId == null) {
+            return;
+        }
+        LocalDate day = (at != null ? at : LocalDateTime.now()).toLocalDate();
+        add(new BitmapKey(day, ANY), userId);
+        if (type != null) {
+            add(new BitmapKey(day, type.name()), userId);
+        }
+    }
+
+    private void add(BitmapKey key, long userId) {
+        live.computeIfAbsent(key, k -> new UserBitmap()).add(userId);
+        dirty.add(key);
+    }
+
+    // ==================== Flush ====================
+
+    /**
+     * OR changed bitmaps with their stored versions and write them back.
+     * Bitmaps of days before yesterday are dropped from memory once written.
+     */
+    public int flush() {
+        if (dirty.isEmpty()) {
+            return 0;
+        }
+        List<BitmapKey> keys = new ArrayList<>(dirty);
+        keys.forEach(dirty::remove);
+
+        Set<BitmapKey> written = new HashSet<>();
+        try {
+            for (BitmapKey key : keys) {
+                transactionTemplate.executeWithoutResult(status -> flushBitmap(key));
+                written.add(key);
+            }
+        } catch (RuntimeException e) {
+            keys.stream().filter(key -> !written.contains(key)).forEach(dirty::add);
+            throw e;
+        } finally {
+            written.forEach(cache()::evict);
+        }
+
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        live.keySet().removeIf(key -> key.day().isBefore(yesterday) && !dirty.contains(key));
+        log.debug("Flushed {} activity bitmaps", written.size());
+        return written.size();
+    }
+
+    /**
+     * OR one bitmap with its stored version and write it back. Runs in a transaction holding the
+     * bitmap's advisory lock, so a node flushing the same bitmap waits and then ORs in this write.
+     */
+    private void flushBitmap(BitmapKey key) {
+        jdbcTemplate.query(LOCK_BITMAP, rs -> { }, "user_activity_bitmaps:" + key.day() + ":" + key.activityType());
+        // The live bitmap only holds ids seen by this process; the stored one holds the rest
+        UserBitmap merged = live.computeIfAbsent(key, k -> new UserBitmap()).copy();
+        UserBitmap stored = loadStored(key);
+        if (stored != null) {
+            merged.or(stored);
+        }
+        jdbcTemplate.update(UPSERT_BITMAP, Date.valueOf(key.day()), key.activityType(), merged.toBytes(),
+                merged.cardinality());
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Could not flush activity bitmaps on shutdown: {}", e.getMessage());
+        }
+    }
+
+    public int purgeOldBitmaps() {
+        return jdbcTemplate.update("DELETE FROM user_activity_bitmaps WHERE day < ?",
+                Date.valueOf(LocalDate.now().minusDays(retentionDays)));
+    }
+
+    private UserBitmap loadStored(BitmapKey key) {
+        List<byte[]> rows = jdbcTemplate.query(SELECT_BITMAP, (rs, i) -> rs.getBytes(1),
+                Date.valueOf(key.day()), key.activityType());
+        return rows.isEmpty() ? null : UserBitmap.fromBytes(rows.get(0));
+    }
+
+    // ==================== Queries ====================
+
+    /**
+     * Dn retention of users who signed up in [from, to], grouped by signup week.
+     * Rates only count users whose day d + n has already started.
+     */
+    public List<RetentionCohortDTO> retention(LocalDate from, LocalDate to, String platform, String appVersion,
+                                              List<Integer> offsets) {
+        Map<LocalDate, UserBitmap> signupsByDay = signups(from, to, platform, appVersion);
+        LocalDate today = LocalDate.now();
+
+        Map<LocalDate, long[]> sizes = new TreeMap<>();       // week -> [cohort size, eligible per offset...]
+        Map<LocalDate, long[]> retained = new HashMap<>();    // week -> retained per offset
+        signupsByDay.forEach((day, cohort) -> {
+            LocalDate week = day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            long cohortSize = cohort.cardinality();
+            long[] weekSizes = sizes.computeIfAbsent(week, w -> new long[offsets.size() + 1]);
+            long[] weekRetained = retained.computeIfAbsent(week, w -> new long[offsets.size()]);
+            weekSizes[0] += cohortSize;
+            for (int i = 0; i < offsets.size(); i++) {
+                LocalDate target = day.plusDays(offsets.get(i));
+                if (target.isAfter(today)) {
+                    continue;
+                }
+                weekSizes[i + 1] += cohortSize;
+                UserBitmap active = bitmap(target, ANY);
+                if (active != null) {
+                    weekRetained[i] += cohort.andCardinality(active);
+                }
+            }
+        });
+
+        List<RetentionCohortDTO> result = new ArrayList<>();
+        sizes.forEach((week, weekSizes) -> {
+            long[] weekRetained = retained.get(week);
+            Map<String, Long> counts = new LinkedHashMap<>();
+            Map<String, Double> rates = new LinkedHashMap<>();
+            for (int i = 0; i < offsets.size(); i++) {
+                String label = "D" + offsets.get(i);
+                counts.put(label, weekRetained[i]);
+                rates.put(label, weekSizes[i + 1] > 0 ? (double) weekRetained[i] / weekSizes[i + 1] : null);
+            }
+            result.add(RetentionCohortDTO.builder()
+                    .cohortWeek(week)
+                    .cohortSize(weekSizes[0])
+                    .retained(counts)
+                    .retentionRate(rates)
+                    .build());
+        });
+        return result;
+    }
+
+    /**
+     * Users who did every step so far (activity types, in any order) within [from, to]
+     */
+    public List<FunnelStepDTO> funnel(List<String> steps, LocalDate from, LocalDate to) {
+        List<FunnelStepDTO> result = new ArrayList<>();
+        UserBitmap remaining = null;
+        long previous = 0;
+        for (String step : steps) {
+            UserBitmap stepUsers = new UserBitmap();
+            for (LocalDate day = clampFrom(from); !day.isAfter(to); day = day.plusDays(1)) {
+                UserBitmap bitmap = bitmap(day, step);
+                if (bitmap != null) {
+                    stepUsers.or(bitmap);
+                }
+            }
+            remaining = remaining == null ? stepUsers : remaining.and(stepUsers);
+            long users = remaining.cardinality();
+            result.add(FunnelStepDTO.builder()
+                    .step(step)
+                    .users(users)
+                    .conversionRate(result.isEmpty() ? 1.0 : previous > 0 ? (double) users / previous : 0.0)
+                    .build());
+            previous = users;
+        }
+        return result;
+    }
+
+    /**
+     * Stored bitmap of a day merged with the live one (a copy, safe to modify)
+     */
+    private UserBitmap bitmap(LocalDate day, String activityType) {
+        BitmapKey key = new BitmapKey(day, activityType);
+        UserBitmap stored = cache().get(key, () -> loadStored(key));
+        UserBitmap current = live.get(key);
+        if (stored == null && current == null) {
+            return null;
+        }
+        UserBitmap result = current != null ? current.copy() : new UserBitmap();
+        return stored != null ? result.or(stored) : result;
+    }
+
+    private Map<LocalDate, UserBitmap> signups(LocalDate from, LocalDate to, String platform, String appVersion) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, CAST(created_at AS date) FROM app_users WHERE created_at >= ? AND created_at < ?");
+        List<Object> args = new ArrayList<>(List.of(
+                Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay())));
+        if (platform != null) {
+            sql.append(" AND platform = ?");
+            args.add(platform.toUpperCase());
+        }
+        if (appVersion != null) {
+            sql.append(" AND app_version = ?");
+            args.add(appVersion);
+        }
+        Map<LocalDate, UserBitmap> byDay = new TreeMap<>();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            byDay.computeIfAbsent(rs.getDate(2).toLocalDate(), d -> new UserBitmap()).add(rs.getLong(1));
+        }, args.toArray());
+        return byDay;
+    }
+
+    private LocalDate clampFrom(LocalDate from) {
+        LocalDate oldest = LocalDate.now().minusDays(retentionDays);
+        return from.isBefore(oldest) ? oldest : from;
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(CACHE_NAME);
+    }
+}
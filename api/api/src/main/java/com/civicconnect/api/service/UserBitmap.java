@@ -0,0 +1,312 @@
+package com.civicconnect.api.service;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compressed bitmap of user ids in the style of Roaring bitmaps.
+ *
+ * Ids (unsigned 32-bit) are split by their high 16 bits into containers. A container holding up
+ * to 4096 ids is a sorted char array (2 bytes per id); a fuller one is a 65536-bit bitmap (8 KB),
+ * so both sparse days and days where most users were active stay compact.
+ *
+ * add and copy are synchronized so a live bitmap can be fed from several threads; the set
+ * operations (and, or, andCardinality) are meant for unshared copies.
+ */
+public final class UserBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1024;
+    private static final long MAX_ID = 0xFFFFFFFFL;
+
+    private static final byte ARRAY = 0;
+    private static final byte BITMAP = 1;
+
+    private final TreeMap<Character, Container> containers = new TreeMap<>();
+
+    /**
+     * Add an id; ids outside 0..2^32-1 are ignored
+     */
+    public synchronized void add(long id) {
+        if (id < 0 || id > MAX_ID) {
+            return;
+        }
+        containers.computeIfAbsent(high(id), key -> Container.array()).add(low(id));
+    }
+
+    public synchronized boolean contains(long id) {
+        if (id < 0 || id > MAX_ID) {
+            return false;
+        }
+        Container container = containers.get(high(id));
+        return container != null && container.contains(low(id));
+    }
+
+    public synchronized long cardinality() {
+        long total = 0;
+        for (Container container : containers.values()) {
+            total += container.cardinality;
+        }
+        return total;
+    }
+
+    public synchronized UserBitmap copy() {
+        UserBitmap copy = new UserBitmap();
+        containers.forEach((key, container) -> copy.containers.put(key, container.copy()));
+        return copy;
+    }
+
+    /**
+     * Ids present in both bitmaps (new bitmap)
+     */
+    public UserBitmap and(UserBitmap other) {
+        UserBitmap result = new UserBitmap();
+        for (Map.Entry<Character, Container> entry : containers.entrySet()) {
+            Container theirs = other.containers.get(entry.getKey());
+            if (theirs != null) {
+                Container both = entry.getValue().and(theirs);
+                if (both.cardinality > 0) {
+                    result.containers.put(entry.getKey(), both);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Size of the intersection without building it
+     */
+    public long andCardinality(UserBitmap other) {
+        long total = 0;
+        for (Map.Entry<Character, Container> entry : containers.entrySet()) {
+            Container theirs = other.containers.get(entry.getKey());
+            if (theirs != null) {
+                total += entry.getValue().andCardinality(theirs);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Add every id of another bitmap to this one
+     */
+    public UserBitmap or(UserBitmap other) {
+        other.containers.forEach((key, theirs) -> {
+            Container mine = containers.get(key);
+            containers.put(key, mine != null ? mine.or(theirs) : theirs.copy());
+        });
+        return this;
+    }
+
+    public synchronized byte[] toBytes() {
+        int size = 4;
+        for (Container container : containers.values()) {
+            size += 2 + 1 + 4 + container.serializedSize();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(containers.size());
+        containers.forEach((key, container) -> {
+            buffer.putChar(key);
+            container.writeTo(buffer);
+        });
+        return buffer.array();
+    }
+
+    public static UserBitmap fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        UserBitmap bitmap = new UserBitmap();
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            char key = buffer.getChar();
+            bitmap.containers.put(key, Container.readFrom(buffer));
+        }
+        return bitmap;
+    }
+
+    private static char high(long id) {
+        return (char) (id >>> 16);
+    }
+
+    private static char low(long id) {
+        return (char) id;
+    }
+
+    /**
+     * The ids sharing one high half: a sorted array while small, a bitmap once full
+     */
+    private static final class Container {
+
+        private char[] values;
+        private long[] words;
+        private int cardinality;
+
+        static Container array() {
+            Container container = new Container();
+            container.values = new char[4];
+            return container;
+        }
+
+        static Container bitmap() {
+            Container container = new Container();
+            container.words = new long[BITMAP_WORDS];
+            return container;
+        }
+
+        boolean isBitmap() {
+            return words != null;
+        }
+
+        void add(char value) {
+            if (isBitmap()) {
+                long before = words[value >>> 6];
+                words[value >>> 6] = before | (1L << value);
+                if (before != words[value >>> 6]) cardinality++;
+                return;
+            }
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                return;
+            }
+            if (cardinality == ARRAY_MAX) {
+                toBitmap();
+                add(value);
+                return;
+            }
+            int insertAt = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, values.length * 2));
+            }
+            System.arraycopy(values, insertAt, values, insertAt + 1, cardinality - insertAt);
+            values[insertAt] = value;
+            cardinality++;
+        }
+
+        boolean contains(char value) {
+            if (isBitmap()) {
+                return (words[value >>> 6] & (1L << value)) != 0;
+            }
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        Container and(Container other) {
+            if (isBitmap() && other.isBitmap()) {
+                Container result = bitmap();
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    result.words[i] = words[i] & other.words[i];
+                    result.cardinality += Long.bitCount(result.words[i]);
+                }
+                return result.cardinality <= ARRAY_MAX ? result.toArrayContainer() : result;
+            }
+            Container small = isBitmap() ? other : this;
+            Container large = isBitmap() ? this : other;
+            Container result = array();
+            result.values = new char[Math.max(4, small.cardinality)];
+            for (int i = 0; i < small.cardinality; i++) {
+                if (large.contains(small.values[i])) {
+                    result.values[result.cardinality++] = small.values[i];
+                }
+            }
+            return result;
+        }
+
+        long andCardinality(Container other) {
+            if (isBitmap() && other.isBitmap()) {
+                long total = 0;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    total += Long.bitCount(words[i] & other.words[i]);
+                }
+                return total;
+            }
+            Container small = isBitmap() ? other : this;
+            Container large = isBitmap() ? this : other;
+            long total = 0;
+            for (int i = 0; i < small.cardinality; i++) {
+                if (large.contains(small.values[i])) total++;
+            }
+            return total;
+        }
+
+        Container or(Container other) {
+            Container result = copy();
+            if (other.isBitmap()) {
+                if (!result.isBitmap()) result.toBitmap();
+                result.cardinality = 0;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    result.words[i] |= other.words[i];
+                    result.cardinality += Long.bitCount(result.words[i]);
+                }
+                return result;
+            }
+            for (int i = 0; i < other.cardinality; i++) {
+                result.add(other.values[i]);
+            }
+            return result;
+        }
+
+        Container copy() {
+            Container copy = new Container();
+            copy.cardinality = cardinality;
+            if (isBitmap()) {
+                copy.words = words.clone();
+            } else {
+                copy.values = Arrays.copyOf(values, Math.max(4, cardinality));
+            }
+            return copy;
+        }
+
+        private void toBitmap() {
+            long[] bits = new long[BITMAP_WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                bits[values[i] >>> 6] |= 1L << values[i];
+            }
+            words = bits;
+            values = null;
+        }
+
+        private Container toArrayContainer() {
+            Container result = array();
+            result.values = new char[Math.max(4, cardinality)];
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    int bit = Long.numberOfTrailingZeros(word);
+                    result.values[result.cardinality++] = (char) (i * 64 + bit);
+                    word &= word - 1;
+                }
+            }
+            return result;
+        }
+
+        int serializedSize() {
+            return isBitmap() ? BITMAP_WORDS * 8 : cardinality * 2;
+        }
+
+        void writeTo(ByteBuffer buffer) {
+            buffer.put(isBitmap() ? BITMAP : ARRAY);
+            buffer.putInt(cardinality);
+            if (isBitmap()) {
+                for (long word : words) buffer.putLong(word);
+            } else {
+                for (int i = 0; i < cardinality; i++) buffer.putChar(values[i]);
+            }
+        }
+
+        static Container readFrom(ByteBuffer buffer) {
+            byte type = buffer.get();
+            int cardinality = buffer.getInt();
+            Container container;
+            if (type == BITMAP) {
+                container = bitmap();
+                for (int i = 0; i < BITMAP_WORDS; i++) container.words[i] = buffer.getLong();
+            } else {
+                container = array();
+                container.values = new char[Math.max(4, cardinality)];
+                for (int i = 0; i < cardinality; i++) container.values[i] = buffer.getChar();
+            }
+            container.cardinality = cardinality;
+            return container;
+        }
+    }
+}
@@ -3,19 +3,85 @@ package com.civicconnect.api.service;
 import com.civicconnect.api.dto.analytics.AnalyticsDTOs.*;
 import com.civicconnect.api.entity.analytics.ActivityLog;
 import com.civicconnect.api.entity.analytics.AppUser;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Live feeds for the admin dashboard (clients connect to /ws/admin).
+ *
+ * Topics:
+ *   /topic/activities   - ActivityBatch: activities of one window (activity-window-ms) in a single frame
+ *   /topic/user-status  - PresenceDiff: users that came online / went offline during presence-window-ms
+ *   /topic/active-count - active session count (AnalyticsScheduler)
+ *
+ * Request threads only append to in-memory buffers; a dedicated "admin-feed" thread sends the frames.
+ * At most max-activities-per-frame activities are buffered per window, the rest are counted in
+ * ActivityBatch.dropped. Presence changes are coalesced per user and resolved against the session
+ * registry when the window closes, so a user flapping within a window yields at most one entry.
+ * Slow admin browsers are cut off by the per-session send buffer limits in WebSocketConfig.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class WebSocketEventService {
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final SessionRegistry sessionRegistry;
+
+    @Value("${admin-feed.activity-window-ms:250}")
+    private long activityWindowMs;
+
+    @Value("${admin-feed.presence-window-ms:1000}")
+    private long presenceWindowMs;
+
+    @Value("${admin-feed.max-activities-per-frame:200}")
+    private int maxActivitiesPerFrame;
+
+    private final Queue<ActivityUpdate> pendingActivities = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingActivityCount = new AtomicInteger();
+    private final AtomicLong droppedActivities = new AtomicLong();
+
+    // Latest known summary of each user whose presence may have changed since the last diff
+    private final Map<Long, UserStatusUpdate> pendingPresence = new ConcurrentHashMap<>();
+    // Users last published as online; only touched by the feed thread
+    private final Set<Long> publishedOnline = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService feedExecutor;
+
+    @PostConstruct
+    void start() {
+        feedExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "admin-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        feedExecutor.scheduleAtFixedRate(this::flushActivities, activityWindowMs, activityWindowMs, TimeUnit.MILLISECONDS);
+        feedExecutor.scheduleAtFixedRate(this::flushPresence, presenceWindowMs, presenceWindowMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        feedExecutor.shutdownNow();
+    }
 
     public void notifyUserOnline(AppUser user) {
         UserStatusUpdate update = UserStatusUpdate.builder()
@@ -23,42 +89,110 @@ public class WebSocketEventService {
                 .email(user.getEmail())
                 .name(user.getName())
                 .photoUrl(user.getPhotoUrl())
-                .isActive(true)
-                .timestamp(LocalDateTime.now())
                 .build();
-
-        messagingTemplate.convertAndSend("/topic/user-status", update);
-        log.debug("Notified: User {} came online", user.getEmail());
+        TransactionHooks.afterCommit(() -> pendingPresence.put(update.getUserId(), update));
     }
 
-    public void notifyUserOffline(AppUser user) {
+    public void notifyUserOffline(SessionTokenCache.SessionContext session) {
         UserStatusUpdate update = UserStatusUpdate.builder()
-                .userId(user.getId())
-                .email(user.getEmail())
-                .name(user.getName())
-                .photoUrl(user.getPhotoUrl())
-                .isActive(false)
-                .timestamp(LocalDateTime.now())
+                .userId(session.userId())
+                .email(session.email())
+                .name(session.name())
+                .photoUrl(session.photoUrl())
                 .build();
+        TransactionHooks.afterCommit(() -> pendingPresence.put(update.getUserId(), update));
+    }
 
-        messagingTemplate.convertAndSend("/topic/user-status", update);
-        log.debug("Notified: User {} went offline", user.getEmail());
+    /**
+     * Presence of a user may have changed without a summary at hand (session expiry, force logout)
+     */
+    public void notifyPresenceChanged(Long userId) {
+        TransactionHooks.afterCommit(() ->
+                pendingPresence.putIfAbsent(userId, UserStatusUpdate.builder().userId(userId).build()));
     }
 
-    public void notifyNewActivity(AppUser user, ActivityLog.ActivityType type, String activityName) {
-        ActivityUpdate update = ActivityUpdate.builder()
-                .userId(user.getId())
-                .userName(user.getName())
-                .userPhotoUrl(user.getPhotoUrl())
+    public void notifyNewActivity(SessionTokenCache.SessionContext session, ActivityLog.ActivityType type,
+                                  String activityName) {
+        if (pendingActivityCount.incrementAndGet() > maxActivitiesPerFrame) {
+            pendingActivityCount.decrementAndGet();
+            droppedActivities.incrementAndGet();
+            return;
+        }
+        pendingActivities.add(ActivityUpdate.builder()
+                .userId(session.userId())
+                .userName(session.name())
+                .userPhotoUrl(session.photoUrl())
                 .activityType(type.name())
                 .activityName(activityName)
                 .timestamp(LocalDateTime.now())
-                .build();
-
-        messagingTemplate.convertAndSend("/topic/activities", update);
+                .build());
     }
 
     public void broadcastActiveUserCount(long count) {
         messagingTemplate.convertAndSend("/topic/active-count", count);
     }
+
+    // ==================== Feed thread ====================
+
+    private void flushActivities() {
+        try {
+            List<ActivityUpdate> activities = new ArrayList<>();
+            ActivityUpdate update;
+            while ((update = pendingActivities.poll()) != null) {
+                pendingActivityCount.decrementAndGet();
+                activities.add(update);
+            }
+            long dropped = droppedActivities.getAndSet(0);
+            if (activities.isEmpty() && dropped == 0) {
+                return;
+            }
+            messagingTemplate.convertAndSend("/topic/activities", ActivityBatch.builder()
+                    .activities(activities)
+                    .dropped(dropped)
+                    .timestamp(LocalDateTime.now())
+                    .build());
+        } catch (Exception e) {
+            log.warn("Failed to push activity batch: {}", e.getMessage());
+        }
+    }
+
+    private void flushPresence() {
+        try {
+            if (pendingPresence.isEmpty()) {
+                return;
+            }
+            List<UserStatusUpdate> online = new ArrayList<>();
+            List<UserStatusUpdate> offline = new ArrayList<>();
+            LocalDateTime now = LocalDateTime.now();
+            for (Long userId : pendingPresence.keySet()) {
+                UserStatusUpdate update = pendingPresence.remove(userId);
+                if (update == null) {
+                    continue;
+                }
+                // The registry is the source of truth at the end of the window
+                boolean isActive = sessionRegistry.hasActiveSession(userId);
+                if (isActive && !publishedOnline.add(userId)) {
+                    continue;
+                }
+                if (!isActive) {
+                    publishedOnline.remove(userId);
+                }
+                update.setIsActive(isActive);
+                update.setTimestamp(now);
+                (isActive ? online : offline).add(update);
+            }
+            if (online.isEmpty() && offline.isEmpty()) {
+                return;
+            }
+            messagingTemplate.convertAndSend("/topic/user-status", PresenceDiff.builder()
+                    .online(online)
+                    .offline(offline)
+                    .activeUsers(sessionRegistry.countActiveUsers())
+                    .timestamp(now)
+                    .build());
+            log.debug("Presence diff: {} online, {} offline", online.size(), offline.size());
+        } catch (Exception e) {
+            log.warn("Failed to push presence diff: {}", e.getMessage());
+        }
+    }
 }
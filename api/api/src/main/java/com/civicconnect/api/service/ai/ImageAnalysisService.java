@@ -3,6 +3,7 @@ package com.civicconnect.api.service.ai;
 import com.civicconnect.api.config.GcpConfig;
 import com.civicconnect.api.dto.IssueAnalysisResponse;
 import com.civicconnect.api.entity.Issue;
+import com.civicconnect.api.entity.IssueImage;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloud.vertexai.VertexAI;
 import com.google.cloud.vertexai.api.Content;
@@ -24,6 +25,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -38,6 +40,7 @@ import java.util.stream.Collectors;
 public class ImageAnalysisService {
 
     private final GcpConfig gcpConfig;
+    private final ImageHashService imageHashService;
 
     @Value("${file.upload-dir:uploads}")
     private String uploadDir;
@@ -126,8 +129,35 @@ public class ImageAnalysisService {
                 return IssueAnalysisResponse.failure("Failed to load image");
             }
 
+            // Near-identical photo of the same scene already analyzed? Reuse it instead of calling Gemini.
+            // Only without a voice description, since the citizen's own words shape the complaint text.
+            boolean imageOnly = voiceTranscription == null || voiceTranscription.isBlank();
+            Long imageHash = imageHashService.computeHash(imageBytes);
+            if (imageOnly) {
+                Optional<IssueImage> previous = imageHashService.findReusableAnalysis(imageHash, latitude, longitude);
+                if (previous.isPresent()) {
+                    IssueImage cached = previous.get();
+                    log.info("Reusing analysis of near-duplicate image {} (analyzed at {})",
+                            cached.getImageUrl(), cached.getAnalyzedAt());
+                    return IssueAnalysisResponse.success(
+                            cached.getAnalysisTitle(),
+                            cached.getAnalysisDescription(),
+                            cached.getAnalysisCategory(),
+                            cached.getAnalysisPriority(),
+                            null,
+                            cached.getAnalysisConfidence()
+                    );
+                }
+            }
+
             String mimeType = detectMimeType(imageUrl);
-            return analyzeWithGemini(imageBytes, mimeType, voiceTranscription, locationName, latitude, longitude);
+            IssueAnalysisResponse response = analyzeWithGemini(imageBytes, mimeType, voiceTranscription,
+                    locationName, latitude, longitude);
+
+            if (imageOnly) {
+                imageHashService.recordAnalysis(imageUrl, imageHash, imageBytes.length, latitude, longitude, response);
+            }
+            return response;
 
         } catch (Exception e) {
             log.error("Image analysis failed: {}", e.getMessage(), e);
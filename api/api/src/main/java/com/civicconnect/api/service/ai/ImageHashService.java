@@ -0,0 +1,330 @@
+package com.civicconnect.api.service.ai;
+
+import com.civicconnect.api.dto.IssueAnalysisResponse;
+import com.civicconnect.api.entity.IssueImage;
+import com.civicconnect.api.repository.IssueImageRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Perceptual hashing for issue photos.
+ * Computes a 64-bit dHash at upload time and keeps every hash in an in-memory
+ * BK-tree so near-identical photos can be found by Hamming distance without a table scan.
+ * Used to flag duplicate issues and to reuse Gemini analysis for re-uploaded scenes.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ImageHashService {
+
+    // dHash compares each pixel with its right neighbour on a 9x8 grayscale thumbnail
+    private static final int HASH_WIDTH = 9;
+    private static final int HASH_HEIGHT = 8;
+
+    // Without GPS on both sides we only trust (almost) byte-identical re-uploads
+    private static final int UNLOCATED_MAX_DISTANCE = 2;
+
+    private final IssueImageRepository issueImageRepository;
+
+    @Value("${image-hash.max-distance:8}")
+    private int maxDistance;
+
+    @Value("${image-hash.radius-meters:150}")
+    private double radiusMeters;
+
+    private final BkTree tree = new BkTree();
+
+    @PostConstruct
+    public void init() {
+        List<Object[]> hashes = issueImageRepository.findAllHashes();
+        for (Object[] row : hashes) {
+            tree.add(((Number) row[1]).longValue(), ((Number) row[0]).longValue());
+        }
+        log.info("Image hash index loaded with {} photos", hashes.size());
+    }
+
+    /**
+     * Hash a freshly uploaded issue photo and store its file record.
+     * Returns empty if the image format cannot be decoded by ImageIO (e.g. HEIC).
+     */
+    public Optional<IssueImage> indexUpload(String imageUrl, MultipartFile file) {
+        try (InputStream in = file.getInputStream()) {
+            Long hash = computeHash(in);
+            if (hash == null) {
+                log.debug("Skipping perceptual hash for undecodable image: {}", imageUrl);
+                return Optional.empty();
+            }
+
+            IssueImage image = issueImageRepository.save(IssueImage.builder()
+                    .imageUrl(imageUrl)
+                    .perceptualHash(hash)
+                    .fileSize(file.getSize())
+                    .build());
+            tree.add(hash, image.getId());
+
+            log.debug("Indexed image {} with hash {}", imageUrl, Long.toHexString(hash));
+            return Optional.of(image);
+        } catch (Exception e) {
+            log.warn("Failed to hash uploaded image {}: {}", imageUrl, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Find a previously analyzed photo of the same scene whose analysis can be reused
+     */
+    public Optional<IssueImage> findReusableAnalysis(Long hash, Double latitude, Double longitude) {
+        if (hash == null) {
+            return Optional.empty();
+        }
+        return findNearDuplicates(hash, latitude, longitude).stream()
+                .filter(IssueImage::hasAnalysis)
+                .findFirst();
+    }
+
+    /**
+     * Remember a successful Gemini analysis against the photo's file record
+     */
+    public void recordAnalysis(String imageUrl, Long hash, long fileSize, Double latitude, Double longitude,
+                               IssueAnalysisResponse analysis) {
+        if (analysis == null || !analysis.isSuccess()) {
+            return;
+        }
+
+        try {
+            IssueImage image = issueImageRepository.findByImageUrl(imageUrl).orElse(null);
+            if (image == null) {
+                if (hash == null) {
+                    return;
+                }
+                image = IssueImage.builder()
+                        .imageUrl(imageUrl)
+                        .perceptualHash(hash)
+                        .fileSize(fileSize)
+                        .build();
+            }
+
+            if (!image.hasLocation() && latitude != null && longitude != null) {
+                image.setLatitude(latitude);
+                image.setLongitude(longitude);
+            }
+            image.setAnalysisTitle(analysis.getSuggestedTitle());
+            image.setAnalysisDescription(analysis.getSuggestedDescription());
+            image.setAnalysisCategory(analysis.getSuggestedCategory());
+            image.setAnalysisPriority(analysis.getSuggestedPriority());
+            image.setAnalysisConfidence(analysis.getConfidence());
+            image.setAnalyzedAt(LocalDateTime.now());
+
+            boolean isNew = image.getId() == null;
+            image = issueImageRepository.save(image);
+            if (isNew) {
+                tree.add(image.getPerceptualHash(), image.getId());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to record analysis for image {}: {}", imageUrl, e.getMessage());
+        }
+    }
+
+    /**
+     * Link an uploaded photo to the issue being created.
+     * Returns the ID of an existing issue with a near-identical photo at the same location, if any.
+     */
+    public Optional<Long> attachToIssue(String imageUrl, Long issueId, Double latitude, Double longitude) {
+        if (imageUrl == null) {
+            return Optional.empty();
+        }
+
+        Optional<IssueImage> imageOpt = issueImageRepository.findByImageUrl(imageUrl);
+        if (imageOpt.isEmpty()) {
+            return Optional.empty();
+        }
+
+        IssueImage image = imageOpt.get();
+        image.setIssueId(issueId);
+        if (latitude != null && longitude != null) {
+            image.setLatitude(latitude);
+            image.setLongitude(longitude);
+        }
+        issueImageRepository.save(image);
+
+        return findNearDuplicates(image.getPerceptualHash(), latitude, longitude).stream()
+                .filter(candidate -> !candidate.getId().equals(image.getId()))
+                .map(IssueImage::getIssueId)
+                .filter(Objects::nonNull)
+                .filter(id -> !id.equals(issueId))
+                .min(Long::compare);
+    }
+
+    /**
+     * Find stored photos within the configured Hamming distance that were taken near the given location.
+     * Results are ordered by Hamming distance (closest first).
+     */
+    public List<IssueImage> findNearDuplicates(long hash, Double latitude, Double longitude) {
+        Map<Long, Integer> matches = tree.search(hash, maxDistance);
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+
+        boolean hasLocation = latitude != null && longitude != null;
+        return issueImageRepository.findAllById(matches.keySet()).stream()
+                .filter(image -> {
+                    int distance = matches.get(image.getId());
+                    if (hasLocation && image.hasLocation()) {
+                        return distanceMeters(latitude, longitude, image.getLatitude(), image.getLongitude()) <= radiusMeters;
+                    }
+                    return distance <= UNLOCATED_MAX_DISTANCE;
+                })
+                .sorted(Comparator.comparingInt(image -> matches.get(image.getId())))
+                .toList();
+    }
+
+    /**
+     * Compute a 64-bit difference hash (dHash) of an image
+     */
+    public Long computeHash(byte[] imageBytes) {
+        if (imageBytes == null || imageBytes.length == 0) {
+            return null;
+        }
+        try {
+            return computeHash(new ByteArrayInputStream(imageBytes));
+        } catch (IOException e) {
+            log.debug("Could not decode image for hashing: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private Long computeHash(InputStream in) throws IOException {
+        BufferedImage source = ImageIO.read(in);
+        if (source == null) {
+            return null;
+        }
+
+        BufferedImage thumbnail = new BufferedImage(HASH_WIDTH, HASH_HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = thumbnail.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(source, 0, 0, HASH_WIDTH, HASH_HEIGHT, null);
+        } finally {
+            g.dispose();
+        }
+
+        long hash = 0L;
+        for (int y = 0; y < HASH_HEIGHT; y++) {
+            for (int x = 0; x < HASH_WIDTH - 1; x++) {
+                int left = thumbnail.getRaster().getSample(x, y, 0);
+                int right = thumbnail.getRaster().getSample(x + 1, y, 0);
+                hash = (hash << 1) | (left > right ? 1L : 0L);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Great-circle distance in meters (haversine)
+     */
+    private double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 6_371_000 * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    /**
+     * BK-tree over 64-bit hashes using Hamming distance as the metric.
+     * Each node keeps the IDs of all photos sharing its exact hash.
+     */
+    static class BkTree {
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private Node root;
+
+        void add(long hash, long imageId) {
+            lock.writeLock().lock();
+            try {
+                if (root == null) {
+                    root = new Node(hash, imageId);
+                    return;
+                }
+                Node node = root;
+                while (true) {
+                    int distance = Long.bitCount(node.hash ^ hash);
+                    if (distance == 0) {
+                        node.imageIds.add(imageId);
+                        return;
+                    }
+                    Node child = node.children.get(distance);
+                    if (child == null) {
+                        node.children.put(distance, new Node(hash, imageId));
+                        return;
+                    }
+                    node = child;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Returns image ID → Hamming distance for every photo within maxDistance of the hash
+         */
+        Map<Long, Integer> search(long hash, int maxDistance) {
+            Map<Long, Integer> results = new HashMap<>();
+            lock.readLock().lock();
+            try {
+                if (root == null) {
+                    return results;
+                }
+                Deque<Node> stack = new ArrayDeque<>();
+                stack.push(root);
+                while (!stack.isEmpty()) {
+                    Node node = stack.pop();
+                    int distance = Long.bitCount(node.hash ^ hash);
+                    if (distance <= maxDistance) {
+                        for (Long id : node.imageIds) {
+                            results.put(id, distance);
+                        }
+                    }
+                    // Triangle inequality: only subtrees at distance within [d - k, d + k] can match
+                    for (Map.Entry<Integer, Node> entry : node.children.entrySet()) {
+                        int edge = entry.getKey();
+                        if (edge >= distance - maxDistance && edge <= distance + maxDistance) {
+                            stack.push(entry.getValue());
+                        }
+                    }
+                }
+                return results;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private static class Node {
+            private final long hash;
+            private final List<Long> imageIds = new ArrayList<>(1);
+            private final Map<Integer, Node> children = new HashMap<>();
+
+            Node(long hash, long imageId) {
+                this.hash = hash;
+                this.imageIds.add(imageId);
+            }
+        }
+    }
+}
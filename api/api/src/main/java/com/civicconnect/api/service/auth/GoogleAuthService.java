@@ -3,6 +3,7 @@ package com.civicconnect.api.service.auth;
 import com.civicconnect.api.dto.auth.AuthDTOs.*;
 import com.civicconnect.api.entity.analytics.AppUser;
 import com.civicconnect.api.repository.analytics.AppUserRepository;
+import com.civicconnect.api.service.GovMapCacheService;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken.Payload;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
@@ -25,6 +26,7 @@ import java.util.UUID;
 public class GoogleAuthService {
 
     private final AppUserRepository appUserRepository;
+    private final GovMapCacheService govMapCache;
 
     @Value("${google.client-id:135755435543-h985hivmurvo17rrkatsat61i5cpi207.apps.googleusercontent.com}")
     private String googleClientId;
@@ -71,6 +73,7 @@ public class GoogleAuthService {
             user.setPhotoUrl(picture);
             user.setLastLoginAt(LocalDateTime.now());
             appUserRepository.save(user);
+            govMapCache.evictUser(user.getId());
 
             // Generate a simple JWT-like token (for demo - in production use proper JWT)
             String accessToken = generateSimpleToken(user);
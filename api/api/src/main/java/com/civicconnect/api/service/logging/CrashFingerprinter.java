@@ -0,0 +1,212 @@
+package com.civicconnect.api.service.logging;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reduces a crash to a stable fingerprint so repeated copies of the same crash share one group.
+ *
+ * The stack trace (Java/Android or JavaScript) is split into its exception chain; messages, line
+ * numbers, file names, lambda/synthetic suffixes and addresses are dropped, as are framework frames
+ * (JDK, Android, Kotlin, React, bundler runtime...) and obfuscated frames (R8/ProGuard or minified
+ * names). Each exception keeps its type and up to MAX_FRAMES remaining frames; the fingerprint is the
+ * SHA-256 of the source and that normalized trace.
+ */
+public final class CrashFingerprinter {
+
+    private static final int MAX_FRAMES = 5;
+    private static final int FALLBACK_FRAMES = 3;
+    private static final int MAX_TITLE_LENGTH = 500;
+
+    // at com.foo.Bar.baz(Bar.java:12) / at java.base/java.lang.Thread.run(Thread.java:833)
+    private static final Pattern JAVA_FRAME = Pattern.compile("^at\\s+(?:[\\w.]+/)?([\\w$.<>/]+)\\(.*\\)$");
+    // at doThing (https://host/static/js/main.1a2b3c.js:1:2345) / at https://host/app.js:10:5
+    private static final Pattern V8_FRAME = Pattern.compile("^at\\s+(?:async\\s+)?(?:((?:new\\s+)?\\S+)\\s+\\()?(.*?)\\)?$");
+    // doThing@https://host/app.js:10:5
+    private static final Pattern GECKO_FRAME = Pattern.compile("^([^@\\s]*)@(.+)$");
+    // java.lang.IllegalStateException: message / Caused by: ... / TypeError: message
+    private static final Pattern HEADER = Pattern.compile(
+            "^(?:Caused by:\\s*|Uncaught\\s+)?([A-Za-z_$][\\w$]*(?:\\.[A-Za-z_$][\\w$]*)*)(?::\\s*(.*))?$");
+    private static final Pattern LAMBDA = Pattern.compile("\\$\\$Lambda[\\w$]*(?:/0x[0-9a-f]+)?|lambda\\$(\\w+)\\$\\d+");
+    private static final Pattern HEX = Pattern.compile("0x[0-9a-fA-F]+|@[0-9a-f]{6,}");
+    private static final Pattern VARIABLE_TEXT = Pattern.compile("'[^']*'|\"[^\"]*\"|\\d+");
+
+    private static final List<String> FRAMEWORK_PREFIXES = List.of(
+            "java.", "javax.", "jdk.", "sun.", "com.sun.", "kotlin.", "kotlinx.", "dalvik.", "libcore.",
+            "android.", "androidx.", "com.android.", "com.google.android.", "org.chromium.", "okhttp3.",
+            "okio.", "retrofit2.", "io.reactivex.", "org.jetbrains.", "org.springframework.", "org.apache.",
+            "react-dom", "react.", "scheduler.", "webpack", "__webpack", "node_modules", "Object.", "Array.",
+            "Promise.", "new Promise", "<anonymous>");
+
+    private CrashFingerprinter() {
+    }
+
+    /**
+     * hash: SHA-256 hex; title: the first exception line as reported, for display
+     */
+    public record Fingerprint(String hash, String exceptionType, String title, String normalizedTrace) {
+    }
+
+    public static Fingerprint fingerprint(String source, String stackTrace, String message) {
+        List<Segment> segments = stackTrace != null ? parse(stackTrace) : List.of();
+        String normalized;
+        String exceptionType;
+        String title;
+        if (segments.isEmpty()) {
+            // No usable trace: group by the message with its variable parts removed
+            exceptionType = "unknown";
+            title = message;
+            normalized = "unknown: " + normalizeText(message);
+        } else {
+            exceptionType = segments.get(segments.size() - 1).type;
+            title = segments.get(0).header;
+            StringBuilder trace = new StringBuilder();
+            for (Segment segment : segments) {
+                if (!trace.isEmpty()) trace.append("\ncaused by ");
+                trace.append(segment.type);
+                for (String frame : segment.significantFrames()) {
+                    trace.append("\n  at ").append(frame);
+                }
+            }
+            normalized = trace.toString();
+        }
+        String hash = sha256((source != null ? source.toLowerCase() : "") + "|" + normalized);
+        return new Fingerprint(hash, truncate(exceptionType, 255), truncate(title, MAX_TITLE_LENGTH), normalized);
+    }
+
+    private static List<Segment> parse(String stackTrace) {
+        List<Segment> segments = new ArrayList<>();
+        Segment current = null;
+        for (String rawLine : stackTrace.split("\\R")) {
+            String line = rawLine.trim();
+            if (line.isEmpty() || (line.startsWith("...") && line.endsWith("more"))) {
+                continue;
+            }
+            String frame = frameSymbol(line);
+            if (frame != null) {
+                if (current == null) {
+                    current = new Segment("unknown", "unknown");
+                    segments.add(current);
+                }
+                current.frames.add(frame);
+                continue;
+            }
+            Matcher header = HEADER.matcher(line);
+            if (header.matches() && looksLikeExceptionType(header.group(1))) {
+                current = new Segment(header.group(1), line);
+                segments.add(current);
+            }
+            // Anything else is a continuation of an exception message
+        }
+        return segments;
+    }
+
+    /**
+     * Normalized class.method / function of a frame line, or null when the line is not a frame
+     */
+    private static String frameSymbol(String line) {
+        Matcher java = JAVA_FRAME.matcher(line);
+        if (java.matches()) {
+            return normalizeSymbol(java.group(1));
+        }
+        if (line.startsWith("at ")) {
+            Matcher v8 = V8_FRAME.matcher(line);
+            if (v8.matches()) {
+                return v8.group(1) != null ? normalizeSymbol(v8.group(1)) : "<anonymous>";
+            }
+        }
+        Matcher gecko = GECKO_FRAME.matcher(line);
+        if (gecko.matches() && gecko.group(2).contains(":")) {
+            return gecko.group(1).isEmpty() ? "<anonymous>" : normalizeSymbol(gecko.group(1));
+        }
+        return null;
+    }
+
+    private static String normalizeSymbol(String symbol) {
+        String result = LAMBDA.matcher(symbol).replaceAll(match ->
+                match.group(1) != null ? "lambda\\$" + match.group(1) : "\\$\\$Lambda");
+        return HEX.matcher(result).replaceAll("");
+    }
+
+    private static boolean looksLikeExceptionType(String type) {
+        return type.contains(".") || type.endsWith("Error") || type.endsWith("Exception")
+                || type.endsWith("Throwable");
+    }
+
+    private static boolean isFramework(String frame) {
+        for (String prefix : FRAMEWORK_PREFIXES) {
+            if (frame.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * R8/ProGuard output (a.b.c.a) or minified JS (t, Qe.n): every name part is one or two characters
+     */
+    private static boolean isObfuscated(String frame) {
+        for (String part : frame.split("[.$]")) {
+            if (part.length() > 2) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String normalizeText(String text) {
+        if (text == null) return "";
+        return HEX.matcher(VARIABLE_TEXT.matcher(text).replaceAll("_")).replaceAll("_").trim();
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * One exception of the cause chain with its frames, top first
+     */
+    private static final class Segment {
+
+        private final String type;
+        private final String header;
+        private final List<String> frames = new ArrayList<>();
+
+        Segment(String type, String header) {
+            this.type = type;
+            this.header = header;
+        }
+
+        /**
+         * Application frames; when a crash is entirely inside framework code, its top frames
+         */
+        List<String> significantFrames() {
+            List<String> significant = new ArrayList<>(MAX_FRAMES);
+            for (String frame : frames) {
+                if (!isFramework(frame) && !isObfuscated(frame)) {
+                    significant.add(frame);
+                    if (significant.size() == MAX_FRAMES) break;
+                }
+            }
+            if (significant.isEmpty()) {
+                frames.stream().filter(frame -> !isObfuscated(frame)).limit(FALLBACK_FRAMES).forEach(significant::add);
+            }
+            return significant;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.civicconnect.api.service.logging;
+
+import com.civicconnect.api.dto.logging.ExternalLogRequest;
+import com.civicconnect.api.entity.logging.CrashGroup;
+import com.civicconnect.api.entity.logging.ExternalLog;
+import com.civicconnect.api.repository.logging.CrashGroupRepository;
+import com.civicconnect.api.repository.logging.ExternalLogRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts crash occurrences per fingerprint (CrashFingerprinter) into crash_groups.
+ *
+ * Occurrences are aggregated in memory (count, first/last seen, per-version and per-device counts)
+ * and added to the stored groups every flush with one batched upsert. Only the first
+ * samples-per-hour occurrences of a group each hour are kept as raw external_logs rows, so storage
+ * grows with the number of distinct crashes rather than with every copy of the same one.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CrashGroupService {
+
+    private static final String UPSERT_GROUP = "INSERT INTO crash_groups " +
+            "(fingerprint, source, exception_type, title, normalized_trace, occurrences, first_seen, last_seen, " +
+            "app_versions, device_models) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?::jsonb, ?::jsonb) " +
+            "ON CONFLICT (fingerprint) DO UPDATE SET " +
+            "occurrences = crash_groups.occurrences + EXCLUDED.occurrences, " +
+            "first_seen = LEAST(crash_groups.first_seen, EXCLUDED.first_seen), " +
+            "last_seen = GREATEST(crash_groups.last_seen, EXCLUDED.last_seen), " +
+            "app_versions = jsonb_add_counts(crash_groups.app_versions, EXCLUDED.app_versions), " +
+            "device_models = jsonb_add_counts(crash_groups.device_models, EXCLUDED.device_models)";
+
+    private static final String UNKNOWN = "unknown";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final CrashGroupRepository crashGroupRepository;
+    private final ExternalLogRepository externalLogRepository;
+
+    @Value("${log-ingestion.crash-groups.samples-per-hour:5}")
+    private int samplesPerHour;
+
+    @Value("${log-ingestion.crash-groups.retention-days:90}")
+    private int retentionDays;
+
+    private final Map<String, PendingGroup> pending = new ConcurrentHashMap<>();
+    private final Map<String, HourlySamples> samples = new ConcurrentHashMap<>();
+
+    /**
+     * Whether this occurrence should also be stored as a raw external_logs row
+     */
+    public boolean shouldSample(CrashFingerprinter.Fingerprint fingerprint, LocalDateTime at) {
+        LocalDateTime hour = at.truncatedTo(ChronoUnit.HOURS);
+        return samples.computeIfAbsent(fingerprint.hash(), k -> new HourlySamples()).take(hour, samplesPerHour);
+    }
+
+    /**
+     * Give back a sample slot taken by shouldSample whose occurrence was not stored after all
+     */
+    public void releaseSample(CrashFingerprinter.Fingerprint fingerprint, LocalDateTime at) {
+        HourlySamples hourly = samples.get(fingerprint.hash());
+        if (hourly != null) {
+            hourly.release(at.truncatedTo(ChronoUnit.HOURS));
+        }
+    }
+
+    /**
+     * Count one occurrence of a crash
+     */
+    public void record(CrashFingerprinter.Fingerprint fingerprint, ExternalLogRequest request, LocalDateTime at) {
+        String device = request.getDeviceModel() != null ? request.getDeviceModel() : request.getBrowserInfo();
+        // compute, not computeIfAbsent + add: a flush claiming the group cannot slip in between
+        pending.compute(fingerprint.hash(), (hash, group) -> {
+            PendingGroup target = group != null ? group : new PendingGroup(fingerprint, request.getSource());
+            target.add(at, request.getAppVersion(), device);
+            return target;
+        });
+    }
+
+    // ==================== Flush ====================
+
+    /**
+     * Add the pending occurrences to crash_groups in one batch
+     */
+    public int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        // Claim the pending groups; occurrences recorded meanwhile start new entries
+        Map<String, PendingGroup> claimed = new HashMap<>();
+        for (String hash : new ArrayList<>(pending.keySet())) {
+            PendingGroup group = pending.remove(hash);
+            if (group != null) {
+                claimed.put(hash, group);
+            }
+        }
+
+        List<Object[]> batch = new ArrayList<>(claimed.size());
+        try {
+            claimed.forEach((hash, group) -> batch.add(group.toRow(hash)));
+            jdbcTemplate.batchUpdate(UPSERT_GROUP, batch);
+        } catch (RuntimeException e) {
+            // Keep the counts for the next flush
+            claimed.forEach((hash, group) -> pending.merge(hash, group, PendingGroup::mergeFrom));
+            throw e;
+        }
+
+        LocalDateTime currentHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        samples.values().removeIf(hourly -> hourly.isBefore(currentHour));
+        log.debug("Flushed {} crash groups", batch.size());
+        return batch.size();
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Could not flush crash groups on shutdown: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Delete groups without an occurrence within retention
+     */
+    public int purgeStaleGroups() {
+        return jdbcTemplate.update("DELETE FROM crash_groups WHERE last_seen < ?",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays)));
+    }
+
+    // ==================== Queries ====================
+
+    /**
+     * Crash groups seen since a given time, most recent first
+     */
+    public List<CrashGroup> getRecentGroups(LocalDateTime since) {
+        return crashGroupRepository.findByLastSeenAfterOrderByLastSeenDesc(since);
+    }
+
+    /**
+     * Most recent sampled raw occurrences of a group
+     */
+    public List<ExternalLog> getSamples(String fingerprint) {
+        return externalLogRepository.findTop20ByCrashFingerprintOrderByCreatedAtDesc(fingerprint);
+    }
+
+    private String toJson(Map<String, Long> counts) {
+        try {
+            return objectMapper.writeValueAsString(counts);
+        } catch (JsonProcessingException e) {
+            return "{}";
+        }
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    /**
+     * Occurrences of one group since the last flush
+     */
+    private final class PendingGroup {
+
+        private final CrashFingerprinter.Fingerprint fingerprint;
+        private final String source;
+        private long occurrences;
+        private LocalDateTime firstSeen;
+        private LocalDateTime lastSeen;
+        private final Map<String, Long> appVersions = new HashMap<>();
+        private final Map<String, Long> deviceModels = new HashMap<>();
+
+        PendingGroup(CrashFingerprinter.Fingerprint fingerprint, String source) {
+            this.fingerprint = fingerprint;
+            this.source = source;
+        }
+
+        synchronized void add(LocalDateTime at, String appVersion, String deviceModel) {
+            occurrences++;
+            if (firstSeen == null || at.isBefore(firstSeen)) firstSeen = at;
+            if (lastSeen == null || at.isAfter(lastSeen)) lastSeen = at;
+            appVersions.merge(appVersion != null ? truncate(appVersion, 20) : UNKNOWN, 1L, Long::sum);
+            deviceModels.merge(deviceModel != null ? truncate(deviceModel, 100) : UNKNOWN, 1L, Long::sum);
+        }
+
+        synchronized PendingGroup mergeFrom(PendingGroup other) {
+            synchronized (other) {
+                occurrences += other.occurrences;
+                if (firstSeen == null || other.firstSeen.isBefore(firstSeen)) firstSeen = other.firstSeen;
+                if (lastSeen == null || other.lastSeen.isAfter(lastSeen)) lastSeen = other.lastSeen;
+                other.appVersions.forEach((key, count) -> appVersions.merge(key, count, Long::sum));
+                other.deviceModels.forEach((key, count) -> deviceModels.merge(key, count, Long::sum));
+            }
+            return this;
+        }
+
+        synchronized Object[] toRow(String hash) {
+            return new Object[]{hash, truncate(source, 20), fingerprint.exceptionType(), fingerprint.title(),
+                    fingerprint.normalizedTrace(), occurrences, Timestamp.valueOf(firstSeen),
+                    Timestamp.valueOf(lastSeen), toJson(appVersions), toJson(deviceModels)};
+        }
+    }
+
+    /**
+     * Raw occurrences kept for one group in the current hour
+     */
+    private static final class HourlySamples {
+
+        private LocalDateTime hour;
+        private int taken;
+
+        synchronized boolean take(LocalDateTime currentHour, int limit) {
+            if (!currentHour.equals(hour)) {
+                hour = currentHour;
+                taken = 0;
+            }
+            if (taken >= limit) {
+                return false;
+            }
+            taken++;
+            return true;
+        }
+
+        synchronized void release(LocalDateTime takenHour) {
+            // A slot taken in an hour that has since rolled over is already gone
+            if (takenHour.equals(hour) && taken > 0) {
+                taken--;
+            }
+        }
+
+        synchronized boolean isBefore(LocalDateTime currentHour) {
+            return hour == null || hour.isBefore(currentHour);
+        }
+    }
+}
@@ -1,87 +1,201 @@
 package com.civicconnect.api.service.logging;
 
+import com.civicconnect.api.dto.analytics.AnalyticsDTOs.TelemetryQueueStatsDTO;
 import com.civicconnect.api.dto.logging.ExternalLogRequest;
+import com.civicconnect.api.entity.logging.CrashGroup;
 import com.civicconnect.api.entity.logging.ExternalLog;
+import com.civicconnect.api.exception.IngestionBackpressureException;
 import com.civicconnect.api.repository.logging.ExternalLogRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Service for ingesting logs from external clients (Android, React Admin)
  * and forwarding them to Loki via the logging framework.
+ *
+ * Request threads only put entries on bounded in-memory lanes and return. Dedicated writer threads
+ * drain the lanes into external_logs with one multi-row INSERT per batch; the crash lane is always
+ * drained first and wakes a writer immediately. Loki emission runs on its own thread from a separate
+ * queue, so a slow Loki push never holds back persistence and a slow database never holds back Loki.
+ *
+ * When a lane cannot take a whole request, nothing is queued and IngestionBackpressureException
+ * tells the client (429 + Retry-After) to send it again later.
+ *
+ * Queued entries were already accepted (202), so a failed batch is retried row by row and only the
+ * rows that fail again are dropped. When the database cannot be reached at all, the entries go back
+ * on their lane and the writer backs off for one flush interval.
+ *
+ * Crashes are fingerprinted and counted into crash_groups (CrashGroupService); only sampled
+ * occurrences are stored and emitted in full, the others are emitted as a one-line reference.
  */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class LogIngestionService {
 
     // Dedicated logger for external logs - picked up by Loki appender
     private static final Logger externalLogger = LoggerFactory.getLogger("EXTERNAL");
 
+    private static final String LOG_INSERT = "INSERT INTO external_logs " +
+            "(source, level, message, logger, correlation_id, user_id, session_id, device_id, app_version, " +
+            "stack_trace, context, android_version, device_model, browser_info, page_url, client_timestamp, " +
+            "crash_fingerprint, created_at) VALUES ";
+    private static final String LOG_VALUES = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?::jsonb, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
     private final ExternalLogRepository externalLogRepository;
+    private final CrashGroupService crashGroupService;
+
+    @Value("${log-ingestion.queue-capacity:20000}")
+    private int queueCapacity;
+
+    @Value("${log-ingestion.crash-queue-capacity:2000}")
+    private int crashQueueCapacity;
+
+    @Value("${log-ingestion.batch-size:500}")
+    private int batchSize;
+
+    @Value("${log-ingestion.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${log-ingestion.writer-threads:2}")
+    private int writerThreads;
+
+    @Value("${log-ingestion.emit-queue-capacity:10000}")
+    private int emitQueueCapacity;
+
+    @Value("${log-ingestion.retry-after-seconds:5}")
+    private long retryAfterSeconds;
+
+    private LogLane logLane;
+    private LogLane crashLane;
+    private BlockingQueue<LogEntry> emitQueue;
+    private final AtomicLong emitDropped = new AtomicLong();
+    private final List<Thread> writers = new ArrayList<>();
+    private Thread emitter;
+    private volatile boolean running;
 
     /**
-     * Ingest a single log entry from an external client.
+     * A received entry with its arrival time, which becomes created_at.
+     * Crashes carry their fingerprint; duplicate marks crash occurrences that are only counted.
      */
-    @Async
-    public void ingestLog(ExternalLogRequest request) {
-        setMdcContext(request);
-
-        try {
-            String formattedMessage = formatLogMessage(request);
+    private record LogEntry(ExternalLogRequest request, String crashFingerprint, boolean duplicate,
+                            LocalDateTime receivedAt) {
 
-            // Log to Loki via the external logger based on level
-            switch (request.getLevel().toUpperCase()) {
-                case "DEBUG" -> externalLogger.debug(formattedMessage);
-                case "INFO" -> externalLogger.info(formattedMessage);
-                case "WARN" -> externalLogger.warn(formattedMessage);
-                case "ERROR" -> externalLogger.error(formattedMessage);
-                default -> externalLogger.info(formattedMessage);
-            }
+        boolean crash() {
+            return crashFingerprint != null;
+        }
+    }
 
-            // Persist to database for historical queries
-            persistLog(request);
+    @PostConstruct
+    void init() {
+        logLane = new LogLane("external_logs", queueCapacity);
+        crashLane = new LogLane("external_logs (crash)", crashQueueCapacity);
+        emitQueue = new ArrayBlockingQueue<>(emitQueueCapacity);
+        running = true;
+        for (int i = 0; i < writerThreads; i++) {
+            Thread writer = new Thread(this::runWriter, "external-log-writer-" + i);
+            writer.setDaemon(true);
+            writers.add(writer);
+        }
+        emitter = new Thread(this::runEmitter, "external-log-emitter");
+        emitter.setDaemon(true);
+        writers.forEach(Thread::start);
+        emitter.start();
+    }
 
-        } finally {
-            MDC.clear();
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        writers.forEach(LockSupport::unpark);
+        emitter.interrupt();
+        for (Thread writer : writers) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
         }
+        emitter.join(TimeUnit.SECONDS.toMillis(2));
     }
 
     /**
-     * Ingest multiple log entries in a batch (more efficient).
+     * Ingest a single log entry from an external client.
      */
-    @Async
-    public void ingestLogBatch(List<ExternalLogRequest> requests) {
-        for (ExternalLogRequest request : requests) {
-            ingestLog(request);
-        }
+    public void ingestLog(ExternalLogRequest request) {
+        enqueue(logLane, List.of(request), null);
     }
 
     /**
-     * Ingest crash/exception log with full stack trace - treated with higher priority.
+     * Ingest multiple log entries in a batch (more efficient). The batch is queued whole or not at all;
+     * entries without a source, level or message are skipped. Returns the number of entries queued.
      */
-    @Async
-    public void ingestCrashLog(ExternalLogRequest request) {
-        setMdcContext(request);
+    public int ingestLogBatch(List<ExternalLogRequest> requests) {
+        return enqueue(logLane, requests, null);
+    }
 
-        try {
-            String crashMessage = formatCrashMessage(request);
-            externalLogger.error(crashMessage);
+    /**
+     * Ingest crash/exception log with full stack trace - counted into its crash group; sampled
+     * occurrences are queued on the crash lane, ahead of other logs.
+     */
+    public void ingestCrashLog(ExternalLogRequest request) {
+        LocalDateTime now = LocalDateTime.now();
+        CrashFingerprinter.Fingerprint fingerprint =
+                CrashFingerprinter.fingerprint(request.getSource(), request.getStackTrace(), request.getMessage());
+        if (crashGroupService.shouldSample(fingerprint, now)) {
+            // Counted only once queued, so a 429 and the client's retry do not count twice
+            try {
+                enqueue(crashLane, List.of(request), fingerprint.hash());
+            } catch (IngestionBackpressureException e) {
+                // The retry should still find the slot free
+                crashGroupService.releaseSample(fingerprint, now);
+                throw e;
+            }
+        } else if (!emitQueue.offer(new LogEntry(request, fingerprint.hash(), true, now))) {
+            emitDropped.incrementAndGet();
+        }
+        crashGroupService.record(fingerprint, request, now);
+    }
 
-            // Always persist crash logs
-            persistLog(request);
+    /**
+     * Get the sampled raw occurrences of a crash group.
+     */
+    public List<ExternalLog> getCrashSamples(String fingerprint) {
+        return crashGroupService.getSamples(fingerprint);
+    }
 
-        } finally {
-            MDC.clear();
-        }
+    /**
+     * Depth, rejections and flush latency of both lanes, and the Loki emission backlog
+     */
+    public List<TelemetryQueueStatsDTO> getStats() {
+        return List.of(crashLane.stats(), logLane.stats(), TelemetryQueueStatsDTO.builder()
+                .table("loki")
+                .overflowPolicy("DROP")
+                .queueDepth(emitQueue.size())
+                .queueCapacity(emitQueueCapacity)
+                .dropped(emitDropped.get())
+                .build());
     }
 
     /**
@@ -100,20 +214,180 @@ public class LogIngestionService {
     }
 
     /**
-     * Get recent crash logs.
+     * Get recent crashes, one group per distinct crash.
      */
-    public List<ExternalLog> getRecentCrashes(int hours) {
+    public List<CrashGroup> getRecentCrashes(int hours) {
         LocalDateTime since = LocalDateTime.now().minusHours(hours);
-        return externalLogRepository.findCrashLogs(since);
+        return crashGroupService.getRecentGroups(since);
     }
 
-    /**
-     * Cleanup old logs (called by scheduler).
-     */
-    @Transactional
-    public int cleanupOldLogs(int daysToKeep) {
-        LocalDateTime cutoff = LocalDateTime.now().minusDays(daysToKeep);
-        return externalLogRepository.deleteOlderThan(cutoff);
+    private int enqueue(LogLane lane, List<ExternalLogRequest> requests, String crashFingerprint) {
+        LocalDateTime now = LocalDateTime.now();
+        List<LogEntry> entries = new ArrayList<>(requests.size());
+        for (ExternalLogRequest request : requests) {
+            // Batch elements are not bean-validated; a row missing NOT NULL columns would fail its whole batch
+            if (isBlank(request.getSource()) || isBlank(request.getLevel()) || isBlank(request.getMessage())) {
+                continue;
+            }
+            entries.add(new LogEntry(request, crashFingerprint, false, now));
+        }
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        lane.offerAll(entries);
+
+        for (LogEntry entry : entries) {
+            if (!emitQueue.offer(entry)) {
+                emitDropped.incrementAndGet();
+            }
+        }
+        if (crashFingerprint != null || lane.size() >= batchSize) {
+            writers.forEach(LockSupport::unpark);
+        }
+        return entries.size();
+    }
+
+    // ==================== Writers ====================
+
+    private void runWriter() {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (running) {
+            long deadline = System.nanoTime() + intervalNanos;
+            long remaining;
+            while (running && crashLane.size() == 0 && logLane.size() < batchSize
+                    && (remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, remaining);
+            }
+            flushAll();
+        }
+        // Final drain on shutdown
+        flushAll();
+    }
+
+    private void flushAll() {
+        crashLane.drainBatch(batchSize);
+        while (logLane.drainBatch(batchSize)) {
+            // Crashes that arrived meanwhile go before the next batch of regular logs
+            crashLane.drainBatch(batchSize);
+        }
+    }
+
+    private void writeBatch(List<LogEntry> entries) {
+        jdbcTemplate.update(multiRowInsert(entries.size()), ps -> {
+            int i = 1;
+            for (LogEntry entry : entries) {
+                i = bind(ps, i, entry);
+            }
+        });
+    }
+
+    private int bind(PreparedStatement ps, int i, LogEntry entry) throws SQLException {
+        ExternalLogRequest request = entry.request();
+        // Oversized values are cut to the column length so one entry cannot fail a whole batch
+        ps.setString(i++, truncate(request.getSource(), 20));
+        ps.setString(i++, truncate(request.getLevel(), 10));
+        ps.setString(i++, request.getMessage());
+        ps.setString(i++, truncate(request.getLogger(), 255));
+        ps.setString(i++, truncate(request.getCorrelationId(), 36));
+        ps.setString(i++, truncate(request.getUserId(), 50));
+        ps.setString(i++, truncate(request.getSessionId(), 50));
+        ps.setString(i++, truncate(request.getDeviceId(), 100));
+        ps.setString(i++, truncate(request.getAppVersion(), 20));
+        ps.setString(i++, request.getStackTrace());
+        ps.setString(i++, toJson(request.getContext()));
+        ps.setString(i++, truncate(request.getAndroidVersion(), 20));
+        ps.setString(i++, truncate(request.getDeviceModel(), 100));
+        ps.setString(i++, truncate(request.getBrowserInfo(), 255));
+        ps.setString(i++, truncate(request.getPageUrl(), 500));
+        ps.setObject(i++, request.getTimestamp() != null
+                ? LocalDateTime.ofInstant(request.getTimestamp(), ZoneId.systemDefault())
+                : null);
+        ps.setString(i++, entry.crashFingerprint());
+        ps.setObject(i++, entry.receivedAt());
+        return i;
+    }
+
+    private static String multiRowInsert(int rows) {
+        StringBuilder sql = new StringBuilder(LOG_INSERT.length() + rows * (LOG_VALUES.length() + 2)).append(LOG_INSERT);
+        for (int r = 0; r < rows; r++) {
+            if (r > 0) sql.append(", ");
+            sql.append(LOG_VALUES);
+        }
+        return sql.toString();
+    }
+
+    private String toJson(Object value) {
+        if (value == null) return null;
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static boolean isConnectionFailure(Exception e) {
+        return e instanceof DataAccessResourceFailureException || e instanceof TransientDataAccessResourceException;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    // ==================== Loki emission ====================
+
+    private void runEmitter() {
+        while (running || !emitQueue.isEmpty()) {
+            try {
+                LogEntry entry = emitQueue.poll(1, TimeUnit.SECONDS);
+                if (entry != null) {
+                    emit(entry);
+                }
+            } catch (InterruptedException e) {
+                if (!running) {
+                    // Shutting down: emit what is left without waiting
+                    LogEntry entry;
+                    while ((entry = emitQueue.poll()) != null) {
+                        emit(entry);
+                    }
+                    return;
+                }
+            } catch (Exception e) {
+                log.warn("Could not emit external log: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void emit(LogEntry entry) {
+        ExternalLogRequest request = entry.request();
+        setMdcContext(request);
+
+        try {
+            if (entry.duplicate()) {
+                externalLogger.error("[CRASH] [{}] {} (crash group {})", request.getSource().toUpperCase(),
+                        request.getMessage(), entry.crashFingerprint());
+                return;
+            }
+            if (entry.crash()) {
+                externalLogger.error(formatCrashMessage(request));
+                return;
+            }
+            String formattedMessage = formatLogMessage(request);
+
+            // Log to Loki via the external logger based on level
+            switch (request.getLevel().toUpperCase()) {
+                case "DEBUG" -> externalLogger.debug(formattedMessage);
+                case "INFO" -> externalLogger.info(formattedMessage);
+                case "WARN" -> externalLogger.warn(formattedMessage);
+                case "ERROR" -> externalLogger.error(formattedMessage);
+                default -> externalLogger.info(formattedMessage);
+            }
+        } finally {
+            MDC.clear();
+        }
     }
 
     private void setMdcContext(ExternalLogRequest request) {
@@ -178,29 +452,147 @@ public class LogIngestionService {
         return sb.toString();
     }
 
-    @Transactional
-    private void persistLog(ExternalLogRequest request) {
-        ExternalLog log = new ExternalLog();
-        log.setSource(request.getSource());
-        log.setLevel(request.getLevel());
-        log.setMessage(request.getMessage());
-        log.setLogger(request.getLogger());
-        log.setCorrelationId(request.getCorrelationId());
-        log.setUserId(request.getUserId());
-        log.setSessionId(request.getSessionId());
-        log.setDeviceId(request.getDeviceId());
-        log.setAppVersion(request.getAppVersion());
-        log.setStackTrace(request.getStackTrace());
-        log.setContext(request.getContext());
-        log.setAndroidVersion(request.getAndroidVersion());
-        log.setDeviceModel(request.getDeviceModel());
-        log.setBrowserInfo(request.getBrowserInfo());
-        log.setPageUrl(request.getPageUrl());
-
-        if (request.getTimestamp() != null) {
-            log.setClientTimestamp(LocalDateTime.ofInstant(request.getTimestamp(), ZoneId.systemDefault()));
-        }
-
-        externalLogRepository.save(log);
+    /**
+     * Bounded lane of entries waiting for a writer, with its counters
+     */
+    private final class LogLane {
+
+        private final String name;
+        private final int capacity;
+        private final BlockingQueue<LogEntry> entries;
+        private final AtomicLong accepted = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong written = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong flushes = new AtomicLong();
+        private final AtomicLong flushNanosTotal = new AtomicLong();
+        private volatile long lastFlushNanos;
+        private volatile long maxFlushNanos;
+
+        LogLane(String name, int capacity) {
+            this.name = name;
+            this.capacity = capacity;
+            this.entries = new ArrayBlockingQueue<>(capacity);
+        }
+
+        int size() {
+            return entries.size();
+        }
+
+        /**
+         * Queue every entry, or none when they do not all fit
+         */
+        synchronized void offerAll(List<LogEntry> batch) {
+            if (entries.remainingCapacity() < batch.size()) {
+                rejected.addAndGet(batch.size());
+                throw new IngestionBackpressureException(
+                        "Log ingestion is saturated (" + name + "), retry later", retryAfterSeconds);
+            }
+            // Writers only take from the queue outside this lock, so the space checked above stays free
+            entries.addAll(batch);
+            accepted.addAndGet(batch.size());
+        }
+
+        /**
+         * Write up to batchSize queued entries; false when the lane was empty or the database is unreachable
+         */
+        boolean drainBatch(int batchSize) {
+            List<LogEntry> batch = new ArrayList<>(Math.min(batchSize, Math.max(1, entries.size())));
+            if (entries.drainTo(batch, batchSize) == 0) {
+                return false;
+            }
+            long start = System.nanoTime();
+            boolean requeued;
+            try {
+                writeBatch(batch);
+                written.addAndGet(batch.size());
+                requeued = false;
+            } catch (Exception e) {
+                if (isConnectionFailure(e)) {
+                    requeue(batch, e);
+                    requeued = true;
+                } else {
+                    log.warn("Flush of {} {} rows failed, retrying row by row: {}", batch.size(), name, e.getMessage());
+                    requeued = writeRowByRow(batch);
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            flushes.incrementAndGet();
+            flushNanosTotal.addAndGet(elapsed);
+            lastFlushNanos = elapsed;
+            if (elapsed > maxFlushNanos) {
+                maxFlushNanos = elapsed;
+            }
+            if (requeued) {
+                // Give the database a flush interval before the requeued entries are tried again
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Retry a failed batch one entry at a time so a single bad entry does not lose the others;
+         * true when the database became unreachable and the rest of the batch was requeued
+         */
+        private boolean writeRowByRow(List<LogEntry> batch) {
+            int lost = 0;
+            String lastError = null;
+            boolean requeued = false;
+            for (int r = 0; r < batch.size(); r++) {
+                try {
+                    writeBatch(List.of(batch.get(r)));
+                    written.incrementAndGet();
+                } catch (Exception e) {
+                    if (isConnectionFailure(e)) {
+                        requeue(batch.subList(r, batch.size()), e);
+                        requeued = true;
+                        break;
+                    }
+                    failed.incrementAndGet();
+                    lost++;
+                    lastError = e.getMessage();
+                }
+            }
+            if (lost > 0) {
+                log.warn("Dropped {} of {} {} rows after failed flush: {}", lost, batch.size(), name, lastError);
+            }
+            return requeued;
+        }
+
+        /**
+         * Put entries back for a later flush. Synchronized with offerAll, which relies on the space
+         * it checked staying free; entries that no longer fit are counted as failed.
+         */
+        private synchronized void requeue(List<LogEntry> batch, Exception cause) {
+            int kept = 0;
+            for (LogEntry entry : batch) {
+                if (entries.offer(entry)) {
+                    kept++;
+                } else {
+                    failed.incrementAndGet();
+                }
+            }
+            log.warn("Database unavailable for {}, requeued {} of {} rows: {}", name, kept, batch.size(),
+                    cause.getMessage());
+        }
+
+        TelemetryQueueStatsDTO stats() {
+            long flushCount = flushes.get();
+            return TelemetryQueueStatsDTO.builder()
+                    .table(name)
+                    .overflowPolicy("REJECT")
+                    .queueDepth(entries.size())
+                    .queueCapacity(capacity)
+                    .accepted(accepted.get())
+                    .dropped(rejected.get())
+                    .written(written.get())
+                    .failed(failed.get())
+                    .flushes(flushCount)
+                    .lastFlushMs(lastFlushNanos / 1_000_000.0)
+                    .maxFlushMs(maxFlushNanos / 1_000_000.0)
+                    .avgFlushMs(flushCount > 0 ? flushNanosTotal.get() / 1_000_000.0 / flushCount : 0.0)
+                    .build();
+        }
     }
 }
@@ -0,0 +1,90 @@
+package com.civicconnect.api.service.logging;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Maintains the daily created_at partitions of activity_logs, network_logs and external_logs.
+ *
+ * Partitions are created partitions-ahead-days in advance so inserts never fall into the default
+ * partition, and retention is enforced by detaching and dropping whole days instead of running
+ * bulk DELETEs. The partition DDL lives in the create_log_partition / drop_log_partitions_before
+ * functions (V16 migration).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LogPartitionService {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${log-retention.partitions-ahead-days:7}")
+    private int partitionsAheadDays;
+
+    @Value("${log-retention.activity-days:30}")
+    private int activityRetentionDays;
+
+    @Value("${log-retention.network-days:7}")
+    private int networkRetentionDays;
+
+    @Value("${log-retention.external-days:30}")
+    private int externalRetentionDays;
+
+    /**
+     * Retention in days per partitioned table
+     */
+    public Map<String, Integer> retentionDays() {
+        Map<String, Integer> tables = new LinkedHashMap<>();
+        tables.put("activity_logs", activityRetentionDays);
+        tables.put("network_logs", networkRetentionDays);
+        tables.put("external_logs", externalRetentionDays);
+        return tables;
+    }
+
+    /**
+     * Create any missing partitions from today through partitions-ahead-days
+     */
+    public int createUpcomingPartitions() {
+        LocalDate today = LocalDate.now();
+        int created = 0;
+        for (String table : retentionDays().keySet()) {
+            for (int day = 0; day <= partitionsAheadDays; day++) {
+                Boolean added = jdbcTemplate.queryForObject("SELECT create_log_partition(?, ?)",
+                        Boolean.class, table, today.plusDays(day));
+                if (Boolean.TRUE.equals(added)) {
+                    created++;
+                }
+            }
+        }
+        if (created > 0) {
+            log.info("Created {} log partitions", created);
+        }
+        return created;
+    }
+
+    /**
+     * Detach and drop every partition that is entirely past its table's retention
+     */
+    public int dropExpiredPartitions() {
+        LocalDate today = LocalDate.now();
+        int dropped = 0;
+        for (Map.Entry<String, Integer> table : retentionDays().entrySet()) {
+            LocalDate cutoff = today.minusDays(table.getValue());
+            Integer count = jdbcTemplate.queryForObject("SELECT drop_log_partitions_before(?, ?)",
+                    Integer.class, table.getKey(), cutoff);
+            int tableDropped = count != null ? count : 0;
+            if (tableDropped > 0) {
+                log.info("Dropped {} {} partitions older than {}", tableDropped, table.getKey(), cutoff);
+            }
+            dropped += tableDropped;
+        }
+        return dropped;
+    }
+}
@@ -0,0 +1,24 @@
+-- File records for uploaded issue photos with perceptual hash (dHash) for duplicate detection
+
+CREATE TABLE IF NOT EXISTS issue_images (
+    id BIGSERIAL PRIMARY KEY,
+    image_url VARCHAR(512) NOT NULL,
+    perceptual_hash BIGINT NOT NULL,
+    file_size BIGINT,
+    latitude DOUBLE PRECISION,
+    longitude DOUBLE PRECISION,
+    issue_id BIGINT,
+    analysis_title VARCHAR(255),
+    analysis_description TEXT,
+    analysis_category VARCHAR(255),
+    analysis_priority VARCHAR(255),
+    analysis_confidence REAL,
+    analyzed_at TIMESTAMP,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_issue_image_url ON issue_images(image_url);
+CREATE INDEX IF NOT EXISTS idx_issue_image_issue ON issue_images(issue_id);
+
+-- Earlier issue with a near-identical photo at the same location
+ALTER TABLE issues ADD COLUMN IF NOT EXISTS possible_duplicate_of_id BIGINT;
@@ -0,0 +1,14 @@
+-- Maintained issue counts per (representative, status) for Gov Map stats
+-- Kept current incrementally by the API and rebuilt hourly from issues
+
+CREATE TABLE IF NOT EXISTS representative_issue_counters (
+    id BIGSERIAL PRIMARY KEY,
+    representative_type VARCHAR(255) NOT NULL,
+    representative_id BIGINT NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    issue_count BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_rep_issue_counter UNIQUE (representative_type, representative_id, status)
+);
+
+-- Indexes used by the rebuild (GROUP BY representative, status)
+CREATE INDEX IF NOT EXISTS idx_issue_councillor ON issues(councillor_id);
@@ -0,0 +1,17 @@
+-- Maintained rating aggregates per representative (count, sum, verified count, star histogram)
+-- Kept current incrementally by the API and rebuilt hourly from representative_ratings
+
+CREATE TABLE IF NOT EXISTS representative_rating_aggregates (
+    id BIGSERIAL PRIMARY KEY,
+    representative_type VARCHAR(255) NOT NULL,
+    representative_id BIGINT NOT NULL,
+    rating_count BIGINT NOT NULL DEFAULT 0,
+    rating_sum BIGINT NOT NULL DEFAULT 0,
+    verified_count BIGINT NOT NULL DEFAULT 0,
+    one_star BIGINT NOT NULL DEFAULT 0,
+    two_star BIGINT NOT NULL DEFAULT 0,
+    three_star BIGINT NOT NULL DEFAULT 0,
+    four_star BIGINT NOT NULL DEFAULT 0,
+    five_star BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_rep_rating_aggregate UNIQUE (representative_type, representative_id)
+);
@@ -0,0 +1,6 @@
+-- Keyset index for the per-representative review feed: newest first, ties broken by id
+-- Partial on non-empty comments so star-only ratings don't bloat it
+
+CREATE INDEX IF NOT EXISTS idx_rating_reviews_keyset
+    ON representative_ratings (representative_type, representative_id, created_at DESC, id DESC)
+    WHERE comment IS NOT NULL AND comment <> '';
@@ -0,0 +1,21 @@
+-- Materialized accountability scorecards for every representative
+-- Rebuilt nightly from rating aggregates and issue counters, patched on rating/issue changes
+
+CREATE TABLE IF NOT EXISTS representative_scorecards (
+    id BIGSERIAL PRIMARY KEY,
+    representative_type VARCHAR(255) NOT NULL,
+    representative_id BIGINT NOT NULL,
+    average_rating DOUBLE PRECISION NOT NULL DEFAULT 0,
+    rating_count BIGINT NOT NULL DEFAULT 0,
+    approval_level VARCHAR(255) NOT NULL,
+    issues_registered BIGINT NOT NULL DEFAULT 0,
+    issues_resolved BIGINT NOT NULL DEFAULT 0,
+    resolution_rate DOUBLE PRECISION NOT NULL DEFAULT 0,
+    accountability_score INTEGER NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_rep_scorecard UNIQUE (representative_type, representative_id)
+);
+
+-- Leaderboard-style reads by type ordered by score
+CREATE INDEX IF NOT EXISTS idx_rep_scorecard_score
+    ON representative_scorecards (representative_type, accountability_score DESC);
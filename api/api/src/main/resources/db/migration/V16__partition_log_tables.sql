@@ -0,0 +1,219 @@
+-- Daily range partitioning on created_at for activity_logs, network_logs and external_logs
+-- Retention drops whole partitions instead of bulk DELETEs (see LogPartitionService)
+--
+-- Each day is a partition named <table>_pYYYYMMDD covering [day, day + 1).
+-- <table>_default catches rows with timestamps outside the created range (e.g. skewed client clocks).
+-- The primary key must include the partition key, so it becomes (id, created_at).
+
+-- Create the partition for one day; rows that already landed in the default partition are moved in
+CREATE OR REPLACE FUNCTION create_log_partition(parent TEXT, day DATE)
+RETURNS BOOLEAN AS $$
+DECLARE
+    child TEXT := parent || '_p' || to_char(day, 'YYYYMMDD');
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext(parent));
+    IF to_regclass(child) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS)', child, parent);
+    EXECUTE format('WITH moved AS (DELETE FROM %I WHERE created_at >= %L AND created_at < %L RETURNING *) '
+                   'INSERT INTO %I SELECT * FROM moved',
+                   parent || '_default', day, day + 1, child);
+    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   parent, child, day, day + 1);
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Detach and drop every daily partition that ends on or before the cutoff
+-- Also trims stragglers older than the cutoff from the default partition
+CREATE OR REPLACE FUNCTION drop_log_partitions_before(parent TEXT, cutoff DATE)
+RETURNS INTEGER AS $$
+DECLARE
+    child TEXT;
+    dropped INTEGER := 0;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext(parent));
+    FOR child IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = parent::regclass
+          AND c.relname ~ ('^' || parent || '_p[0-9]{8}$')
+          AND to_date(right(c.relname, 8), 'YYYYMMDD') + 1 <= cutoff
+        ORDER BY c.relname
+    LOOP
+        EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', parent, child);
+        EXECUTE format('DROP TABLE %I', child);
+        dropped := dropped + 1;
+    END LOOP;
+
+    EXECUTE format('DELETE FROM %I WHERE created_at < %L', parent || '_default', cutoff);
+    RETURN dropped;
+END;
+$$ LANGUAGE plpgsql;
+
+-- 1. Activity logs
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_class WHERE relname = 'activity_logs' AND relkind = 'p') THEN
+        RETURN;
+    END IF;
+    IF to_regclass('activity_logs') IS NOT NULL THEN
+        ALTER TABLE activity_logs RENAME TO activity_logs_legacy;
+    END IF;
+
+    CREATE TABLE activity_logs (
+        id BIGSERIAL NOT NULL,
+        user_id BIGINT REFERENCES app_users(id) ON DELETE CASCADE,
+        session_id BIGINT REFERENCES user_sessions(id) ON DELETE SET NULL,
+        activity_type VARCHAR(50) NOT NULL,
+        activity_name VARCHAR(255) NOT NULL,
+        activity_data JSONB,
+        latitude DOUBLE PRECISION,
+        longitude DOUBLE PRECISION,
+        created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+        CONSTRAINT pk_activity_logs PRIMARY KEY (id, created_at)
+    ) PARTITION BY RANGE (created_at);
+    CREATE TABLE activity_logs_default PARTITION OF activity_logs DEFAULT;
+    PERFORM create_log_partition('activity_logs', d::DATE)
+    FROM generate_series(CURRENT_DATE - 30, CURRENT_DATE + 7, INTERVAL '1 day') AS d;
+
+    IF to_regclass('activity_logs_legacy') IS NOT NULL THEN
+        INSERT INTO activity_logs (id, user_id, session_id, activity_type, activity_name, activity_data,
+                                   latitude, longitude, created_at)
+        SELECT id, user_id, session_id, activity_type, activity_name, activity_data,
+               latitude, longitude, COALESCE(created_at, CURRENT_TIMESTAMP)
+        FROM activity_logs_legacy
+        WHERE created_at IS NULL OR created_at >= CURRENT_DATE - 30;
+        DROP TABLE activity_logs_legacy;
+    END IF;
+    PERFORM setval(pg_get_serial_sequence('activity_logs', 'id'), COALESCE(MAX(id), 0) + 1, FALSE)
+    FROM activity_logs;
+END $$;
+
+CREATE INDEX IF NOT EXISTS idx_activity_logs_user_id ON activity_logs(user_id, created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_activity_logs_session_id ON activity_logs(session_id);
+CREATE INDEX IF NOT EXISTS idx_activity_logs_created_at ON activity_logs(created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_activity_logs_type ON activity_logs(activity_type);
+
+-- 2. Network logs
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_class WHERE relname = 'network_logs' AND relkind = 'p') THEN
+        RETURN;
+    END IF;
+    IF to_regclass('network_logs') IS NOT NULL THEN
+        ALTER TABLE network_logs RENAME TO network_logs_legacy;
+    END IF;
+
+    CREATE TABLE network_logs (
+        id BIGSERIAL NOT NULL,
+        user_id BIGINT REFERENCES app_users(id) ON DELETE CASCADE,
+        session_id BIGINT REFERENCES user_sessions(id) ON DELETE SET NULL,
+        request_id VARCHAR(36),
+        method VARCHAR(10) NOT NULL,
+        url TEXT NOT NULL,
+        request_headers JSONB,
+        request_body JSONB,
+        response_status INTEGER,
+        response_headers JSONB,
+        response_body JSONB,
+        latency_ms INTEGER,
+        error_message TEXT,
+        created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+        CONSTRAINT pk_network_logs PRIMARY KEY (id, created_at)
+    ) PARTITION BY RANGE (created_at);
+    CREATE TABLE network_logs_default PARTITION OF network_logs DEFAULT;
+    PERFORM create_log_partition('network_logs', d::DATE)
+    FROM generate_series(CURRENT_DATE - 7, CURRENT_DATE + 7, INTERVAL '1 day') AS d;
+
+    IF to_regclass('network_logs_legacy') IS NOT NULL THEN
+        INSERT INTO network_logs (id, user_id, session_id, request_id, method, url, request_headers, request_body,
+                                  response_status, response_headers, response_body, latency_ms, error_message,
+                                  created_at)
+        SELECT id, user_id, session_id, request_id, method, url, request_headers, request_body,
+               response_status, response_headers, response_body, latency_ms, error_message,
+               COALESCE(created_at, CURRENT_TIMESTAMP)
+        FROM network_logs_legacy
+        WHERE created_at IS NULL OR created_at >= CURRENT_DATE - 7;
+        DROP TABLE network_logs_legacy;
+    END IF;
+    PERFORM setval(pg_get_serial_sequence('network_logs', 'id'), COALESCE(MAX(id), 0) + 1, FALSE)
+    FROM network_logs;
+END $$;
+
+CREATE INDEX IF NOT EXISTS idx_network_logs_user_id ON network_logs(user_id, created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_network_logs_session_id ON network_logs(session_id);
+CREATE INDEX IF NOT EXISTS idx_network_logs_created_at ON network_logs(created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_network_logs_request_id ON network_logs(request_id);
+
+-- 3. External logs (Android / admin panel client logs)
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_class WHERE relname = 'external_logs' AND relkind = 'p') THEN
+        RETURN;
+    END IF;
+    IF to_regclass('external_logs') IS NOT NULL THEN
+        ALTER TABLE external_logs RENAME TO external_logs_legacy;
+    END IF;
+
+    CREATE TABLE external_logs (
+        id BIGSERIAL NOT NULL,
+        source VARCHAR(20) NOT NULL,
+        level VARCHAR(10) NOT NULL,
+        message TEXT NOT NULL,
+        logger VARCHAR(255),
+        correlation_id VARCHAR(36),
+        user_id VARCHAR(50),
+        session_id VARCHAR(50),
+        device_id VARCHAR(100),
+        app_version VARCHAR(20),
+        stack_trace TEXT,
+        context JSONB,
+        android_version VARCHAR(20),
+        device_model VARCHAR(100),
+        browser_info VARCHAR(255),
+        page_url VARCHAR(500),
+        client_timestamp TIMESTAMP,
+        created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+        CONSTRAINT pk_external_logs PRIMARY KEY (id, created_at)
+    ) PARTITION BY RANGE (created_at);
+    CREATE TABLE external_logs_default PARTITION OF external_logs DEFAULT;
+    PERFORM create_log_partition('external_logs', d::DATE)
+    FROM generate_series(CURRENT_DATE - 30, CURRENT_DATE + 7, INTERVAL '1 day') AS d;
+
+    IF to_regclass('external_logs_legacy') IS NOT NULL THEN
+        INSERT INTO external_logs (id, source, level, message, logger, correlation_id, user_id, session_id,
+                                   device_id, app_version, stack_trace, context, android_version, device_model,
+                                   browser_info, page_url, client_timestamp, created_at)
+        SELECT id, source, level, message, logger, correlation_id, user_id, session_id,
+               device_id, app_version, stack_trace, context, android_version, device_model,
+               browser_info, page_url, client_timestamp, COALESCE(created_at, CURRENT_TIMESTAMP)
+        FROM external_logs_legacy
+        WHERE created_at IS NULL OR created_at >= CURRENT_DATE - 30;
+        DROP TABLE external_logs_legacy;
+    END IF;
+    PERFORM setval(pg_get_serial_sequence('external_logs', 'id'), COALESCE(MAX(id), 0) + 1, FALSE)
+    FROM external_logs;
+END $$;
+
+CREATE INDEX IF NOT EXISTS idx_external_logs_source ON external_logs(source);
+CREATE INDEX IF NOT EXISTS idx_external_logs_level ON external_logs(level);
+CREATE INDEX IF NOT EXISTS idx_external_logs_correlation_id ON external_logs(correlation_id);
+CREATE INDEX IF NOT EXISTS idx_external_logs_user_id ON external_logs(user_id);
+CREATE INDEX IF NOT EXISTS idx_external_logs_created_at ON external_logs(created_at);
+
+-- Retention is now partition-based; keep only the stale-session sweep here
+CREATE OR REPLACE FUNCTION cleanup_old_analytics_logs()
+RETURNS void AS $$
+BEGIN
+    UPDATE user_sessions
+    SET is_active = FALSE,
+        ended_at = last_heartbeat_at,
+        end_reason = 'TIMEOUT'
+    WHERE is_active = TRUE
+    AND last_heartbeat_at < NOW() - INTERVAL '5 minutes';
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,34 @@
+-- Per-minute and per-hour analytics rollups for the admin dashboard and trend charts
+-- Fed by the API's streaming aggregator (counter deltas every few seconds, a session sample every minute)
+-- so the dashboard never aggregates raw activity_logs / network_logs
+
+CREATE TABLE IF NOT EXISTS analytics_rollups (
+    id BIGSERIAL PRIMARY KEY,
+    granularity VARCHAR(10) NOT NULL, -- 'MINUTE', 'HOUR'
+    bucket_start TIMESTAMP NOT NULL,
+    activity_count BIGINT NOT NULL DEFAULT 0,
+    activity_type_counts JSONB NOT NULL DEFAULT '{}',
+    request_count BIGINT NOT NULL DEFAULT 0,
+    latency_sum_ms BIGINT NOT NULL DEFAULT 0,
+    latency_count BIGINT NOT NULL DEFAULT 0,
+    error_count BIGINT NOT NULL DEFAULT 0,
+    active_sessions INTEGER NOT NULL DEFAULT 0, -- peak of the per-minute samples
+    session_samples BIGINT NOT NULL DEFAULT 0, -- number of per-minute session samples taken
+    sampled_sessions BIGINT NOT NULL DEFAULT 0, -- sessions seen across the samples (duration average denominator)
+    session_duration_sum_minutes BIGINT NOT NULL DEFAULT 0,
+    session_duration_histogram BIGINT[] NOT NULL DEFAULT '{}',
+    CONSTRAINT uk_analytics_rollup UNIQUE (granularity, bucket_start)
+);
+
+-- Key-wise sum of two {"key": count} objects
+CREATE OR REPLACE FUNCTION jsonb_add_counts(a JSONB, b JSONB)
+RETURNS JSONB AS $$
+    SELECT COALESCE(jsonb_object_agg(k, COALESCE((a ->> k)::BIGINT, 0) + COALESCE((b ->> k)::BIGINT, 0)), '{}'::JSONB)
+    FROM (SELECT jsonb_object_keys(COALESCE(a, '{}') || COALESCE(b, '{}')) AS k) keys;
+$$ LANGUAGE sql IMMUTABLE;
+
+-- Element-wise sum of two arrays; the shorter one is padded with zeros
+CREATE OR REPLACE FUNCTION bigint_array_add(a BIGINT[], b BIGINT[])
+RETURNS BIGINT[] AS $$
+    SELECT COALESCE(ARRAY(SELECT COALESCE(x, 0) + COALESCE(y, 0) FROM unnest(a, b) AS t(x, y)), '{}');
+$$ LANGUAGE sql IMMUTABLE;
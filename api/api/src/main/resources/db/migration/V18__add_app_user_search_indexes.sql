@@ -0,0 +1,19 @@
+-- Admin user listing: substring search on name/email and per-user session counts
+
+-- Trigram indexes serve LOWER(col) LIKE '%term%' (AppUserRepository.searchUsersWithSessionCounts)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_app_users_name_trgm
+    ON app_users USING gin (LOWER(name) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_app_users_email_trgm
+    ON app_users USING gin (LOWER(email) gin_trgm_ops);
+
+-- Listing order, newest login first
+CREATE INDEX IF NOT EXISTS idx_app_users_last_login
+    ON app_users (last_login_at DESC, id DESC);
+
+-- Active session count per user without touching ended sessions
+CREATE INDEX IF NOT EXISTS idx_user_sessions_user_active
+    ON user_sessions (user_id)
+    WHERE is_active = TRUE;
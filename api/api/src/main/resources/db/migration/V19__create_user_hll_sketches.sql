@@ -0,0 +1,16 @@
+-- Daily HyperLogLog sketches of distinct user ids (see DistinctUserService)
+-- dimension: GLOBAL ('all'), STATE (state name), PC / AC (constituency id), ACTIVITY_TYPE (type name)
+-- registers: serialized sketch (sparse or dense), merged register-wise across days on query
+
+CREATE TABLE IF NOT EXISTS user_hll_sketches (
+    day DATE NOT NULL,
+    dimension VARCHAR(20) NOT NULL,
+    dimension_key VARCHAR(100) NOT NULL,
+    registers BYTEA NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    CONSTRAINT pk_user_hll_sketches PRIMARY KEY (day, dimension, dimension_key)
+);
+
+-- Range queries per dimension value and per-dimension breakdowns
+CREATE INDEX IF NOT EXISTS idx_user_hll_sketches_dimension
+    ON user_hll_sketches (dimension, dimension_key, day);
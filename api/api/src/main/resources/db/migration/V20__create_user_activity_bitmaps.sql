@@ -0,0 +1,15 @@
+-- Daily bitmaps of active user ids (see UserActivityBitmapService)
+-- activity_type: 'ANY' (session start or any activity) or an activity type name
+-- bitmap: serialized compressed bitmap over app_users.id; cardinality kept for quick daily counts
+
+CREATE TABLE IF NOT EXISTS user_activity_bitmaps (
+    day DATE NOT NULL,
+    activity_type VARCHAR(30) NOT NULL,
+    bitmap BYTEA NOT NULL,
+    cardinality BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    CONSTRAINT pk_user_activity_bitmaps PRIMARY KEY (day, activity_type)
+);
+
+-- Signup cohorts by day, optionally filtered by platform / app version
+CREATE INDEX IF NOT EXISTS idx_app_users_created_at ON app_users (created_at);
@@ -0,0 +1,8 @@
+-- Ordered funnels (see ActivityFunnelService) filter activity_logs by type, time range and
+-- jsonb containment on activity_data. Indexes on the partitioned parent cascade to every partition.
+
+-- activity_data @> '{"screen": "gov_map"}'; jsonb_path_ops is smaller than the default opclass and only serves @>
+CREATE INDEX IF NOT EXISTS idx_activity_logs_data ON activity_logs USING gin (activity_data jsonb_path_ops);
+
+-- activity_type = ? AND created_at in range
+CREATE INDEX IF NOT EXISTS idx_activity_logs_type_created_at ON activity_logs (activity_type, created_at);
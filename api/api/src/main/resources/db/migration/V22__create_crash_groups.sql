@@ -0,0 +1,23 @@
+-- Crash reports grouped by normalized stack-trace fingerprint (see CrashFingerprinter / CrashGroupService)
+-- Every occurrence is counted here; only a sample of raw occurrences is kept in external_logs,
+-- linked through external_logs.crash_fingerprint
+-- app_versions / device_models: {"value": occurrences}, summed with jsonb_add_counts (V17)
+
+CREATE TABLE IF NOT EXISTS crash_groups (
+    fingerprint VARCHAR(64) PRIMARY KEY,
+    source VARCHAR(20) NOT NULL,
+    exception_type VARCHAR(255) NOT NULL,
+    title VARCHAR(500),
+    normalized_trace TEXT NOT NULL,
+    occurrences BIGINT NOT NULL DEFAULT 0,
+    first_seen TIMESTAMP NOT NULL,
+    last_seen TIMESTAMP NOT NULL,
+    app_versions JSONB NOT NULL DEFAULT '{}',
+    device_models JSONB NOT NULL DEFAULT '{}'
+);
+
+CREATE INDEX IF NOT EXISTS idx_crash_groups_last_seen ON crash_groups (last_seen DESC);
+
+-- Sampled raw occurrences of a group; added on the partitioned parent, so every partition gets it
+ALTER TABLE external_logs ADD COLUMN IF NOT EXISTS crash_fingerprint VARCHAR(64);
+CREATE INDEX IF NOT EXISTS idx_external_logs_crash_fingerprint ON external_logs (crash_fingerprint, created_at DESC);
@@ -0,0 +1,3 @@
+-- Log retention drops partitions (LogPartitionService) and stale sessions are expired by SessionRegistry,
+-- which also sweeps user_sessions as a backstop; nothing calls this function any more
+DROP FUNCTION IF EXISTS cleanup_old_analytics_logs();
@@ -0,0 +1,49 @@
+package com.civicconnect.api.config.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CacheValueCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    record Summary(long id, String name, LocalDateTime updatedAt, Map<String, Long> counts) {
+    }
+
+    @Test
+    void jsonRoundTripsRecords() {
+        CacheValueCodec codec = CacheValueCodec.of("json", objectMapper);
+        Summary summary = new Summary(1, "Ward 12", LocalDateTime.of(2026, 1, 2, 3, 4), Map.of("open", 3L));
+
+        assertEquals(summary, codec.decode(codec.encode(summary)));
+    }
+
+    @Test
+    void jdkRoundTripsSerializableValues() {
+        CacheValueCodec codec = CacheValueCodec.of("jdk", objectMapper);
+        ArrayList<String> value = new ArrayList<>(List.of("a", "b"));
+
+        assertEquals(value, codec.decode(codec.encode(value)));
+    }
+
+    @Test
+    void stringRoundTripsUtf8() {
+        CacheValueCodec codec = CacheValueCodec.of("string", objectMapper);
+        String geoJson = "{\"type\":\"FeatureCollection\",\"name\":\"\u092d\u093e\u0930\u0924\"}";
+
+        assertEquals(geoJson, codec.decode(codec.encode(geoJson)));
+    }
+
+    @Test
+    void unknownCodecIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> CacheValueCodec.of("protobuf", objectMapper));
+    }
+}
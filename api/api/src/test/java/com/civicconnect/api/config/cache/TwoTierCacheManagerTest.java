@@ -0,0 +1,269 @@
+package com.civicconnect.api.config.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Two nodes (TwoTierCacheManagers with their own Caffeine L1) sharing one InMemoryCacheL2Store,
+ * which stands in for Redis.
+ */
+class TwoTierCacheManagerTest {
+
+    private static final String SHARED = "shared";
+    private static final String LOCAL_ONLY = "localOnly";
+
+    record Value(long id, String name) {
+    }
+
+    private InMemoryCacheL2Store store;
+    private TwoTierCacheManager node1;
+    private TwoTierCacheManager node2;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryCacheL2Store();
+        node1 = node(store);
+        node2 = node(store);
+    }
+
+    private static TwoTierCacheManager node(CacheL2Store store) {
+        Map<String, TwoTierCacheManager.L2Settings> l2Caches = Map.of(SHARED, new TwoTierCacheManager.L2Settings(
+                CacheValueCodec.of("json", new ObjectMapper()), Duration.ofMinutes(1)));
+        return new TwoTierCacheManager(new CaffeineCacheManager(), store, l2Caches,
+                Duration.ofSeconds(5), Duration.ofMillis(500));
+    }
+
+    @Test
+    void l2HitFillsL1WithoutLoading() {
+        node1.getCache(SHARED).get("k", () -> new Value(1, "one"));
+
+        AtomicInteger loads = new AtomicInteger();
+        Value value = node2.getCache(SHARED).get("k", () -> {
+            loads.incrementAndGet();
+            return new Value(2, "two");
+        });
+        assertEquals(new Value(1, "one"), value);
+        assertEquals(0, loads.get());
+
+        // Served from node2's L1 once L2 no longer has it
+        store.evict(SHARED, "k");
+        assertEquals(new Value(1, "one"), node2.getCache(SHARED).get("k", Value.class));
+    }
+
+    @Test
+    void putOnOneNodeEvictsOtherNodesL1() {
+        node1.getCache(SHARED).get("k", () -> new Value(1, "one"));
+        node2.getCache(SHARED).get("k", () -> new Value(1, "one"));
+
+        node1.getCache(SHARED).put("k", new Value(1, "updated"));
+
+        // node2's stale L1 copy is gone, so it reads the new value from L2
+        assertEquals(new Value(1, "updated"), node2.getCache(SHARED).get("k", Value.class));
+    }
+
+    @Test
+    void evictOnOneNodeEvictsOtherNodesL1() {
+        node1.getCache(SHARED).get("k", () -> new Value(1, "one"));
+        node2.getCache(SHARED).get("k", () -> new Value(1, "one"));
+
+        node2.getCache(SHARED).evict("k");
+
+        assertNull(node1.getCache(SHARED).get("k"));
+        assertNull(node2.getCache(SHARED).get("k"));
+    }
+
+    @Test
+    void l1OnlyCacheIsInvalidatedAcrossNodes() {
+        node1.getCache(LOCAL_ONLY).put(7L, "node1");
+        node2.getCache(LOCAL_ONLY).put(7L, "node2");
+
+        node1.getCache(LOCAL_ONLY).put(7L, "changed");
+
+        assertEquals("changed", node1.getCache(LOCAL_ONLY).get(7L, String.class));
+        assertNull(node2.getCache(LOCAL_ONLY).get(7L));
+        assertNull(store.get(LOCAL_ONLY, "7"));
+    }
+
+    @Test
+    void clearOnOneNodeClearsOtherNodes() {
+        node1.getCache(SHARED).get("a", () -> new Value(1, "a"));
+        node2.getCache(SHARED).get("b", () -> new Value(2, "b"));
+
+        node1.getCache(SHARED).clear();
+
+        assertNull(node2.getCache(SHARED).get("a"));
+        assertNull(node2.getCache(SHARED).get("b"));
+    }
+
+    @Test
+    void nullValueSurvivesRoundTrip() {
+        assertNull(node1.getCache(SHARED).get("missing", () -> null));
+
+        AtomicInteger loads = new AtomicInteger();
+        Object value = node2.getCache(SHARED).get("missing", () -> {
+            loads.incrementAndGet();
+            return new Value(3, "three");
+        });
+        assertNull(value);
+        assertEquals(0, loads.get());
+        Cache.ValueWrapper wrapper = node2.getCache(SHARED).get("missing");
+        assertNotNull(wrapper);
+        assertNull(wrapper.get());
+    }
+
+    @Test
+    void concurrentMissesAcrossNodesLoadOnce() throws Exception {
+        List<TwoTierCacheManager> nodes = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            nodes.add(node(store));
+        }
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(nodes.size() * 2);
+        try {
+            List<Future<Value>> results = new ArrayList<>();
+            for (TwoTierCacheManager node : nodes) {
+                // Two threads per node: coalesced by Caffeine within a node, by the L2 lock across nodes
+                for (int t = 0; t < 2; t++) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        return node.getCache(SHARED).get("k", () -> {
+                            loads.incrementAndGet();
+                            Thread.sleep(100);
+                            return new Value(1, "one");
+                        });
+                    }));
+                }
+            }
+            start.countDown();
+            for (Future<Value> result : results) {
+                assertEquals(new Value(1, "one"), result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void failingL2FallsBackToL1Only() {
+        TwoTierCacheManager node = node(new FailingStore());
+        Cache cache = node.getCache(SHARED);
+
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals(new Value(1, "one"), cache.get("k", () -> {
+            loads.incrementAndGet();
+            return new Value(1, "one");
+        }));
+        assertEquals(new Value(1, "one"), cache.get("k", () -> {
+            loads.incrementAndGet();
+            return new Value(2, "two");
+        }));
+        assertEquals(1, loads.get());
+
+        assertDoesNotThrow(() -> cache.put("k", new Value(3, "three")));
+        assertEquals(new Value(3, "three"), cache.get("k", Value.class));
+        assertDoesNotThrow(() -> cache.evict("k"));
+        assertNull(cache.get("k"));
+        assertDoesNotThrow(cache::clear);
+    }
+
+    @Test
+    void groupEvictionRunsOnEveryNode() {
+        List<String> evicted1 = new ArrayList<>();
+        List<String> evicted2 = new ArrayList<>();
+        node1.registerGroupEvictor(SHARED, evicted1::add);
+        node2.registerGroupEvictor(SHARED, evicted2::add);
+
+        node1.evictGroup(SHARED, "42");
+
+        assertEquals(List.of("42"), evicted1);
+        assertEquals(List.of("42"), evicted2);
+    }
+
+    @Test
+    void evictLocalDoesNotReachOtherNodes() {
+        node1.getCache(LOCAL_ONLY).put("k", "node1");
+        node2.getCache(LOCAL_ONLY).put("k", "node2");
+
+        ((TwoTierCache) node1.getCache(LOCAL_ONLY)).evictLocal("k");
+
+        assertNull(node1.getCache(LOCAL_ONLY).get("k"));
+        assertEquals("node2", node2.getCache(LOCAL_ONLY).get("k", String.class));
+    }
+
+    /**
+     * An L2 store that is down: every call fails
+     */
+    private static final class FailingStore implements CacheL2Store {
+
+        private static RuntimeException down() {
+            return new IllegalStateException("L2 down");
+        }
+
+        @Override
+        public byte[] get(String cacheName, String key) {
+            throw down();
+        }
+
+        @Override
+        public void put(String cacheName, String key, byte[] value, Duration ttl) {
+            throw down();
+        }
+
+        @Override
+        public boolean putIfAbsent(String cacheName, String key, byte[] value, Duration ttl) {
+            throw down();
+        }
+
+        @Override
+        public void evict(String cacheName, String key) {
+            throw down();
+        }
+
+        @Override
+        public void clear(String cacheName) {
+            throw down();
+        }
+
+        @Override
+        public String tryLock(String cacheName, String key, Duration ttl) {
+            throw down();
+        }
+
+        @Override
+        public void unlock(String cacheName, String key, String token) {
+            throw down();
+        }
+
+        @Override
+        public void publish(Invalidation invalidation) {
+            throw down();
+        }
+
+        @Override
+        public void subscribe(Consumer<Invalidation> listener) {
+            throw down();
+        }
+    }
+}